@@ -17,6 +17,8 @@ import java.io.ObjectOutputStream;
 import java.io.OutputStreamWriter;
 import java.io.RandomAccessFile;
 import java.io.Reader;
+import java.net.URISyntaxException;
+import java.net.URL;
 import java.nio.ByteBuffer;
 import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
@@ -52,6 +54,27 @@ public class IOUtil {
 		return IOUtil.class.getResourceAsStream(path);
 	}
 	
+	/**
+	 * 查找磁盘上的文件，先按文件路径查找，再查找classpath中未打包的资源
+	 *
+	 * @param path
+	 * @return 找不到或者资源在jar包中时返回null
+	 */
+	public static File getResourceFile(String path) {
+		File file = new File(path);
+		if (file.isFile())
+			return file;
+		URL url = IOUtil.class.getResource(path);
+		if (url == null || !"file".equals(url.getProtocol()))
+			return null;
+		try {
+			file = new File(url.toURI());
+		} catch (URISyntaxException e) {
+			return null;
+		}
+		return file.isFile() ? file : null;
+	}
+	
 	/**
 	 * 序列化对象
 	 *
@@ -1,10 +1,12 @@
 package cn.edu.kmust.seanlp.CRF;
 
 import java.io.DataOutputStream;
+import java.io.File;
 import java.io.FileOutputStream;
 import java.io.InputStream;
 import java.io.ObjectOutputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -13,9 +15,12 @@ import java.util.TreeMap;
 import java.util.zip.GZIPOutputStream;
 
 import cn.edu.kmust.io.IOUtil;
+import cn.edu.kmust.seanlp.Config;
 import cn.edu.kmust.seanlp.Config.FileExtensions;
 import cn.edu.kmust.seanlp.Config.Log;
 import cn.edu.kmust.seanlp.collection.trie.DATrie;
+import cn.edu.kmust.seanlp.collection.trie.DATrieBuilder;
+import cn.edu.kmust.seanlp.collection.trie.ITransitionTrie;
 import cn.edu.kmust.seanlp.util.ByteArray;
 import cn.edu.kmust.seanlp.util.ICacheAble;
 import cn.edu.kmust.seanlp.util.StringUtil;
@@ -32,10 +37,76 @@ public class CRFModel implements ICacheAble {
 	 * tag的转移矩阵
 	 */
 	protected double[][] matrix;
+	/**
+	 * 解码方式，默认为贪心解码
+	 */
+	protected DecodeMode decodeMode = DecodeMode.GREEDY;
+	/**
+	 * 是否使用编译后的特征模板（直接在trie上转移，不生成特征字符串）
+	 */
+	protected boolean compiledTemplate = true;
+	/**
+	 * 紧凑的权值存储，为null时使用每个特征函数自己的权值数组
+	 */
+	protected WeightStore weightStore;
+
+	/**
+	 * 每个线程一份的维特比网格，避免解码时分配内存
+	 */
+	private static final ThreadLocal<Lattice> lattice = new ThreadLocal<Lattice>() {
+		@Override
+		protected Lattice initialValue() {
+			return new Lattice();
+		}
+	};
 
 	public CRFModel() {
 	}
 	
+	/**
+	 * 设置解码方式
+	 * @param decodeMode
+	 * @return
+	 */
+	public CRFModel setDecodeMode(DecodeMode decodeMode) {
+		this.decodeMode = decodeMode;
+		return this;
+	}
+	
+	public DecodeMode getDecodeMode() {
+		return decodeMode;
+	}
+	
+	/**
+	 * 开启或关闭编译特征模板，关闭后退回到拼接特征字符串再查trie的方式
+	 * @param enable
+	 * @return
+	 */
+	public CRFModel enableCompiledTemplate(boolean enable) {
+		this.compiledTemplate = enable;
+		return this;
+	}
+	
+	/**
+	 * 将权值转存为一个连续的数组（float或定点数），并释放每个特征函数对象
+	 * @param type 存储类型
+	 * @return
+	 */
+	public CRFModel compactWeights(WeightStore.Type type) {
+		weightStore = WeightStore.create(type, weightArray(), id2tag.length);
+		if (featureFunctionTrie != null) {
+			featureFunctionTrie.setValueArray(null);
+		}
+		return this;
+	}
+	
+	/**
+	 * @return 紧凑的权值存储，未压缩时为null
+	 */
+	public WeightStore getWeightStore() {
+		return weightStore;
+	}
+	
 	/**
 	 * 加载二进制模型
 	 * @param path
@@ -76,9 +147,34 @@ public class CRFModel implements ICacheAble {
 			return CRFModel;
 //		IOUtil.LineIterator lineIterator = new IOUtil.LineIterator(path + FileExtensions.TXT);
 		InputStream is = IOUtil.getInputStream(path + FileExtensions.TXT);
+		if (is == null)
+			return null;
+		if (loadTxtModel(is, CRFModel) == null)
+			return null;
+		if (Config.DictConf.cachePath != null) {
+			// 缓存gz
+			String gzName = Config.DictConf.cachePath + path + FileExtensions.GZ;
+			Log.logger.info("开始缓存" + gzName);
+			if (!CRFModel.saveGz(gzName))
+				Log.logger.warning("缓存" + gzName + "失败");
+		}
+		return CRFModel;
+	}
+
+	/**
+	 * 解析CRF++的文本模型
+	 *
+	 * @param is 文本模型，读完后关闭
+	 * @param model
+	 * @return 文本为空时返回null
+	 */
+	public static CRFModel loadTxtModel(InputStream is, CRFModel model) {
+		CRFModel CRFModel = model;
 		IOUtil.LineIterator lineIterator = new IOUtil.LineIterator(is);
-		if (!lineIterator.hasNext())
+		if (!lineIterator.hasNext()) {
+			lineIterator.close();
 			return null;
+		}
 		Log.logger.info(lineIterator.next()); // verson
 		Log.logger.info(lineIterator.next()); // cost-factor
 		@SuppressWarnings("unused")
@@ -100,7 +196,7 @@ public class CRFModel implements ICacheAble {
 		}
 		TreeMap<String, FeatureFunction> featureFunctionMap = new TreeMap<String, FeatureFunction>(); // 构建trie树的时候用
 		List<FeatureFunction> featureFunctionList = new LinkedList<FeatureFunction>(); // 读取权值的时候用
-		CRFModel.featureTemplateList = new LinkedList<FeatureTemplate>();
+		CRFModel.featureTemplateList = new ArrayList<FeatureTemplate>();
 		while ((line = lineIterator.next()).length() != 0) {
 			if (!"B".equals(line)) {
 				FeatureTemplate featureTemplate = FeatureTemplate.create(line);
@@ -138,62 +234,182 @@ public class CRFModel implements ICacheAble {
 			}
 		}
 		if (lineIterator.hasNext()) {
-			Log.logger.warning("文本读取有残留，可能会出问题！" + path);
+			Log.logger.warning("文本读取有残留，可能会出问题！");
 		}
 		lineIterator.close();
 		Log.logger.info("开始构建双数组trie树");
-		CRFModel.featureFunctionTrie = new DATrie<FeatureFunction>();
-		CRFModel.featureFunctionTrie.build(featureFunctionMap);
-		// 缓存gz
-		String gzName = System.getProperty("user.dir") + "/src/main/resources" + path + FileExtensions.GZ;
+		CRFModel.featureFunctionTrie = new DATrieBuilder<FeatureFunction>().threads(Config.DictConf.buildThreads)
+				.build(featureFunctionMap);
+		return CRFModel;
+	}
+
+	/**
+	 * 保存为{@link #loadGzModel(String)}读取的压缩格式
+	 *
+	 * @param file 输出文件
+	 * @return 是否成功
+	 */
+	public boolean saveGz(String file) {
 		try {
-			Log.logger.info("开始缓存" + gzName);
-//			DataOutputStream out = new DataOutputStream(new FileOutputStream(path + FileExtensions.BIN));
-//			CRFModel.save(out);
-//			out.close();
-			
-			DataOutputStream out = new DataOutputStream(new GZIPOutputStream(new FileOutputStream(gzName)));
-			CRFModel.save(out);
-			out.close();
+			DataOutputStream out = new DataOutputStream(new GZIPOutputStream(new FileOutputStream(file)));
+			try {
+				save(out);
+			} finally {
+				out.close();
+			}
+			return true;
 		} catch (Exception e) {
-			Log.logger.warning("在缓存" + path + FileExtensions.BIN + "时发生错误" + StringUtil.exceptionToString(e));
+			Log.logger.warning("在保存" + file + "时发生错误" + StringUtil.exceptionToString(e));
+			return false;
 		}
-		return CRFModel;
 	}
 
 	/**
-	 * 维特比后向算法标注
+	 * 按照当前的解码方式标注，结果写在表的最后一列
 	 *
 	 * @param table
 	 */
 	public void tag(Table table) {
-		int size = table.size();
+		final int size = table.size();
+		if (size == 0)
+			return;
+		final int tagSize = id2tag.length;
+		final DecodeMode mode = decodeMode;
+		Lattice net = lattice.get();
+		net.ensure(size, tagSize);
+		int n = mode == DecodeMode.VITERBI ? size : size - 1; // 贪心解码的末位固定为S，不需要计算
+		Arrays.fill(net.score, 0, n * tagSize, 0.0);
+		for (int i = 0; i < n; ++i) {
+			computeEmission(table, i, net.score, i * tagSize);
+		}
+		int[] path = decode(mode, net, size);
+		for (int i = 0; i < size; ++i) {
+			table.setLast(i, id2tag[path[i]]);
+		}
+	}
+
+	/**
+	 * 按照当前的解码方式标注按列存放的表，结果以标签id写入表中
+	 *
+	 * @param table
+	 */
+	public void tag(ColumnTable table) {
+		final int size = table.size();
+		table.setLabels(id2tag);
+		if (size == 0)
+			return;
+		final int tagSize = id2tag.length;
+		final DecodeMode mode = decodeMode;
+		Lattice net = lattice.get();
+		net.ensure(size, tagSize);
+		int n = mode == DecodeMode.VITERBI ? size : size - 1; // 贪心解码的末位固定为S，不需要计算
+		Arrays.fill(net.score, 0, n * tagSize, 0.0);
+		for (int i = 0; i < n; ++i) {
+			computeEmission(table, i, net.score, i * tagSize);
+		}
+		int[] path = decode(mode, net, size);
+		for (int i = 0; i < size; ++i) {
+			table.setTagId(i, path[i]);
+		}
+	}
+
+	/**
+	 * 在已经填好发射分数的网格上解码
+	 *
+	 * @param mode
+	 * @param net
+	 * @param size
+	 * @return 每个位置的标签id，存放在net.path中
+	 */
+	private int[] decode(DecodeMode mode, Lattice net, int size) {
+		if (mode == DecodeMode.VITERBI) {
+			viterbi(net, size);
+		} else {
+			greedy(net, size);
+		}
+		return net.path;
+	}
+
+	/**
+	 * 一阶维特比解码<br>
+	 * 发射分数、累计分数和回溯指针都存放在线程私有的一维数组中，第i个位置第j个标签的下标为i * tagSize + j
+	 *
+	 * @param net
+	 * @param size
+	 */
+	private void viterbi(Lattice net, int size) {
+		final int tagSize = id2tag.length;
+		final double[] score = net.score;
+		final int[] from = net.from;
+		for (int i = 1; i < size; ++i) {
+			int pre = (i - 1) * tagSize;
+			int cur = i * tagSize;
+			for (int now = 0; now < tagSize; ++now) {
+				double bestScore = Double.NEGATIVE_INFINITY;
+				int bestTag = 0;
+				for (int j = 0; j < tagSize; ++j) {
+					double curScore = score[pre + j];
+					if (matrix != null) {
+						curScore += matrix[j][now];
+					}
+					if (curScore > bestScore) {
+						bestScore = curScore;
+						bestTag = j;
+					}
+				}
+				score[cur + now] += bestScore;
+				from[cur + now] = bestTag;
+			}
+		}
+		// 回溯
+		int last = (size - 1) * tagSize;
+		int bestTag = 0;
+		for (int j = 1; j < tagSize; ++j) {
+			if (score[last + j] > score[last + bestTag]) {
+				bestTag = j;
+			}
+		}
+		for (int i = size - 1; i >= 0; --i) {
+			net.path[i] = bestTag;
+			bestTag = from[i * tagSize + bestTag];
+		}
+	}
+
+	/**
+	 * 贪心解码，从左往右逐个位置取最优标签
+	 *
+	 * @param net
+	 * @param size
+	 */
+	private void greedy(Lattice net, int size) {
+		final int[] path = net.path;
+		final int sTag = tagId("S");
 		if (size == 1) {
-			table.setLast(0, "S");
+			path[0] = sTag;
 			return;
 		}
+		final double[] score = net.score;
 		double bestScore = 0;
 		int bestTag = 0;
 		int tagSize = id2tag.length;
-		LinkedList<double[]> scoreList = computeScoreList(table, 0); // 0位置命中的特征函数
 		// 0位置只可能是B或者S
 		{
-			bestScore = computeScore(scoreList, 0);
+			bestScore = score[0];
 			bestTag = 0;
-			double curScore = computeScore(scoreList, 3);
+			double curScore = score[3];
 			if (curScore > bestScore) {
 				bestTag = 3;
 			}
 		}
-		table.setLast(0, id2tag[bestTag]);
+		path[0] = bestTag;
 		int preTag = bestTag;
 		// 0位置打分完毕，接下来打剩下的
 		for (int i = 1; i < size - 1; ++i) {
-			scoreList = computeScoreList(table, i); // i位置命中的特征函数
+			int offset = i * tagSize;
 			bestScore = Double.MIN_VALUE;
 			for (int j = 0; j < tagSize; ++j) // i位置的标签遍历
 			{
-				double curScore = computeScore(scoreList, j);
+				double curScore = score[offset + j];
 				if (matrix != null) {
 					curScore += matrix[preTag][j];
 				}
@@ -202,30 +418,218 @@ public class CRFModel implements ICacheAble {
 					bestTag = j;
 				}
 			}
-			table.setLast(i, id2tag[bestTag]);
+			path[i] = bestTag;
 			preTag = bestTag;
 		}
 		// size - 1位置只可能是E或者S，其实从最终合并逻辑上看，S就足够
-		table.setLast(size - 1, "S");
-		// {
-		// bestScore = computeScore(scoreList, 1);
-		// bestTag = 0;
-		// double curScore = computeScore(scoreList, 3);
-		// if (curScore > bestScore) {
-		// bestTag = 3;
-		// }
-		// }
-		// table.setLast(size - 1, id2tag[bestTag]);
+		path[size - 1] = sTag;
+	}
+
+	/**
+	 * 标签对应的id，模型中没有该标签时返回最后一个标签
+	 *
+	 * @param tag
+	 * @return
+	 */
+	public int tagId(String tag) {
+		Integer id = tag2id.get(tag);
+		return id == null ? id2tag.length - 1 : id;
+	}
+
+	/**
+	 * 将current位置命中的所有特征函数的权值累加到row[offset, offset + tagSize)上
+	 *
+	 * @param table
+	 * @param current
+	 * @param row
+	 * @param offset
+	 */
+	protected void computeEmission(Table table, int current, double[] row, int offset) {
+		if (compiledTemplate) {
+			final ITransitionTrie trie = featureTrie();
+			for (int k = 0, n = featureTemplateList.size(); k < n; ++k) {
+				int index = featureTemplateList.get(k).transition(trie, table, current);
+				if (index >= 0) {
+					addWeights(index, row, offset);
+				}
+			}
+			return;
+		}
+		for (FeatureTemplate featureTemplate : featureTemplateList) {
+			int index = featureIndex(featureTemplate.generateParameter(table, current));
+			if (index >= 0) {
+				addWeights(index, row, offset);
+			}
+		}
+	}
+
+	/**
+	 * 按列存放的表上的发射分数，只支持编译模式
+	 *
+	 * @param table
+	 * @param current
+	 * @param row
+	 * @param offset
+	 */
+	protected void computeEmission(ColumnTable table, int current, double[] row, int offset) {
+		final ITransitionTrie trie = featureTrie();
+		for (int k = 0, n = featureTemplateList.size(); k < n; ++k) {
+			int index = featureTemplateList.get(k).transition(trie, table, current);
+			if (index >= 0) {
+				addWeights(index, row, offset);
+			}
+		}
+	}
+
+	/**
+	 * 特征函数trie，编译模板在上面转移
+	 *
+	 * @return
+	 */
+	protected ITransitionTrie featureTrie() {
+		return featureFunctionTrie;
+	}
+
+	/**
+	 * 特征串对应的特征函数下标
+	 *
+	 * @param o 特征串
+	 * @return -1表示不存在
+	 */
+	protected int featureIndex(char[] o) {
+		return featureFunctionTrie.exactMatchSearch(o, 0, o.length, 0);
+	}
+
+	/**
+	 * 第index个特征函数的权值，按照下标对应于tag的id
+	 *
+	 * @param index
+	 * @return
+	 */
+	protected double[] weights(int index) {
+		if (weightStore != null) {
+			double[] w = new double[id2tag.length];
+			weightStore.add(index, w, 0);
+			return w;
+		}
+		return featureFunctionTrie.getValue(index).w;
+	}
+
+	/**
+	 * 全部特征函数的权值，weightArray()[index]为第index个特征函数的权值
+	 *
+	 * @return
+	 */
+	double[][] weightArray() {
+		double[][] w = new double[featureSize()][];
+		for (int i = 0; i < w.length; ++i) {
+			w[i] = weights(i);
+		}
+		return w;
+	}
+
+	/**
+	 * 保存时用的特征函数，压缩过的模型按权值存储重新生成（不含特征串）
+	 *
+	 * @return
+	 */
+	private FeatureFunction[] featureFunctions() {
+		if (weightStore == null)
+			return featureFunctionTrie.getValueArray(new FeatureFunction[0]);
+		FeatureFunction[] valueArray = new FeatureFunction[weightStore.size()];
+		for (int i = 0; i < valueArray.length; ++i) {
+			valueArray[i] = new FeatureFunction(new char[0], id2tag.length);
+			weightStore.add(i, valueArray[i].w, 0);
+		}
+		return valueArray;
+	}
+
+	/**
+	 * 将第index个特征函数的权值累加到row[offset, offset + tagSize)上
+	 *
+	 * @param index
+	 * @param row
+	 * @param offset
+	 */
+	protected void addWeights(int index, double[] row, int offset) {
+		if (weightStore != null) {
+			weightStore.add(index, row, offset);
+			return;
+		}
+		double[] w = featureFunctionTrie.getValue(index).w;
+		for (int j = 0; j < w.length; ++j) {
+			row[offset + j] += w[j];
+		}
+	}
+
+	/**
+	 * 标签数
+	 *
+	 * @return
+	 */
+	public int tagSize() {
+		return id2tag.length;
+	}
+
+	/**
+	 * 特征函数个数
+	 *
+	 * @return
+	 */
+	public int featureSize() {
+		return weightStore != null ? weightStore.size() : featureFunctionTrie.size();
+	}
+
+	/**
+	 * 与另一个模型比较标签、特征模板、转移矩阵和每个特征函数的权值，用于校验编译或转换后的模型
+	 *
+	 * @param other 重新加载的模型，可以是映射模型
+	 * @param tolerance 权值允许的误差，压缩存储的权值有量化误差
+	 * @return 第一处不同的描述，相同时返回null
+	 */
+	public String diff(CRFModel other, double tolerance) {
+		if (!Arrays.equals(id2tag, other.id2tag))
+			return "标签不同";
+		if (featureTemplateList.size() != other.featureTemplateList.size())
+			return "特征模板个数不同";
+		for (int i = 0; i < featureTemplateList.size(); ++i) {
+			if (!featureTemplateList.get(i).template.equals(other.featureTemplateList.get(i).template))
+				return "特征模板" + featureTemplateList.get(i).template + "不同";
+		}
+		if ((matrix == null) != (other.matrix == null))
+			return "转移矩阵不同";
+		if (matrix != null) {
+			for (int i = 0; i < matrix.length; ++i) {
+				if (!Arrays.equals(matrix[i], other.matrix[i]))
+					return "转移矩阵不同";
+			}
+		}
+		if (featureSize() != other.featureSize())
+			return "特征函数个数不同";
+		String[] keys = featureFunctionTrie.keyArray();
+		for (int i = 0; i < keys.length; ++i) {
+			if (keys[i] == null)
+				continue;
+			int index = other.featureIndex(keys[i].toCharArray());
+			if (index < 0)
+				return "缺少特征函数" + keys[i];
+			double[] expected = weights(i);
+			double[] actual = other.weights(index);
+			for (int j = 0; j < expected.length; ++j) {
+				if (Math.abs(expected[j] - actual[j]) > tolerance)
+					return "特征函数" + keys[i] + "的权值不同";
+			}
+		}
+		return null;
 	}
 
 	public LinkedList<double[]> computeScoreList(Table table, int current) {
 		LinkedList<double[]> scoreList = new LinkedList<double[]>();
 		for (FeatureTemplate featureTemplate : featureTemplateList) {
-			char[] o = featureTemplate.generateParameter(table, current);
-			FeatureFunction featureFunction = featureFunctionTrie.get(o);
-			if (featureFunction == null)
+			int index = featureIndex(featureTemplate.generateParameter(table, current));
+			if (index < 0)
 				continue;
-			scoreList.add(featureFunction.w);
+			scoreList.add(weights(index));
 		}
 
 		return scoreList;
@@ -251,8 +655,7 @@ public class CRFModel implements ICacheAble {
 		for (String tag : id2tag) {
 			out.writeUTF(tag);
 		}
-		FeatureFunction[] valueArray = featureFunctionTrie
-				.getValueArray(new FeatureFunction[0]);
+		FeatureFunction[] valueArray = featureFunctions();
 		out.writeInt(valueArray.length);
 		for (FeatureFunction featureFunction : valueArray) {
 			featureFunction.save(out);
@@ -279,7 +682,7 @@ public class CRFModel implements ICacheAble {
 		for (String tag : id2tag) {
 			oos.writeUTF(tag);
 		}
-		FeatureFunction[] valueArray = featureFunctionTrie.getValueArray(new FeatureFunction[0]);
+		FeatureFunction[] valueArray = featureFunctions();
 		oos.writeInt(valueArray.length);
 		for (FeatureFunction featureFunction : valueArray) {
 			featureFunction.save(oos);
@@ -339,9 +742,23 @@ public class CRFModel implements ICacheAble {
 	}
 	
 	
+	/**
+	 * 加载可内存映射的模型，模型文件必须在磁盘上（不能在jar包中）
+	 * @param path
+	 * @return 没有.model文件或者格式不对时返回null
+	 */
+	public static CRFModel loadMappedModel(String path) {
+		File file = IOUtil.getResourceFile(path + FileExtensions.MODEL);
+		if (file == null)
+			return null;
+		return MappedCRFModel.map(file.getPath());
+	}
+	
 	 public static CRFModel loadModel(String path) {
 //	        CRFModel model = loadBinModel(path);
-	        CRFModel model = loadGzModel(path);
+	        CRFModel model = loadMappedModel(path);
+	        if (model != null) return model;
+	        model = loadGzModel(path);
 	        
 	        if (model != null) return model;
 	        return loadTxtModel(path, new CRFModel());
@@ -351,4 +768,39 @@ public class CRFModel implements ICacheAble {
 		return loadModel(path);
 	}
 	
+	/**
+	 * 解码方式
+	 */
+	public enum DecodeMode {
+		/**
+		 * 贪心解码（首位只取B或S，末位固定为S）
+		 */
+		GREEDY,
+		/**
+		 * 一阶维特比解码
+		 */
+		VITERBI
+	}
+
+	/**
+	 * 维特比网格，按需扩容后反复使用
+	 */
+	static final class Lattice {
+		double[] score = new double[0];
+		int[] from = new int[0];
+		int[] path = new int[0];
+
+		void ensure(int size, int tagSize) {
+			int capacity = size * tagSize;
+			if (score.length < capacity) {
+				capacity = Math.max(capacity, score.length * 2);
+				score = new double[capacity];
+				from = new int[capacity];
+			}
+			if (path.length < size) {
+				path = new int[Math.max(size, path.length * 2)];
+			}
+		}
+	}
+
 }
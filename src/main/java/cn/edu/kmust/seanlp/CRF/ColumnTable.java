@@ -0,0 +1,270 @@
+package cn.edu.kmust.seanlp.CRF;
+
+/**
+ * 按列存放的元素表，{@link Table}的基本类型版本<br>
+ * 每一列的观测值连续地存放在同一个char[]中，每个单元格只记录起点和长度；
+ * 标注结果以标签id的形式存放在byte[]中。调用{@link #reset(int, int)}之后可以反复使用，
+ * 不会为每个单元格创建String
+ *
+ */
+public class ColumnTable {
+	/**
+	 * 行数
+	 */
+	private int size;
+	/**
+	 * 观测列数
+	 */
+	private int columns;
+	/**
+	 * 每一列的字符缓冲区
+	 */
+	char[][] buffer = new char[0][];
+	/**
+	 * 每一列缓冲区已使用的长度
+	 */
+	private int[] used = new int[0];
+	/**
+	 * 每一列中每个单元格的起点和长度
+	 */
+	int[][] begin = new int[0][];
+	int[][] length = new int[0][];
+	/**
+	 * 每一行的标签id
+	 */
+	private byte[] tags = new byte[0];
+	/**
+	 * 标签id到标签的映射，由CRFModel标注时写入
+	 */
+	private String[] id2tag;
+
+	public ColumnTable() {
+	}
+
+	public ColumnTable(int size, int columns) {
+		reset(size, columns);
+	}
+
+	/**
+	 * 每个线程一张表，供分词器在多次调用之间复用
+	 *
+	 * @return
+	 */
+	public static ThreadLocal<ColumnTable> newThreadLocal() {
+		return new ThreadLocal<ColumnTable>() {
+			@Override
+			protected ColumnTable initialValue() {
+				return new ColumnTable();
+			}
+		};
+	}
+
+	/**
+	 * 清空表格并准备size行、columns列，已分配的缓冲区会被复用
+	 *
+	 * @param size 行数
+	 * @param columns 观测列数
+	 * @return
+	 */
+	public ColumnTable reset(int size, int columns) {
+		if (buffer.length < columns) {
+			char[][] newBuffer = new char[columns][];
+			int[] newUsed = new int[columns];
+			int[][] newBegin = new int[columns][];
+			int[][] newLength = new int[columns][];
+			System.arraycopy(buffer, 0, newBuffer, 0, buffer.length);
+			System.arraycopy(begin, 0, newBegin, 0, begin.length);
+			System.arraycopy(length, 0, newLength, 0, length.length);
+			for (int j = buffer.length; j < columns; ++j) {
+				newBuffer[j] = new char[0];
+				newBegin[j] = new int[0];
+				newLength[j] = new int[0];
+			}
+			buffer = newBuffer;
+			used = newUsed;
+			begin = newBegin;
+			length = newLength;
+		}
+		for (int j = 0; j < columns; ++j) {
+			used[j] = 0;
+			if (begin[j].length < size) {
+				int capacity = Math.max(size, begin[j].length * 2);
+				begin[j] = new int[capacity];
+				length[j] = new int[capacity];
+			}
+		}
+		if (tags.length < size) {
+			tags = new byte[Math.max(size, tags.length * 2)];
+		}
+		this.size = size;
+		this.columns = columns;
+		this.id2tag = null;
+		return this;
+	}
+
+	/**
+	 * 在第y列的缓冲区末尾预留len个字符，返回起点
+	 */
+	private int allocate(int y, int len) {
+		int offset = used[y];
+		if (buffer[y].length < offset + len) {
+			char[] newBuffer = new char[Math.max(offset + len, buffer[y].length * 2)];
+			System.arraycopy(buffer[y], 0, newBuffer, 0, offset);
+			buffer[y] = newBuffer;
+		}
+		used[y] = offset + len;
+		return offset;
+	}
+
+	/**
+	 * 设置单元格为一个字符
+	 *
+	 * @param x 行
+	 * @param y 列
+	 * @param c
+	 */
+	public void set(int x, int y, char c) {
+		int offset = allocate(y, 1);
+		buffer[y][offset] = c;
+		begin[y][x] = offset;
+		length[y][x] = 1;
+	}
+
+	/**
+	 * 设置单元格为字符串
+	 *
+	 * @param x 行
+	 * @param y 列
+	 * @param s
+	 */
+	public void set(int x, int y, String s) {
+		int len = s.length();
+		int offset = allocate(y, len);
+		s.getChars(0, len, buffer[y], offset);
+		begin[y][x] = offset;
+		length[y][x] = len;
+	}
+
+	/**
+	 * 设置单元格为字符数组的一段
+	 *
+	 * @param x 行
+	 * @param y 列
+	 * @param chars
+	 * @param offset 起点
+	 * @param len 长度
+	 */
+	public void set(int x, int y, char[] chars, int offset, int len) {
+		int start = allocate(y, len);
+		System.arraycopy(chars, offset, buffer[y], start, len);
+		begin[y][x] = start;
+		length[y][x] = len;
+	}
+
+	/**
+	 * 将整个字符数组按一字一行填入第y列
+	 *
+	 * @param y 列
+	 * @param chars 长度应等于行数
+	 */
+	public void setColumn(int y, char[] chars) {
+		setColumn(y, chars, 0);
+	}
+
+	/**
+	 * 将字符数组从from开始的一段按一字一行填入第y列
+	 *
+	 * @param y 列
+	 * @param chars
+	 * @param from 起点，从这里开始取行数个字符
+	 */
+	public void setColumn(int y, char[] chars, int from) {
+		int offset = allocate(y, size);
+		System.arraycopy(chars, from, buffer[y], offset, size);
+		int[] b = begin[y];
+		int[] l = length[y];
+		for (int x = 0; x < size; ++x) {
+			b[x] = offset + x;
+			l[x] = 1;
+		}
+	}
+
+	/**
+	 * 获取表中某一个元素，越界时返回边界标记。会创建String，仅用于调试和兼容
+	 *
+	 * @param x
+	 * @param y
+	 * @return
+	 */
+	public String get(int x, int y) {
+		if (x < 0 || x >= size)
+			return Table.boundary(x, size);
+		return new String(buffer[y], begin[y][x], length[y][x]);
+	}
+
+	/**
+	 * @return 第x行的标签id
+	 */
+	public int getTagId(int x) {
+		return tags[x];
+	}
+
+	void setTagId(int x, int tag) {
+		tags[x] = (byte) tag;
+	}
+
+	void setLabels(String[] id2tag) {
+		this.id2tag = id2tag;
+	}
+
+	/**
+	 * @return 第x行的标签，标注之前为null
+	 */
+	public String getTag(int x) {
+		return id2tag == null ? null : id2tag[tags[x]];
+	}
+
+	/**
+	 * @return 第x行标签的首字母，分词时用来判断B、M、E、S
+	 */
+	public char getTagChar(int x) {
+		return id2tag[tags[x]].charAt(0);
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int columns() {
+		return columns;
+	}
+
+	/**
+	 * 转换为{@link Table}，标签写在最后一列
+	 *
+	 * @return
+	 */
+	public Table toTable() {
+		Table table = new Table();
+		table.sheet = new String[size][columns + 1];
+		for (int x = 0; x < size; ++x) {
+			for (int y = 0; y < columns; ++y) {
+				table.sheet[x][y] = get(x, y);
+			}
+			table.sheet[x][columns] = getTag(x);
+		}
+		return table;
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder sb = new StringBuilder(size * (columns + 1) * 2);
+		for (int x = 0; x < size; ++x) {
+			for (int y = 0; y < columns; ++y) {
+				sb.append(buffer[y], begin[y][x], length[y][x]).append('\t');
+			}
+			sb.append(getTag(x)).append('\t').append('\n');
+		}
+		return sb.toString();
+	}
+}
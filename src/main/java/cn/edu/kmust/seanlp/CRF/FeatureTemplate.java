@@ -11,6 +11,7 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.zip.ZipOutputStream;
 
+import cn.edu.kmust.seanlp.collection.trie.ITransitionTrie;
 import cn.edu.kmust.seanlp.util.ByteArray;
 import cn.edu.kmust.seanlp.util.ICacheAble;
 
@@ -30,6 +31,12 @@ public class FeatureTemplate implements ICacheAble {
 	 */
 	ArrayList<int[]> offsetList;
 	List<String> delimiterList;
+	/**
+	 * 编译后的模板：第i部分先走delimiters[i]，再走第rows[i]行偏移、第cols[i]列的观测值
+	 */
+	private String[] delimiters;
+	private int[] rows;
+	private int[] cols;
 
 	public FeatureTemplate() {
 	}
@@ -51,8 +58,78 @@ public class FeatureTemplate implements ICacheAble {
 					Integer.parseInt(matcher.group(1)),
 					Integer.parseInt(matcher.group(2)) });
 		}
+		featureTemplate.compile();
 		return featureTemplate;
 	}
+	
+	/**
+	 * 将分隔符和偏移展开成数组，供transition在热点路径上使用
+	 */
+	void compile() {
+		int size = offsetList.size();
+		delimiters = delimiterList.toArray(new String[size]);
+		rows = new int[size];
+		cols = new int[size];
+		for (int i = 0; i < size; ++i) {
+			int[] offset = offsetList.get(i);
+			rows[i] = offset[0];
+			cols[i] = offset[1];
+		}
+	}
+	
+	/**
+	 * 编译模式：不拼接特征串，直接在特征函数trie上依次转移分隔符和观测值
+	 * 
+	 * @param trie 特征函数trie
+	 * @param table 观测表
+	 * @param current 当前行
+	 * @return 特征函数的下标，-1表示未命中
+	 */
+	public int transition(ITransitionTrie trie, Table table, int current) {
+		int state = trie.getRoot();
+		for (int i = 0; i < rows.length; ++i) {
+			state = trie.transition(delimiters[i], state);
+			if (state < 0)
+				return -1;
+			state = trie.transition(table.get(current + rows[i], cols[i]), state);
+			if (state < 0)
+				return -1;
+		}
+		return trie.outputIndex(state);
+	}
+
+	/**
+	 * 编译模式，在按列存放的表上转移，观测值逐字符取自列缓冲区
+	 *
+	 * @param trie 特征函数trie
+	 * @param table 观测表
+	 * @param current 当前行
+	 * @return 特征函数的下标，-1表示未命中
+	 */
+	public int transition(ITransitionTrie trie, ColumnTable table, int current) {
+		final int size = table.size();
+		int state = trie.getRoot();
+		for (int i = 0; i < rows.length; ++i) {
+			state = trie.transition(delimiters[i], state);
+			if (state < 0)
+				return -1;
+			int x = current + rows[i];
+			if (x < 0 || x >= size) {
+				state = trie.transition(Table.boundary(x, size), state);
+			} else {
+				int y = cols[i];
+				char[] buffer = table.buffer[y];
+				int begin = table.begin[y][x];
+				int end = begin + table.length[y][x];
+				for (int k = begin; k < end && state >= 0; ++k) {
+					state = trie.transition(buffer[k], state);
+				}
+			}
+			if (state < 0)
+				return -1;
+		}
+		return trie.outputIndex(state);
+	}
 
 	public char[] generateParameter(Table table, int current) {
 		StringBuilder sb = new StringBuilder();
@@ -120,6 +197,7 @@ public class FeatureTemplate implements ICacheAble {
 		for (int i = 0; i < size; ++i) {
 			delimiterList.add(byteArray.nextUTF());
 		}
+		compile();
 		return true;
 	}
 	
@@ -136,6 +214,7 @@ public class FeatureTemplate implements ICacheAble {
 			System.out.println(ois.readUTF());
 			delimiterList.add(ois.readUTF());
 		}
+		compile();
 		return true;
 	}
 
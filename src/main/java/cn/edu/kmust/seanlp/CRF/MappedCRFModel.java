@@ -0,0 +1,322 @@
+package cn.edu.kmust.seanlp.CRF;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import cn.edu.kmust.seanlp.Config.FileExtensions;
+import cn.edu.kmust.seanlp.Config.Log;
+import cn.edu.kmust.seanlp.collection.trie.ITransitionTrie;
+import cn.edu.kmust.seanlp.collection.trie.MappedDATrie;
+import cn.edu.kmust.seanlp.util.ByteArray;
+import cn.edu.kmust.seanlp.util.StringUtil;
+
+/**
+ * 内存映射的CRF模型<br>
+ * 模型文件不压缩，采用小端字节序，加载时只解析标签和特征模板，trie的base、check数组和全部权值直接在映射的内存上读取，
+ * 同一台机器上的多个JVM共享操作系统的页缓存。文件格式（第2版）：
+ * <pre>
+ * int    MAGIC
+ * int    VERSION
+ * int    tagSize, templateSize, featureSize, trieSize, hasMatrix, weightType
+ * double scale（第1版没有这一项，权值固定为double）
+ * 标签、模板：int长度 + char[]
+ * 按8字节对齐
+ * double matrix[tagSize * tagSize]（hasMatrix为1时）
+ * int    base[trieSize], check[trieSize]
+ * 按8字节对齐
+ * weights[featureSize * tagSize]，类型见{@link WeightStore.Type}，第i个特征函数的权值从i * tagSize开始
+ * </pre>
+ *
+ */
+public class MappedCRFModel extends CRFModel {
+	/**
+	 * 文件头，"SCRF"
+	 */
+	public static final int MAGIC = 0x46524353;
+	public static final int VERSION = 2;
+	private static final int HEADER_SIZE = 40;
+
+	private MappedDATrie<FeatureFunction> trie;
+
+	private MappedCRFModel() {
+	}
+
+	/**
+	 * 映射一个模型文件
+	 *
+	 * @param file 文件路径
+	 * @return 文件不存在或格式不对时返回null
+	 */
+	public static MappedCRFModel map(String file) {
+		RandomAccessFile raf = null;
+		try {
+			raf = new RandomAccessFile(file, "r");
+			FileChannel channel = raf.getChannel();
+			MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+			MappedCRFModel model = new MappedCRFModel();
+			if (model.load(buffer))
+				return model;
+			Log.logger.warning("模型文件格式不正确：" + file);
+		} catch (Exception e) {
+			Log.logger.warning("映射" + file + "时发生错误" + StringUtil.exceptionToString(e));
+		} finally {
+			if (raf != null) {
+				try {
+					raf.close(); // 关闭文件不影响已经建立的映射
+				} catch (Exception e) {
+				}
+			}
+		}
+		return null;
+	}
+
+	private boolean load(ByteBuffer buffer) {
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+		if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC)
+			return false;
+		int version = buffer.getInt(4);
+		if (version != 1 && version != VERSION)
+			return false;
+		int tagSize = buffer.getInt(8);
+		int templateSize = buffer.getInt(12);
+		int featureSize = buffer.getInt(16);
+		int trieSize = buffer.getInt(20);
+		boolean hasMatrix = buffer.getInt(24) != 0;
+		int weightType = buffer.getInt(28);
+		if (weightType < 0 || weightType >= WeightStore.Type.values().length)
+			return false;
+		WeightStore.Type type = WeightStore.Type.values()[weightType];
+		double scale = version == 1 ? 1.0 : buffer.getDouble(32);
+		int position = version == 1 ? 32 : HEADER_SIZE;
+		id2tag = new String[tagSize];
+		tag2id = new HashMap<String, Integer>(tagSize);
+		for (int i = 0; i < tagSize; ++i) {
+			id2tag[i] = readString(buffer, position);
+			position += 4 + id2tag[i].length() * 2;
+			tag2id.put(id2tag[i], i);
+		}
+		featureTemplateList = new ArrayList<FeatureTemplate>(templateSize);
+		for (int i = 0; i < templateSize; ++i) {
+			String template = readString(buffer, position);
+			position += 4 + template.length() * 2;
+			featureTemplateList.add(FeatureTemplate.create(template));
+		}
+		position = align(position);
+		if (hasMatrix) {
+			matrix = new double[tagSize][tagSize];
+			for (int i = 0; i < tagSize; ++i) {
+				for (int j = 0; j < tagSize; ++j) {
+					matrix[i][j] = buffer.getDouble(position);
+					position += 8;
+				}
+			}
+		}
+		trie = new MappedDATrie<FeatureFunction>(slice(buffer, position, trieSize * 4).asIntBuffer(),
+				slice(buffer, position + trieSize * 4, trieSize * 4).asIntBuffer());
+		position = align(position + trieSize * 8);
+		weightStore = WeightStore.wrap(type, slice(buffer, position, featureSize * tagSize * type.bytes),
+				featureSize, tagSize, scale);
+		return true;
+	}
+
+	private static String readString(ByteBuffer buffer, int position) {
+		int length = buffer.getInt(position);
+		char[] chars = new char[length];
+		for (int i = 0; i < length; ++i) {
+			chars[i] = buffer.getChar(position + 4 + i * 2);
+		}
+		return new String(chars);
+	}
+
+	private static ByteBuffer slice(ByteBuffer buffer, int offset, int length) {
+		ByteBuffer duplicate = buffer.duplicate();
+		((Buffer) duplicate).position(offset); // 兼容JDK8的Buffer返回类型
+		((Buffer) duplicate).limit(offset + length);
+		return duplicate.slice().order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	private static int align(int position) {
+		return (position + 7) & ~7;
+	}
+
+	/**
+	 * 将一个堆上的模型写成可映射的格式，权值类型与模型当前的存储一致（未压缩时为double）
+	 *
+	 * @param model 由gz或txt加载的模型
+	 * @param file 输出文件
+	 * @return 是否成功
+	 */
+	public static boolean write(CRFModel model, String file) {
+		WeightStore store = model.getWeightStore();
+		return write(model, file, store == null ? WeightStore.Type.DOUBLE : store.getType());
+	}
+
+	/**
+	 * 将一个堆上的模型写成可映射的格式
+	 *
+	 * @param model 由gz或txt加载的模型
+	 * @param file 输出文件
+	 * @param type 权值类型
+	 * @return 是否成功
+	 */
+	public static boolean write(CRFModel model, String file, WeightStore.Type type) {
+		if (model instanceof MappedCRFModel) {
+			Log.logger.warning("映射模型不含特征串，无法再写成映射格式：" + file);
+			return false;
+		}
+		if (model.featureFunctionTrie.isDenseAlphabet()) {
+			Log.logger.warning("映射格式不保存字母表，使用稠密字母表的模型无法写成映射格式：" + file);
+			return false;
+		}
+		final int tagSize = model.id2tag.length;
+		final int[] base = model.featureFunctionTrie.getBase();
+		final int[] check = model.featureFunctionTrie.getCheck();
+		final int trieSize = model.featureFunctionTrie.getSize();
+		WeightStore store = model.getWeightStore();
+		if (store == null || store.getType() != type) {
+			store = WeightStore.create(type, model.weightArray(), tagSize);
+		}
+		long size = HEADER_SIZE;
+		for (String tag : model.id2tag) {
+			size += 4 + tag.length() * 2;
+		}
+		for (FeatureTemplate featureTemplate : model.featureTemplateList) {
+			size += 4 + featureTemplate.template.length() * 2;
+		}
+		size = align((int) size);
+		if (model.matrix != null) {
+			size += tagSize * tagSize * 8;
+		}
+		size = align((int) (size + trieSize * 8L));
+		size += store.bytes();
+		if (size > Integer.MAX_VALUE) {
+			Log.logger.warning("模型太大，无法写成映射格式：" + file);
+			return false;
+		}
+		RandomAccessFile raf = null;
+		try {
+			new File(file).delete();
+			raf = new RandomAccessFile(file, "rw");
+			raf.setLength(size);
+			MappedByteBuffer out = raf.getChannel().map(MapMode.READ_WRITE, 0, size);
+			out.order(ByteOrder.LITTLE_ENDIAN);
+			out.putInt(MAGIC);
+			out.putInt(VERSION);
+			out.putInt(tagSize);
+			out.putInt(model.featureTemplateList.size());
+			out.putInt(store.size());
+			out.putInt(trieSize);
+			out.putInt(model.matrix == null ? 0 : 1);
+			out.putInt(type.ordinal());
+			out.putDouble(store.getScale());
+			for (String tag : model.id2tag) {
+				writeString(out, tag);
+			}
+			for (FeatureTemplate featureTemplate : model.featureTemplateList) {
+				writeString(out, featureTemplate.template);
+			}
+			((Buffer) out).position(align(out.position()));
+			if (model.matrix != null) {
+				for (double[] line : model.matrix) {
+					for (double v : line) {
+						out.putDouble(v);
+					}
+				}
+			}
+			for (int i = 0; i < trieSize; ++i) {
+				out.putInt(base[i]);
+			}
+			for (int i = 0; i < trieSize; ++i) {
+				out.putInt(check[i]);
+			}
+			((Buffer) out).position(align(out.position()));
+			store.write(out);
+			out.force();
+			return true;
+		} catch (Exception e) {
+			Log.logger.warning("写入" + file + "时发生错误" + StringUtil.exceptionToString(e));
+		} finally {
+			if (raf != null) {
+				try {
+					raf.close();
+				} catch (Exception e) {
+				}
+			}
+		}
+		return false;
+	}
+
+	private static void writeString(ByteBuffer out, String s) {
+		out.putInt(s.length());
+		for (int i = 0; i < s.length(); ++i) {
+			out.putChar(s.charAt(i));
+		}
+	}
+
+	@Override
+	protected ITransitionTrie featureTrie() {
+		return trie;
+	}
+
+	@Override
+	protected int featureIndex(char[] o) {
+		return trie.exactMatchSearch(o, 0, o.length);
+	}
+
+	/**
+	 * 映射模型是只读的，请用{@link #write(CRFModel, String)}由原始模型生成
+	 */
+	@Override
+	public void save(DataOutputStream out) throws Exception {
+		throw new UnsupportedOperationException("映射模型不支持另存为gz格式");
+	}
+
+	/**
+	 * 映射模型是只读的，请用{@link #write(CRFModel, String)}由原始模型生成
+	 */
+	@Override
+	public void save(ObjectOutputStream oos) throws Exception {
+		throw new UnsupportedOperationException("映射模型不支持另存为gz格式");
+	}
+
+	@Override
+	public boolean load(ByteArray byteArray) {
+		return false;
+	}
+
+	/**
+	 * 将gz或txt模型转换为映射格式
+	 *
+	 * @param args 模型路径（不含后缀名）[输出文件] [double|float|int16|int8]
+	 */
+	public static void main(String[] args) {
+		if (args.length < 1) {
+			System.err.println("用法：MappedCRFModel 模型路径（不含后缀名） [输出文件] [double|float|int16|int8]");
+			return;
+		}
+		String path = args[0];
+		String output = args.length > 1 ? args[1] : path + FileExtensions.MODEL;
+		WeightStore.Type type = args.length > 2 ? WeightStore.Type.valueOf(args[2].toUpperCase()) : WeightStore.Type.DOUBLE;
+		CRFModel model = loadGzModel(path);
+		if (model == null)
+			model = loadTxtModel(path, new CRFModel());
+		if (model == null) {
+			System.err.println("无法加载模型：" + path);
+			return;
+		}
+		if (write(model, output, type)) {
+			System.out.println("已写入 " + output);
+		}
+	}
+
+}
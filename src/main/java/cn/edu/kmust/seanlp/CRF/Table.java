@@ -10,6 +10,32 @@ public class Table {
 	 */
 	public String[][] sheet;
 	static final String HEAD = "_B";
+	/**
+	 * 预先生成的边界标记，BEFORE[k]为_B-(k+1)，AFTER[k]为_B+(k+1)
+	 */
+	private static final String[] BEFORE = new String[8];
+	private static final String[] AFTER = new String[8];
+	
+	static {
+		for (int i = 0; i < BEFORE.length; i++) {
+			BEFORE[i] = (HEAD + (-i - 1)).intern();
+			AFTER[i] = (HEAD + "+" + (i + 1)).intern();
+		}
+	}
+	
+	/**
+	 * 越界位置对应的边界标记
+	 * 
+	 * @param x 行号，小于0或大于等于size
+	 * @param size 表的行数
+	 * @return
+	 */
+	static String boundary(int x, int size) {
+		if (x < 0)
+			return -x <= BEFORE.length ? BEFORE[-x - 1] : HEAD + x;
+		int k = x - size + 1;
+		return k <= AFTER.length ? AFTER[k - 1] : HEAD + "+" + k;
+	}
 
 	@Override
 	public String toString() {
@@ -33,10 +59,8 @@ public class Table {
 	 * @return
 	 */
 	public String get(int x, int y) {
-		if (x < 0)
-			return HEAD + x;
-		if (x >= sheet.length)
-			return HEAD + "+" + (x - sheet.length + 1);
+		if (x < 0 || x >= sheet.length)
+			return boundary(x, sheet.length);
 
 		return sheet[x][y];
 	}
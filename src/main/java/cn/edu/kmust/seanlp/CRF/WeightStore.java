@@ -0,0 +1,315 @@
+package cn.edu.kmust.seanlp.CRF;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * 特征函数权值的紧凑存储<br>
+ * 所有特征函数的权值连续存放在一个数组中，第index个特征函数第tag个标签的权值位于index * tagSize + tag。
+ * 除double外还支持float以及按整个模型统一缩放的16位、8位定点数
+ *
+ */
+public abstract class WeightStore {
+	/**
+	 * 存储类型
+	 */
+	public enum Type {
+		DOUBLE(8, 0), FLOAT(4, 0), INT16(2, Short.MAX_VALUE), INT8(1, Byte.MAX_VALUE);
+
+		/**
+		 * 每个权值占用的字节数
+		 */
+		final int bytes;
+		/**
+		 * 定点数的最大值，浮点类型为0
+		 */
+		final int maxValue;
+
+		Type(int bytes, int maxValue) {
+			this.bytes = bytes;
+			this.maxValue = maxValue;
+		}
+	}
+
+	final Type type;
+	final int size;
+	final int tagSize;
+	/**
+	 * 定点数的缩放比例，真实权值 = 定点数 * scale
+	 */
+	final double scale;
+
+	WeightStore(Type type, int size, int tagSize, double scale) {
+		this.type = type;
+		this.size = size;
+		this.tagSize = tagSize;
+		this.scale = scale;
+	}
+
+	/**
+	 * 将第index个特征函数的权值累加到row[offset, offset + tagSize)上
+	 *
+	 * @param index
+	 * @param row
+	 * @param offset
+	 */
+	public abstract void add(int index, double[] row, int offset);
+
+	/**
+	 * 第index个特征函数第tag个标签的权值
+	 */
+	public abstract double get(int index, int tag);
+
+	public Type getType() {
+		return type;
+	}
+
+	/**
+	 * 特征函数个数
+	 */
+	public int size() {
+		return size;
+	}
+
+	public int getTagSize() {
+		return tagSize;
+	}
+
+	public double getScale() {
+		return scale;
+	}
+
+	/**
+	 * 权值数据占用的字节数
+	 */
+	public long bytes() {
+		return (long) size * tagSize * type.bytes;
+	}
+
+	/**
+	 * 按小端字节序写出全部权值
+	 *
+	 * @param out
+	 */
+	public void write(ByteBuffer out) {
+		final int length = size * tagSize;
+		for (int i = 0; i < length; ++i) {
+			double w = get(i / tagSize, i % tagSize);
+			switch (type) {
+			case DOUBLE:
+				out.putDouble(w);
+				break;
+			case FLOAT:
+				out.putFloat((float) w);
+				break;
+			case INT16:
+				out.putShort((short) Math.round(w / scale));
+				break;
+			default:
+				out.put((byte) Math.round(w / scale));
+				break;
+			}
+		}
+	}
+
+	/**
+	 * 由每个特征函数的double权值构造紧凑存储
+	 *
+	 * @param type 存储类型
+	 * @param weights weights[index]为第index个特征函数的权值
+	 * @param tagSize
+	 * @return
+	 */
+	public static WeightStore create(Type type, double[][] weights, int tagSize) {
+		final int size = weights.length;
+		double scale = 1.0;
+		if (type.maxValue > 0) {
+			double max = 0;
+			for (double[] w : weights) {
+				for (double v : w) {
+					max = Math.max(max, Math.abs(v));
+				}
+			}
+			if (max > 0) {
+				scale = max / type.maxValue;
+			}
+		}
+		final int length = size * tagSize;
+		switch (type) {
+		case DOUBLE: {
+			double[] data = new double[length];
+			for (int i = 0; i < size; ++i) {
+				System.arraycopy(weights[i], 0, data, i * tagSize, tagSize);
+			}
+			return new DoubleWeights(data, size, tagSize);
+		}
+		case FLOAT: {
+			float[] data = new float[length];
+			for (int i = 0; i < size; ++i) {
+				for (int j = 0; j < tagSize; ++j) {
+					data[i * tagSize + j] = (float) weights[i][j];
+				}
+			}
+			return new FloatWeights(data, size, tagSize);
+		}
+		case INT16: {
+			short[] data = new short[length];
+			for (int i = 0; i < size; ++i) {
+				for (int j = 0; j < tagSize; ++j) {
+					data[i * tagSize + j] = (short) Math.round(weights[i][j] / scale);
+				}
+			}
+			return new ShortWeights(data, size, tagSize, scale);
+		}
+		default: {
+			byte[] data = new byte[length];
+			for (int i = 0; i < size; ++i) {
+				for (int j = 0; j < tagSize; ++j) {
+					data[i * tagSize + j] = (byte) Math.round(weights[i][j] / scale);
+				}
+			}
+			return new ByteWeights(data, size, tagSize, scale);
+		}
+		}
+	}
+
+	/**
+	 * 直接在（通常是内存映射的）缓冲区上读取权值，不复制到堆上
+	 *
+	 * @param type 存储类型
+	 * @param data 权值数据，从position 0开始
+	 * @param size 特征函数个数
+	 * @param tagSize
+	 * @param scale 定点数的缩放比例
+	 * @return
+	 */
+	public static WeightStore wrap(Type type, ByteBuffer data, int size, int tagSize, double scale) {
+		return new BufferWeights(type, data.order(ByteOrder.LITTLE_ENDIAN), size, tagSize, scale);
+	}
+
+	static final class DoubleWeights extends WeightStore {
+		private final double[] data;
+
+		DoubleWeights(double[] data, int size, int tagSize) {
+			super(Type.DOUBLE, size, tagSize, 1.0);
+			this.data = data;
+		}
+
+		@Override
+		public void add(int index, double[] row, int offset) {
+			final int start = index * tagSize;
+			for (int j = 0; j < tagSize; ++j) {
+				row[offset + j] += data[start + j];
+			}
+		}
+
+		@Override
+		public double get(int index, int tag) {
+			return data[index * tagSize + tag];
+		}
+	}
+
+	static final class FloatWeights extends WeightStore {
+		private final float[] data;
+
+		FloatWeights(float[] data, int size, int tagSize) {
+			super(Type.FLOAT, size, tagSize, 1.0);
+			this.data = data;
+		}
+
+		@Override
+		public void add(int index, double[] row, int offset) {
+			final int start = index * tagSize;
+			for (int j = 0; j < tagSize; ++j) {
+				row[offset + j] += data[start + j];
+			}
+		}
+
+		@Override
+		public double get(int index, int tag) {
+			return data[index * tagSize + tag];
+		}
+	}
+
+	static final class ShortWeights extends WeightStore {
+		private final short[] data;
+
+		ShortWeights(short[] data, int size, int tagSize, double scale) {
+			super(Type.INT16, size, tagSize, scale);
+			this.data = data;
+		}
+
+		@Override
+		public void add(int index, double[] row, int offset) {
+			final int start = index * tagSize;
+			for (int j = 0; j < tagSize; ++j) {
+				row[offset + j] += data[start + j] * scale;
+			}
+		}
+
+		@Override
+		public double get(int index, int tag) {
+			return data[index * tagSize + tag] * scale;
+		}
+	}
+
+	static final class ByteWeights extends WeightStore {
+		private final byte[] data;
+
+		ByteWeights(byte[] data, int size, int tagSize, double scale) {
+			super(Type.INT8, size, tagSize, scale);
+			this.data = data;
+		}
+
+		@Override
+		public void add(int index, double[] row, int offset) {
+			final int start = index * tagSize;
+			for (int j = 0; j < tagSize; ++j) {
+				row[offset + j] += data[start + j] * scale;
+			}
+		}
+
+		@Override
+		public double get(int index, int tag) {
+			return data[index * tagSize + tag] * scale;
+		}
+	}
+
+	/**
+	 * 缓冲区上的权值，按类型换算下标
+	 */
+	static final class BufferWeights extends WeightStore {
+		private final ByteBuffer data;
+
+		BufferWeights(Type type, ByteBuffer data, int size, int tagSize, double scale) {
+			super(type, size, tagSize, scale);
+			this.data = data;
+		}
+
+		@Override
+		public void add(int index, double[] row, int offset) {
+			final int start = index * tagSize;
+			for (int j = 0; j < tagSize; ++j) {
+				row[offset + j] += get(start + j);
+			}
+		}
+
+		@Override
+		public double get(int index, int tag) {
+			return get(index * tagSize + tag);
+		}
+
+		private double get(int i) {
+			switch (type) {
+			case DOUBLE:
+				return data.getDouble(i << 3);
+			case FLOAT:
+				return data.getFloat(i << 2);
+			case INT16:
+				return data.getShort(i << 1) * scale;
+			default:
+				return data.get(i) * scale;
+			}
+		}
+	}
+}
@@ -34,7 +34,7 @@ public class Config {
 		public static boolean speechTagging = true;
 
 		/**
-		 * 是否使用自定义词典
+		 * 是否使用自定义词典，见{@link cn.edu.kmust.seanlp.dictionary.CustomDictionary}
 		 */
 		public static boolean useCustomDictionary = false;
 
@@ -142,11 +142,27 @@ public class Config {
 
 		public static String syllableDictionary = "/SyllableDictionary";
 
+		/**
+		 * 由文本词典构建双数组时是否使用稠密字母表，见{@link cn.edu.kmust.seanlp.collection.trie.DATrie#enableDenseAlphabet(boolean)}
+		 */
+		public static boolean denseAlphabet = true;
+
+		/**
+		 * 由文本词典或模型构建双数组时并行构建子树的线程数，见{@link cn.edu.kmust.seanlp.collection.trie.DATrieBuilder}
+		 */
+		public static int buildThreads = Runtime.getRuntime().availableProcessors();
+
 		/**
 		 * 停用词词典路径
 		 */
 		public static String stopWord = "stopwords";
 
+		/**
+		 * 运行时由文本词典或模型解析后写入二进制缓存的根目录，默认为null，即运行时不写任何文件。
+		 * 发布前应当用{@link cn.edu.kmust.seanlp.ResourceCompiler}预先编译；开发时可以用-Dseanlp.cachePath=src/main/resources恢复原来的缓存行为
+		 */
+		public static String cachePath = System.getProperty("seanlp.cachePath");
+
 	}
 
 	/**
@@ -186,6 +202,21 @@ public class Config {
 		 * 文本文件后缀名
 		 */
 		public final static String TXT = ".txt";
+
+		/**
+		 * 可内存映射的模型文件后缀名
+		 */
+		public final static String MODEL = ".model";
+
+		/**
+		 * 可内存映射的词典文件后缀名
+		 */
+		public final static String DAT = ".dat";
+
+		/**
+		 * 自定义词典后缀名，自定义词典为词典名加.custom.txt
+		 */
+		public final static String CUSTOM = ".custom";
 	}
 
 	/**
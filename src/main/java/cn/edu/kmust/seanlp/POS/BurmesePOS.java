@@ -10,7 +10,6 @@ import cn.edu.kmust.seanlp.dictionary.language.BurmeseCoreDictionary;
 import cn.edu.kmust.seanlp.segmenter.domain.Nature;
 import cn.edu.kmust.seanlp.segmenter.domain.Term;
 import cn.edu.kmust.seanlp.segmenter.domain.Vertex;
-import cn.edu.kmust.seanlp.util.Predefine;
 
 /**
  * 缅甸语词性标注
@@ -27,7 +26,7 @@ public class BurmesePOS implements POS {
 	 */
 	public List<Term> speechTagging(List<Term> termList) {
 		List<Vertex> vertexList = toVertexList(termList, true);
-        Viterbi.compute(vertexList, BurmeseNatureTransMatrix.burmeseTransMatrix);
+        Viterbi.compute(vertexList, BurmeseNatureTransMatrix.getBurmeseTransMatrix());
         int i = 0;
         for (Term term : termList) {
             if (term.getNature() != null) term.setNature(vertexList.get(i + 1).getNature());
@@ -38,12 +37,11 @@ public class BurmesePOS implements POS {
 	}
 	
 	public List<Vertex> toVertexList(List<Term> termList, boolean appendStart) {
+        final CoreDictionary dictionary = BurmeseCoreDictionary.getBurmeseDictionary();
         ArrayList<Vertex> vertexList = new ArrayList<Vertex>(termList.size() + 1);
-        //if (appendStart) vertexList.add(Vertex.B);
-        Vertex.B  =  new Vertex(Predefine.TAG_BIGIN, " ", new CoreDictionary.Attribute(Nature.BEGIN, Predefine.MAX_FREQUENCY / 10), CoreDictionary.getWordID(BurmeseCoreDictionary.BurmeseDictionary.dictionaryTrie, Predefine.TAG_BIGIN));
-        if (appendStart) vertexList.add(Vertex.B);
+        if (appendStart) vertexList.add(Vertex.newB(dictionary.dictionaryTrie));
         for (Term term : termList) {
-            CoreDictionary.Attribute attribute = CoreDictionary.get(BurmeseCoreDictionary.BurmeseDictionary.dictionaryTrie,term.getWord());
+            CoreDictionary.Attribute attribute = CoreDictionary.get(dictionary.dictionaryTrie,term.getWord());
             if (attribute == null) {
                 if (term.getWord().trim().length() == 0) attribute = new CoreDictionary.Attribute(Nature.PUNC);
                 else attribute = new CoreDictionary.Attribute(Nature.NPRP);
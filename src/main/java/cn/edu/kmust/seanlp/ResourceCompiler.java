@@ -0,0 +1,413 @@
+package cn.edu.kmust.seanlp;
+
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import cn.edu.kmust.io.IOUtil;
+import cn.edu.kmust.seanlp.CRF.CRFModel;
+import cn.edu.kmust.seanlp.CRF.MappedCRFModel;
+import cn.edu.kmust.seanlp.Config.DictConf;
+import cn.edu.kmust.seanlp.Config.FileExtensions;
+import cn.edu.kmust.seanlp.Config.Log;
+import cn.edu.kmust.seanlp.Config.ModelConf;
+import cn.edu.kmust.seanlp.ResourceRegistry.Resource;
+import cn.edu.kmust.seanlp.collection.trie.DATrie;
+import cn.edu.kmust.seanlp.collection.trie.MappedDATrie;
+import cn.edu.kmust.seanlp.dictionary.CommonDictionary;
+import cn.edu.kmust.seanlp.dictionary.CoreDictionary;
+import cn.edu.kmust.seanlp.dictionary.stopword.StopWord;
+import cn.edu.kmust.seanlp.util.ByteArray;
+
+/**
+ * 词典和模型的离线编译器<br>
+ * 在构建时把文本词典和CRF++文本模型解析成运行时直接读取的二进制文件，生产环境启动时不再解析文本，也不写任何文件。
+ * 源目录和输出目录的结构与classpath相同，例如源目录/cn/edu/kmust/seanlp/dictionary/Thai/CoreDictionary.txt
+ * 编译为输出目录/cn/edu/kmust/seanlp/dictionary/Thai/CoreDictionary.bin。编译的资源就是{@link ResourceRegistry}中注册的词典和模型，
+ * 外加停用词词典，没有文本源文件的资源跳过。每个资源在线程池中并行解析，写出后按运行时的方式重新加载并与解析结果逐项比较，
+ * 全部成功后在输出目录写入SHA-256清单{@link #MANIFEST}，格式与sha256sum相同<br>
+ * 用法：ResourceCompiler 源目录 输出目录 [-mapped] [-threads 线程数]，或ResourceCompiler -verify 输出目录
+ *
+ * @author Zhao Shiyu
+ *
+ */
+public final class ResourceCompiler {
+	/**
+	 * 输出目录中的校验和清单
+	 */
+	public static final String MANIFEST = "seanlp-resources.sha256";
+
+	private final File source;
+	private final File output;
+	/**
+	 * 是否同时生成内存映射格式（词典.dat，模型.model）
+	 */
+	private boolean mapped;
+	private int threads = DictConf.buildThreads;
+
+	/**
+	 * @param source 文本源文件的根目录
+	 * @param output 二进制文件的根目录
+	 */
+	public ResourceCompiler(File source, File output) {
+		this.source = source;
+		this.output = output;
+	}
+
+	/**
+	 * 同时生成内存映射格式，映射格式只能从磁盘加载，打进jar包时不起作用
+	 *
+	 * @param enable
+	 * @return
+	 */
+	public ResourceCompiler enableMapped(boolean enable) {
+		this.mapped = enable;
+		return this;
+	}
+
+	/**
+	 * 并行编译的线程数
+	 *
+	 * @param threads
+	 * @return
+	 */
+	public ResourceCompiler threads(int threads) {
+		this.threads = Math.max(1, threads);
+		return this;
+	}
+
+	/**
+	 * 编译全部资源并写入校验和清单
+	 *
+	 * @return 生成的文件，为相对输出目录的路径
+	 * @throws ResourceLoadException 有资源解析、写入或校验失败，此时不写清单
+	 * @throws InterruptedException
+	 */
+	public List<String> compile() throws InterruptedException {
+		List<Callable<List<File>>> jobs = new ArrayList<Callable<List<File>>>();
+		for (Resource<?> resource : ResourceRegistry.getResources()) {
+			Callable<List<File>> job = job(resource);
+			if (job != null)
+				jobs.add(job);
+		}
+		final String stopWord = DictConf.dictionaryPath + DictConf.stopWord;
+		if (sourceFile(stopWord).isFile()) {
+			jobs.add(new Callable<List<File>>() {
+				@Override
+				public List<File> call() throws Exception {
+					return compileStopWord(stopWord);
+				}
+			});
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		List<File> files = new ArrayList<File>();
+		StringBuilder errors = new StringBuilder();
+		try {
+			List<Future<List<File>>> futures = executor.invokeAll(jobs);
+			for (Future<List<File>> future : futures) {
+				try {
+					files.addAll(future.get());
+				} catch (ExecutionException e) {
+					errors.append('\n').append(e.getCause());
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		if (errors.length() > 0)
+			throw new ResourceLoadException("编译失败：" + errors);
+		List<String> paths = new ArrayList<String>();
+		TreeMap<String, String> manifest = new TreeMap<String, String>();
+		try {
+			for (File file : files) {
+				String path = relativePath(file);
+				paths.add(path);
+				manifest.put(path, sha256(file));
+			}
+			Writer writer = new OutputStreamWriter(new FileOutputStream(new File(output, MANIFEST)), "UTF-8");
+			try {
+				for (String path : manifest.keySet()) {
+					writer.write(manifest.get(path) + "  " + path + "\n");
+				}
+			} finally {
+				writer.close();
+			}
+		} catch (IOException e) {
+			throw new ResourceLoadException("写入校验和清单失败：" + output, e);
+		}
+		return paths;
+	}
+
+	/**
+	 * 按清单重新计算输出目录中每个文件的SHA-256
+	 *
+	 * @param output 输出目录
+	 * @return 缺失或校验和不一致的文件，全部正确时为空
+	 * @throws IOException 清单不存在或无法读取
+	 */
+	public static List<String> verify(File output) throws IOException {
+		List<String> failed = new ArrayList<String>();
+		BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(new File(output, MANIFEST)), "UTF-8"));
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				int split = line.indexOf("  ");
+				if (split < 0)
+					continue;
+				String path = line.substring(split + 2);
+				File file = new File(output, path);
+				if (!file.isFile() || !line.substring(0, split).equals(sha256(file)))
+					failed.add(path);
+			}
+		} finally {
+			reader.close();
+		}
+		return failed;
+	}
+
+	/**
+	 * 资源对应的编译任务，没有文本源文件或者运行时就读文本的资源（词性转移矩阵）返回null
+	 */
+	private Callable<List<File>> job(Resource<?> resource) {
+		final String path = resource.getPath();
+		if (!sourceFile(path).isFile())
+			return null;
+		if (path.startsWith(ModelConf.CRFModelPath)) {
+			return new Callable<List<File>>() {
+				@Override
+				public List<File> call() throws Exception {
+					return compileModel(path);
+				}
+			};
+		}
+		if (path.endsWith(DictConf.coreDictionary)) {
+			return new Callable<List<File>>() {
+				@Override
+				public List<File> call() throws Exception {
+					return compileCoreDictionary(path);
+				}
+			};
+		}
+		if (path.endsWith(DictConf.commonDictionary) || path.endsWith(DictConf.syllableDictionary)) {
+			return new Callable<List<File>>() {
+				@Override
+				public List<File> call() throws Exception {
+					return compileCommonDictionary(path);
+				}
+			};
+		}
+		return null;
+	}
+
+	List<File> compileCoreDictionary(String path) throws IOException {
+		CoreDictionary dictionary = new CoreDictionary();
+		if (!dictionary.loadTxt(new FileInputStream(sourceFile(path))))
+			throw new ResourceLoadException("解析失败：" + sourceFile(path));
+		List<File> files = new ArrayList<File>();
+		File bin = outputFile(path, FileExtensions.BIN);
+		if (!dictionary.saveBin(bin.getPath()))
+			throw new ResourceLoadException("写入失败：" + bin);
+		CoreDictionary loaded = new CoreDictionary();
+		if (!loaded.loadDat(readBytes(bin)))
+			throw new ResourceLoadException("校验失败，无法加载：" + bin);
+		check(dictionary.dictionaryTrie, loaded.dictionaryTrie, bin);
+		files.add(bin);
+		if (mapped) {
+			File dat = outputFile(path, FileExtensions.DAT);
+			if (!dictionary.writeMapped(dat.getPath()))
+				throw new ResourceLoadException("写入失败：" + dat);
+			check(dictionary.dictionaryTrie, MappedDATrie.map(dat.getPath(), CoreDictionary.Attribute.CODEC), dat);
+			files.add(dat);
+		}
+		return files;
+	}
+
+	List<File> compileCommonDictionary(String path) throws IOException {
+		CommonDictionary dictionary = new CommonDictionary();
+		dictionary.loadTxt(new FileInputStream(sourceFile(path)));
+		List<File> files = new ArrayList<File>();
+		File bin = outputFile(path, FileExtensions.BIN);
+		if (!dictionary.saveBin(bin.getPath()))
+			throw new ResourceLoadException("写入失败：" + bin);
+		CommonDictionary loaded = new CommonDictionary();
+		if (!loaded.loadDat(readBytes(bin)))
+			throw new ResourceLoadException("校验失败，无法加载：" + bin);
+		check(dictionary.dictionaryTrie, loaded.dictionaryTrie, bin);
+		files.add(bin);
+		if (mapped) {
+			File dat = outputFile(path, FileExtensions.DAT);
+			if (!dictionary.writeMapped(dat.getPath()))
+				throw new ResourceLoadException("写入失败：" + dat);
+			check(dictionary.dictionaryTrie, MappedDATrie.map(dat.getPath(), CommonDictionary.CODEC), dat);
+			files.add(dat);
+		}
+		return files;
+	}
+
+	List<File> compileModel(String path) throws IOException {
+		CRFModel model = CRFModel.loadTxtModel(new FileInputStream(sourceFile(path)), new CRFModel());
+		if (model == null)
+			throw new ResourceLoadException("解析失败：" + sourceFile(path));
+		List<File> files = new ArrayList<File>();
+		File gz = outputFile(path, FileExtensions.GZ);
+		if (!model.saveGz(gz.getPath()))
+			throw new ResourceLoadException("写入失败：" + gz);
+		CRFModel loaded = new CRFModel();
+		if (!loaded.load(new ByteArray(IOUtil.readGzBytes(new FileInputStream(gz)))))
+			throw new ResourceLoadException("校验失败，无法加载：" + gz);
+		check(model, loaded, gz);
+		files.add(gz);
+		if (mapped) {
+			File file = outputFile(path, FileExtensions.MODEL);
+			if (!MappedCRFModel.write(model, file.getPath()))
+				throw new ResourceLoadException("写入失败：" + file);
+			MappedCRFModel mappedModel = MappedCRFModel.map(file.getPath());
+			if (mappedModel == null)
+				throw new ResourceLoadException("校验失败，无法映射：" + file);
+			check(model, mappedModel, file);
+			files.add(file);
+		}
+		return files;
+	}
+
+	List<File> compileStopWord(String path) throws Exception {
+		InputStream in = new FileInputStream(sourceFile(path));
+		StopWord stopWord;
+		try {
+			stopWord = new StopWord(in);
+		} finally {
+			in.close();
+		}
+		File bin = outputFile(path, FileExtensions.BIN);
+		DataOutputStream out = new DataOutputStream(new FileOutputStream(bin));
+		try {
+			stopWord.save(out);
+		} finally {
+			out.close();
+		}
+		StopWord loaded = new StopWord();
+		if (!loaded.load(readBytes(bin)) || loaded.size() != stopWord.size() || !loaded.containsAll(stopWord))
+			throw new ResourceLoadException("校验失败：" + bin);
+		List<File> files = new ArrayList<File>();
+		files.add(bin);
+		return files;
+	}
+
+	/**
+	 * 逐个词条比较重新加载的双数组与解析结果
+	 */
+	private static <V> void check(DATrie<V> expected, DATrie<V> actual, File file) {
+		if (actual == null || actual.size() != expected.size())
+			throw new ResourceLoadException("校验失败，词条数不一致：" + file);
+		String[] keys = expected.keyArray();
+		for (int i = 0; i < keys.length; ++i) {
+			if (keys[i] == null)
+				continue;
+			if (actual.exactMatchSearch(keys[i]) != i
+					|| !String.valueOf(expected.getValue(i)).equals(String.valueOf(actual.getValue(i))))
+				throw new ResourceLoadException("校验失败，词条" + keys[i] + "不一致：" + file);
+		}
+	}
+
+	private static void check(CRFModel expected, CRFModel actual, File file) {
+		String diff = expected.diff(actual, 0);
+		if (diff != null)
+			throw new ResourceLoadException("校验失败，" + diff + "：" + file);
+	}
+
+	private File sourceFile(String path) {
+		return new File(source, path + FileExtensions.TXT);
+	}
+
+	private File outputFile(String path, String extension) {
+		File file = new File(output, path + extension);
+		file.getParentFile().mkdirs();
+		return file;
+	}
+
+	private String relativePath(File file) {
+		String root = output.getAbsolutePath();
+		String path = file.getAbsolutePath().substring(root.length());
+		return path.replace(File.separatorChar, '/').replaceFirst("^/", "");
+	}
+
+	private static ByteArray readBytes(File file) {
+		byte[] bytes = IOUtil.readBytes(file.getPath());
+		return bytes == null ? null : new ByteArray(bytes);
+	}
+
+	static String sha256(File file) throws IOException {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+		InputStream in = new FileInputStream(file);
+		try {
+			byte[] buffer = new byte[64 * 1024];
+			int n;
+			while ((n = in.read(buffer)) > 0) {
+				digest.update(buffer, 0, n);
+			}
+		} finally {
+			in.close();
+		}
+		StringBuilder sb = new StringBuilder();
+		for (byte b : digest.digest()) {
+			sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+		}
+		return sb.toString();
+	}
+
+	public static void main(String[] args) throws Exception {
+		if (args.length == 2 && "-verify".equals(args[0])) {
+			List<String> failed = verify(new File(args[1]));
+			for (String path : failed) {
+				System.err.println("校验和不一致：" + path);
+			}
+			System.exit(failed.isEmpty() ? 0 : 1);
+		}
+		if (args.length < 2) {
+			System.err.println("用法：ResourceCompiler 源目录 输出目录 [-mapped] [-threads 线程数]");
+			System.err.println("      ResourceCompiler -verify 输出目录");
+			System.exit(2);
+		}
+		ResourceCompiler compiler = new ResourceCompiler(new File(args[0]), new File(args[1]));
+		for (int i = 2; i < args.length; ++i) {
+			if ("-mapped".equals(args[i]))
+				compiler.enableMapped(true);
+			else if ("-threads".equals(args[i]) && i + 1 < args.length)
+				compiler.threads(Integer.parseInt(args[++i]));
+		}
+		long start = System.currentTimeMillis();
+		try {
+			List<String> paths = compiler.compile();
+			for (String path : paths) {
+				System.out.println("已写入 " + path);
+			}
+			Log.logger.info("编译" + paths.size() + "个文件，耗时" + (System.currentTimeMillis() - start) + "ms");
+		} catch (ResourceLoadException e) {
+			System.err.println(e.getMessage());
+			System.exit(1);
+		}
+	}
+
+}
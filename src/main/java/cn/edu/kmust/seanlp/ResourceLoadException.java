@@ -0,0 +1,21 @@
+package cn.edu.kmust.seanlp;
+
+/**
+ * 词典或模型加载失败
+ * 
+ * @author Zhao Shiyu
+ *
+ */
+public class ResourceLoadException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public ResourceLoadException(String message) {
+		super(message);
+	}
+
+	public ResourceLoadException(String message, Throwable cause) {
+		super(message, cause);
+	}
+
+}
@@ -0,0 +1,457 @@
+package cn.edu.kmust.seanlp;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import cn.edu.kmust.seanlp.CRF.CRFModel;
+import cn.edu.kmust.seanlp.Config.DictConf;
+import cn.edu.kmust.seanlp.Config.Log;
+import cn.edu.kmust.seanlp.Config.ModelConf;
+import cn.edu.kmust.seanlp.Config.NGram;
+import cn.edu.kmust.seanlp.dictionary.CommonDictionary;
+import cn.edu.kmust.seanlp.dictionary.CoreDictionary;
+import cn.edu.kmust.seanlp.dictionary.NatureTransitionMatrix;
+import cn.edu.kmust.seanlp.segmenter.domain.Nature;
+
+/**
+ * 词典和模型的统一注册表<br>
+ * 每个资源在第一次{@link Resource#get()}时加载，也可以用{@link #preload(Language)}在后台线程中提前加载。
+ * 同一个资源同时只会加载一次，其他线程等待同一次加载的结果；加载失败时抛出{@link ResourceLoadException}，
+ * 之后再次访问会重新加载。路径在加载时才由{@link Config}计算，因此在第一次使用前修改配置即可生效。
+ * 各语言的词典类、词性转移矩阵类和CRF模型类（如{@link cn.edu.kmust.seanlp.dictionary.language.ThaiCoreDictionary}）
+ * 通过静态getter从这里取得资源，每次调用都经过{@link Resource#get()}，加载失败后下次调用会重新加载。
+ * 服务在启动时先调用{@link #preload(Language)}并等待完成，可以在使用分词器之前发现缺失的资源<br>
+ * <br>
+ * 不兼容的修改：这些类原来在静态初始化时加载资源并保存在公有静态字段中，一次加载失败会使类初始化失败，
+ * 之后的访问都抛出NoClassDefFoundError。公有静态字段已经删除，请改用对应的getter：<br>
+ * {@code ThaiCoreDictionary.thaiDictionary} → {@link cn.edu.kmust.seanlp.dictionary.language.ThaiCoreDictionary#getThaiDictionary()}<br>
+ * {@code LaoCoreDictionary.laoDictionary} → {@link cn.edu.kmust.seanlp.dictionary.language.LaoCoreDictionary#getLaoDictionary()}<br>
+ * {@code VietnameseCoreDictionary.vietnameseDictionary} → {@link cn.edu.kmust.seanlp.dictionary.language.VietnameseCoreDictionary#getVietnameseDictionary()}<br>
+ * {@code KhmerCoreDictionary.khmerDictionary} → {@link cn.edu.kmust.seanlp.dictionary.language.KhmerCoreDictionary#getKhmerDictionary()}<br>
+ * {@code BurmeseCoreDictionary.BurmeseDictionary} → {@link cn.edu.kmust.seanlp.dictionary.language.BurmeseCoreDictionary#getBurmeseDictionary()}<br>
+ * {@code KhmerCommonDictionary.khmerDictionary} → {@link cn.edu.kmust.seanlp.dictionary.language.KhmerCommonDictionary#getKhmerDictionary()}<br>
+ * {@code BurmeseCommonDictionary.burmeseDictionary} → {@link cn.edu.kmust.seanlp.dictionary.language.BurmeseCommonDictionary#getBurmeseDictionary()}<br>
+ * {@code BurmeseSyllableDictionary.burmeseSyllableDictionary} → {@link cn.edu.kmust.seanlp.dictionary.language.BurmeseSyllableDictionary#getBurmeseSyllableDictionary()}<br>
+ * {@code ThaiNatureTransMatrix.thaiTransMatrix} → {@link cn.edu.kmust.seanlp.dictionary.language.ThaiNatureTransMatrix#getThaiTransMatrix()}<br>
+ * {@code LaoNatureTransMatrix.laoTransMatrix} → {@link cn.edu.kmust.seanlp.dictionary.language.LaoNatureTransMatrix#getLaoTransMatrix()}<br>
+ * {@code VietnameseNatureTransMatrix.vietnameseTransMatrix} → {@link cn.edu.kmust.seanlp.dictionary.language.VietnameseNatureTransMatrix#getVietnameseTransMatrix()}<br>
+ * {@code KhmerNatureTransMatrix.khmerTransMatrix} → {@link cn.edu.kmust.seanlp.dictionary.language.KhmerNatureTransMatrix#getKhmerTransMatrix()}<br>
+ * {@code BurmeseNatureTransMatrix.burmeseTransMatrix} → {@link cn.edu.kmust.seanlp.dictionary.language.BurmeseNatureTransMatrix#getBurmeseTransMatrix()}<br>
+ * {@code StaticThaidCRFModel.crfThaiSyllableSegmentModel} → {@link cn.edu.kmust.seanlp.CRF.model.StaticThaidCRFModel#getCrfThaiSyllableSegmentModel()}<br>
+ * {@code StaticThaidCRFModel.crfThaiSyllableMergeModel} → {@link cn.edu.kmust.seanlp.CRF.model.StaticThaidCRFModel#getCrfThaiSyllableMergeModel()}<br>
+ * {@code StaticThaigCRFModel.crfThaiWordSegmentModel} → {@link cn.edu.kmust.seanlp.CRF.model.StaticThaigCRFModel#getCrfThaiWordSegmentModel()}<br>
+ * {@code StaticVietnameseCRFModel.crfVietnameseSegmentModel} → {@link cn.edu.kmust.seanlp.CRF.model.StaticVietnameseCRFModel#getCrfVietnameseSegmentModel()}<br>
+ * {@code StaticKhmerCRFModel.crfKhmerSegmentModel} → {@link cn.edu.kmust.seanlp.CRF.model.StaticKhmerCRFModel#getCrfKhmerSegmentModel()}<br>
+ * {@code StaticBurmeseCRFModel.crfBurmeseSegmentModel} → {@link cn.edu.kmust.seanlp.CRF.model.StaticBurmeseCRFModel#getCrfBurmeseSegmentModel()}<br>
+ *
+ * @author Zhao Shiyu
+ *
+ */
+public final class ResourceRegistry {
+
+	private static final Map<String, Resource<?>> resources = new LinkedHashMap<String, Resource<?>>();
+
+	/**
+	 * 核心词典
+	 */
+	public static final Resource<CoreDictionary> THAI_CORE_DICTIONARY = coreDictionary(Language.Thai);
+	public static final Resource<CoreDictionary> LAO_CORE_DICTIONARY = coreDictionary(Language.Lao);
+	public static final Resource<CoreDictionary> VIETNAMESE_CORE_DICTIONARY = coreDictionary(Language.Vietnamese);
+	public static final Resource<CoreDictionary> KHMER_CORE_DICTIONARY = coreDictionary(Language.Khmer);
+	public static final Resource<CoreDictionary> BURMESE_CORE_DICTIONARY = coreDictionary(Language.Burmese);
+
+	/**
+	 * 普通词典
+	 */
+	public static final Resource<CommonDictionary> KHMER_COMMON_DICTIONARY = commonDictionary(Language.Khmer, "CommonDictionary");
+	public static final Resource<CommonDictionary> BURMESE_COMMON_DICTIONARY = commonDictionary(Language.Burmese, "CommonDictionary");
+	public static final Resource<CommonDictionary> BURMESE_SYLLABLE_DICTIONARY = commonDictionary(Language.Burmese, "SyllableDictionary");
+
+	/**
+	 * 词性转移矩阵
+	 */
+	public static final Resource<NatureTransitionMatrix<Nature>> THAI_NATURE_TRANSITION_MATRIX = natureTransitionMatrix(Language.Thai);
+	public static final Resource<NatureTransitionMatrix<Nature>> LAO_NATURE_TRANSITION_MATRIX = natureTransitionMatrix(Language.Lao);
+	public static final Resource<NatureTransitionMatrix<Nature>> VIETNAMESE_NATURE_TRANSITION_MATRIX = natureTransitionMatrix(Language.Vietnamese);
+	public static final Resource<NatureTransitionMatrix<Nature>> KHMER_NATURE_TRANSITION_MATRIX = natureTransitionMatrix(Language.Khmer);
+	public static final Resource<NatureTransitionMatrix<Nature>> BURMESE_NATURE_TRANSITION_MATRIX = natureTransitionMatrix(Language.Burmese);
+
+	/**
+	 * CRF模型
+	 */
+	public static final Resource<CRFModel> THAI_SYLLABLE_SEGMENT_MODEL = crfModel(Language.Thai, "syllableSegment", NGram.fivegram);
+	public static final Resource<CRFModel> THAI_SYLLABLE_MERGE_MODEL = crfModel(Language.Thai, "syllableMerge", NGram.trigram);
+	public static final Resource<CRFModel> THAI_WORD_SEGMENT_MODEL = crfModel(Language.Thai, "wordSegment", NGram.sevengram);
+	public static final Resource<CRFModel> VIETNAMESE_WORD_SEGMENT_MODEL = crfModel(Language.Vietnamese, "wordSegment", NGram.trigram);
+	public static final Resource<CRFModel> KHMER_WORD_SEGMENT_MODEL = crfModel(Language.Khmer, "wordSegment", NGram.fivegram);
+	public static final Resource<CRFModel> BURMESE_WORD_SEGMENT_MODEL = crfModel(Language.Burmese, "wordSegment", NGram.sevengram);
+
+	private ResourceRegistry() {
+	}
+
+	/**
+	 * 一个按需加载的词典或模型
+	 *
+	 * @param <T>
+	 */
+	public abstract static class Resource<T> {
+		private final Language language;
+		private final String name;
+		/**
+		 * 正在进行或已经成功的加载，失败后清空以便重试
+		 */
+		private final AtomicReference<FutureTask<T>> task = new AtomicReference<FutureTask<T>>();
+		private volatile long loadTime = -1;
+
+		protected Resource(Language language, String name) {
+			this.language = language;
+			this.name = name;
+		}
+
+		/**
+		 * 资源路径，加载时计算
+		 */
+		public abstract String getPath();
+
+		/**
+		 * 加载资源
+		 *
+		 * @param path
+		 * @return 失败时返回null
+		 */
+		protected abstract T load(String path);
+
+		public Language getLanguage() {
+			return language;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * 取得资源，尚未加载时在当前线程中加载，正在加载时等待
+		 *
+		 * @return
+		 * @throws ResourceLoadException 加载失败
+		 */
+		public T get() {
+			while (true) {
+				FutureTask<T> current = task.get();
+				if (current != null && isFailed(current)) {
+					// 之前的后台加载失败了，重新加载
+					task.compareAndSet(current, null);
+					continue;
+				}
+				if (current == null) {
+					FutureTask<T> created = newTask();
+					if (!task.compareAndSet(null, created))
+						continue;
+					created.run();
+					current = created;
+				}
+				boolean interrupted = false;
+				try {
+					while (true) {
+						try {
+							return current.get();
+						} catch (InterruptedException e) {
+							interrupted = true;
+						}
+					}
+				} catch (ExecutionException e) {
+					throw failed(current, e);
+				} finally {
+					if (interrupted)
+						Thread.currentThread().interrupt();
+				}
+			}
+		}
+
+		/**
+		 * 等待资源加载完成，尚未开始加载时在后台线程中加载
+		 *
+		 * @param timeout 最长等待时间
+		 * @param unit
+		 * @return
+		 * @throws ResourceLoadException 加载失败
+		 * @throws TimeoutException 超时，资源仍在后台继续加载
+		 * @throws InterruptedException
+		 */
+		public T get(long timeout, TimeUnit unit) throws TimeoutException, InterruptedException {
+			FutureTask<T> current = (FutureTask<T>) preload();
+			try {
+				return current.get(timeout, unit);
+			} catch (ExecutionException e) {
+				throw failed(current, e);
+			}
+		}
+
+		/**
+		 * 在后台线程中加载，已经在加载或已经加载成功时不会重复加载
+		 *
+		 * @return 加载完成时可用的Future，失败时get()抛出的ExecutionException中是{@link ResourceLoadException}
+		 */
+		public Future<T> preload() {
+			FutureTask<T> current = task.get();
+			if (current != null && isFailed(current))
+				task.compareAndSet(current, null);
+			else if (current != null)
+				return current;
+			FutureTask<T> created = newTask();
+			if (!task.compareAndSet(null, created))
+				return preload();
+			LoaderPool.executor.execute(created);
+			return created;
+		}
+
+		/**
+		 * 是否已经加载成功
+		 */
+		public boolean isReady() {
+			FutureTask<T> current = task.get();
+			return current != null && current.isDone() && !isFailed(current);
+		}
+
+		/**
+		 * 丢掉已加载的资源，下次get时重新加载，供测试使用
+		 */
+		void reset() {
+			task.set(null);
+			loadTime = -1;
+		}
+
+		private static boolean isFailed(FutureTask<?> current) {
+			if (!current.isDone())
+				return false;
+			try {
+				current.get();
+				return false;
+			} catch (Exception e) {
+				return true;
+			}
+		}
+
+		/**
+		 * 最近一次加载的耗时，毫秒，尚未加载完成时为-1
+		 */
+		public long getLoadTime() {
+			return loadTime;
+		}
+
+		private FutureTask<T> newTask() {
+			return new FutureTask<T>(new Callable<T>() {
+				@Override
+				public T call() {
+					long start = System.currentTimeMillis();
+					String path = getPath();
+					T value;
+					try {
+						value = load(path);
+					} catch (RuntimeException e) {
+						throw new ResourceLoadException(Resource.this + "加载失败：" + path, e);
+					}
+					loadTime = System.currentTimeMillis() - start;
+					if (value == null) {
+						Log.logger.severe(Resource.this + "加载失败：" + path + "，耗时" + loadTime + "ms");
+						throw new ResourceLoadException(Resource.this + "加载失败：" + path);
+					}
+					Log.logger.info(Resource.this + "加载成功：" + path + "，耗时" + loadTime + "ms");
+					return value;
+				}
+			});
+		}
+
+		/**
+		 * 清除失败的加载，下次访问时重新加载
+		 */
+		private ResourceLoadException failed(FutureTask<T> current, ExecutionException e) {
+			task.compareAndSet(current, null);
+			if (e.getCause() instanceof ResourceLoadException)
+				return (ResourceLoadException) e.getCause();
+			return new ResourceLoadException(this + "加载失败：" + getPath(), e.getCause());
+		}
+
+		@Override
+		public String toString() {
+			return language + "/" + name;
+		}
+	}
+
+	/**
+	 * 后台加载的线程池，第一次预加载时创建，线程为守护线程
+	 */
+	private static final class LoaderPool {
+		static final ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Config.DictConf.buildThreads),
+				new ThreadFactory() {
+					private final AtomicInteger count = new AtomicInteger();
+
+					@Override
+					public Thread newThread(Runnable r) {
+						Thread thread = new Thread(r, "ResourceRegistry-" + count.incrementAndGet());
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+	}
+
+	private static synchronized <T> Resource<T> register(Resource<T> resource) {
+		resources.put(resource.toString(), resource);
+		return resource;
+	}
+
+	private static Resource<CoreDictionary> coreDictionary(Language language) {
+		return register(new Resource<CoreDictionary>(language, "CoreDictionary") {
+			@Override
+			public String getPath() {
+				return DictConf.dictionaryPath + getLanguage() + DictConf.coreDictionary;
+			}
+
+			@Override
+			protected CoreDictionary load(String path) {
+				return CoreDictionary.loadCoreDictionary(path);
+			}
+		});
+	}
+
+	private static Resource<CommonDictionary> commonDictionary(Language language, final String name) {
+		return register(new Resource<CommonDictionary>(language, name) {
+			@Override
+			public String getPath() {
+				return DictConf.dictionaryPath + getLanguage() + ("SyllableDictionary".equals(name) ? DictConf.syllableDictionary : DictConf.commonDictionary);
+			}
+
+			@Override
+			protected CommonDictionary load(String path) {
+				return CommonDictionary.loadCommonDictionary(path);
+			}
+		});
+	}
+
+	private static Resource<NatureTransitionMatrix<Nature>> natureTransitionMatrix(Language language) {
+		return register(new Resource<NatureTransitionMatrix<Nature>>(language, "NatureTransitionMatrix") {
+			@Override
+			public String getPath() {
+				return DictConf.dictionaryPath + getLanguage() + DictConf.natureTransitionMatrix;
+			}
+
+			@Override
+			protected NatureTransitionMatrix<Nature> load(String path) {
+				NatureTransitionMatrix<Nature> matrix = new NatureTransitionMatrix<Nature>(Nature.class);
+				return matrix.load(path) ? matrix : null;
+			}
+		});
+	}
+
+	/**
+	 * @param model syllableSegment、syllableMerge或wordSegment，对应{@link ModelConf}中的同名配置
+	 */
+	private static Resource<CRFModel> crfModel(Language language, final String model, final String ngram) {
+		return register(new Resource<CRFModel>(language, model + "." + ngram) {
+			@Override
+			public String getPath() {
+				String name;
+				if ("syllableSegment".equals(model))
+					name = ModelConf.syllableSegment;
+				else if ("syllableMerge".equals(model))
+					name = ModelConf.syllableMerge;
+				else
+					name = ModelConf.wordSegment;
+				return ModelConf.CRFModelPath + getLanguage() + name + ngram;
+			}
+
+			@Override
+			protected CRFModel load(String path) {
+				return CRFModel.loadCRFModel(path);
+			}
+		});
+	}
+
+	/**
+	 * 全部注册的资源
+	 */
+	public static synchronized List<Resource<?>> getResources() {
+		return new ArrayList<Resource<?>>(resources.values());
+	}
+
+	/**
+	 * 某种语言的全部资源
+	 */
+	public static synchronized List<Resource<?>> getResources(Language language) {
+		List<Resource<?>> list = new ArrayList<Resource<?>>();
+		for (Resource<?> resource : resources.values()) {
+			if (resource.getLanguage() == language)
+				list.add(resource);
+		}
+		return list;
+	}
+
+	/**
+	 * 按名称查找资源，名称为“语言/资源名”，例如Thai/CoreDictionary
+	 *
+	 * @return 不存在时为null
+	 */
+	public static synchronized Resource<?> getResource(String name) {
+		return resources.get(name);
+	}
+
+	/**
+	 * 在后台线程中加载某种语言的全部资源
+	 *
+	 * @param language
+	 * @return 每个资源的Future
+	 */
+	public static List<Future<?>> preload(Language language) {
+		List<Future<?>> futures = new ArrayList<Future<?>>();
+		for (Resource<?> resource : getResources(language)) {
+			futures.add(resource.preload());
+		}
+		return futures;
+	}
+
+	/**
+	 * 加载某种语言的全部资源并等待完成
+	 *
+	 * @param language
+	 * @param timeout 最长等待时间
+	 * @param unit
+	 * @throws ResourceLoadException 有资源加载失败
+	 * @throws TimeoutException 超时，资源仍在后台继续加载
+	 * @throws InterruptedException
+	 */
+	public static void await(Language language, long timeout, TimeUnit unit) throws TimeoutException, InterruptedException {
+		final long deadline = System.nanoTime() + unit.toNanos(timeout);
+		List<Resource<?>> list = getResources(language);
+		preload(language);
+		for (Resource<?> resource : list) {
+			resource.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+		}
+	}
+
+	/**
+	 * 已经加载成功的资源及其加载耗时（毫秒）
+	 */
+	public static Map<String, Long> getLoadTimes() {
+		Map<String, Long> times = new LinkedHashMap<String, Long>();
+		for (Resource<?> resource : getResources()) {
+			if (resource.isReady())
+				times.put(resource.toString(), resource.getLoadTime());
+		}
+		return Collections.unmodifiableMap(times);
+	}
+
+}
@@ -2,6 +2,7 @@ package cn.edu.kmust.seanlp.collection.MDAG;
 
 import java.util.*;
 
+import cn.edu.kmust.seanlp.collection.trie.IHit;
 import cn.edu.kmust.seanlp.util.ByteUtil;
 
 /**
@@ -89,6 +90,19 @@ public class MDAGMap<V> extends AbstractMap<String, V> {
 		return commonPrefixSearchWithValue(key.toCharArray(), 0);
 	}
 
+	/**
+	 * 前缀查询，key[begin, end)的每个在map中的前缀按由短到长的顺序回调一次，不创建字符串和Entry
+	 * 
+	 * @param key
+	 * @param begin 前缀的起点
+	 * @param end 前缀最远的终点（不含）
+	 * @param hit 回调
+	 * @return 命中的个数
+	 */
+	public int commonPrefixSearch(char[] key, int begin, int end, IHit<V> hit) {
+		return mdag.commonPrefixSearch(key, begin, end, valueList, hit);
+	}
+
 	/**
 	 * 进一步降低内存，提高查询速度<br>
 	 * 副作用是下次插入速度会变慢
@@ -147,14 +161,44 @@ public class MDAGMap<V> extends AbstractMap<String, V> {
 			TreeMap<Character, MDAGNode> outgoingTransitions = targetNode
 					.getOutgoingTransitions();
 			assert outgoingTransitions.size() == 1 : "不是单链！";
-			char high = outgoingTransitions.keySet().iterator().next();
+			char high = outgoingTransitions.firstKey();
 			targetNode = targetNode.transition(high);
 			outgoingTransitions = targetNode.getOutgoingTransitions();
 			assert outgoingTransitions.size() == 1 : "不是单链！";
-			char low = outgoingTransitions.keySet().iterator().next();
+			char low = outgoingTransitions.firstKey();
 			return ByteUtil.convertTwoCharToInt(high, low);
 		}
 
+		public <V> int commonPrefixSearch(char[] key, int begin, int end, List<V> valueList, IHit<V> hit) {
+			int count = 0;
+			if (sourceNode != null) {
+				MDAGNode currentNode = sourceNode;
+				for (int i = begin; i < end; ++i) {
+					currentNode = currentNode.transition(key[i]);
+					if (currentNode == null)
+						break;
+					int index = getValueIndex(currentNode);
+					if (index != -1) {
+						hit.hit(begin, i - begin + 1, index, valueList.get(index));
+						++count;
+					}
+				}
+			} else {
+				SimpleMDAGNode currentNode = simplifiedSourceNode;
+				for (int i = begin; i < end; ++i) {
+					currentNode = currentNode.transition(mdagDataArray, key[i]);
+					if (currentNode == null)
+						break;
+					int index = getValueIndex(currentNode);
+					if (index != -1) {
+						hit.hit(begin, i - begin + 1, index, valueList.get(index));
+						++count;
+					}
+				}
+			}
+			return count;
+		}
+
 		public LinkedList<Entry<String, Integer>> commonPrefixSearchWithValueIndex(
 				char[] key, int begin) {
 			LinkedList<Map.Entry<String, Integer>> result = new LinkedList<Map.Entry<String, Integer>>();
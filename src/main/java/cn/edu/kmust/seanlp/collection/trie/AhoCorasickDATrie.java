@@ -0,0 +1,212 @@
+package cn.edu.kmust.seanlp.collection.trie;
+
+import java.util.Arrays;
+
+/**
+ * 基于双数组Trie的Aho-Corasick自动机<br>
+ * 直接使用{@link DATrie}的base和check做goto转移，失败指针和输出指针以与base等长的int数组保存在堆上，
+ * 扫描文本时每个字符只转移一次，找出全部的词所需时间与文本长度成线性关系<br>
+ * 通常通过{@link DATrie#ahoCorasick()}获得
+ *
+ * @author Zhao Shiyu
+ *
+ * @param <V>
+ */
+public class AhoCorasickDATrie<V> {
+
+	private final DATrie<V> trie;
+	/**
+	 * 失败指针，fail[状态]为匹配失败时转到的状态
+	 */
+	private final int[] fail;
+	/**
+	 * 输出指针，output[状态]为沿失败指针能到达的最近的词尾状态，-1表示没有
+	 */
+	private final int[] output;
+	/**
+	 * keyLength[值下标]为对应词的长度
+	 */
+	private final int[] keyLength;
+	private final int root;
+
+	/**
+	 * 由已构建好的双数组trie构造自动机，共享trie的base、check和值数组
+	 *
+	 * @param trie
+	 */
+	public AhoCorasickDATrie(DATrie<V> trie) {
+		this.trie = trie;
+		final int length = trie.arrayLength();
+		root = trie.getRoot();
+		fail = new int[length];
+		output = new int[length];
+		Arrays.fill(output, -1);
+		int[][] table = trie.childTable();
+		final int[] start = table[0];
+		final int[] children = table[1];
+		// 广度优先遍历，子状态的失败指针由父状态的失败指针得到
+		int keySize = 0;
+		int[] depth = new int[length];
+		int[] queue = new int[children.length + 1];
+		int head = 0, tail = 0;
+		fail[root] = root;
+		queue[tail++] = root;
+		while (head < tail) {
+			final int s = queue[head++];
+			if (s + 1 >= start.length)
+				continue;
+			for (int k = start[s]; k < start[s + 1]; ++k) {
+				final int p = children[k];
+				if (p == s) {
+					keySize = Math.max(keySize, -trie.baseAt(p));
+					continue;
+				}
+				final char c = trie.charOf(p - s - 1);
+				final int t = trie.baseAt(p);
+				depth[t] = depth[s] + 1;
+				if (s == root) {
+					fail[t] = root;
+				} else {
+					fail[t] = next(fail[s], c);
+				}
+				output[t] = isOutput(fail[t]) ? fail[t] : output[fail[t]];
+				queue[tail++] = t;
+			}
+		}
+		keyLength = new int[keySize];
+		for (int i = 0; i < tail; ++i) {
+			int index = trie.outputIndex(queue[i]);
+			if (index >= 0)
+				keyLength[index] = depth[queue[i]];
+		}
+	}
+
+	/**
+	 * 状态是否对应一个词，词典中的空串不作为命中输出
+	 */
+	private boolean isOutput(int state) {
+		return state != root && trie.outputIndex(state) >= 0;
+	}
+
+	/**
+	 * 沿goto和失败指针转移
+	 *
+	 * @param state 当前状态
+	 * @param c 字符
+	 * @return 转移后的状态，不会失败，最差回到根
+	 */
+	public int next(int state, char c) {
+		int t;
+		while ((t = trie.transition(c, state)) < 0) {
+			if (state == root)
+				return root;
+			state = fail[state];
+		}
+		return t;
+	}
+
+	public int getRoot() {
+		return root;
+	}
+
+	/**
+	 * 找出文本中全部的词，逐个回调，顺序与{@link Searcher}相同
+	 *
+	 * @param text
+	 * @param hit
+	 */
+	public void parseText(char[] text, IHit<V> hit) {
+		int state = root;
+		for (int i = 0; i < text.length; ++i) {
+			state = next(state, text[i]);
+			for (int s = isOutput(state) ? state : output[state]; s >= 0; s = output[s]) {
+				final int index = trie.outputIndex(s);
+				final int length = keyLength[index];
+				hit.hit(i + 1 - length, length, index, trie.valueAt(index));
+			}
+		}
+	}
+
+	public DATrie<V> getTrie() {
+		return trie;
+	}
+
+	/**
+	 * 一个扫描工具，依次取出文本中全部的词，取词过程中不分配对象<br>
+	 * 同一结束位置的词先长后短，结束位置靠前的词先取出
+	 */
+	public class Searcher {
+		/**
+		 * 词的起点
+		 */
+		public int begin;
+		/**
+		 * 词的长度
+		 */
+		public int length;
+		/**
+		 * 词的值下标
+		 */
+		public int index;
+		/**
+		 * 词对应的值
+		 */
+		public V value;
+		private char[] charArray;
+		/**
+		 * 下一个要读入的字符的下标
+		 */
+		private int i;
+		private int state;
+		/**
+		 * 当前位置还没有取出的词尾状态，-1表示没有
+		 */
+		private int pending;
+
+		public Searcher(char[] charArray, int offset) {
+			reset(charArray, offset);
+		}
+
+		/**
+		 * 重新开始扫描另一段文本，以便重复使用同一个Searcher
+		 *
+		 * @param charArray
+		 * @param offset 扫描的起始位置
+		 */
+		public void reset(char[] charArray, int offset) {
+			this.charArray = charArray;
+			i = offset;
+			state = root;
+			pending = -1;
+		}
+
+		/**
+		 * 取出下一个命中的词
+		 *
+		 * @return 是否命中，false表示扫描结束，否则使用公开的成员读取命中的详细信息
+		 */
+		public boolean next() {
+			while (pending < 0) {
+				if (i >= charArray.length)
+					return false;
+				state = AhoCorasickDATrie.this.next(state, charArray[i++]);
+				pending = isOutput(state) ? state : output[state];
+			}
+			index = trie.outputIndex(pending);
+			length = keyLength[index];
+			begin = i - length;
+			value = trie.valueAt(index);
+			pending = output[pending];
+			return true;
+		}
+	}
+
+	public Searcher getSearcher(String text, int offset) {
+		return new Searcher(text.toCharArray(), offset);
+	}
+
+	public Searcher getSearcher(char[] text, int offset) {
+		return new Searcher(text, offset);
+	}
+
+}
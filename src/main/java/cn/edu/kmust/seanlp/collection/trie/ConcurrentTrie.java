@@ -0,0 +1,296 @@
+package cn.edu.kmust.seanlp.collection.trie;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 可以在运行时修改的trie，读操作不加锁<br>
+ * 每个节点的子节点按字符排序存放在一个数组中，修改时复制数组再整体替换，
+ * 因此查询总能看到一个完整的子节点数组，查询与修改可以并发进行。修改之间用trie对象同步。
+ * 适合词条不多、修改不频繁、查询很多的场合，例如叠加在只读的双数组trie上的自定义词典。
+ * 全文扫描{@link #parseText(char[], IHit)}使用带失败指针的Aho-Corasick自动机，耗时与文本长度加命中数成正比；
+ * 自动机是trie某一时刻的快照，修改后的第一次扫描按节点数重新构建，之后的扫描共用
+ *
+ * @author  Zhao Shiyu
+ *
+ * @param <V>
+ */
+public class ConcurrentTrie<V> {
+
+	@SuppressWarnings("rawtypes")
+	private static final Node[] EMPTY = new Node[0];
+
+	private final Node<V> root = new Node<V>('\0');
+	private volatile int size;
+	private volatile int maxLength;
+	/**
+	 * 当前词条的自动机，修改后置为null，下次扫描时重新构建
+	 */
+	private volatile Automaton<V> automaton;
+
+	static final class Node<V> {
+		final char c;
+		/**
+		 * 按字符排序的子节点，只整体替换，不在原数组上修改
+		 */
+		@SuppressWarnings("unchecked")
+		volatile Node<V>[] children = EMPTY;
+		volatile V value;
+
+		Node(char c) {
+			this.c = c;
+		}
+
+		Node<V> child(char c) {
+			final Node<V>[] children = this.children;
+			int low = 0, high = children.length - 1;
+			while (low <= high) {
+				final int mid = (low + high) >>> 1;
+				final char midChar = children[mid].c;
+				if (midChar < c)
+					low = mid + 1;
+				else if (midChar > c)
+					high = mid - 1;
+				else
+					return children[mid];
+			}
+			return null;
+		}
+
+		/**
+		 * 取子节点，没有时插入，调用者需持有trie的锁
+		 */
+		Node<V> addChild(char c) {
+			final Node<V>[] children = this.children;
+			int index = 0;
+			while (index < children.length && children[index].c < c) {
+				++index;
+			}
+			if (index < children.length && children[index].c == c)
+				return children[index];
+			Node<V> child = new Node<V>(c);
+			Node<V>[] newChildren = Arrays.copyOf(children, children.length + 1);
+			System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+			newChildren[index] = child;
+			this.children = newChildren;
+			return child;
+		}
+	}
+
+	private Node<V> find(String key) {
+		Node<V> node = root;
+		for (int i = 0; i < key.length() && node != null; ++i) {
+			node = node.child(key.charAt(i));
+		}
+		return node;
+	}
+
+	/**
+	 * 插入或替换一个词条
+	 *
+	 * @param key 不能为空串
+	 * @param value 不能为null
+	 * @return 原来的值
+	 */
+	public synchronized V put(String key, V value) {
+		if (key.length() == 0 || value == null)
+			throw new IllegalArgumentException("词条和值都不能为空");
+		Node<V> node = root;
+		for (int i = 0; i < key.length(); ++i) {
+			node = node.addChild(key.charAt(i));
+		}
+		V old = node.value;
+		node.value = value;
+		automaton = null;
+		if (old == null) {
+			++size;
+			if (key.length() > maxLength)
+				maxLength = key.length();
+		}
+		return old;
+	}
+
+	/**
+	 * 删除一个词条，只清除值，节点保留
+	 *
+	 * @param key
+	 * @return 原来的值，不存在时为null
+	 */
+	public synchronized V remove(String key) {
+		Node<V> node = find(key);
+		if (node == null || node == root || node.value == null)
+			return null;
+		V old = node.value;
+		node.value = null;
+		automaton = null;
+		--size;
+		return old;
+	}
+
+	public V get(String key) {
+		Node<V> node = find(key);
+		return node == null || node == root ? null : node.value;
+	}
+
+	public boolean containsKey(String key) {
+		return get(key) != null;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * 插入过的最长词条的长度，删除词条后不会变小
+	 *
+	 * @return
+	 */
+	public int getMaxLength() {
+		return maxLength;
+	}
+
+	/**
+	 * 前缀查询，不创建任何对象
+	 *
+	 * @param text 文本
+	 * @param begin 起点
+	 * @param end 终点（不包含）
+	 * @param hit 命中的回调，按长度从短到长，没有值下标，index为-1
+	 * @return 命中的个数
+	 */
+	public int commonPrefixSearch(char[] text, int begin, int end, IHit<V> hit) {
+		int count = 0;
+		Node<V> node = root;
+		for (int i = begin; i < end; ++i) {
+			node = node.child(text[i]);
+			if (node == null)
+				break;
+			final V value = node.value;
+			if (value != null) {
+				hit.hit(begin, i - begin + 1, -1, value);
+				++count;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * 全文扫描，找出文本中全部的词，只扫描一遍
+	 *
+	 * @param text 文本
+	 * @param hit 命中的回调，结束位置靠前的词先回调，同一结束位置的词先长后短，index为-1
+	 * @return 命中的个数
+	 */
+	public int parseText(char[] text, IHit<V> hit) {
+		if (size == 0)
+			return 0;
+		Automaton<V> automaton = this.automaton;
+		if (automaton == null)
+			automaton = buildAutomaton();
+		int count = 0;
+		int state = 0;
+		for (int i = 0; i < text.length; ++i) {
+			state = automaton.next(state, text[i]);
+			for (int s = automaton.value[state] != null ? state : automaton.output[state]; s > 0; s = automaton.output[s]) {
+				final int length = automaton.depth[s];
+				hit.hit(i + 1 - length, length, -1, automaton.value[s]);
+				++count;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * 构建当前词条的自动机，与修改互斥，保证快照完整
+	 */
+	private synchronized Automaton<V> buildAutomaton() {
+		if (automaton == null)
+			automaton = new Automaton<V>(root);
+		return automaton;
+	}
+
+	/**
+	 * trie的只读快照加上失败指针，状态按广度优先编号，根为0，状态s的子状态为first[s]起连续的几个
+	 */
+	private static final class Automaton<V> {
+		final char[][] label;
+		final int[] first;
+		final int[] fail;
+		/**
+		 * 沿失败指针能到达的下一个有值的状态，没有时为-1
+		 */
+		final int[] output;
+		final int[] depth;
+		final V[] value;
+
+		@SuppressWarnings("unchecked") // value只存放节点的值，不会暴露给外部
+		Automaton(Node<V> root) {
+			List<Node<V>> nodes = new ArrayList<Node<V>>();
+			List<Node<V>[]> children = new ArrayList<Node<V>[]>();
+			nodes.add(root);
+			for (int s = 0; s < nodes.size(); ++s) {
+				Node<V>[] c = nodes.get(s).children;
+				children.add(c);
+				nodes.addAll(Arrays.asList(c));
+			}
+			final int n = nodes.size();
+			label = new char[n][];
+			first = new int[n];
+			fail = new int[n];
+			output = new int[n];
+			depth = new int[n];
+			value = (V[]) new Object[n];
+			int next = 1;
+			for (int s = 0; s < n; ++s) {
+				Node<V>[] c = children.get(s);
+				value[s] = nodes.get(s).value;
+				label[s] = new char[c.length];
+				first[s] = next;
+				for (int k = 0; k < c.length; ++k) {
+					label[s][k] = c[k].c;
+				}
+				next += c.length;
+			}
+			output[0] = -1;
+			// 广度优先，父状态和失败状态都比子状态先处理
+			for (int s = 0; s < n; ++s) {
+				for (int k = 0; k < label[s].length; ++k) {
+					final int t = first[s] + k;
+					depth[t] = depth[s] + 1;
+					fail[t] = s == 0 ? 0 : next(fail[s], label[s][k]);
+					output[t] = value[fail[t]] != null ? fail[t] : output[fail[t]];
+				}
+			}
+		}
+
+		int transition(int state, char c) {
+			final char[] label = this.label[state];
+			int low = 0, high = label.length - 1;
+			while (low <= high) {
+				final int mid = (low + high) >>> 1;
+				if (label[mid] < c)
+					low = mid + 1;
+				else if (label[mid] > c)
+					high = mid - 1;
+				else
+					return first[state] + mid;
+			}
+			return -1;
+		}
+
+		/**
+		 * 沿goto和失败指针转移，最差回到根
+		 */
+		int next(int state, char c) {
+			int t;
+			while ((t = transition(state, c)) < 0) {
+				if (state == 0)
+					return 0;
+				state = fail[state];
+			}
+			return t;
+		}
+	}
+
+}
@@ -6,6 +6,7 @@ import java.io.IOException;
 import java.io.ObjectOutputStream;
 import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -25,9 +26,23 @@ import cn.edu.kmust.seanlp.util.ByteArray;
  *
  * @param <V>
  */
-public class DATrie<V> implements ITrie {
+public class DATrie<V> implements ITrie, ITransitionTrie {
 	
 	private final static int UNIT_SIZE = 8;
+	/**
+	 * 保存时写在size位置上的标记，表示后面跟着字母表
+	 */
+	private final static int ALPHABET_MARK = -1;
+	/**
+	 * 恒等映射，字符的编码就是字符本身
+	 */
+	final static char[] IDENTITY = new char[Character.MAX_VALUE + 1];
+
+	static {
+		for (int c = 0; c < IDENTITY.length; ++c) {
+			IDENTITY[c] = (char) c;
+		}
+	}
 	
 	private static class Node {
 		int code;
@@ -60,6 +75,19 @@ public class DATrie<V> implements ITrie {
 	private int nextCheckPos;
 	private int maxLength;
 	int error;
+	/**
+	 * 是否在构建时将出现过的字符映射为稠密的编码
+	 */
+	private boolean denseAlphabet;
+	/**
+	 * 字符到编码的映射，状态b经字符c转移到b + alphabet[c] + 1<br>
+	 * 稠密字母表中没有出现过的字符编码为字母表大小，不会与任何子节点重合
+	 */
+	char[] alphabet = IDENTITY;
+	/**
+	 * 编码到字符的映射
+	 */
+	char[] alphabetChars = IDENTITY;
 	
 	/**
 	 * 构造函数
@@ -73,6 +101,46 @@ public class DATrie<V> implements ITrie {
 		error = 0;
 	}
 	
+	/**
+	 * base[i]<br>
+	 * 除构建和加载外，读取双数组都经过这几个方法，双数组不在堆上的子类覆盖它们即可
+	 *
+	 * @param i
+	 * @return
+	 */
+	protected int baseAt(int i) {
+		return base[i];
+	}
+
+	/**
+	 * check[i]
+	 *
+	 * @param i
+	 * @return
+	 */
+	protected int checkAt(int i) {
+		return check[i];
+	}
+
+	/**
+	 * 可读取的双数组长度
+	 *
+	 * @return
+	 */
+	protected int arrayLength() {
+		return Math.min(base.length, check.length);
+	}
+
+	/**
+	 * 下标为index的值，没有值数组时返回null
+	 *
+	 * @param index
+	 * @return
+	 */
+	protected V valueAt(int index) {
+		return v == null || index >= v.length ? null : v[index];
+	}
+
 	public int getUnitSize() {
 		return UNIT_SIZE;
 	}
@@ -87,8 +155,8 @@ public class DATrie<V> implements ITrie {
 
 	public int getNonzeroSize() {
 		int result = 0;
-		for (int i = 0; i < check.length; ++i)
-			if (check[i] != 0)
+		for (int i = 0; i < arrayLength(); ++i)
+			if (checkAt(i) != 0)
 				++result;
 		return result;
 	}
@@ -99,7 +167,7 @@ public class DATrie<V> implements ITrie {
 	 * @return
 	 */
 	public int size() {
-		return v.length;
+		return v == null ? 0 : v.length;
 	}
 
 	/**
@@ -128,9 +196,18 @@ public class DATrie<V> implements ITrie {
 	public int build(List<String> keys, List<V> values) {
 		assert keys.size() == values.size() : "键的个数与值的个数不一样！";
 		assert keys.size() > 0 : "键值个数为0！";
-		v = (V[]) values.toArray();
+		v = toValueArray(values);
 		return build(keys, null, null, keys.size());
 	}
+	
+	/**
+	 * 值列表转为值数组，不知道V的实际类型，数组的运行时类型为Object[]。
+	 * v只在trie内部按元素读写，对外由{@link #getValueArray(Object[])}复制到调用者给出的数组中
+	 */
+	@SuppressWarnings("unchecked")
+	private static <V> V[] toValueArray(List<V> values) {
+		return (V[]) values.toArray();
+	}
 
 	public int build(List<String> keys, V[] values) {
 		assert keys.size() == value.length : "键的个数与值的个数不一样！";
@@ -188,7 +265,13 @@ public class DATrie<V> implements ITrie {
 		value = _value;
 		progress = 0;
 
-		resize(65536 * 32); // 32个双字节
+		if (denseAlphabet) {
+			buildAlphabet();
+		} else {
+			alphabet = IDENTITY;
+			alphabetChars = IDENTITY;
+		}
+		resize((alphabetChars.length + 1) * 32); // 32个双字节
 
 		base[0] = 1;
 		nextCheckPos = 0;
@@ -208,9 +291,114 @@ public class DATrie<V> implements ITrie {
 		used = null;
 		key = null;
 		length = null;
+		if (alphabet != IDENTITY) {
+			// 转移时下标最大为size + 字母表大小，多留一个未出现字符的位置即可
+			int newSize = size + alphabetChars.length + 2;
+			base = Arrays.copyOf(base, newSize);
+			check = Arrays.copyOf(check, newSize);
+			allocSize = newSize;
+		}
 
 		return error;
 	}
+
+	/**
+	 * 直接使用外部构建好的双数组，供{@link DATrieBuilder}使用，字母表需事先设置好
+	 *
+	 * @param base
+	 * @param check
+	 * @param size 双数组的有效长度，base和check还需在其后留出字母表大小的空间
+	 * @param values 值，按键的顺序排列
+	 */
+	void assign(int[] base, int[] check, int size, List<V> values) {
+		this.base = base;
+		this.check = check;
+		this.size = size;
+		this.allocSize = base.length;
+		this.v = toValueArray(values);
+		reversed = null;
+		ahoCorasick = null;
+	}
+
+	/**
+	 * 构建时是否将键中出现过的字符按字符顺序映射为稠密的编码<br>
+	 * 东南亚语言的字符集中在很小的区间内，使用稠密编码后base和check会小很多，转移时缓存命中率更高。
+	 * 需在build之前设置，字母表会随双数组一起保存和加载
+	 *
+	 * @param enable
+	 * @return
+	 */
+	public DATrie<V> enableDenseAlphabet(boolean enable) {
+		denseAlphabet = enable;
+		return this;
+	}
+
+	/**
+	 * 是否使用了稠密字母表
+	 *
+	 * @return
+	 */
+	public boolean isDenseAlphabet() {
+		return alphabet != IDENTITY;
+	}
+
+	/**
+	 * 字母表大小，未使用稠密字母表时为65536
+	 *
+	 * @return
+	 */
+	public int getAlphabetSize() {
+		return alphabetChars.length;
+	}
+
+	/**
+	 * 统计键中出现过的字符，按字符顺序编码，编码的顺序与字典序一致
+	 */
+	private void buildAlphabet() {
+		boolean[] seen = new boolean[Character.MAX_VALUE + 1];
+		int count = 0;
+		for (int i = 0; i < keySize; ++i) {
+			String k = key.get(i);
+			int len = length != null ? length[i] : k.length();
+			for (int j = 0; j < len; ++j) {
+				char c = k.charAt(j);
+				if (!seen[c]) {
+					seen[c] = true;
+					++count;
+				}
+			}
+		}
+		char[] chars = new char[count];
+		for (int c = 0, n = 0; c < seen.length; ++c) {
+			if (seen[c])
+				chars[n++] = (char) c;
+		}
+		setAlphabet(chars);
+	}
+
+	/**
+	 * 由编码到字符的映射得到字母表，字符须按升序排列
+	 */
+	void setAlphabet(char[] chars) {
+		if (chars.length >= Character.MAX_VALUE) {
+			alphabet = IDENTITY;
+			alphabetChars = IDENTITY;
+			return;
+		}
+		alphabet = new char[Character.MAX_VALUE + 1];
+		Arrays.fill(alphabet, (char) chars.length);
+		for (int i = 0; i < chars.length; ++i) {
+			alphabet[chars[i]] = (char) i;
+		}
+		alphabetChars = chars;
+	}
+
+	/**
+	 * 编码对应的字符
+	 */
+	char charOf(int code) {
+		return alphabetChars[code];
+	}
 	
 	/**
 	 * 拓展数组
@@ -252,7 +440,7 @@ public class DATrie<V> implements ITrie {
 			String tmp = key.get(i);
 			int cur = 0;
 			if ((length != null ? length[i] : tmp.length()) != parent.depth) {
-				cur = (int) tmp.charAt(parent.depth) + 1;
+				cur = (int) alphabet[tmp.charAt(parent.depth)] + 1;
 			}
 			if (prev > cur) {
 				error = -3;
@@ -486,20 +674,20 @@ public class DATrie<V> implements ITrie {
 
 		char[] keyChars = key.toCharArray();
 
-		int b = base[nodePos];
+		int b = baseAt(nodePos);
 		int p;
 
 		for (int i = pos; i < len; i++) {
-			p = b + (int) (keyChars[i]) + 1;
-			if (b == check[p])
-				b = base[p];
+			p = b + (int) (alphabet[keyChars[i]]) + 1;
+			if (b == checkAt(p))
+				b = baseAt(p);
 			else
 				return result;
 		}
 
 		p = b;
-		int n = base[p];
-		if (b == check[p] && n < 0) {
+		int n = baseAt(p);
+		if (b == checkAt(p) && n < 0) {
 			result = -n - 1;
 		}
 		return result;
@@ -516,21 +704,21 @@ public class DATrie<V> implements ITrie {
 	 */
 	public int exactMatchSearch(char[] keyChars, int pos, int len, int nodePos) {
 		int result = -1;
-		int b = base[nodePos];
+		int b = baseAt(nodePos);
 		int p;
 
 		for (int i = pos; i < len; i++) {
-			p = b + (int) (keyChars[i]) + 1;
-			if (b == check[p]) {
-				b = base[p];
+			p = b + (int) (alphabet[keyChars[i]]) + 1;
+			if (b == checkAt(p)) {
+				b = baseAt(p);
 			} else {
 				return result;
 			}
 		}
 		
 		p = b;
-		int n = base[p];
-		if (b == check[p] && n < 0) {
+		int n = baseAt(p);
+		if (b == checkAt(p) && n < 0) {
 			result = -n - 1;
 		}
 		return result;
@@ -560,21 +748,21 @@ public class DATrie<V> implements ITrie {
 		
 		List<Integer> result = new ArrayList<Integer>();
 		char[] keyChars = key.toCharArray();
-		int b = base[nodePos];
+		int b = baseAt(nodePos);
 		int n;
 		int p;
 
 		for (int i = pos; i < len; i++) {
-			p = b + (int) (keyChars[i]) + 1; // 状态转移 p = base[char[i-1]] + char[i] + 1
-			if (b == check[p]) { // base[char[i-1]] == check[base[char[i-1]] + char[i] + 1]
-				b = base[p];
+			p = b + (int) (alphabet[keyChars[i]]) + 1; // 状态转移 p = base[char[i-1]] + char[i] + 1
+			if (b == checkAt(p)) { // base[char[i-1]] == check[base[char[i-1]] + char[i] + 1]
+				b = baseAt(p);
 			} else {
 				return result;
 			}
 			
 			p = b;
-			n = base[p];
-			if (b == check[p] && n < 0) {  // base[p] == check[p] && base[p] < 0		
+			n = baseAt(p);
+			if (b == checkAt(p) && n < 0) {  // base[p] == check[p] && base[p] < 0		
 				result.add(-n - 1);  // 查到一个词
 			}
 		}
@@ -582,6 +770,38 @@ public class DATrie<V> implements ITrie {
 		return result;
 	}
 
+	/**
+	 * 前缀查询，text[begin, end)的每个在词典中的前缀按由短到长的顺序回调一次，查询过程中不分配对象
+	 *
+	 * @param text 文本
+	 * @param begin 前缀的起点
+	 * @param end 前缀最远的终点（不含）
+	 * @param hit 回调
+	 * @return 命中的个数
+	 */
+	public int commonPrefixSearch(char[] text, int begin, int end, IHit<V> hit) {
+		int count = 0;
+		int b = baseAt(0);
+		int n;
+		int p;
+
+		for (int i = begin; i < end; ++i) {
+			p = b + (int) (alphabet[text[i]]) + 1;
+			if (b == checkAt(p)) {
+				b = baseAt(p);
+			} else {
+				break;
+			}
+			p = b;
+			n = baseAt(p);
+			if (b == checkAt(p) && n < 0) {
+				hit.hit(begin, i - begin + 1, -n - 1, valueAt(-n - 1));
+				++count;
+			}
+		}
+		return count;
+	}
+
 	/**
 	 * 前缀查询，包含值
 	 *
@@ -593,30 +813,30 @@ public class DATrie<V> implements ITrie {
 		int len = key.length();
 		LinkedList<Map.Entry<String, V>> result = new LinkedList<Map.Entry<String, V>>();
 		char[] keyChars = key.toCharArray();
-		int b = base[0];
+		int b = baseAt(0);
 		int n;
 		int p;
 
 		for (int i = 0; i < len; ++i) {
 			p = b;
-			n = base[p];
-			if (b == check[p] && n < 0) {  // base[p] == check[p] && base[p] < 0
-				result.add(new AbstractMap.SimpleEntry<String, V>(new String(keyChars, 0, i), v[-n - 1])); // 查到一个词
+			n = baseAt(p);
+			if (b == checkAt(p) && n < 0) {  // base[p] == check[p] && base[p] < 0
+				result.add(new AbstractMap.SimpleEntry<String, V>(new String(keyChars, 0, i), valueAt(-n - 1))); // 查到一个词
 			}
 
-			p = b + (int) (keyChars[i]) + 1; // 状态转移 p = base[char[i-1]] + char[i] + 1
+			p = b + (int) (alphabet[keyChars[i]]) + 1; // 状态转移 p = base[char[i-1]] + char[i] + 1
 			// 下面这句可能产生下标越界，不如改为if (p < size && b == check[p])，或者多分配一些内存
-			if (b == check[p]) { // base[char[i-1]] == check[base[char[i-1]] + char[i] + 1]
-				b = base[p];
+			if (b == checkAt(p)) { // base[char[i-1]] == check[base[char[i-1]] + char[i] + 1]
+				b = baseAt(p);
 			} else {
 				return result;
 			}
 		}
 
 		p = b;
-		n = base[p];
-		if (b == check[p] && n < 0) {
-			result.add(new AbstractMap.SimpleEntry<String, V>(key, v[-n - 1]));
+		n = baseAt(p);
+		if (b == checkAt(p) && n < 0) {
+			result.add(new AbstractMap.SimpleEntry<String, V>(key, valueAt(-n - 1)));
 		}
 		
 		return result;
@@ -633,30 +853,30 @@ public class DATrie<V> implements ITrie {
 			char[] keyChars, int begin) {
 		int len = keyChars.length;
 		LinkedList<Map.Entry<String, V>> result = new LinkedList<Map.Entry<String, V>>();
-		int b = base[0];
+		int b = baseAt(0);
 		int n;
 		int p;
 
 		for (int i = begin; i < len; ++i) {
 			p = b;
-			n = base[p];
-			if (b == check[p] && n < 0) {  // base[p] == check[p] && base[p] < 0
-				result.add(new AbstractMap.SimpleEntry<String, V>(new String(keyChars, begin, i - begin), v[-n - 1])); // 查到一个词
+			n = baseAt(p);
+			if (b == checkAt(p) && n < 0) {  // base[p] == check[p] && base[p] < 0
+				result.add(new AbstractMap.SimpleEntry<String, V>(new String(keyChars, begin, i - begin), valueAt(-n - 1))); // 查到一个词
 			}
 
-			p = b + (int) (keyChars[i]) + 1; // 状态转移 p = base[char[i-1]] + char[i] + 1
+			p = b + (int) (alphabet[keyChars[i]]) + 1; // 状态转移 p = base[char[i-1]] + char[i] + 1
 			// 下面这句可能产生下标越界，不如改为if (p < size && b == check[p])，或者多分配一些内存
-			if (b == check[p]) { // base[char[i-1]] == check[base[char[i-1]] + char[i] + 1]
-				b = base[p];
+			if (b == checkAt(p)) { // base[char[i-1]] == check[base[char[i-1]] + char[i] + 1]
+				b = baseAt(p);
 			} else {
 				return result;
 			}
 		}
 
 		p = b;
-		n = base[p];
-		if (b == check[p] && n < 0) {
-			result.add(new AbstractMap.SimpleEntry<String, V>(new String(keyChars, begin, len - begin), v[-n - 1]));
+		n = baseAt(p);
+		if (b == checkAt(p) && n < 0) {
+			result.add(new AbstractMap.SimpleEntry<String, V>(new String(keyChars, begin, len - begin), valueAt(-n - 1)));
 		}
 
 		return result;
@@ -670,7 +890,7 @@ public class DATrie<V> implements ITrie {
 	 * @return 值
 	 */
 	public V getValue(int index) {
-		return v[index];
+		return valueAt(index);
 	}
 	
 	/**
@@ -709,6 +929,15 @@ public class DATrie<V> implements ITrie {
 		return a;
 	}
 	
+	/**
+	 * 替换值数组，下标与原来一一对应；传入null可以释放全部值对象，之后只能使用下标
+	 *
+	 * @param value
+	 */
+	public void setValueArray(V[] value) {
+		v = value;
+	}
+	
 	/**
 	 * 沿着路径转移状态
 	 *
@@ -726,13 +955,13 @@ public class DATrie<V> implements ITrie {
 	 * @return
 	 */
 	protected int transition(char[] path) {
-		int b = base[0];
+		int b = baseAt(0);
 		int p;
 
 		for (int i = 0; i < path.length; ++i) {
-			p = b + (int) (path[i]) + 1;
-			if (b == check[p]) {
-				b = base[p];
+			p = b + (int) (alphabet[path[i]]) + 1;
+			if (b == checkAt(p)) {
+				b = baseAt(p);
 			} else {
 				return -1;
 			}
@@ -749,12 +978,12 @@ public class DATrie<V> implements ITrie {
 	 * @return
 	 */
 	protected int transition(int current, char c) {
-		int b = base[current];
+		int b = baseAt(current);
 		int p;
 
-		p = b + c + 1;
-		if (b == check[p]) {
-			b = base[p];
+		p = b + alphabet[c] + 1;
+		if (b == checkAt(p)) {
+			b = baseAt(p);
 		} else {
 			return -1;
 		}
@@ -770,14 +999,15 @@ public class DATrie<V> implements ITrie {
 	 * @param from 起点（根起点为base[0]=1）
 	 * @return 转移后的状态（双数组下标）
 	 */
+	@Override
 	public int transition(String path, int from) {
 		int b = from;
 		int p;
 
 		for (int i = 0; i < path.length(); ++i) {
-			p = b + (int) (path.charAt(i)) + 1;
-			if (b == check[p]) {
-				b = base[p];
+			p = b + (int) (alphabet[path.charAt(i)]) + 1;
+			if (p < arrayLength() && b == checkAt(p)) {
+				b = baseAt(p);
 			} else {
 				return -1;
 			}
@@ -793,13 +1023,14 @@ public class DATrie<V> implements ITrie {
 	 * @param from
 	 * @return
 	 */
+	@Override
 	public int transition(char c, int from) {
 		int b = from;
 		int p;
 
-		p = b + (int) (c) + 1;
-		if (b == check[p]) {
-			b = base[p];
+		p = b + (int) (alphabet[c]) + 1;
+		if (p < arrayLength() && b == checkAt(p)) {
+			b = baseAt(p);
 		} else {
 			return -1;
 		}
@@ -807,6 +1038,33 @@ public class DATrie<V> implements ITrie {
 		return b;
 	}
 	
+	/**
+	 * 根状态，配合transition(char, int)从根开始逐字转移
+	 *
+	 * @return
+	 */
+	@Override
+	public int getRoot() {
+		return baseAt(0);
+	}
+
+	/**
+	 * 检查状态是否对应输出
+	 *
+	 * @param state 双数组下标
+	 * @return 对应值的下标，-1表示不输出
+	 */
+	@Override
+	public int outputIndex(int state) {
+		if (state < 0)
+			return -1;
+		int n = baseAt(state);
+		if (state == checkAt(state) && n < 0) {
+			return -n - 1;
+		}
+		return -1;
+	}
+
 	/**
 	 * 检查状态是否对应输出
 	 *
@@ -816,9 +1074,9 @@ public class DATrie<V> implements ITrie {
 	public V output(int state) {
 		if (state < 0)
 			return null;
-		int n = base[state];
-		if (state == check[state] && n < 0) {
-			return v[-n - 1];
+		int n = baseAt(state);
+		if (state == checkAt(state) && n < 0) {
+			return valueAt(-n - 1);
 		}
 		return null;
 	}
@@ -864,10 +1122,130 @@ public class DATrie<V> implements ITrie {
 		return exactMatchSearch(key) >= 0;
 	}
 	
+	/**
+	 * 由双数组还原全部的键
+	 *
+	 * @return 第i个元素为值下标i对应的键
+	 */
+	public String[] keyArray() {
+		final int length = arrayLength();
+		int keySize = 0;
+		for (int p = 0; p < length; ++p) {
+			if (checkAt(p) > 0 && p == checkAt(p) && baseAt(p) < 0)
+				keySize = Math.max(keySize, -baseAt(p));
+		}
+		int[][] table = childTable();
+		String[] keys = new String[keySize];
+		collectKeys(baseAt(0), new StringBuilder(), table[0], table[1], keys);
+		return keys;
+	}
+
+	/**
+	 * 按父状态（check）对全部节点做计数排序，得到每个状态的子节点<br>
+	 * 状态b的子节点下标为children[start[b]]到children[start[b + 1] - 1]，其中下标b本身是词尾节点
+	 *
+	 * @return {start, children}
+	 */
+	int[][] childTable() {
+		final int length = arrayLength();
+		int maxParent = 0;
+		for (int p = 0; p < length; ++p) {
+			if (checkAt(p) > 0)
+				maxParent = Math.max(maxParent, checkAt(p));
+		}
+		int[] start = new int[maxParent + 2];
+		for (int p = 0; p < length; ++p) {
+			if (checkAt(p) > 0)
+				++start[checkAt(p) + 1];
+		}
+		for (int i = 1; i < start.length; ++i) {
+			start[i] += start[i - 1];
+		}
+		int[] children = new int[start[start.length - 1]];
+		int[] fill = start.clone();
+		for (int p = 0; p < length; ++p) {
+			if (checkAt(p) > 0)
+				children[fill[checkAt(p)]++] = p;
+		}
+		return new int[][] { start, children };
+	}
+
+	private void collectKeys(int b, StringBuilder path, int[] start, int[] children, String[] keys) {
+		if (b + 1 >= start.length)
+			return;
+		for (int k = start[b]; k < start[b + 1]; ++k) {
+			int p = children[k];
+			if (p == b) {
+				if (baseAt(p) < 0)
+					keys[-baseAt(p) - 1] = path.toString();
+				continue;
+			}
+			path.append(alphabetChars[p - b - 1]);
+			collectKeys(baseAt(p), path, start, children, keys);
+			path.setLength(path.length() - 1);
+		}
+	}
+
+	private volatile DATrie<V> reversed;
+
+	/**
+	 * 键逆序的trie，用于逆向匹配时从词尾开始逐字转移<br>
+	 * 第一次调用时构建并缓存，值与构建时的值相同，之后对本trie的修改不会反映到逆序trie上
+	 *
+	 * @return
+	 */
+	public DATrie<V> reversed() {
+		DATrie<V> result = reversed;
+		if (result != null)
+			return result;
+		synchronized (this) {
+			if (reversed != null)
+				return reversed;
+			String[] keys = keyArray();
+			TreeMap<String, V> map = new TreeMap<String, V>();
+			for (int i = 0; i < keys.length; ++i) {
+				if (keys[i] != null)
+					map.put(new StringBuilder(keys[i]).reverse().toString(), valueAt(i));
+			}
+			if (map.isEmpty()) {
+				reversed = this;
+			} else {
+				result = new DATrie<V>();
+				result.enableDenseAlphabet(isDenseAlphabet());
+				result.build(map);
+				reversed = result;
+			}
+			return reversed;
+		}
+	}
+
+	private volatile AhoCorasickDATrie<V> ahoCorasick;
+
+	/**
+	 * 共享本trie双数组的Aho-Corasick自动机，用于一遍扫描找出文本中全部的词<br>
+	 * 第一次调用时构建失败指针并缓存，之后对本trie的修改不会反映到自动机上（值数组是共享的）
+	 *
+	 * @return
+	 */
+	public AhoCorasickDATrie<V> ahoCorasick() {
+		AhoCorasickDATrie<V> result = ahoCorasick;
+		if (result != null)
+			return result;
+		synchronized (this) {
+			if (ahoCorasick == null)
+				ahoCorasick = new AhoCorasickDATrie<V>(this);
+			return ahoCorasick;
+		}
+	}
+
 	public void clear() {
 		check = null;
 		base = null;
 		used = null;
+		reversed = null;
+		ahoCorasick = null;
+		alphabet = IDENTITY;
+		alphabetChars = IDENTITY;
 		allocSize = 0;
 		size = 0;
 	}
@@ -888,11 +1266,7 @@ public class DATrie<V> implements ITrie {
 		DataOutputStream out;
 		try {
 			out = new DataOutputStream(new GZIPOutputStream(new FileOutputStream(fileName)));
-			out.writeInt(size);
-			for (int i = 0; i < size; i++) {
-				out.writeInt(base[i]);
-				out.writeInt(check[i]);
-			}
+			writeArrays(out);
 			out.close();
 		} catch (Exception e) {
 			Log.logger.warning("保存失败" + e);
@@ -903,18 +1277,14 @@ public class DATrie<V> implements ITrie {
 	}
 
 	/**
-	 * 将base和check保存下来
+	 * 将base和check保存下来，使用稠密字母表时先写字母表
 	 *
 	 * @param out
 	 * @return
 	 */
 	public boolean save(DataOutputStream out) {
 		try {
-			out.writeInt(size);
-			for (int i = 0; i < size; i++) {
-				out.writeInt(base[i]);
-				out.writeInt(check[i]);
-			}
+			writeArrays(out);
 		} catch (Exception e) {
 			return false;
 		}
@@ -922,6 +1292,21 @@ public class DATrie<V> implements ITrie {
 		return true;
 	}
 
+	private void writeArrays(DataOutputStream out) throws IOException {
+		if (alphabet != IDENTITY) {
+			out.writeInt(ALPHABET_MARK);
+			out.writeInt(alphabetChars.length);
+			for (char c : alphabetChars) {
+				out.writeChar(c);
+			}
+		}
+		out.writeInt(size);
+		for (int i = 0; i < size; i++) {
+			out.writeInt(baseAt(i));
+			out.writeInt(checkAt(i));
+		}
+	}
+
 	public void save(ObjectOutputStream out) throws IOException {
 		out.writeObject(base);
 		out.writeObject(check);
@@ -931,8 +1316,20 @@ public class DATrie<V> implements ITrie {
 		if (byteArray == null)
 			return false;
 		size = byteArray.nextInt();
-		base = new int[size + 65535]; // 多留一些，防止越界
-		check = new int[size + 65535];
+		if (size == ALPHABET_MARK) {
+			char[] chars = new char[byteArray.nextInt()];
+			for (int i = 0; i < chars.length; i++) {
+				chars[i] = byteArray.nextChar();
+			}
+			setAlphabet(chars);
+			size = byteArray.nextInt();
+		} else {
+			alphabet = IDENTITY;
+			alphabetChars = IDENTITY;
+		}
+		// 多留一些，防止越界：转移时下标最大为size + 字母表大小
+		base = new int[size + alphabetChars.length + 1];
+		check = new int[size + alphabetChars.length + 1];
 		for (int i = 0; i < size; i++) {
 			base[i] = byteArray.nextInt();
 			check[i] = byteArray.nextInt();
@@ -989,7 +1386,7 @@ public class DATrie<V> implements ITrie {
 		public Searcher(char[] charArray, int offset) {
 			this.charArray = charArray;
 			i = offset;
-			last = base[0];
+			last = baseAt(0);
 			arrayLength = charArray.length;
 			// A trick，如果文本长度为0的话，调用next()时，会带来越界的问题。
 			// 所以我要在第一次调用next()的时候触发begin == arrayLength进而返回false。
@@ -1018,26 +1415,26 @@ public class DATrie<V> implements ITrie {
 					if (begin == arrayLength)
 						break;
 					i = begin;
-					b = base[0];
+					b = baseAt(0);
 				}
-				p = b + (int) (charArray[i]) + 1; // 状态转移 p = base[char[i-1]] + char[i] + 1
-				if (b == check[p]) { // base[char[i-1]] == check[base[char[i-1]] + char[i] + 1]
-					b = base[p]; // 转移成功
+				p = b + (int) (alphabet[charArray[i]]) + 1; // 状态转移 p = base[char[i-1]] + char[i] + 1
+				if (b == checkAt(p)) { // base[char[i-1]] == check[base[char[i-1]] + char[i] + 1]
+					b = baseAt(p); // 转移成功
 				} else {
 					i = begin; // 转移失败，也将起点往前挪一个，重新开始，状态归零
 					++begin;
 					if (begin == arrayLength) {
 						break;
 					}
-					b = base[0];
+					b = baseAt(0);
 					continue;
 				}
 				p = b;
-				n = base[p];
-				if (b == check[p] && n < 0) { // base[p] == check[p] && base[p] < 0 查到一个词
+				n = baseAt(p);
+				if (b == checkAt(p) && n < 0) { // base[p] == check[p] && base[p] < 0 查到一个词
 					length = i - begin + 1;
 					index = -n - 1;
-					value = v[index];
+					value = valueAt(index);
 					last = b;
 					++i;
 					return true;
@@ -1052,6 +1449,94 @@ public class DATrie<V> implements ITrie {
 		return new Searcher(text.toCharArray(), offset);
 	}
 
+	/**
+	 * 前缀查询的游标，依次取出text[begin, end)在词典中的前缀（由短到长），
+	 * 可以通过{@link #reset(char[], int, int)}反复使用，取词过程中不分配对象
+	 */
+	public class PrefixSearcher {
+		/**
+		 * 前缀的起点
+		 */
+		public int begin;
+		/**
+		 * 前缀的长度
+		 */
+		public int length;
+		/**
+		 * 值下标
+		 */
+		public int index;
+		/**
+		 * 值
+		 */
+		public V value;
+		private char[] charArray;
+		/**
+		 * 下一个要转移的字符的下标
+		 */
+		private int i;
+		private int end;
+		/**
+		 * 当前状态，-1表示转移已经失败
+		 */
+		private int state;
+
+		public PrefixSearcher(char[] charArray, int begin, int end) {
+			reset(charArray, begin, end);
+		}
+
+		/**
+		 * 重新查询另一段文本的前缀
+		 *
+		 * @param charArray
+		 * @param begin 前缀的起点
+		 * @param end 前缀最远的终点（不含）
+		 */
+		public void reset(char[] charArray, int begin, int end) {
+			this.charArray = charArray;
+			this.begin = begin;
+			this.end = end;
+			i = begin;
+			state = baseAt(0);
+		}
+
+		/**
+		 * 取出下一个前缀
+		 *
+		 * @return 是否命中，false表示查询结束，否则使用公开的成员读取命中的详细信息
+		 */
+		public boolean next() {
+			int b = state;
+			int n;
+			int p;
+
+			while (b >= 0 && i < end) {
+				p = b + (int) (alphabet[charArray[i++]]) + 1;
+				if (b == checkAt(p)) {
+					b = baseAt(p);
+				} else {
+					b = -1;
+					break;
+				}
+				p = b;
+				n = baseAt(p);
+				if (b == checkAt(p) && n < 0) {
+					state = b;
+					length = i - begin;
+					index = -n - 1;
+					value = valueAt(index);
+					return true;
+				}
+			}
+			state = -1;
+			return false;
+		}
+	}
+
+	public PrefixSearcher getPrefixSearcher(char[] text, int begin, int end) {
+		return new PrefixSearcher(text, begin, end);
+	}
+
 	public Searcher getSearcher(char[] text, int offset) {
 		return new Searcher(text ,offset);
 	}	
@@ -0,0 +1,478 @@
+package cn.edu.kmust.seanlp.collection.trie;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import cn.edu.kmust.seanlp.Config.Log;
+
+/**
+ * 双数组trie的并行构建器<br>
+ * 键按字典序逐个加入，构建时根节点的每个子树在各自的局部双数组中独立构建（可以多线程并行），
+ * 最后由大到小平移到同一个双数组的空闲位置上，子树之间可以相互穿插。
+ * 查找空闲位置时用“下一个空闲位置”指针数组（带路径压缩）跳过已占用的位置，用位图记录已使用的base，
+ * 不再像{@link DATrie#build(List, int[], int[], int)}那样逐个位置线性扫描。
+ * 构建出的trie与{@link DATrie#build(java.util.TreeMap)}的结果在查询上完全一致，值下标同为键的顺序
+ *
+ * @author Zhao Shiyu
+ *
+ * @param <V>
+ */
+public class DATrieBuilder<V> {
+
+	private final List<String> keys = new ArrayList<String>();
+	private final List<V> values = new ArrayList<V>();
+	private boolean denseAlphabet;
+	private int threads = 1;
+	/**
+	 * 字符到编码的映射，与{@link DATrie}相同
+	 */
+	private char[] alphabet;
+	private long buildTime;
+	private double fillRatio;
+
+	/**
+	 * 是否使用稠密字母表，见{@link DATrie#enableDenseAlphabet(boolean)}
+	 *
+	 * @param enable
+	 * @return
+	 */
+	public DATrieBuilder<V> enableDenseAlphabet(boolean enable) {
+		denseAlphabet = enable;
+		return this;
+	}
+
+	/**
+	 * 并行构建子树的线程数，不大于1时在当前线程中构建
+	 *
+	 * @param threads
+	 * @return
+	 */
+	public DATrieBuilder<V> threads(int threads) {
+		this.threads = threads;
+		return this;
+	}
+
+	/**
+	 * 加入一个键，键必须按字典序严格递增
+	 *
+	 * @param key
+	 * @param value
+	 * @return
+	 */
+	public DATrieBuilder<V> add(String key, V value) {
+		if (!keys.isEmpty() && keys.get(keys.size() - 1).compareTo(key) >= 0)
+			throw new IllegalArgumentException("键没有按字典序排列或者重复：" + key);
+		keys.add(key);
+		values.add(value);
+		return this;
+	}
+
+	/**
+	 * 加入全部键值对
+	 *
+	 * @param entries 按键的字典序排列，例如TreeMap.entrySet()
+	 * @return
+	 */
+	public DATrieBuilder<V> addAll(Iterable<Map.Entry<String, V>> entries) {
+		for (Map.Entry<String, V> entry : entries) {
+			add(entry.getKey(), entry.getValue());
+		}
+		return this;
+	}
+
+	/**
+	 * 由升序的map构建
+	 *
+	 * @param map
+	 * @return
+	 */
+	public DATrie<V> build(Map<String, V> map) {
+		return addAll(map.entrySet()).build();
+	}
+
+	/**
+	 * 构建双数组trie
+	 *
+	 * @return
+	 */
+	public DATrie<V> build() {
+		long start = System.currentTimeMillis();
+		DATrie<V> trie = new DATrie<V>();
+		if (denseAlphabet)
+			trie.setAlphabet(collectAlphabet());
+		alphabet = trie.alphabet;
+		final int alphabetSize = trie.getAlphabetSize();
+		final int keySize = keys.size();
+
+		// 根节点的子节点，每个子节点一棵子树
+		List<Subtree> subtrees = new ArrayList<Subtree>();
+		int terminal = -1;
+		int rootEnd = 2;
+		for (int i = 0; i < keySize;) {
+			int code = code(i, 0);
+			int j = i + 1;
+			while (j < keySize && code(j, 0) == code)
+				++j;
+			if (code == 0)
+				terminal = i;
+			else
+				subtrees.add(new Subtree(code, i, j));
+			rootEnd = 1 + code + 1;
+			i = j;
+		}
+		buildSubtrees(subtrees);
+
+		// 根的base为1，先占用根的子节点，再把子树由大到小平移到空闲位置上
+		Merged merged = new Merged(rootEnd + alphabetSize + 2);
+		merged.base[0] = 1;
+		merged.occupy(0);
+		merged.usedBegin.set(1);
+		if (terminal >= 0) {
+			merged.check[1] = 1;
+			merged.base[1] = -terminal - 1;
+			merged.occupy(1);
+		}
+		for (Subtree subtree : subtrees) {
+			merged.check[1 + subtree.code] = 1;
+			merged.occupy(1 + subtree.code);
+		}
+		List<Subtree> order = new ArrayList<Subtree>(subtrees);
+		Collections.sort(order, new Comparator<Subtree>() {
+			@Override
+			public int compare(Subtree a, Subtree b) {
+				return (b.high - b.low) - (a.high - a.low);
+			}
+		});
+		for (Subtree subtree : order) {
+			merged.place(subtree);
+			subtree.release();
+		}
+		int size = Math.max(merged.end, rootEnd);
+		int[] base = Arrays.copyOf(merged.base, size + alphabetSize + 2);
+		int[] check = Arrays.copyOf(merged.check, size + alphabetSize + 2);
+		int nonzero = 0;
+		for (int i = 0; i < size; ++i) {
+			if (check[i] != 0)
+				++nonzero;
+		}
+		trie.assign(base, check, size, values);
+		buildTime = System.currentTimeMillis() - start;
+		fillRatio = size == 0 ? 0 : 1.0 * nonzero / size;
+		Log.logger.info("双数组构建完成：" + keySize + "个键，" + subtrees.size() + "棵子树，双数组大小" + size
+				+ "，填充率" + String.format("%.2f%%", fillRatio * 100) + "，耗时" + buildTime + "ms");
+		return trie;
+	}
+
+	/**
+	 * 上一次构建的耗时（毫秒）
+	 *
+	 * @return
+	 */
+	public long getBuildTime() {
+		return buildTime;
+	}
+
+	/**
+	 * 上一次构建的双数组中已使用位置的比例
+	 *
+	 * @return
+	 */
+	public double getFillRatio() {
+		return fillRatio;
+	}
+
+	private void buildSubtrees(List<Subtree> subtrees) {
+		if (threads <= 1 || subtrees.size() <= 1) {
+			for (Subtree subtree : subtrees) {
+				subtree.call();
+			}
+			return;
+		}
+		ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads, subtrees.size()));
+		try {
+			List<Future<Subtree>> futures = new ArrayList<Future<Subtree>>(subtrees.size());
+			for (Subtree subtree : subtrees) {
+				futures.add(pool.submit(subtree));
+			}
+			for (Future<Subtree> future : futures) {
+				future.get();
+			}
+		} catch (Exception e) {
+			throw new IllegalStateException("并行构建双数组失败", e);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	private char[] collectAlphabet() {
+		boolean[] seen = new boolean[Character.MAX_VALUE + 1];
+		int count = 0;
+		for (String key : keys) {
+			for (int j = 0; j < key.length(); ++j) {
+				char c = key.charAt(j);
+				if (!seen[c]) {
+					seen[c] = true;
+					++count;
+				}
+			}
+		}
+		char[] chars = new char[count];
+		for (int c = 0, n = 0; c < seen.length; ++c) {
+			if (seen[c])
+				chars[n++] = (char) c;
+		}
+		return chars;
+	}
+
+	/**
+	 * 第i个键在depth处的编码，键在此结束时为0
+	 */
+	private int code(int i, int depth) {
+		String key = keys.get(i);
+		return key.length() == depth ? 0 : alphabet[key.charAt(depth)] + 1;
+	}
+
+	/**
+	 * 带空闲位置链的双数组<br>
+	 * next[i]为i之后可能空闲的位置，next[i] == i表示i空闲，超出数组的位置都空闲，查找时沿途压缩路径。
+	 * 一个空闲位置作为候选失败次数过多时从链中摘除，以后不再作为候选（仍可以被其它节点使用），
+	 * 避免反复扫描难以利用的空洞
+	 */
+	private static class Block {
+		/**
+		 * 一个空闲位置最多尝试的次数
+		 */
+		private static final int MAX_FAILS = 16;
+		int[] base = new int[0];
+		int[] check = new int[0];
+		int[] next = new int[0];
+		byte[] fails = new byte[0];
+
+		/**
+		 * 不小于i的第一个空闲位置
+		 */
+		int free(int i) {
+			int p = i;
+			while (p < next.length && next[p] != p)
+				p = next[p];
+			while (i < next.length && next[i] != i) {
+				int n = next[i];
+				next[i] = p;
+				i = n;
+			}
+			return p;
+		}
+
+		/**
+		 * 候选位置pos失败一次，返回下一个候选位置
+		 */
+		int reject(int pos) {
+			if (pos < fails.length && ++fails[pos] >= MAX_FAILS)
+				next[pos] = pos + 1;
+			return free(pos + 1);
+		}
+
+		void occupy(int p) {
+			next[p] = p + 1;
+		}
+
+		void ensure(int capacity) {
+			if (capacity <= next.length)
+				return;
+			int newSize = Math.max(capacity, next.length * 2);
+			int oldSize = next.length;
+			base = Arrays.copyOf(base, newSize);
+			check = Arrays.copyOf(check, newSize);
+			next = Arrays.copyOf(next, newSize);
+			fails = Arrays.copyOf(fails, newSize);
+			for (int i = oldSize; i < newSize; ++i) {
+				next[i] = i;
+			}
+		}
+
+		void release() {
+			base = check = next = null;
+			fails = null;
+		}
+	}
+
+	/**
+	 * 在局部双数组中构建的一棵子树
+	 */
+	private class Subtree extends Block implements Callable<Subtree> {
+		/**
+		 * 在根节点下的编码
+		 */
+		final int code;
+		final int left;
+		final int right;
+		final BitSet usedBegin = new BitSet();
+		/**
+		 * 子树的子节点的base
+		 */
+		int begin;
+		/**
+		 * 已使用的最小和最大位置 + 1
+		 */
+		int low = Integer.MAX_VALUE;
+		int high;
+
+		Subtree(int code, int left, int right) {
+			this.code = code;
+			this.left = left;
+			this.right = right;
+		}
+
+		@Override
+		public Subtree call() {
+			begin = insert(1, left, right);
+			return this;
+		}
+
+		/**
+		 * 插入[left, right)中的键在depth处的全部子节点，返回它们的base
+		 */
+		private int insert(int depth, int left, int right) {
+			int count = 0;
+			for (int i = left, prev = -1; i < right; ++i) {
+				int c = code(i, depth);
+				if (c != prev) {
+					++count;
+					prev = c;
+				}
+			}
+			int[] codes = new int[count];
+			int[] bounds = new int[count + 1];
+			for (int i = left, n = 0, prev = -1; i < right; ++i) {
+				int c = code(i, depth);
+				if (c != prev) {
+					codes[n] = c;
+					bounds[n++] = i;
+					prev = c;
+				}
+			}
+			bounds[count] = right;
+
+			final int b = findBegin(codes);
+			usedBegin.set(b);
+			for (int c : codes) {
+				check[b + c] = b;
+				occupy(b + c);
+			}
+			low = Math.min(low, b + codes[0]);
+			high = Math.max(high, b + codes[count - 1] + 1);
+			for (int k = 0; k < count; ++k) {
+				if (codes[k] == 0) {
+					// 有序且不重复，在此结束的键只有一个且排在最前
+					base[b] = -bounds[k] - 1;
+				} else {
+					// 递归插入可能扩容，先求出子节点的base再写入新的数组
+					int h = insert(depth + 1, bounds[k], bounds[k + 1]);
+					base[b + codes[k]] = h;
+				}
+			}
+			return b;
+		}
+
+		/**
+		 * 找出一个未使用的base，使全部子节点的位置都空闲
+		 */
+		private int findBegin(int[] codes) {
+			final int first = codes[0];
+			final int last = codes[codes.length - 1];
+			int pos = free(first + 1);
+			outer: while (true) {
+				int b = pos - first;
+				if (!usedBegin.get(b)) {
+					ensure(b + last + 1);
+					for (int k = 1; k < codes.length; ++k) {
+						if (check[b + codes[k]] != 0) {
+							pos = reject(pos);
+							continue outer;
+						}
+					}
+					return b;
+				}
+				pos = reject(pos);
+			}
+		}
+	}
+
+	/**
+	 * 拼接后的双数组
+	 */
+	private class Merged extends Block {
+		final BitSet usedBegin = new BitSet();
+		/**
+		 * 已使用的最大位置 + 1
+		 */
+		int end;
+
+		Merged(int capacity) {
+			ensure(capacity);
+		}
+
+		@Override
+		void occupy(int p) {
+			super.occupy(p);
+			end = Math.max(end, p + 1);
+		}
+
+		/**
+		 * 将子树平移到全部位置都空闲、全部base都未使用的地方。
+		 * base不同才不会误匹配其它节点的子节点，平移后的位置可以穿插在其它子树的空洞中
+		 */
+		void place(Subtree subtree) {
+			int slotCount = 0;
+			for (int p = subtree.low; p < subtree.high; ++p) {
+				if (subtree.check[p] != 0)
+					++slotCount;
+			}
+			int[] slots = new int[slotCount];
+			for (int p = subtree.low, n = 0; p < subtree.high; ++p) {
+				if (subtree.check[p] != 0)
+					slots[n++] = p;
+			}
+			final int minDelta = 1 - subtree.usedBegin.nextSetBit(0);
+			int g = free(Math.max(1, subtree.low + minDelta));
+			while (!fits(subtree, slots, g - subtree.low)) {
+				g = reject(g);
+			}
+			final int delta = g - subtree.low;
+			ensure(subtree.high + delta);
+			for (int p : slots) {
+				int b = subtree.base[p];
+				check[p + delta] = subtree.check[p] + delta;
+				base[p + delta] = b < 0 ? b : b + delta;
+				occupy(p + delta);
+			}
+			for (int b = subtree.usedBegin.nextSetBit(0); b >= 0; b = subtree.usedBegin.nextSetBit(b + 1)) {
+				usedBegin.set(b + delta);
+			}
+			base[1 + subtree.code] = subtree.begin + delta;
+		}
+
+		private boolean fits(Subtree subtree, int[] slots, int delta) {
+			for (int p : slots) {
+				int g = p + delta;
+				if (g < check.length && check[g] != 0)
+					return false;
+			}
+			for (int b = subtree.usedBegin.nextSetBit(0); b >= 0; b = subtree.usedBegin.nextSetBit(b + 1)) {
+				if (usedBegin.get(b + delta))
+					return false;
+			}
+			return true;
+		}
+	}
+
+}
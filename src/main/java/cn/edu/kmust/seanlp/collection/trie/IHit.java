@@ -0,0 +1,21 @@
+package cn.edu.kmust.seanlp.collection.trie;
+
+/**
+ * 命中一个词时的回调，用于逐个处理查询结果而不创建字符串、装箱整数和链表节点
+ * 
+ * @author  Zhao Shiyu
+ *
+ * @param <V>
+ */
+public interface IHit<V> {
+
+	/**
+	 * 命中一个词
+	 * @param begin 词在文本中的起点
+	 * @param length 词的长度
+	 * @param index 值下标
+	 * @param value 值
+	 */
+	void hit(int begin, int length, int index, V value);
+
+}
@@ -0,0 +1,41 @@
+package cn.edu.kmust.seanlp.collection.trie;
+
+/**
+ * 可以从根开始逐字转移状态的双数组trie<br>
+ * 状态即双数组中的base值，转移失败返回-1
+ * 
+ * @author  Zhao Shiyu
+ *
+ */
+public interface ITransitionTrie {
+
+	/**
+	 * 根状态
+	 * @return
+	 */
+	int getRoot();
+
+	/**
+	 * 沿着路径转移状态
+	 * @param path 路径
+	 * @param from 起点状态
+	 * @return 转移后的状态，-1表示失败
+	 */
+	int transition(String path, int from);
+
+	/**
+	 * 转移一个字符
+	 * @param c
+	 * @param from 起点状态
+	 * @return 转移后的状态，-1表示失败
+	 */
+	int transition(char c, int from);
+
+	/**
+	 * 状态对应的值下标
+	 * @param state
+	 * @return 值下标，-1表示该状态不是一个词的结尾
+	 */
+	int outputIndex(int state);
+
+}
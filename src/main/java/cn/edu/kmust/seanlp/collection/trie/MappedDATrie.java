@@ -0,0 +1,359 @@
+package cn.edu.kmust.seanlp.collection.trie;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import cn.edu.kmust.seanlp.Config.Log;
+import cn.edu.kmust.seanlp.util.ByteArray;
+import cn.edu.kmust.seanlp.util.StringUtil;
+
+/**
+ * 直接在IntBuffer上查询的双数组trie，base和check通常来自内存映射文件，不复制到堆上<br>
+ * 加载只需建立映射，同一台机器上的多个JVM共享操作系统的页缓存，双数组也不在GC扫描的堆中。
+ * 值按下标在第一次读取时由{@link ValueCodec}解码并缓存。映射的trie是只读的，构建请使用{@link DATrie}，
+ * 再由{@link #write(DATrie, String, ValueCodec)}写成映射格式。文件格式（小端字节序）：
+ * <pre>
+ * int  MAGIC
+ * int  VERSION
+ * int  size, alphabetSize（0表示不使用稠密字母表）, valueCount
+ * char alphabet[alphabetSize]，按4字节对齐
+ * int  base[size], check[size]
+ * int  valueOffset[valueCount + 1]（valueCount为0时没有这一项）
+ * byte values[]，第i个值在valueOffset[i]到valueOffset[i + 1]之间
+ * </pre>
+ *
+ * @author  Zhao Shiyu
+ *
+ * @param <V>
+ */
+public class MappedDATrie<V> extends DATrie<V> {
+	/**
+	 * 文件头，"SDAT"
+	 */
+	public static final int MAGIC = 0x54414453;
+	public static final int VERSION = 1;
+	private static final int HEADER_SIZE = 20;
+
+	private final IntBuffer baseBuffer;
+	private final IntBuffer checkBuffer;
+	private final int length;
+	/**
+	 * 值的偏移，没有值时为null
+	 */
+	private final IntBuffer valueOffset;
+	private final ByteBuffer valueBuffer;
+	private final int valueCount;
+	private final ValueCodec<V> codec;
+	/**
+	 * 已经解码的值
+	 */
+	private final AtomicReferenceArray<V> cache;
+
+	/**
+	 * 值的编码方式
+	 *
+	 * @param <V>
+	 */
+	public interface ValueCodec<V> {
+		/**
+		 * 编码后的字节数
+		 */
+		int bytes(V value);
+
+		/**
+		 * 在out的当前位置写入值
+		 */
+		void write(ByteBuffer out, V value);
+
+		/**
+		 * 从in的offset处读取length个字节解码出值，只能使用绝对位置的读取方法
+		 */
+		V read(ByteBuffer in, int offset, int length);
+	}
+
+	/**
+	 * 没有值的trie，只能查询值下标
+	 *
+	 * @param base 与check等长
+	 * @param check
+	 */
+	public MappedDATrie(IntBuffer base, IntBuffer check) {
+		this(base, check, null, null, null);
+	}
+
+	private MappedDATrie(IntBuffer base, IntBuffer check, IntBuffer valueOffset, ByteBuffer valueBuffer,
+			ValueCodec<V> codec) {
+		this.baseBuffer = base;
+		this.checkBuffer = check;
+		this.length = Math.min(base.limit(), check.limit());
+		this.size = length;
+		this.valueOffset = valueOffset;
+		this.valueBuffer = valueBuffer;
+		this.codec = codec;
+		this.valueCount = valueOffset == null ? 0 : valueOffset.limit() - 1;
+		this.cache = new AtomicReferenceArray<V>(valueCount);
+	}
+
+	/**
+	 * 超出双数组的下标按0处理，不会与任何状态匹配
+	 */
+	@Override
+	protected int baseAt(int i) {
+		return i < length ? baseBuffer.get(i) : 0;
+	}
+
+	@Override
+	protected int checkAt(int i) {
+		return i < length ? checkBuffer.get(i) : 0;
+	}
+
+	@Override
+	protected int arrayLength() {
+		return length;
+	}
+
+	@Override
+	protected V valueAt(int index) {
+		if (index >= valueCount)
+			return null;
+		V value = cache.get(index);
+		if (value == null) {
+			final int offset = valueOffset.get(index);
+			value = codec.read(valueBuffer, offset, valueOffset.get(index + 1) - offset);
+			if (!cache.compareAndSet(index, null, value))
+				value = cache.get(index);
+		}
+		return value;
+	}
+
+	@Override
+	public int size() {
+		return valueCount;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked") // 新数组的元素类型取自a，与V[]一致
+	public V[] getValueArray(V[] a) {
+		if (a.length < valueCount) {
+			a = (V[]) java.lang.reflect.Array.newInstance(a.getClass().getComponentType(), valueCount);
+		}
+		for (int i = 0; i < valueCount; ++i) {
+			a[i] = valueAt(i);
+		}
+		return a;
+	}
+
+	/**
+	 * 复制出base数组
+	 */
+	@Override
+	public int[] getBase() {
+		int[] base = new int[length];
+		baseBuffer.duplicate().get(base);
+		return base;
+	}
+
+	/**
+	 * 复制出check数组
+	 */
+	@Override
+	public int[] getCheck() {
+		int[] check = new int[length];
+		checkBuffer.duplicate().get(check);
+		return check;
+	}
+
+	/**
+	 * 精确查询
+	 *
+	 * @param key
+	 * @param offset
+	 * @param length
+	 * @return 值下标，-1表示不存在
+	 */
+	public int exactMatchSearch(char[] key, int offset, int length) {
+		int state = getRoot();
+		for (int i = offset, end = offset + length; i < end && state >= 0; ++i) {
+			state = transition(key[i], state);
+		}
+		return outputIndex(state);
+	}
+
+	@Override
+	public int build(List<String> _key, int _length[], int _value[], int _keySize) {
+		throw new UnsupportedOperationException("映射的trie是只读的");
+	}
+
+	@Override
+	public boolean set(String key, V value) {
+		throw new UnsupportedOperationException("映射的trie是只读的");
+	}
+
+	@Override
+	public void setValueArray(V[] value) {
+		throw new UnsupportedOperationException("映射的trie是只读的");
+	}
+
+	@Override
+	public boolean load(ByteArray byteArray, V[] value) {
+		return false;
+	}
+
+	@Override
+	public void clear() {
+		throw new UnsupportedOperationException("映射的trie是只读的");
+	}
+
+	/**
+	 * 映射一个trie文件
+	 *
+	 * @param file 文件路径
+	 * @param codec 值的编码方式，为null时不读取值
+	 * @return 文件不存在或格式不对时返回null
+	 */
+	public static <V> MappedDATrie<V> map(String file, ValueCodec<V> codec) {
+		RandomAccessFile raf = null;
+		try {
+			raf = new RandomAccessFile(file, "r");
+			FileChannel channel = raf.getChannel();
+			MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+			MappedDATrie<V> trie = load(buffer, codec);
+			if (trie != null)
+				return trie;
+			Log.logger.warning("trie文件格式不正确：" + file);
+		} catch (Exception e) {
+			Log.logger.warning("映射" + file + "时发生错误" + StringUtil.exceptionToString(e));
+		} finally {
+			if (raf != null) {
+				try {
+					raf.close(); // 关闭文件不影响已经建立的映射
+				} catch (Exception e) {
+				}
+			}
+		}
+		return null;
+	}
+
+	private static <V> MappedDATrie<V> load(ByteBuffer buffer, ValueCodec<V> codec) {
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+		if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION)
+			return null;
+		int size = buffer.getInt(8);
+		int alphabetSize = buffer.getInt(12);
+		int valueCount = buffer.getInt(16);
+		int position = HEADER_SIZE;
+		char[] alphabet = new char[alphabetSize];
+		for (int i = 0; i < alphabetSize; ++i) {
+			alphabet[i] = buffer.getChar(position);
+			position += 2;
+		}
+		position = align(position);
+		IntBuffer base = slice(buffer, position, size * 4).asIntBuffer();
+		IntBuffer check = slice(buffer, position + size * 4, size * 4).asIntBuffer();
+		position += size * 8;
+		MappedDATrie<V> trie;
+		if (valueCount > 0 && codec != null) {
+			IntBuffer valueOffset = slice(buffer, position, (valueCount + 1) * 4).asIntBuffer();
+			position += (valueCount + 1) * 4;
+			ByteBuffer values = slice(buffer, position, valueOffset.get(valueCount));
+			trie = new MappedDATrie<V>(base, check, valueOffset, values, codec);
+		} else {
+			trie = new MappedDATrie<V>(base, check);
+		}
+		if (alphabetSize > 0)
+			trie.setAlphabet(alphabet);
+		return trie;
+	}
+
+	private static ByteBuffer slice(ByteBuffer buffer, int offset, int length) {
+		ByteBuffer duplicate = buffer.duplicate();
+		((Buffer) duplicate).position(offset); // 兼容JDK8的Buffer返回类型
+		((Buffer) duplicate).limit(offset + length);
+		return duplicate.slice().order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	private static int align(int position) {
+		return (position + 3) & ~3;
+	}
+
+	/**
+	 * 将一个堆上的trie写成可映射的格式
+	 *
+	 * @param trie 已构建好的trie
+	 * @param file 输出文件
+	 * @param codec 值的编码方式，为null时只写双数组
+	 * @return 是否成功
+	 */
+	public static <V> boolean write(DATrie<V> trie, String file, ValueCodec<V> codec) {
+		final int size = trie.getSize();
+		final int alphabetSize = trie.isDenseAlphabet() ? trie.getAlphabetSize() : 0;
+		final int valueCount = codec == null ? 0 : trie.size();
+		long bytes = align(HEADER_SIZE + alphabetSize * 2) + size * 8L;
+		if (valueCount > 0) {
+			bytes += (valueCount + 1) * 4L;
+			for (int i = 0; i < valueCount; ++i) {
+				bytes += codec.bytes(trie.valueAt(i));
+			}
+		}
+		if (bytes > Integer.MAX_VALUE) {
+			Log.logger.warning("trie太大，无法写成映射格式：" + file);
+			return false;
+		}
+		RandomAccessFile raf = null;
+		try {
+			new File(file).delete();
+			raf = new RandomAccessFile(file, "rw");
+			raf.setLength(bytes);
+			MappedByteBuffer out = raf.getChannel().map(MapMode.READ_WRITE, 0, bytes);
+			out.order(ByteOrder.LITTLE_ENDIAN);
+			out.putInt(MAGIC);
+			out.putInt(VERSION);
+			out.putInt(size);
+			out.putInt(alphabetSize);
+			out.putInt(valueCount);
+			for (int i = 0; i < alphabetSize; ++i) {
+				out.putChar(trie.charOf(i));
+			}
+			((Buffer) out).position(align(out.position()));
+			for (int i = 0; i < size; ++i) {
+				out.putInt(trie.baseAt(i));
+			}
+			for (int i = 0; i < size; ++i) {
+				out.putInt(trie.checkAt(i));
+			}
+			if (valueCount > 0) {
+				int offset = 0;
+				for (int i = 0; i < valueCount; ++i) {
+					out.putInt(offset);
+					offset += codec.bytes(trie.valueAt(i));
+				}
+				out.putInt(offset);
+				for (int i = 0; i < valueCount; ++i) {
+					codec.write(out, trie.valueAt(i));
+				}
+			}
+			out.force();
+			return true;
+		} catch (Exception e) {
+			Log.logger.warning("写入" + file + "时发生错误" + StringUtil.exceptionToString(e));
+		} finally {
+			if (raf != null) {
+				try {
+					raf.close();
+				} catch (Exception e) {
+				}
+			}
+		}
+		return false;
+	}
+
+}
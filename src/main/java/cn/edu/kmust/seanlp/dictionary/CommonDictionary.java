@@ -1,12 +1,14 @@
 package cn.edu.kmust.seanlp.dictionary;
 
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
 import java.io.DataOutputStream;
-import java.io.FileNotFoundException;
+import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.util.Collection;
+import java.nio.ByteBuffer;
 import java.util.TreeMap;
 
 import cn.edu.kmust.io.IOUtil;
@@ -14,6 +16,9 @@ import cn.edu.kmust.seanlp.Config;
 import cn.edu.kmust.seanlp.Config.FileExtensions;
 import cn.edu.kmust.seanlp.Config.Log;
 import cn.edu.kmust.seanlp.collection.trie.DATrie;
+import cn.edu.kmust.seanlp.collection.trie.DATrieBuilder;
+import cn.edu.kmust.seanlp.collection.trie.IHit;
+import cn.edu.kmust.seanlp.collection.trie.MappedDATrie;
 import cn.edu.kmust.seanlp.util.ByteArray;
 
 /**
@@ -26,15 +31,87 @@ public class CommonDictionary implements Dictionary<CommonDictionary> {
 	
 	public DATrie<String> dictionaryTrie ;
 
+	/**
+	 * 自定义词典中的词条与文本词典相同：单列时值就是词，双列时第二列是值
+	 */
+	public static final CustomDictionary.Parser<String> PARSER = new CustomDictionary.Parser<String>() {
+		@Override
+		public String parse(String[] param) {
+			return param.length == 2 ? param[1] : param[0];
+		}
+	};
+
+	/**
+	 * 叠加在词典上的自定义词典，分词器开启自定义词典时使用
+	 */
+	public final CustomDictionary<String> customDictionary = new CustomDictionary<String>(PARSER);
+
+	/**
+	 * 映射格式中值的编码，char按小端写入
+	 */
+	public static final MappedDATrie.ValueCodec<String> CODEC = new MappedDATrie.ValueCodec<String>() {
+		@Override
+		public int bytes(String value) {
+			return value == null ? 0 : value.length() * 2;
+		}
+
+		@Override
+		public void write(ByteBuffer out, String value) {
+			if (value == null)
+				return;
+			for (int i = 0; i < value.length(); ++i) {
+				out.putChar(value.charAt(i));
+			}
+		}
+
+		@Override
+		public String read(ByteBuffer in, int offset, int length) {
+			char[] chars = new char[length / 2];
+			for (int i = 0; i < chars.length; ++i) {
+				chars[i] = in.getChar(offset + i * 2);
+			}
+			return new String(chars);
+		}
+	};
+
 	public static CommonDictionary loadTxtDictionary(String path, CommonDictionary commonDictionary) {
 		Log.logger.info("核心词典开始加载:" + path);
 		CommonDictionary dictionary = commonDictionary;
 		if (dictionary.loadDat(ByteArray.createByteArray(path + FileExtensions.BIN)))
 			return dictionary;
+		InputStream is = IOUtil.getInputStream(path + FileExtensions.TXT);
+		if (is == null) {
+			Log.logger.warning("核心词典" + path + "不存在！");
+			return null;
+		}
+		try {
+			dictionary.loadTxt(is);
+		} catch (IOException e) {
+			Log.logger.warning("核心词典" + path + "读取错误！" + e);
+			return null;
+		}
+		Log.logger.info("核心词典加载成功:" + dictionary.dictionaryTrie.size() + "个词条");
+		if (Config.DictConf.cachePath != null) {
+			String binName = Config.DictConf.cachePath + path + FileExtensions.BIN;
+			if (Config.DEBUG) {
+				System.out.println(binName);
+			}
+			if (!dictionary.saveBin(binName))
+				Log.logger.warning("缓存" + binName + "失败");
+		}
+		return dictionary;
+	}
+
+	/**
+	 * 解析文本词典，单列时值就是词，双列时第二列是值，###开头的行是注释
+	 *
+	 * @param is 文本词典，读完后关闭
+	 * @throws IOException
+	 */
+	public void loadTxt(InputStream is) throws IOException {
 		TreeMap<String, String> map = new TreeMap<String, String>();
-		BufferedReader br = null;
+		BufferedReader br = new BufferedReader(new InputStreamReader(is, "UTF-8"));
 		try {
-			br = new BufferedReader(new InputStreamReader(IOUtil.getInputStream(path + FileExtensions.TXT),"UTF-8"));
 			String line;
 			long start = System.currentTimeMillis();
 			while ((line = br.readLine()) != null) {
@@ -49,36 +126,36 @@ public class CommonDictionary implements Dictionary<CommonDictionary> {
 				}
 			}
 			Log.logger.info("核心词典读入词条：" + map.size()	+ "，耗时" + (System.currentTimeMillis() - start) + "ms");
+		} finally {
 			br.close();
-			dictionary.dictionaryTrie = new DATrie<String>();
-			dictionary.dictionaryTrie.build(map);
-			Log.logger.info("核心词典加载成功:" + dictionary.dictionaryTrie.size() + "个词条，下面将写入缓存……");
-			String binName = System.getProperty("user.dir") + "/src/main/resources" + path + FileExtensions.BIN;
-			if (Config.DEBUG) {
-				System.out.println(binName);
-			}
+		}
+		dictionaryTrie = new DATrieBuilder<String>().enableDenseAlphabet(Config.DictConf.denseAlphabet)
+				.threads(Config.DictConf.buildThreads).build(map);
+	}
+
+	/**
+	 * 保存为{@link #loadDat(ByteArray)}读取的二进制格式
+	 *
+	 * @param file 输出文件
+	 * @return 是否成功
+	 */
+	public boolean saveBin(String file) {
+		try {
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
 			try {
-				DataOutputStream out = new DataOutputStream(new FileOutputStream(binName));
-				Collection<String> wordList = map.values();
-				out.writeInt(wordList.size());
-				for (String word : wordList) {
-					out.writeUTF(word);
+				final int size = dictionaryTrie.size();
+				out.writeInt(size);
+				for (int i = 0; i < size; ++i) {
+					out.writeUTF(dictionaryTrie.getValue(i));
 				}
-				dictionary.dictionaryTrie.save(out);
+				return dictionaryTrie.save(out);
+			} finally {
 				out.close();
-			} catch (Exception e) {
-				Log.logger.warning("保存失败" + e);
-				return null;
 			}
-			//dictionary.dictionaryTrie.save(path + FileExtensions.BIN);
-		} catch (FileNotFoundException e) {
-			Log.logger.warning("核心词典" + path + "不存在！" + e);
-			return null;
-		} catch (IOException e) {
-			Log.logger.warning("核心词典" + path + "读取错误！" + e);
-			return null;
+		} catch (Exception e) {
+			Log.logger.warning("保存" + file + "失败" + e);
+			return false;
 		}
-		return dictionary;
 	}
 	
 	public static CommonDictionary loadBinDictionary(String path) {
@@ -89,6 +166,63 @@ public class CommonDictionary implements Dictionary<CommonDictionary> {
         return null;
 	}
 
+	/**
+	 * 映射词典文件，词典文件必须在磁盘上（不能在jar包中）
+	 *
+	 * @param path 不含后缀名
+	 * @return 没有.dat文件或者格式不对时返回null
+	 */
+	public static CommonDictionary loadMappedDictionary(String path) {
+		File file = IOUtil.getResourceFile(path + FileExtensions.DAT);
+		if (file == null)
+			return null;
+		MappedDATrie<String> trie = MappedDATrie.map(file.getPath(), CODEC);
+		if (trie == null)
+			return null;
+		CommonDictionary dictionary = new CommonDictionary();
+		dictionary.dictionaryTrie = trie;
+		return dictionary;
+	}
+
+	/**
+	 * 将词典写成可内存映射的格式
+	 *
+	 * @param file 输出文件
+	 * @return 是否成功
+	 */
+	public boolean writeMapped(String file) {
+		return MappedDATrie.write(dictionaryTrie, file, CODEC);
+	}
+
+	/**
+	 * 加载与词典同名的自定义词典，即path.custom.txt，文件不存在时什么也不做
+	 *
+	 * @param path 词典路径，不含后缀名
+	 * @return 是否加载了自定义词典
+	 */
+	public boolean loadCustomDictionary(String path) {
+		String customPath = path + FileExtensions.CUSTOM + FileExtensions.TXT;
+		if (IOUtil.getResourceFile(customPath) == null && IOUtil.class.getResource(customPath) == null)
+			return false;
+		return customDictionary.load(customPath);
+	}
+
+	/**
+	 * 用自定义词典修正最长匹配的结果，自定义词不短于词典中的词时优先
+	 *
+	 * @param sentence 句子
+	 * @param wordNet wordNet[i]为从i开始的最长词的长度
+	 */
+	public void customMatch(char[] sentence, final int[] wordNet) {
+		customDictionary.parseText(sentence, new IHit<String>() {
+			@Override
+			public void hit(int begin, int length, int index, String value) {
+				if (length >= wordNet[begin])
+					wordNet[begin] = length;
+			}
+		});
+	}
+
 	@Override
 	public boolean loadDat(ByteArray byteArray) {
 		dictionaryTrie = new DATrie<String>();
@@ -108,9 +242,14 @@ public class CommonDictionary implements Dictionary<CommonDictionary> {
 	}
 	
 	public static CommonDictionary loadDictionary(String path) {
-		CommonDictionary dictionary = loadBinDictionary(path);
-        if (dictionary != null) return dictionary;
-        return loadTxtDictionary(path, new CommonDictionary());
+		CommonDictionary dictionary = loadMappedDictionary(path);
+		if (dictionary == null)
+			dictionary = loadBinDictionary(path);
+		if (dictionary == null)
+			dictionary = loadTxtDictionary(path, new CommonDictionary());
+		if (dictionary != null)
+			dictionary.loadCustomDictionary(path);
+		return dictionary;
     }
 
 	public static CommonDictionary loadCommonDictionary(String path) {
@@ -1,12 +1,14 @@
 package cn.edu.kmust.seanlp.dictionary;
 
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
 import java.io.DataOutputStream;
-import java.io.FileNotFoundException;
+import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.util.Collection;
+import java.nio.ByteBuffer;
 import java.util.TreeMap;
 
 import cn.edu.kmust.io.IOUtil;
@@ -14,6 +16,9 @@ import cn.edu.kmust.seanlp.Config;
 import cn.edu.kmust.seanlp.Config.FileExtensions;
 import cn.edu.kmust.seanlp.Config.Log;
 import cn.edu.kmust.seanlp.collection.trie.DATrie;
+import cn.edu.kmust.seanlp.collection.trie.DATrieBuilder;
+import cn.edu.kmust.seanlp.collection.trie.IHit;
+import cn.edu.kmust.seanlp.collection.trie.MappedDATrie;
 import cn.edu.kmust.seanlp.dictionary.Dictionary;
 import cn.edu.kmust.seanlp.segmenter.domain.Nature;
 import cn.edu.kmust.seanlp.util.ByteArray;
@@ -29,16 +34,52 @@ public class CoreDictionary implements Dictionary<CoreDictionary> {
 	public static int totalFrequency = 221894;
 	
 	public DATrie<Attribute> dictionaryTrie;
+	/**
+	 * 叠加在核心词典上的自定义词典，分词器开启自定义词典时使用
+	 */
+	public final CustomDictionary<Attribute> customDictionary = new CustomDictionary<Attribute>(Attribute.PARSER);
+	private volatile double[] unigramCost;
 
 	public static CoreDictionary loadTxtDictionary(String path, CoreDictionary coreDictionary) {
 		Log.logger.info("核心词典开始加载:" + path);
 		CoreDictionary dictionary = coreDictionary;
 		if (dictionary.loadDat(ByteArray.createByteArray(path + FileExtensions.BIN)))
 			return dictionary;
+		InputStream is = IOUtil.getInputStream(path + FileExtensions.TXT);
+		if (is == null) {
+			Log.logger.warning("核心词典" + path + "不存在！");
+			return null;
+		}
+		try {
+			if (!dictionary.loadTxt(is))
+				return null;
+		} catch (IOException e) {
+			Log.logger.warning("核心词典" + path + "读取错误！" + e);
+			return null;
+		}
+		Log.logger.info("核心词典加载成功:" + dictionary.dictionaryTrie.size() + "个词条");
+		if (Config.DictConf.cachePath != null) {
+			String binName = Config.DictConf.cachePath + path + FileExtensions.BIN;
+			if (Config.DEBUG) {
+				System.out.println(binName);
+			}
+			if (!dictionary.saveBin(binName))
+				Log.logger.warning("缓存" + binName + "失败");
+		}
+		return dictionary;
+	}
+
+	/**
+	 * 解析文本词典，每行为词和若干对词性、词频，以制表符分隔
+	 *
+	 * @param is 文本词典，读完后关闭
+	 * @return 是否成功
+	 * @throws IOException
+	 */
+	public boolean loadTxt(InputStream is) throws IOException {
 		TreeMap<String, CoreDictionary.Attribute> map = new TreeMap<String, Attribute>();
-		BufferedReader br = null;
+		BufferedReader br = new BufferedReader(new InputStreamReader(is, "UTF-8"));
 		try {
-			br = new BufferedReader(new InputStreamReader(IOUtil.getInputStream(path + FileExtensions.TXT),"UTF-8"));
 			String line;
 			int MAX_FREQUENCY = 0;
 			long start = System.currentTimeMillis();
@@ -56,40 +97,47 @@ public class CoreDictionary implements Dictionary<CoreDictionary> {
 			}
 			Log.logger.info("核心词典读入词条" + map.size() + " 全部频次" + MAX_FREQUENCY
 					+ "，耗时" + (System.currentTimeMillis() - start) + "ms");
+		} catch (IllegalArgumentException e) {
+			Log.logger.warning("核心词典格式错误！" + e);
+			return false;
+		} finally {
 			br.close();
-			dictionary.dictionaryTrie = new DATrie<Attribute>();
-			dictionary.dictionaryTrie.build(map);
-			Log.logger.info("核心词典加载成功:" + dictionary.dictionaryTrie.size() + "个词条，下面将写入缓存……");
-			String binName = System.getProperty("user.dir") + "/src/main/resources" + path + FileExtensions.BIN;
-			if (Config.DEBUG) {
-				System.out.println(binName);
-			}
+		}
+		dictionaryTrie = new DATrieBuilder<Attribute>().enableDenseAlphabet(Config.DictConf.denseAlphabet)
+				.threads(Config.DictConf.buildThreads).build(map);
+		unigramCost = null;
+		return true;
+	}
+
+	/**
+	 * 保存为{@link #loadDat(ByteArray)}读取的二进制格式
+	 *
+	 * @param file 输出文件
+	 * @return 是否成功
+	 */
+	public boolean saveBin(String file) {
+		try {
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
 			try {
-				DataOutputStream out = new DataOutputStream(new FileOutputStream(binName));
-				Collection<CoreDictionary.Attribute> attributeList = map.values();
-				out.writeInt(attributeList.size());
-				for (CoreDictionary.Attribute attribute : attributeList) {
+				final int size = dictionaryTrie.size();
+				out.writeInt(size);
+				for (int i = 0; i < size; ++i) {
+					CoreDictionary.Attribute attribute = dictionaryTrie.getValue(i);
 					out.writeInt(attribute.totalFrequency);
 					out.writeInt(attribute.nature.length);
-					for (int i = 0; i < attribute.nature.length; ++i) {
-						out.writeInt(attribute.nature[i].ordinal());
-						out.writeInt(attribute.frequency[i]);
+					for (int j = 0; j < attribute.nature.length; ++j) {
+						out.writeInt(attribute.nature[j].ordinal());
+						out.writeInt(attribute.frequency[j]);
 					}
 				}
-				dictionary.dictionaryTrie.save(out);
+				return dictionaryTrie.save(out);
+			} finally {
 				out.close();
-			} catch (Exception e) {
-				Log.logger.warning("保存失败" + e);
-				return null;
 			}
-		} catch (FileNotFoundException e) {
-			Log.logger.warning("核心词典" + path + "不存在！" + e);
-			return null;
-		} catch (IOException e) {
-			Log.logger.warning("核心词典" + path + "读取错误！" + e);
-			return null;
+		} catch (Exception e) {
+			Log.logger.warning("保存" + file + "失败" + e);
+			return false;
 		}
-		return dictionary;
 	}
 
 	public static CoreDictionary loadBinDictionary(String path) {
@@ -101,29 +149,77 @@ public class CoreDictionary implements Dictionary<CoreDictionary> {
 	}
 
 	/**
-	 * 从ByteArrays加载双数组
+	 * 映射词典文件，词典文件必须在磁盘上（不能在jar包中）
+	 *
+	 * @param path 不含后缀名
+	 * @return 没有.dat文件或者格式不对时返回null
+	 */
+	public static CoreDictionary loadMappedDictionary(String path) {
+		File file = IOUtil.getResourceFile(path + FileExtensions.DAT);
+		if (file == null)
+			return null;
+		MappedDATrie<Attribute> trie = MappedDATrie.map(file.getPath(), Attribute.CODEC);
+		if (trie == null)
+			return null;
+		CoreDictionary dictionary = new CoreDictionary();
+		dictionary.dictionaryTrie = trie;
+		return dictionary;
+	}
+
+	/**
+	 * 将词典写成可内存映射的格式
+	 *
+	 * @param file 输出文件
+	 * @return 是否成功
+	 */
+	public boolean writeMapped(String file) {
+		return MappedDATrie.write(dictionaryTrie, file, Attribute.CODEC);
+	}
+
+	/**
+	 * 加载与词典同名的自定义词典，即path.custom.txt，文件不存在时什么也不做
+	 *
+	 * @param path 词典路径，不含后缀名
+	 * @return 是否加载了自定义词典
+	 */
+	public boolean loadCustomDictionary(String path) {
+		String customPath = path + FileExtensions.CUSTOM + FileExtensions.TXT;
+		if (IOUtil.getResourceFile(customPath) == null && IOUtil.class.getResource(customPath) == null)
+			return false;
+		return customDictionary.load(customPath);
+	}
+
+	/**
+	 * 用自定义词典修正最长匹配的结果，自定义词不短于词典中的词时优先
+	 *
+	 * @param sentence 句子
+	 * @param wordNet wordNet[i]为从i开始的最长词的长度
+	 * @param natureArray natureArray[i]为该词的词性，为null时不记录词性
+	 */
+	public void customMatch(char[] sentence, final int[] wordNet, final Nature[] natureArray) {
+		customDictionary.parseText(sentence, new IHit<Attribute>() {
+			@Override
+			public void hit(int begin, int length, int index, Attribute value) {
+				if (length >= wordNet[begin]) {
+					wordNet[begin] = length;
+					if (natureArray != null)
+						natureArray[begin] = value.nature[0];
+				}
+			}
+		});
+	}
+
+	/**
+	 * 从ByteArrays加载双数组，词属性打包存放，见{@link PackedAttributeTrie}
 	 *
 	 * @param path
 	 * @return
 	 */
 	public boolean loadDat(ByteArray byteArray) {
-		dictionaryTrie = new DATrie<Attribute>();
+		PackedAttributeTrie trie = new PackedAttributeTrie();
+		dictionaryTrie = trie;
 		try {
-			int size = byteArray.nextInt();
-			CoreDictionary.Attribute[] attributes = new CoreDictionary.Attribute[size];
-			final Nature[] natureIndexArray = Nature.values();
-			for (int i = 0; i < size; ++i) {
-				// 第一个是全部频次，第二个是词性个数
-				int currentTotalFrequency = byteArray.nextInt();
-				int length = byteArray.nextInt();
-				attributes[i] = new CoreDictionary.Attribute(length);
-				attributes[i].totalFrequency = currentTotalFrequency;
-				for (int j = 0; j < length; ++j) {
-					attributes[i].nature[j] = natureIndexArray[byteArray.nextInt()];
-					attributes[i].frequency[j] = byteArray.nextInt();
-				}
-			}
-			if (!dictionaryTrie.load(byteArray, attributes) || byteArray.hasMore())
+			if (!trie.load(byteArray) || byteArray.hasMore())
 				return false;
 		} catch (Exception e) {
 			Log.logger.warning("读取失败，问题发生在" + e);
@@ -132,6 +228,56 @@ public class CoreDictionary implements Dictionary<CoreDictionary> {
 		return true;
 	}
 
+	/**
+	 * 词的全部频次，词属性打包存放时不创建Attribute
+	 *
+	 * @param wordID
+	 * @return 没有属性时为0
+	 */
+	public int totalFrequency(int wordID) {
+		if (dictionaryTrie instanceof PackedAttributeTrie)
+			return ((PackedAttributeTrie) dictionaryTrie).totalFrequency(wordID);
+		Attribute attribute = dictionaryTrie.getValue(wordID);
+		return attribute == null ? 0 : attribute.totalFrequency;
+	}
+
+	/**
+	 * 词的第一个词性，词属性打包存放时不创建Attribute
+	 *
+	 * @param wordID
+	 * @return
+	 */
+	public Nature firstNature(int wordID) {
+		if (dictionaryTrie instanceof PackedAttributeTrie)
+			return ((PackedAttributeTrie) dictionaryTrie).nature(wordID, 0);
+		return dictionaryTrie.getValue(wordID).nature[0];
+	}
+
+	/**
+	 * 一元语法代价，即-log P(w)，P(w)由词频加一平滑得到<br>
+	 * 下标为词的ID，最后一个元素为未登录的单字的代价（相当于词频为0），第一次调用时计算并缓存
+	 *
+	 * @return
+	 */
+	public double[] unigramCost() {
+		double[] cost = unigramCost;
+		if (cost != null)
+			return cost;
+		final int size = dictionaryTrie.size();
+		long total = size;
+		for (int i = 0; i < size; ++i) {
+			total += totalFrequency(i);
+		}
+		final double logTotal = Math.log(total + 1);
+		cost = new double[size + 1];
+		for (int i = 0; i < size; ++i) {
+			cost[i] = logTotal - Math.log(totalFrequency(i) + 1);
+		}
+		cost[size] = logTotal;
+		unigramCost = cost;
+		return cost;
+	}
+
 	/**
 	 * 获取条目
 	 * 
@@ -179,6 +325,71 @@ public class CoreDictionary implements Dictionary<CoreDictionary> {
 	 * 核心词典中的词属性
 	 */
 	public static class Attribute {
+		/**
+		 * 映射格式中的编码：全部频次，然后每个词性的序号和词频
+		 */
+		public static final MappedDATrie.ValueCodec<Attribute> CODEC = new MappedDATrie.ValueCodec<Attribute>() {
+			@Override
+			public int bytes(Attribute value) {
+				return value == null ? 0 : 4 + value.nature.length * 8;
+			}
+
+			@Override
+			public void write(ByteBuffer out, Attribute value) {
+				if (value == null)
+					return;
+				out.putInt(value.totalFrequency);
+				for (int i = 0; i < value.nature.length; ++i) {
+					out.putInt(value.nature[i].ordinal());
+					out.putInt(value.frequency[i]);
+				}
+			}
+
+			@Override
+			public Attribute read(ByteBuffer in, int offset, int length) {
+				if (length == 0)
+					return null;
+				final Nature[] natureIndexArray = Nature.values();
+				Attribute attribute = new Attribute((length - 4) / 8);
+				attribute.totalFrequency = in.getInt(offset);
+				for (int i = 0, p = offset + 4; i < attribute.nature.length; ++i, p += 8) {
+					attribute.nature[i] = natureIndexArray[in.getInt(p)];
+					attribute.frequency[i] = in.getInt(p + 4);
+				}
+				return attribute;
+			}
+		};
+
+		/**
+		 * 自定义词典中的词条：词后面是制表符分隔的词性和词频，或者一列以空格分隔的词性和词频，
+		 * 只有词时使用未知词性和默认词频
+		 */
+		public static final CustomDictionary.Parser<Attribute> PARSER = new CustomDictionary.Parser<Attribute>() {
+			@Override
+			public Attribute parse(String[] param) {
+				if (param.length == 1)
+					return new Attribute(Nature.UN);
+				if (param.length == 2)
+					return check(create(param[1]));
+				try {
+					int natureCount = (param.length - 1) / 2;
+					Attribute attribute = new Attribute(natureCount);
+					for (int i = 0; i < natureCount; ++i) {
+						attribute.nature[i] = Enum.valueOf(Nature.class, param[1 + 2 * i]);
+						attribute.frequency[i] = Integer.parseInt(param[2 + 2 * i]);
+						attribute.totalFrequency += attribute.frequency[i];
+					}
+					return check(attribute);
+				} catch (IllegalArgumentException e) {
+					return null;
+				}
+			}
+
+			private Attribute check(Attribute attribute) {
+				return attribute == null || attribute.nature.length == 0 ? null : attribute;
+			}
+		};
+
 		/**
 		 * 词性列表
 		 */
@@ -308,9 +519,14 @@ public class CoreDictionary implements Dictionary<CoreDictionary> {
 	}
 	
 	public static CoreDictionary loadDictionary(String path) {
-		CoreDictionary dictionary = loadBinDictionary(path);
-        if (dictionary != null) return dictionary;
-        return loadTxtDictionary(path, new CoreDictionary());
+		CoreDictionary dictionary = loadMappedDictionary(path);
+		if (dictionary == null)
+			dictionary = loadBinDictionary(path);
+		if (dictionary == null)
+			dictionary = loadTxtDictionary(path, new CoreDictionary());
+		if (dictionary != null)
+			dictionary.loadCustomDictionary(path);
+		return dictionary;
     }
 
 	public static CoreDictionary loadCoreDictionary(String path) {
@@ -0,0 +1,242 @@
+package cn.edu.kmust.seanlp.dictionary;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+
+import cn.edu.kmust.io.IOUtil;
+import cn.edu.kmust.seanlp.Config.Log;
+import cn.edu.kmust.seanlp.collection.trie.ConcurrentTrie;
+import cn.edu.kmust.seanlp.collection.trie.IHit;
+import cn.edu.kmust.seanlp.util.StringUtil;
+
+/**
+ * 自定义词典，叠加在只读的核心词典或普通词典上<br>
+ * 词条存放在{@link ConcurrentTrie}中，可以在分词的同时增删。从文件加载时先构建一棵新的trie再整体替换，
+ * 正在分词的线程继续使用旧的trie，不需要等待。{@link #watch(String)}监视词典文件，文件修改后自动重新加载，
+ * 重新加载会丢弃运行时插入的词条。文件格式与文本词典相同，每行一个词条，以制表符分隔，
+ * 第一列是词，其余各列由{@link Parser}解析
+ *
+ * @author  Zhao Shiyu
+ *
+ * @param <V>
+ */
+public class CustomDictionary<V> {
+
+	/**
+	 * 解析词典文件中的一行
+	 *
+	 * @param <V>
+	 */
+	public interface Parser<V> {
+		/**
+		 * @param param 以制表符分隔的各列，第一列是词
+		 * @return 词条的值，为null时忽略这一行
+		 */
+		V parse(String[] param);
+	}
+
+	private final Parser<V> parser;
+	private volatile ConcurrentTrie<V> trie = new ConcurrentTrie<V>();
+	private Thread watcher;
+	private WatchService watchService;
+
+	public CustomDictionary(Parser<V> parser) {
+		this.parser = parser;
+	}
+
+	/**
+	 * 插入或替换一个词条
+	 *
+	 * @param word
+	 * @param value
+	 * @return 原来的值
+	 */
+	public V insert(String word, V value) {
+		return trie.put(word, value);
+	}
+
+	/**
+	 * 按词典文件的格式插入一个词条
+	 *
+	 * @param line 以制表符分隔
+	 * @return 是否成功
+	 */
+	public boolean insert(String line) {
+		String[] param = line.split("\t");
+		V value = parser.parse(param);
+		if (param[0].length() == 0 || value == null)
+			return false;
+		trie.put(param[0], value);
+		return true;
+	}
+
+	public V remove(String word) {
+		return trie.remove(word);
+	}
+
+	public V get(String word) {
+		return trie.get(word);
+	}
+
+	public boolean contains(String word) {
+		return trie.containsKey(word);
+	}
+
+	public int size() {
+		return trie.size();
+	}
+
+	/**
+	 * 当前使用的trie，重新加载后会被替换
+	 *
+	 * @return
+	 */
+	public ConcurrentTrie<V> getTrie() {
+		return trie;
+	}
+
+	/**
+	 * 全文扫描，见{@link ConcurrentTrie#parseText(char[], IHit)}
+	 *
+	 * @param text
+	 * @param hit
+	 * @return 命中的个数
+	 */
+	public int parseText(char[] text, IHit<V> hit) {
+		return trie.parseText(text, hit);
+	}
+
+	/**
+	 * 清空词典
+	 */
+	public void clear() {
+		trie = new ConcurrentTrie<V>();
+	}
+
+	/**
+	 * 从文件加载，替换当前的全部词条
+	 *
+	 * @param path 磁盘文件或classpath中的资源
+	 * @return 是否成功，失败时保留原来的词条
+	 */
+	public boolean load(String path) {
+		long start = System.currentTimeMillis();
+		ConcurrentTrie<V> newTrie = new ConcurrentTrie<V>();
+		BufferedReader br = null;
+		try {
+			File file = IOUtil.getResourceFile(path);
+			InputStream in = file == null ? IOUtil.getInputStream(path) : new FileInputStream(file);
+			if (in == null) {
+				Log.logger.warning("自定义词典" + path + "不存在！");
+				return false;
+			}
+			br = new BufferedReader(new InputStreamReader(in, "UTF-8"));
+			String line;
+			while ((line = br.readLine()) != null) {
+				if (line.length() > 0 && line.charAt(0) == '\uFEFF')
+					line = line.substring(1);
+				if (line.trim().length() == 0 || line.startsWith("###"))
+					continue;
+				String[] param = line.split("\t");
+				V value = parser.parse(param);
+				if (value == null) {
+					Log.logger.warning("自定义词典" + path + "中的词条格式不正确：" + line);
+					continue;
+				}
+				newTrie.put(param[0], value);
+			}
+		} catch (IOException e) {
+			Log.logger.warning("自定义词典" + path + "读取错误！" + StringUtil.exceptionToString(e));
+			return false;
+		} finally {
+			if (br != null) {
+				try {
+					br.close();
+				} catch (IOException e) {
+				}
+			}
+		}
+		trie = newTrie;
+		Log.logger.info("自定义词典" + path + "加载成功，" + newTrie.size() + "个词条，耗时" + (System.currentTimeMillis() - start) + "ms");
+		return true;
+	}
+
+	/**
+	 * 加载词典文件并监视它，文件被修改或重新创建后在后台线程中重新加载
+	 *
+	 * @param path 磁盘上的文件
+	 * @return 是否成功
+	 */
+	public synchronized boolean watch(String path) {
+		File file = IOUtil.getResourceFile(path);
+		if (file == null) {
+			Log.logger.warning("自定义词典" + path + "不在磁盘上，无法监视");
+			return false;
+		}
+		if (!load(file.getPath()))
+			return false;
+		stopWatching();
+		final Path dir = file.getAbsoluteFile().getParentFile().toPath();
+		final Path name = file.toPath().getFileName();
+		final String filePath = file.getPath();
+		final WatchService service;
+		try {
+			service = FileSystems.getDefault().newWatchService();
+			dir.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+		} catch (IOException e) {
+			Log.logger.warning("监视" + path + "时发生错误" + StringUtil.exceptionToString(e));
+			return false;
+		}
+		watchService = service;
+		watcher = new Thread("CustomDictionary-" + name) {
+			@Override
+			public void run() {
+				try {
+					while (true) {
+						WatchKey key = service.take();
+						boolean changed = false;
+						for (WatchEvent<?> event : key.pollEvents()) {
+							if (name.equals(event.context()))
+								changed = true;
+						}
+						key.reset();
+						if (changed)
+							load(filePath);
+					}
+				} catch (InterruptedException e) {
+				} catch (ClosedWatchServiceException e) {
+				}
+			}
+		};
+		watcher.setDaemon(true);
+		watcher.start();
+		return true;
+	}
+
+	/**
+	 * 停止监视词典文件
+	 */
+	public synchronized void stopWatching() {
+		if (watcher == null)
+			return;
+		try {
+			watchService.close();
+		} catch (IOException e) {
+		}
+		watcher.interrupt();
+		watcher = null;
+		watchService = null;
+	}
+
+}
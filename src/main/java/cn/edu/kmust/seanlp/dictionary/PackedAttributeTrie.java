@@ -0,0 +1,211 @@
+package cn.edu.kmust.seanlp.dictionary;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import cn.edu.kmust.seanlp.collection.trie.DATrie;
+import cn.edu.kmust.seanlp.segmenter.domain.Nature;
+import cn.edu.kmust.seanlp.util.ByteArray;
+
+/**
+ * 词属性打包存放在基本类型数组中的核心词典双数组<br>
+ * 每个词的属性在data中占一段连续的int：先是全部频次，然后交替存放词性的序号和词频，
+ * 第i个词的属性从offset[i]开始，到offset[i + 1]结束。加载时不创建任何Attribute对象，
+ * 按下标读取词性和词频的方法直接访问数组；{@link #getValue(int)}等返回Attribute的方法
+ * 由打包的数据生成Attribute，与原来的接口兼容。生成的Attribute只在固定数量的槽中缓存最近用到的一部分，
+ * 词性标注等长时间运行的调用遇到再多不同的词，堆上留下的Attribute也不会超过槽的数量。打包的属性是只读的
+ *
+ * @author  Zhao Shiyu
+ *
+ */
+public class PackedAttributeTrie extends DATrie<CoreDictionary.Attribute> {
+
+	private static final Nature[] NATURES = Nature.values();
+
+	/**
+	 * offset[i]为第i个词的属性在data中的起点，共size + 1项
+	 */
+	private int[] offset;
+	private int[] data;
+	private int count;
+	/**
+	 * 缓存的槽数，词的下标按低位映射到槽上，冲突时覆盖
+	 */
+	private static final int CACHE_SIZE = 1 << 12;
+	/**
+	 * 最近生成的Attribute
+	 */
+	private AtomicReferenceArray<Cached> cache;
+
+	private static final class Cached {
+		final int index;
+		final CoreDictionary.Attribute attribute;
+
+		Cached(int index, CoreDictionary.Attribute attribute) {
+			this.index = index;
+			this.attribute = attribute;
+		}
+	}
+
+	/**
+	 * 读取二进制词典：词条数，每个词条的全部频次、词性个数和各个词性的序号与词频，最后是双数组
+	 *
+	 * @param byteArray
+	 * @return 是否成功
+	 */
+	public boolean load(ByteArray byteArray) {
+		if (byteArray == null)
+			return false;
+		final int size = byteArray.nextInt();
+		int[] offset = new int[size + 1];
+		// 大多数词只有一个词性
+		int[] data = new int[size * 3];
+		int position = 0;
+		for (int i = 0; i < size; ++i) {
+			offset[i] = position;
+			final int totalFrequency = byteArray.nextInt();
+			final int length = byteArray.nextInt();
+			if (position + 1 + length * 2 > data.length) {
+				int[] newData = new int[Math.max(data.length * 2, position + 1 + length * 2)];
+				System.arraycopy(data, 0, newData, 0, position);
+				data = newData;
+			}
+			data[position++] = totalFrequency;
+			for (int j = 0; j < length; ++j) {
+				final int ordinal = byteArray.nextInt();
+				if (ordinal < 0 || ordinal >= NATURES.length)
+					return false;
+				data[position++] = ordinal;
+				data[position++] = byteArray.nextInt();
+			}
+		}
+		offset[size] = position;
+		if (position < data.length) {
+			int[] newData = new int[position];
+			System.arraycopy(data, 0, newData, 0, position);
+			data = newData;
+		}
+		if (!super.load(byteArray, null))
+			return false;
+		this.offset = offset;
+		this.data = data;
+		this.count = size;
+		this.cache = new AtomicReferenceArray<Cached>(CACHE_SIZE);
+		return true;
+	}
+
+	@Override
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * 词性的个数
+	 *
+	 * @param index 值下标，即词的ID
+	 * @return
+	 */
+	public int natureCount(int index) {
+		return (offset[index + 1] - offset[index] - 1) >> 1;
+	}
+
+	/**
+	 * 第k个词性
+	 *
+	 * @param index 值下标
+	 * @param k
+	 * @return
+	 */
+	public Nature nature(int index, int k) {
+		return NATURES[data[offset[index] + 1 + 2 * k]];
+	}
+
+	/**
+	 * 第k个词性的词频
+	 *
+	 * @param index 值下标
+	 * @param k
+	 * @return
+	 */
+	public int frequency(int index, int k) {
+		return data[offset[index] + 2 + 2 * k];
+	}
+
+	/**
+	 * 全部频次
+	 *
+	 * @param index 值下标
+	 * @return
+	 */
+	public int totalFrequency(int index) {
+		return data[offset[index]];
+	}
+
+	/**
+	 * 某个词性的词频，与{@link CoreDictionary.Attribute#getNatureFrequency(Nature)}相同
+	 *
+	 * @param index 值下标
+	 * @param nature
+	 * @return 没有这个词性时为0
+	 */
+	public int getNatureFrequency(int index, Nature nature) {
+		final int ordinal = nature.ordinal();
+		for (int p = offset[index] + 1, end = offset[index + 1]; p < end; p += 2) {
+			if (data[p] == ordinal)
+				return data[p + 1];
+		}
+		return 0;
+	}
+
+	@Override
+	protected CoreDictionary.Attribute valueAt(int index) {
+		if (index < 0 || index >= count)
+			return null;
+		final int slot = index & (CACHE_SIZE - 1);
+		Cached cached = cache.get(slot);
+		if (cached != null && cached.index == index)
+			return cached.attribute;
+		final int length = natureCount(index);
+		Nature[] nature = new Nature[length];
+		int[] frequency = new int[length];
+		for (int k = 0, p = offset[index] + 1; k < length; ++k, p += 2) {
+			nature[k] = NATURES[data[p]];
+			frequency[k] = data[p + 1];
+		}
+		CoreDictionary.Attribute attribute = new CoreDictionary.Attribute(nature, frequency, data[offset[index]]);
+		cache.set(slot, new Cached(index, attribute));
+		return attribute;
+	}
+
+	@Override
+	public CoreDictionary.Attribute[] getValueArray(CoreDictionary.Attribute[] a) {
+		if (a.length < count) {
+			a = new CoreDictionary.Attribute[count];
+		}
+		for (int i = 0; i < count; ++i) {
+			a[i] = valueAt(i);
+		}
+		return a;
+	}
+
+	@Override
+	public int build(List<String> _key, int _length[], int _value[], int _keySize) {
+		throw new UnsupportedOperationException("打包的词属性是只读的");
+	}
+
+	@Override
+	public boolean set(String key, CoreDictionary.Attribute value) {
+		throw new UnsupportedOperationException("打包的词属性是只读的");
+	}
+
+	@Override
+	public void setValueArray(CoreDictionary.Attribute[] value) {
+		throw new UnsupportedOperationException("打包的词属性是只读的");
+	}
+
+	@Override
+	public boolean load(ByteArray byteArray, CoreDictionary.Attribute[] value) {
+		return false;
+	}
+
+}
@@ -1,7 +1,6 @@
 package cn.edu.kmust.seanlp.dictionary.language;
 
-import cn.edu.kmust.seanlp.Config;
-import cn.edu.kmust.seanlp.Config.Log;
+import cn.edu.kmust.seanlp.ResourceRegistry;
 import cn.edu.kmust.seanlp.dictionary.CommonDictionary;
 
 /**
@@ -12,18 +11,13 @@ import cn.edu.kmust.seanlp.dictionary.CommonDictionary;
  */
 public class BurmeseSyllableDictionary {
 	
-public static CommonDictionary burmeseSyllableDictionary;
-	
-	// 自动加载词典
-	static {
-		long start = System.currentTimeMillis();
-		burmeseSyllableDictionary = CommonDictionary.loadCommonDictionary(Config.DictConf.dictionaryPath + Config.language.toString() + Config.DictConf.syllableDictionary);
-		if (burmeseSyllableDictionary == null) {
-			System.err.printf("核心词典%s加载失败\n", Config.DictConf.dictionaryPath + Config.language.toString() + Config.DictConf.syllableDictionary);
-			System.exit(-1);
-		} else {
-			Log.logger.info(Config.DictConf.dictionaryPath + Config.language.toString() + Config.DictConf.syllableDictionary + "加载成功，" + burmeseSyllableDictionary.dictionaryTrie.size() + "个词条，耗时" + (System.currentTimeMillis() - start) + "ms");
-		}
+	/**
+	 * 按需加载，失败时抛出ResourceLoadException，下次调用重新加载
+	 * 
+	 * @see ResourceRegistry#BURMESE_SYLLABLE_DICTIONARY
+	 */
+	public static CommonDictionary getBurmeseSyllableDictionary() {
+		return ResourceRegistry.BURMESE_SYLLABLE_DICTIONARY.get();
 	}
 
 }
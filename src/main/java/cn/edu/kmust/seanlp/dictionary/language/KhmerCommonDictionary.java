@@ -1,7 +1,6 @@
 package cn.edu.kmust.seanlp.dictionary.language;
 
-import cn.edu.kmust.seanlp.Config;
-import cn.edu.kmust.seanlp.Config.Log;
+import cn.edu.kmust.seanlp.ResourceRegistry;
 import cn.edu.kmust.seanlp.dictionary.CommonDictionary;
 
 /**
@@ -12,18 +11,13 @@ import cn.edu.kmust.seanlp.dictionary.CommonDictionary;
  */
 public class KhmerCommonDictionary {
 	
-	public static CommonDictionary khmerDictionary;
-	
-	// 自动加载词典
-	static {
-		long start = System.currentTimeMillis();
-		khmerDictionary = CommonDictionary.loadCommonDictionary(Config.DictConf.dictionaryPath + Config.language.toString() + Config.DictConf.commonDictionary);
-		if (khmerDictionary == null) {
-			System.err.printf("核心词典%s加载失败\n", Config.DictConf.dictionaryPath + Config.language.toString() + Config.DictConf.commonDictionary);
-			System.exit(-1);
-		} else {
-			Log.logger.info(Config.DictConf.dictionaryPath + Config.language.toString() + Config.DictConf.commonDictionary + "加载成功，" + khmerDictionary.dictionaryTrie.size() + "个词条，耗时" + (System.currentTimeMillis() - start) + "ms");
-		}
+	/**
+	 * 按需加载，失败时抛出ResourceLoadException，下次调用重新加载
+	 * 
+	 * @see ResourceRegistry#KHMER_COMMON_DICTIONARY
+	 */
+	public static CommonDictionary getKhmerDictionary() {
+		return ResourceRegistry.KHMER_COMMON_DICTIONARY.get();
 	}
 
 }
@@ -1,7 +1,6 @@
 package cn.edu.kmust.seanlp.dictionary.language;
 
-import cn.edu.kmust.seanlp.Config;
-import cn.edu.kmust.seanlp.Config.Log;
+import cn.edu.kmust.seanlp.ResourceRegistry;
 import cn.edu.kmust.seanlp.dictionary.NatureTransitionMatrix;
 import cn.edu.kmust.seanlp.segmenter.domain.Nature;
 
@@ -13,16 +12,13 @@ import cn.edu.kmust.seanlp.segmenter.domain.Nature;
  */
 public class KhmerNatureTransMatrix {
 	
-public static NatureTransitionMatrix<Nature> khmerTransMatrix;
-	
-	static {
-		khmerTransMatrix = new NatureTransitionMatrix<Nature>(Nature.class);
-		long start = System.currentTimeMillis();
-		if (!khmerTransMatrix.load(Config.DictConf.dictionaryPath + Config.language.toString() + Config.DictConf.natureTransitionMatrix)) {
-			System.err.println("加载核心词典词性转移矩阵" + Config.DictConf.dictionaryPath + Config.language.toString() + Config.DictConf.natureTransitionMatrix + "失败");
-			System.exit(-1);
-		} else {
-			Log.logger.info("加载核心词典词性转移矩阵" + Config.DictConf.dictionaryPath + Config.language.toString() + Config.DictConf.natureTransitionMatrix + "成功，耗时：" + (System.currentTimeMillis() - start) + " ms");
-		}
+	/**
+	 * 按需加载，失败时抛出ResourceLoadException，下次调用重新加载
+	 * 
+	 * @see ResourceRegistry#KHMER_NATURE_TRANSITION_MATRIX
+	 */
+	public static NatureTransitionMatrix<Nature> getKhmerTransMatrix() {
+		return ResourceRegistry.KHMER_NATURE_TRANSITION_MATRIX.get();
 	}
+
 }
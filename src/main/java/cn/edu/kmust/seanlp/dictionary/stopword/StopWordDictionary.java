@@ -25,12 +25,14 @@ public class StopWordDictionary {
 		if (byteArray == null) {
 			try {
 				dictionary = new StopWord(IOUtil.getInputStream(Config.DictConf.dictionaryPath + Config.DictConf.stopWord + FileExtensions.TXT));
-				String binName = System.getProperty("user.dir") + "/src/main/resources" + Config.DictConf.dictionaryPath + Config.DictConf.stopWord + FileExtensions.BIN;
-				DataOutputStream out = new DataOutputStream(new FileOutputStream(binName));
-				Log.logger.info("开始缓存停用词：" + Config.DictConf.dictionaryPath + Config.DictConf.stopWord + FileExtensions.BIN);
-				dictionary.save(out);
-				out.close();
-				Log.logger.info("停用词：" + Config.DictConf.dictionaryPath + Config.DictConf.stopWord +  FileExtensions.BIN + "缓存成功！" );
+				if (Config.DictConf.cachePath != null) {
+					String binName = Config.DictConf.cachePath + Config.DictConf.dictionaryPath + Config.DictConf.stopWord + FileExtensions.BIN;
+					DataOutputStream out = new DataOutputStream(new FileOutputStream(binName));
+					Log.logger.info("开始缓存停用词：" + binName);
+					dictionary.save(out);
+					out.close();
+					Log.logger.info("停用词：" + binName + "缓存成功！" );
+				}
 			} catch (Exception e) {
 				System.err.println("载入停用词词典" + Config.DictConf.dictionaryPath + Config.DictConf.stopWord + FileExtensions.BIN + "失败" + StringUtil.exceptionToString(e));
 			}
@@ -43,7 +43,7 @@ public class ThaiExtractor {
 	 * @return 关键句列表
 	 */
 	public static List<String> extractSummary(String document, int size) {
-		return TextRankSummarization.getTopSentenceList(document, size);
+		return TextRankSummarization.getTopSentenceList(document, size, Language.Thai);
 	}
 
 	/**
@@ -56,7 +56,7 @@ public class ThaiExtractor {
 	 * @return 摘要文本
 	 */
 	public static String getSummary(String document, int max_length) {
-		return TextRankSummarization.getSummary(document, max_length);
+		return TextRankSummarization.getSummary(document, max_length, Language.Thai);
 	}
 
 }
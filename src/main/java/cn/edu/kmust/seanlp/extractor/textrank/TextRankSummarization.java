@@ -5,6 +5,7 @@ import java.util.*;
 import cn.edu.kmust.seanlp.Config;
 import cn.edu.kmust.seanlp.Language;
 import cn.edu.kmust.seanlp.dictionary.stopword.StopWordDictionary;
+import cn.edu.kmust.seanlp.segmenter.SentenceSplitter;
 import cn.edu.kmust.seanlp.segmenter.domain.Term;
 import cn.edu.kmust.seanlp.util.StringUtil;
 
@@ -124,28 +125,42 @@ public class TextRankSummarization extends AbstractTextRank {
 		return total;
 	}
 
+	/**
+	 * 分行符，分句时去掉
+	 */
+	private static final String LINE = "။\r\n";
+	/**
+	 * 摘要还以逗号、冒号、引号等分句
+	 */
+	private static final String TERMINATOR = "，,。:：“”？?！!；;។";
+	/**
+	 * 各语言的分句器再加上分行符和上面的标点
+	 */
+	private static final Map<Language, SentenceSplitter> SENTENCE = new EnumMap<Language, SentenceSplitter>(Language.class);
+	static {
+		for (Language language : Language.values()) {
+			SENTENCE.put(language, SentenceSplitter.of(language).withTerminators(LINE + TERMINATOR));
+		}
+	}
+
 	/**
 	 * 将文章分割为句子
 	 *
 	 * @param document
+	 * @param language 文章的语言
 	 * @return
 	 */
-	static List<String> spiltSentence(String document) {
+	static List<String> spiltSentence(String document, Language language) {
 		List<String> sentences = new LinkedList<String>();
-		for (String line : document.split("[။\r\n]")) {
-			line = line.trim();
-			if (line.length() == 0)
+		int[] bounds = SENTENCE.get(language).split(document);
+		for (int i = 0; i + 1 < bounds.length; ++i) {
+			int end = bounds[i + 1];
+			if (LINE.indexOf(document.charAt(end - 1)) >= 0)
+				--end;
+			String sent = document.substring(bounds[i], end).trim();
+			if (sent.isEmpty())
 				continue;
-			String regex = "[，,。:：“”？?！!；;។]";;
-			if (Config.language.equals(Language.Thai)) {
-				regex = "|[ ]";
-			}
-			for (String sent : StringUtil.sentenceSegment(line, regex)) {
-				sent = sent.trim();
-				if (sent.isEmpty())
-					continue;
-				sentences.add(sent);
-			}
+			sentences.add(sent);
 		}
 		return sentences;
 	}
@@ -180,9 +195,26 @@ public class TextRankSummarization extends AbstractTextRank {
 	 * @param size
 	 *            需要的关键句的个数
 	 * @return 关键句列表
+	 * @deprecated 全局语言不一定是文档的语言，请使用{@link #getTopSentenceList(String, int, Language)}
 	 */
+	@Deprecated
 	public static List<String> getTopSentenceList(String document, int size) {
-		List<String> sentenceList = spiltSentence(document);
+		return getTopSentenceList(document, size, Config.language);
+	}
+
+	/**
+	 * 一句话调用接口
+	 *
+	 * @param document
+	 *            目标文档
+	 * @param size
+	 *            需要的关键句的个数
+	 * @param language
+	 *            文档的语言，决定分句方式
+	 * @return 关键句列表
+	 */
+	public static List<String> getTopSentenceList(String document, int size, Language language) {
+		List<String> sentenceList = spiltSentence(document, language);
 		List<List<String>> docs = convertSentenceListToDocument(sentenceList);
 		TextRankSummarization textRank = new TextRankSummarization(docs);
 		int[] topSentence = textRank.getTopSentence(size);
@@ -201,9 +233,26 @@ public class TextRankSummarization extends AbstractTextRank {
 	 * @param max_length
 	 *            需要摘要的长度
 	 * @return 摘要文本
+	 * @deprecated 全局语言不一定是文档的语言，请使用{@link #getSummary(String, int, Language)}
 	 */
+	@Deprecated
 	public static String getSummary(String document, int max_length) {
-		List<String> sentenceList = spiltSentence(document);
+		return getSummary(document, max_length, Config.language);
+	}
+
+	/**
+	 * 一句话调用接口
+	 *
+	 * @param document
+	 *            目标文档
+	 * @param max_length
+	 *            需要摘要的长度
+	 * @param language
+	 *            文档的语言，决定分句方式
+	 * @return 摘要文本
+	 */
+	public static String getSummary(String document, int max_length, Language language) {
+		List<String> sentenceList = spiltSentence(document, language);
 
 		int sentence_count = sentenceList.size();
 		int document_length = document.length();
@@ -0,0 +1,191 @@
+package cn.edu.kmust.seanlp.recognition;
+
+/**
+ * 基于字符类别表的数字、英语单词等特殊情况识别工具<br>
+ * 识别规则与{@link RecogTool#recog(String)}对整个字符串的识别相同，但直接在char数组上一遍扫描完成，
+ * 不截取子串、不使用正则表达式。{@link #longest(char[], int, int)}给出某个位置开始能识别的最长长度，
+ * 供匹配分词时代替逐个长度的识别
+ *
+ * @author Zhao Shiyu
+ *
+ */
+public class CharClassRecog {
+
+	public static final byte OTHER = 0;
+	/**
+	 * 阿拉伯数字，包括全角和半角
+	 */
+	public static final byte DIGIT = 1;
+	/**
+	 * 英文字母，包括大小写，全角和半角
+	 */
+	public static final byte ENGLISH = 2;
+	public static final byte THAI_DIGIT = 3;
+	public static final byte LAO_DIGIT = 4;
+	public static final byte KHMER_DIGIT = 5;
+	public static final byte MYANMAR_DIGIT = 6;
+	/**
+	 * 正负号
+	 */
+	public static final byte SIGN = 7;
+	/**
+	 * 小数点和分数线
+	 */
+	public static final byte SEPARATOR = 8;
+
+	private static final byte[] CHAR_CLASS = new byte[Character.MAX_VALUE + 1];
+
+	static {
+		fill('0', '9', DIGIT);
+		fill('０', '９', DIGIT);
+		fill('A', 'Z', ENGLISH);
+		fill('a', 'z', ENGLISH);
+		fill('Ａ', 'Ｚ', ENGLISH);
+		fill('ａ', 'ｚ', ENGLISH);
+		fill('๐', '๙', THAI_DIGIT);
+		fill('໐', '໙', LAO_DIGIT);
+		fill('០', '៩', KHMER_DIGIT);
+		fill('៰', '៹', KHMER_DIGIT);
+		fill('၀', '၉', MYANMAR_DIGIT);
+		fill('႐', '႙', MYANMAR_DIGIT);
+		CHAR_CLASS['+'] = SIGN;
+		CHAR_CLASS['-'] = SIGN;
+		CHAR_CLASS['.'] = SEPARATOR;
+		CHAR_CLASS['/'] = SEPARATOR;
+		CHAR_CLASS['／'] = SEPARATOR;
+		CHAR_CLASS['．'] = SEPARATOR;
+		CHAR_CLASS['·'] = SEPARATOR;
+	}
+
+	private static void fill(char from, char to, byte type) {
+		for (int c = from; c <= to; ++c) {
+			CHAR_CLASS[c] = type;
+		}
+	}
+
+	/**
+	 * 字符类别
+	 *
+	 * @param c
+	 * @return
+	 */
+	public static byte classOf(char c) {
+		return CHAR_CLASS[c];
+	}
+
+	/**
+	 * 从start开始能识别的最长长度
+	 *
+	 * @param text 文本
+	 * @param start 起点
+	 * @param maxLen 最大长度
+	 * @return 不超过maxLen的最长识别长度，不能识别时返回0
+	 */
+	public static int longest(char[] text, int start, int maxLen) {
+		final int end = Math.min(text.length, start + maxLen);
+		if (start >= end)
+			return 0;
+		final byte type = CHAR_CLASS[text[start]];
+		int best = 0;
+		// 数字串、英文单词以及各语言的数字串：同类字符连续出现
+		if (type >= DIGIT && type <= MYANMAR_DIGIT) {
+			best = run(text, start, end, type) - start;
+			if (type != DIGIT)
+				return best;
+		} else if (type != SIGN) {
+			return 0;
+		}
+		final boolean signed = type == SIGN;
+		final int digitStart = signed ? start + 1 : start;
+		final int digitEnd = run(text, digitStart, end, DIGIT);
+		if (digitEnd == digitStart)
+			return best;
+		// 带正负号的整数：正负号后面是0时只能是-0、+0
+		if (signed) {
+			best = Math.max(best, text[digitStart] == '0' ? 2 : digitEnd - start);
+		}
+		// 小数和分数：整数部分、小数点或分数线、数字串
+		if (digitEnd + 1 < end && CHAR_CLASS[text[digitEnd]] == SEPARATOR) {
+			int integerLength = digitEnd - start;
+			if (integerLength > (signed ? 2 : 1) && text[digitStart] == '0')
+				return best;
+			char separator = text[digitEnd];
+			if ((separator == '/' || separator == '／') && text[digitEnd + 1] == '0')
+				return best;
+			int fractionEnd = run(text, digitEnd + 1, end, DIGIT);
+			if (fractionEnd > digitEnd + 1)
+				best = Math.max(best, fractionEnd - start);
+		}
+		return best;
+	}
+
+	/**
+	 * 从start开始能识别的最短长度
+	 *
+	 * @param text 文本
+	 * @param start 起点
+	 * @param maxLen 最大长度
+	 * @return 不超过maxLen的最短识别长度，不能识别时返回0
+	 */
+	public static int shortest(char[] text, int start, int maxLen) {
+		final int end = Math.min(text.length, start + maxLen);
+		if (start >= end)
+			return 0;
+		final byte type = CHAR_CLASS[text[start]];
+		if (type >= DIGIT && type <= MYANMAR_DIGIT)
+			return 1;
+		if (type == SIGN && start + 1 < end && CHAR_CLASS[text[start + 1]] == DIGIT)
+			return 2;
+		return 0;
+	}
+
+	/**
+	 * 识别text[offset, offset + count)，与RecogTool.recog(new String(text, offset, count))的结果相同
+	 *
+	 * @param text
+	 * @param offset
+	 * @param count
+	 * @return
+	 */
+	public static boolean recog(char[] text, int offset, int count) {
+		// 每种模式能识别的长度都是连续的区间，所以count能识别当且仅当限定在count内的最长识别长度正好是count
+		return count == 0 || longest(text, offset, count) == count;
+	}
+
+	/**
+	 * 识别整个字符串，与RecogTool.recog(text)的结果相同
+	 *
+	 * @param text
+	 * @return
+	 */
+	public static boolean recog(String text) {
+		return recog(text.toCharArray(), 0, text.length());
+	}
+
+	/**
+	 * 能识别的字符串可能以c开头
+	 */
+	public static boolean isRecogStart(char c) {
+		final byte type = CHAR_CLASS[c];
+		return type != OTHER && type != SEPARATOR;
+	}
+
+	/**
+	 * 能识别的字符串可能以c结尾
+	 */
+	public static boolean isRecogEnd(char c) {
+		final byte type = CHAR_CLASS[c];
+		return type >= DIGIT && type <= MYANMAR_DIGIT;
+	}
+
+	/**
+	 * 从from开始类别为type的字符一直延续到哪里
+	 */
+	private static int run(char[] text, int from, int end, byte type) {
+		int i = from;
+		while (i < end && CHAR_CLASS[text[i]] == type)
+			++i;
+		return i;
+	}
+
+}
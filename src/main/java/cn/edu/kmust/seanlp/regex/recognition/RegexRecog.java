@@ -1,5 +1,7 @@
 package cn.edu.kmust.seanlp.regex.recognition;
 
+import java.util.regex.Pattern;
+
 import cn.edu.kmust.seanlp.regex.AbstractRegex;
 
 /**
@@ -10,6 +12,22 @@ import cn.edu.kmust.seanlp.regex.AbstractRegex;
  */
 public class RegexRecog extends AbstractRegex {
 	
+	private static final Pattern DIGIT_PATTERN = Pattern.compile(digit);
+	private static final Pattern INTEGER_PATTERN = Pattern.compile(integer);
+	private static final Pattern FRACTION_PATTERN = Pattern.compile(fraction);
+	private static final Pattern ENGLISH_PATTERN = Pattern.compile(english);
+	private static final Pattern THAI_DIGIT_PATTERN = Pattern.compile(digitThai);
+	private static final Pattern LAO_DIGIT_PATTERN = Pattern.compile(digitLao);
+	private static final Pattern KHMER_DIGIT_PATTERN = Pattern.compile(digitKhmer);
+	private static final Pattern MYANMAR_DIGIT_PATTERN = Pattern.compile(digitMyanmar);
+	
+	/**
+	 * 在text[offset, offset + count)上匹配预先编译好的正则，不截取子串
+	 */
+	private static boolean matches(Pattern pattern, String text, int offset, int count) {
+		return pattern.matcher(text).region(offset, offset + count).matches();
+	}
+	
 	/**
 	 * 识别文本数字、整数、小数、英语单词等
 	 * @param text
@@ -43,7 +61,7 @@ public class RegexRecog extends AbstractRegex {
 	 * @return
 	 */
 	public static boolean isDigit(String text, int offset, int count) {
-        return text.substring(offset, offset + count).matches(digit);
+        return matches(DIGIT_PATTERN, text, offset, count);
     }
 	
 	
@@ -64,7 +82,7 @@ public class RegexRecog extends AbstractRegex {
 	 * @return
 	 */
 	public static boolean isInteger(String text, int offset, int count) {
-		return text.substring(offset, offset + count).matches(integer);
+		return matches(INTEGER_PATTERN, text, offset, count);
 	}
 	
 	/**
@@ -84,7 +102,7 @@ public class RegexRecog extends AbstractRegex {
 	 * @return
 	 */
 	public static boolean isFraction(String text, int offset, int count) {
-		return text.substring(offset, offset + count).matches(fraction);
+		return matches(FRACTION_PATTERN, text, offset, count);
 	}
 	
 	/**
@@ -124,7 +142,7 @@ public class RegexRecog extends AbstractRegex {
 	 * @return
 	 */
 	public static boolean isEnglish(String text, int offset, int count) {
-		return text.substring(offset, offset + count).matches(english);
+		return matches(ENGLISH_PATTERN, text, offset, count);
     }
 	
 	/**
@@ -144,7 +162,7 @@ public class RegexRecog extends AbstractRegex {
 	 * @return
 	 */
 	public static boolean isThaiDigit(String text, int offset, int count) {
-		return text.substring(offset, offset + count).matches(digitThai);
+		return matches(THAI_DIGIT_PATTERN, text, offset, count);
     }
 	
 	
@@ -165,7 +183,7 @@ public class RegexRecog extends AbstractRegex {
 	 * @return
 	 */
 	public static boolean isLaoDigit(String text, int offset, int count) {
-		return text.substring(offset, offset + count).matches(digitLao);
+		return matches(LAO_DIGIT_PATTERN, text, offset, count);
     }
 	
 	
@@ -186,7 +204,7 @@ public class RegexRecog extends AbstractRegex {
 	 * @return
 	 */
 	public static boolean isKhmerDigit(String text, int offset, int count) {
-		return text.substring(offset, offset + count).matches(digitKhmer);
+		return matches(KHMER_DIGIT_PATTERN, text, offset, count);
     }
 	
 	
@@ -207,7 +225,7 @@ public class RegexRecog extends AbstractRegex {
 	 * @return
 	 */
 	public static boolean isMyanmarDigit(String text, int offset, int count) {
-		return text.substring(offset, offset + count).matches(digitMyanmar);
+		return matches(MYANMAR_DIGIT_PATTERN, text, offset, count);
     }
 	
 	/**
@@ -4,7 +4,6 @@ import java.util.LinkedList;
 import java.util.List;
 
 import cn.edu.kmust.seanlp.Language;
-import cn.edu.kmust.seanlp.Config.BaseConf;
 import cn.edu.kmust.seanlp.segmenter.domain.Term;
 
 /**
@@ -16,8 +15,21 @@ import cn.edu.kmust.seanlp.segmenter.domain.Term;
  */
 public abstract class AbstractBurmeseSegmenter  extends AbstractSegmenter implements BurmeseSegmenter {
 	
+	/**
+	 * 构造分词器，使用该语言的默认配置
+	 */
 	public AbstractBurmeseSegmenter() {
-		BaseConf.seletcLanguage(Language.Burmese);
+		this(SegmenterOptions.of(Language.Burmese));
+	}
+	
+	/**
+	 * 构造分词器
+	 * @param options 分词器配置，语言必须为缅甸语
+	 */
+	public AbstractBurmeseSegmenter(SegmenterOptions options) {
+		super(options);
+		if (options.getLanguage() != Language.Burmese)
+			throw new IllegalArgumentException("不是缅甸语的配置：" + options);
 	}
 	
 	protected abstract List<Term> segmentSentence(char[] sentence);
@@ -36,8 +48,13 @@ public abstract class AbstractBurmeseSegmenter  extends AbstractSegmenter implem
 		return termList;
 	}
 	
+	@Override
+	protected List<Term> segmentSentence(String text, int begin, int end) {
+		return segmentSentence(toCharArray(text, begin, end));
+	}
+	
 	public List<Term> segment(String text) {
-		return sentenceMerge(sentenceSegment(text));
+		return segmentSentences(text);
 	}
 
 }
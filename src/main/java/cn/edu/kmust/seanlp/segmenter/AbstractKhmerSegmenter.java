@@ -3,7 +3,6 @@ package cn.edu.kmust.seanlp.segmenter;
 import java.util.ArrayList;
 import java.util.List;
 
-import cn.edu.kmust.seanlp.Config.BaseConf;
 import cn.edu.kmust.seanlp.Language;
 import cn.edu.kmust.seanlp.segmenter.CC.KCC;
 import cn.edu.kmust.seanlp.segmenter.domain.Term;
@@ -18,10 +17,20 @@ import cn.edu.kmust.seanlp.segmenter.domain.Term;
 public abstract class AbstractKhmerSegmenter extends AbstractSegmenter implements KhmerSegmenter {
 	
 	/**
-	 * 构造分词器，同时配置语言
+	 * 构造分词器，使用该语言的默认配置
 	 */
 	public AbstractKhmerSegmenter() {
-		BaseConf.seletcLanguage(Language.Khmer);
+		this(SegmenterOptions.of(Language.Khmer));
+	}
+	
+	/**
+	 * 构造分词器
+	 * @param options 分词器配置，语言必须为高棉语
+	 */
+	public AbstractKhmerSegmenter(SegmenterOptions options) {
+		super(options);
+		if (options.getLanguage() != Language.Khmer)
+			throw new IllegalArgumentException("不是高棉语的配置：" + options);
 	}
 	
 	protected String[] toKCC(String sentence) {
@@ -55,8 +64,13 @@ public abstract class AbstractKhmerSegmenter extends AbstractSegmenter implement
 		return terms;
 	}
 	
+	@Override
+	protected List<Term> segmentSentence(String text, int begin, int end) {
+		return segmentSentence(text.substring(begin, end));
+	}
+	
 	public List<Term> segment(String text) {
-		return sentenceMerge(sentenceSegment(text));
+		return segmentSentences(text);
 	}
 
 }
@@ -4,7 +4,6 @@ import java.util.ArrayList;
 import java.util.List;
 
 import cn.edu.kmust.seanlp.Language;
-import cn.edu.kmust.seanlp.Config.BaseConf;
 import cn.edu.kmust.seanlp.segmenter.domain.Term;
 
 /**
@@ -17,10 +16,20 @@ import cn.edu.kmust.seanlp.segmenter.domain.Term;
 public abstract class AbstractLaoSegmenter extends AbstractSegmenter implements LaoSegmenter {
 	
 	/**
-	 * 构造分词器，同时配置语言
+	 * 构造分词器，使用该语言的默认配置
 	 */
 	public AbstractLaoSegmenter() {
-		BaseConf.seletcLanguage(Language.Lao);
+		this(SegmenterOptions.of(Language.Lao));
+	}
+	
+	/**
+	 * 构造分词器
+	 * @param options 分词器配置，语言必须为老挝语
+	 */
+	public AbstractLaoSegmenter(SegmenterOptions options) {
+		super(options);
+		if (options.getLanguage() != Language.Lao)
+			throw new IllegalArgumentException("不是老挝语的配置：" + options);
 	}
 	
 	protected abstract List<Term> segmentSentence(char[] sentence);
@@ -39,8 +48,13 @@ public abstract class AbstractLaoSegmenter extends AbstractSegmenter implements
 		return terms;
 	}
 	
+	@Override
+	protected List<Term> segmentSentence(String text, int begin, int end) {
+		return segmentSentence(toCharArray(text, begin, end));
+	}
+	
 	public List<Term> segment(String text) {
-		return sentenceMerge(sentenceSegment(text));
+		return segmentSentences(text);
 	}
 
 }
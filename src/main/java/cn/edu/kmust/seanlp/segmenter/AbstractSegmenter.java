@@ -1,10 +1,10 @@
 package cn.edu.kmust.seanlp.segmenter;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.ArrayList;
+import java.util.List;
 
 import cn.edu.kmust.seanlp.Config;
-import cn.edu.kmust.seanlp.Language;
+import cn.edu.kmust.seanlp.segmenter.domain.Term;
 
 /**
  * 分词器基本配置<br>
@@ -15,53 +15,115 @@ import cn.edu.kmust.seanlp.Language;
  */
 public abstract class AbstractSegmenter {
 	/**
-	 * 分词器配置
+	 * 分词器配置，不可变，修改时整体替换
 	 */
-	protected Config config;
+	protected volatile SegmenterOptions options;
+	
+	/**
+	 * 全局配置
+	 * 
+	 * @deprecated 分词器不再读取，请使用{@link #options}
+	 */
+	@Deprecated
+	protected Config config = new Config();
 
 	/**
-	 * 构造一个分词器
+	 * 按全局的{@link Config#language}构造一个分词器
+	 * 
+	 * @deprecated 请使用{@link #AbstractSegmenter(SegmenterOptions)}
 	 */
+	@Deprecated
 	public AbstractSegmenter() {
-		config = new Config();
+		this(SegmenterOptions.of(Config.language));
+	}
+
+	/**
+	 * 构造一个分词器
+	 * 
+	 * @param options 分词器配置
+	 */
+	public AbstractSegmenter(SegmenterOptions options) {
+		this.options = options;
 	}
 	
 	/**
-	 * 将文本分为句子，在对句子进行分词
+	 * 将文本分为句子，在对句子进行分词，句子结束符留在句末
 	 * @param text 文本
 	 * @return 句子
 	 */
 	protected String[] sentenceSegment(String text) {
-		String regex="[.;!?។]";
-		if (Config.language.equals(Language.Thai)) {
-			regex += "|[ ]";
-		}
-		Pattern pattern =Pattern.compile(regex);
-		Matcher matcher = pattern.matcher(text);
-		//按照句子结束符分割句子
-		String[] substrs = pattern.split(text);
-		//将句子结束符连接到相应的句子后
-		if (substrs.length > 0) {
-		    int count = 0;
-		    while (count < substrs.length) {
-		        if (matcher.find()) {
-		        	substrs[count] += matcher.group();
-		        }
-		        count++;
-		    }
+		return options.getSentenceSplitter().sentences(text);
+	}
+	
+	/**
+	 * 按分句器给出的边界逐句分词，不把文本截取成句子数组
+	 * @param text 文本
+	 * @return 各句的分词结果，按句子顺序合并
+	 */
+	protected List<Term> segmentSentences(String text) {
+		int[] bounds = options.getSentenceSplitter().split(text);
+		List<Term> terms = new ArrayList<Term>();
+		for (int i = 0; i + 1 < bounds.length; ++i) {
+			terms.addAll(segmentSentence(text, bounds[i], bounds[i + 1]));
 		}
-		return substrs;
+		return terms;
+	}
+	
+	/**
+	 * 对text中[begin, end)的一个句子分词
+	 * @param text 文本
+	 * @param begin 句子起点
+	 * @param end 句子终点
+	 * @return
+	 */
+	protected abstract List<Term> segmentSentence(String text, int begin, int end);
+	
+	/**
+	 * 把text中[begin, end)的字符复制到新数组中
+	 */
+	protected static char[] toCharArray(String text, int begin, int end) {
+		char[] chars = new char[end - begin];
+		text.getChars(begin, end, chars, 0);
+		return chars;
 	}
 	
 	/**
-	 * 开启词性标注
+	 * 开启词性标注，只影响当前分词器
 	 * 
 	 * @param enable
 	 * @return
 	 */
 	public AbstractSegmenter enablePartOfSpeechTagging(boolean enable) {
-		Config.BaseConf.speechTagging = enable;
+		options = options.withSpeechTagging(enable);
+		return this;
+	}
+	
+	/**
+	 * 开启自定义词典，只影响当前分词器，自定义词典见各语言词典的customDictionary
+	 * 
+	 * @param enable
+	 * @return
+	 */
+	public AbstractSegmenter enableCustomDictionary(boolean enable) {
+		options = options.withCustomDictionary(enable);
 		return this;
 	}
 	
-}
\ No newline at end of file
+	/**
+	 * 替换分词器配置
+	 * 
+	 * @param options 语言必须与分词器一致
+	 * @return
+	 */
+	public AbstractSegmenter setOptions(SegmenterOptions options) {
+		if (options.getLanguage() != this.options.getLanguage())
+			throw new IllegalArgumentException("分词器语言为" + this.options.getLanguage() + "，不能使用" + options.getLanguage() + "的配置");
+		this.options = options;
+		return this;
+	}
+	
+	public SegmenterOptions getOptions() {
+		return options;
+	}
+	
+}
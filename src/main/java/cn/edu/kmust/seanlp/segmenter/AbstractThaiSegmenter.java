@@ -4,7 +4,6 @@ import java.util.LinkedList;
 import java.util.List;
 
 import cn.edu.kmust.seanlp.Language;
-import cn.edu.kmust.seanlp.Config.BaseConf;
 import cn.edu.kmust.seanlp.segmenter.CC.TCC;
 import cn.edu.kmust.seanlp.segmenter.domain.Term;
 
@@ -18,10 +17,20 @@ import cn.edu.kmust.seanlp.segmenter.domain.Term;
 public abstract class AbstractThaiSegmenter extends AbstractSegmenter implements ThaiSegmenter {
 	
 	/**
-	 * 构造分词器，同时配置语言
+	 * 构造分词器，使用该语言的默认配置
 	 */
 	public AbstractThaiSegmenter() {
-		BaseConf.seletcLanguage(Language.Thai);
+		this(SegmenterOptions.of(Language.Thai));
+	}
+	
+	/**
+	 * 构造分词器
+	 * @param options 分词器配置，语言必须为泰语
+	 */
+	public AbstractThaiSegmenter(SegmenterOptions options) {
+		super(options);
+		if (options.getLanguage() != Language.Thai)
+			throw new IllegalArgumentException("不是泰语的配置：" + options);
 	}
 	
 	protected String[] toTCC(String sentence) {
@@ -127,8 +136,13 @@ public abstract class AbstractThaiSegmenter extends AbstractSegmenter implements
 		return termList;
 	}
 	
+	@Override
+	protected List<Term> segmentSentence(String text, int begin, int end) {
+		return segment(toCharArray(text, begin, end));
+	}
+	
 	public List<Term> segment(String text) {
-		return sentenceMerge(sentenceSegment(text));
+		return segmentSentences(text);
 	}
 	
 }
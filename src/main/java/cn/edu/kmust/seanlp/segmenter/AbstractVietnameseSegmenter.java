@@ -3,7 +3,6 @@ package cn.edu.kmust.seanlp.segmenter;
 import java.util.LinkedList;
 import java.util.List;
 
-import cn.edu.kmust.seanlp.Config.BaseConf;
 import cn.edu.kmust.seanlp.Language;
 import cn.edu.kmust.seanlp.segmenter.domain.Term;
 
@@ -17,10 +16,20 @@ import cn.edu.kmust.seanlp.segmenter.domain.Term;
 public abstract class AbstractVietnameseSegmenter extends AbstractSegmenter implements VietnameseSegmenter {
 	
 	/**
-	 * 构造分词器，同时配置语言
+	 * 构造分词器，使用该语言的默认配置
 	 */
 	public AbstractVietnameseSegmenter() {
-		BaseConf.seletcLanguage(Language.Vietnamese);
+		this(SegmenterOptions.of(Language.Vietnamese));
+	}
+	
+	/**
+	 * 构造分词器
+	 * @param options 分词器配置，语言必须为越南语
+	 */
+	public AbstractVietnameseSegmenter(SegmenterOptions options) {
+		super(options);
+		if (options.getLanguage() != Language.Vietnamese)
+			throw new IllegalArgumentException("不是越南语的配置：" + options);
 	}
 	
 	protected abstract List<Term> segmentSentence(char[] sentence);
@@ -46,9 +55,14 @@ public abstract class AbstractVietnameseSegmenter extends AbstractSegmenter impl
 		return termList;
 	}
 	
+	@Override
+	protected List<Term> segmentSentence(String text, int begin, int end) {
+		return segmentSentence(text.substring(begin, end).split(" "));
+	}
+	
 	public List<Term> segment(String text) {
 		text = text.replaceAll("[\\pP]+", " $0");
-		return sentenceMerge(sentenceSegment(text));
+		return segmentSentences(text);
 	}
 
 }
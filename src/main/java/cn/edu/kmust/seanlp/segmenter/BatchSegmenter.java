@@ -0,0 +1,196 @@
+package cn.edu.kmust.seanlp.segmenter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import cn.edu.kmust.seanlp.segmenter.domain.Term;
+
+/**
+ * 并行批量分词<br>
+ * 先把所有文档切分成句子，再以句子为单位在{@link ForkJoinPool}上分词：任务按字符数对半拆分，
+ * 空闲的线程会窃取其他线程拆出的任务，长短不一的句子也能均匀地分配到各个线程上。
+ * 分词结果按原来的顺序合并，词语的位置为在所属文档中的位置，找不到的词语为{@link StreamSegmenter#UNKNOWN_OFFSET}。
+ * 要求分词器可以在多个线程中同时使用
+ *
+ * @author Zhao Shiyu
+ *
+ */
+public class BatchSegmenter {
+
+	/**
+	 * 字符数不超过这个值的任务不再拆分
+	 */
+	private static final int GRAIN = 2048;
+
+	private final Segmenter segmenter;
+	private final SentenceSplitter splitter;
+	private final ForkJoinPool pool;
+
+	/**
+	 * 使用分词器配置中的分句器和公共的ForkJoinPool
+	 *
+	 * @param segmenter 分词器
+	 */
+	public BatchSegmenter(Segmenter segmenter) {
+		this(segmenter, segmenter instanceof AbstractSegmenter
+				? ((AbstractSegmenter) segmenter).getOptions().getSentenceSplitter() : SentenceSplitter.DEFAULT,
+				ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * @param segmenter 分词器
+	 * @param splitter 分句器
+	 * @param pool 执行分词的线程池
+	 */
+	public BatchSegmenter(Segmenter segmenter, SentenceSplitter splitter, ForkJoinPool pool) {
+		if (segmenter == null || splitter == null || pool == null)
+			throw new NullPointerException();
+		this.segmenter = segmenter;
+		this.splitter = splitter;
+		this.pool = pool;
+	}
+
+	/**
+	 * 批量分词
+	 *
+	 * @param documents 文档
+	 * @return 每个文档的分词结果，顺序与documents相同
+	 */
+	public List<List<Term>> segmentAll(List<String> documents) {
+		String[] texts = documents.toArray(new String[documents.size()]);
+		Sentences sentences = new Sentences(texts.length);
+		for (int d = 0; d < texts.length; ++d) {
+			sentences.add(d, splitter.split(texts[d]));
+		}
+		List<Term>[] results = segment(texts, sentences);
+		List<List<Term>> merged = new ArrayList<List<Term>>(texts.length);
+		for (int d = 0; d < texts.length; ++d) {
+			merged.add(merge(sentences, results, sentences.first[d], sentences.first[d + 1]));
+		}
+		return merged;
+	}
+
+	/**
+	 * 大文档分词，句子分配到多个线程上
+	 *
+	 * @param document 文档
+	 * @return 分词结果，词语的位置为在文档中的位置
+	 */
+	public List<Term> segment(String document) {
+		return segmentAll(Collections.singletonList(document)).get(0);
+	}
+
+	private List<Term>[] segment(String[] texts, Sentences sentences) {
+		@SuppressWarnings({ "rawtypes", "unchecked" })
+		List<Term>[] results = new List[sentences.count];
+		if (sentences.count > 0)
+			pool.invoke(new SegmentTask(texts, sentences, results, 0, sentences.count));
+		return results;
+	}
+
+	/**
+	 * 按顺序合并句子[from, to)的分词结果，并把词语的位置换算为在文档中的位置
+	 */
+	private static List<Term> merge(Sentences sentences, List<Term>[] results, int from, int to) {
+		int size = 0;
+		for (int i = from; i < to; ++i) {
+			size += results[i].size();
+		}
+		List<Term> terms = new ArrayList<Term>(size);
+		for (int i = from; i < to; ++i) {
+			int begin = sentences.begin[i];
+			for (Term term : results[i]) {
+				term.setOffset(StreamSegmenter.shift(begin, term.getOffset()));
+				terms.add(term);
+			}
+		}
+		return terms;
+	}
+
+	/**
+	 * 所有文档的句子，按文档顺序排列
+	 */
+	private static final class Sentences {
+		int count;
+		int[] document = new int[64];
+		int[] begin = new int[64];
+		int[] end = new int[64];
+		/**
+		 * 字符数的前缀和，用来按字符数拆分任务
+		 */
+		long[] chars = new long[65];
+		/**
+		 * 第d个文档的第一个句子，first[d + 1]为其后一个文档的第一个句子
+		 */
+		final int[] first;
+
+		Sentences(int documents) {
+			first = new int[documents + 1];
+		}
+
+		void add(int d, int[] bounds) {
+			int n = bounds.length - 1;
+			if (count + n > begin.length) {
+				int capacity = Math.max(count + n, begin.length * 2);
+				document = Arrays.copyOf(document, capacity);
+				begin = Arrays.copyOf(begin, capacity);
+				end = Arrays.copyOf(end, capacity);
+				chars = Arrays.copyOf(chars, capacity + 1);
+			}
+			for (int i = 0; i < n; ++i) {
+				document[count] = d;
+				begin[count] = bounds[i];
+				end[count] = bounds[i + 1];
+				chars[count + 1] = chars[count] + bounds[i + 1] - bounds[i];
+				++count;
+			}
+			first[d + 1] = count;
+		}
+
+		/**
+		 * 把[from, to)拆成字符数大致相等的两半
+		 */
+		int middle(int from, int to) {
+			long half = (chars[from] + chars[to]) / 2;
+			int index = Arrays.binarySearch(chars, from + 1, to, half);
+			int middle = index >= 0 ? index : -index - 1;
+			return Math.min(Math.max(middle, from + 1), to - 1);
+		}
+	}
+
+	private final class SegmentTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final String[] texts;
+		private final Sentences sentences;
+		private final List<Term>[] results;
+		private final int from;
+		private final int to;
+
+		SegmentTask(String[] texts, Sentences sentences, List<Term>[] results, int from, int to) {
+			this.texts = texts;
+			this.sentences = sentences;
+			this.results = results;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from == 1 || sentences.chars[to] - sentences.chars[from] <= GRAIN) {
+				for (int i = from; i < to; ++i) {
+					String sentence = texts[sentences.document[i]].substring(sentences.begin[i], sentences.end[i]);
+					results[i] = StreamSegmenter.align(sentence, segmenter.segment(sentence));
+				}
+				return;
+			}
+			int middle = sentences.middle(from, to);
+			invokeAll(new SegmentTask(texts, sentences, results, from, middle),
+					new SegmentTask(texts, sentences, results, middle, to));
+		}
+	}
+
+}
@@ -1,7 +1,11 @@
 package cn.edu.kmust.seanlp.segmenter.CC;
 
+import java.util.LinkedList;
+import java.util.List;
+
 import cn.edu.kmust.seanlp.regex.AbstractRegex;
 import cn.edu.kmust.seanlp.segmenter.Segmenter;
+import cn.edu.kmust.seanlp.segmenter.domain.Term;
 
 /**
  * 
@@ -31,6 +35,47 @@ public abstract class AbstractCC extends AbstractRegex implements Segmenter {
 	
 	public abstract String token(String sentence);
 	
+	/**
+	 * 切分为字符簇
+	 * 
+	 * @param dfa 字符簇自动机
+	 * @param sentence
+	 * @return 字符簇序列，空文本返回空数组
+	 */
+	static String[] split(ClusterDFA dfa, String sentence) {
+		int[] bounds = dfa.find(sentence);
+		String[] clusters = new String[bounds.length / 2];
+		for (int i = 0; i < clusters.length; ++i) {
+			clusters[i] = sentence.substring(bounds[2 * i], bounds[2 * i + 1]);
+		}
+		return clusters;
+	}
+	
+	/**
+	 * 切分为字符簇，每个字符簇后接一个“|”
+	 */
+	static String join(ClusterDFA dfa, String sentence) {
+		int[] bounds = dfa.find(sentence);
+		StringBuilder sb = new StringBuilder(sentence.length() + bounds.length / 2);
+		for (int i = 0; i < bounds.length; i += 2) {
+			sb.append(sentence, bounds[i], bounds[i + 1]).append(orex);
+		}
+		return sb.toString();
+	}
+	
+	/**
+	 * 切分为字符簇，并记录每个字符簇在句子中的位置
+	 */
+	static List<Term> segment(ClusterDFA dfa, String sentence) {
+		int[] bounds = dfa.find(sentence);
+		List<Term> result = new LinkedList<Term>();
+		for (int i = 0; i < bounds.length; i += 2) {
+			Term term = new Term(sentence.substring(bounds[i], bounds[i + 1]), null);
+			term.setOffset(bounds[i]);
+			result.add(term);
+		}
+		return result;
+	}
 	
 
 }
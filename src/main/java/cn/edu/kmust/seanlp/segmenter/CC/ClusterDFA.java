@@ -0,0 +1,544 @@
+package cn.edu.kmust.seanlp.segmenter.CC;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 由字符簇正则编译得到的确定有限自动机<br>
+ * 只支持TCC、KCC用到的正则子集：字面字符、字符类（范围、\pP、\s）、.、分组、|、?、*、+、{m,n}。
+ * 编译时先把正则转成NFA，再按优先级有序的状态子集构造DFA：同一个子集中排在匹配状态之后的线程被剪掉，
+ * 所以匹配结果与java.util.regex的“最左优先”语义（按顺序尝试各个分支，量词贪婪）完全一致。
+ * 码位先按它满足哪些字符类归入等价类，基本多文种平面查表，辅助平面按需计算。
+ * 编译只做一次，匹配时每个码位查两次表，不回溯，不产生任何中间字符串。自动机是不可变的，可以在多个线程中共享
+ *
+ * @author Zhao Shiyu
+ *
+ */
+final class ClusterDFA {
+
+	private static final int CHAR = 0;
+	private static final int SPLIT = 1;
+	private static final int MATCH = 2;
+
+	/**
+	 * 字符类，由码位范围和Unicode类别组成
+	 */
+	private static final class CharSet {
+		final int[] ranges;
+		final int categories;
+
+		CharSet(int[] ranges, int categories) {
+			this.ranges = ranges;
+			this.categories = categories;
+		}
+
+		boolean contains(int cp, int type) {
+			if ((categories & (1 << type)) != 0)
+				return true;
+			for (int i = 0; i < ranges.length; i += 2) {
+				if (cp >= ranges[i] && cp <= ranges[i + 1])
+					return true;
+			}
+			return false;
+		}
+
+		String key() {
+			return Arrays.toString(ranges) + categories;
+		}
+	}
+
+	/**
+	 * 正则的语法树
+	 */
+	private static final class Node {
+		static final int ATOM = 0, SEQ = 1, ALT = 2, REPEAT = 3;
+		final int kind;
+		final int set;
+		final List<Node> children;
+		final int min;
+		final int max;
+
+		Node(int kind, int set, List<Node> children, int min, int max) {
+			this.kind = kind;
+			this.set = set;
+			this.children = children;
+			this.min = min;
+			this.max = max;
+		}
+	}
+
+	private final List<CharSet> sets = new ArrayList<CharSet>();
+	private final Map<String, Integer> setIndex = new HashMap<String, Integer>();
+
+	// NFA
+	private int[] type = new int[64];
+	private int[] out1 = new int[64];
+	private int[] out2 = new int[64];
+	private int[] setOf = new int[64];
+	private int nfaSize;
+
+	// 等价类
+	private final char[] bmpClass = new char[0x10000];
+	private final Map<BitSet, Integer> classIndex = new HashMap<BitSet, Integer>();
+	private final List<BitSet> classes = new ArrayList<BitSet>();
+
+	// DFA
+	private int classCount;
+	private int[] next;
+	private boolean[] accept;
+	private boolean[] terminal;
+
+	private final String regex;
+	private int p;
+
+	private ClusterDFA(String regex) {
+		this.regex = regex;
+	}
+
+	/**
+	 * 编译正则
+	 *
+	 * @param regex 字符簇正则
+	 * @return
+	 * @throws IllegalArgumentException 正则中有不支持的语法
+	 */
+	static ClusterDFA compile(String regex) {
+		ClusterDFA dfa = new ClusterDFA(regex);
+		Node root = dfa.parseAlternation();
+		if (dfa.p != regex.length())
+			throw dfa.error("多余的)");
+		int match = dfa.newState(MATCH, -1, -1, -1);
+		int start = dfa.build(root, match);
+		dfa.buildClasses();
+		dfa.determinize(start);
+		return dfa;
+	}
+
+	/**
+	 * 从start开始的最左优先匹配
+	 *
+	 * @param text
+	 * @param start
+	 * @param end 文本终点
+	 * @return 匹配的终点，start处没有匹配时为-1
+	 */
+	int match(CharSequence text, int start, int end) {
+		final int[] next = this.next;
+		final int classCount = this.classCount;
+		int state = 0;
+		int last = -1;
+		for (int i = start; i < end;) {
+			char c = text.charAt(i);
+			int cls;
+			int length = 1;
+			if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(text.charAt(i + 1))) {
+				cls = supplementaryClass(Character.toCodePoint(c, text.charAt(i + 1)));
+				length = 2;
+			} else {
+				cls = bmpClass[c];
+			}
+			state = next[state * classCount + cls];
+			if (state < 0)
+				break;
+			i += length;
+			if (accept[state])
+				last = i;
+			if (terminal[state])
+				break;
+		}
+		return last;
+	}
+
+	/**
+	 * 与{@link java.util.regex.Matcher#find()}逐个查找的结果相同：从头开始匹配，某处没有匹配时跳过一个字符
+	 *
+	 * @param text
+	 * @return 字符簇的边界，第i个字符簇为[bounds[2i], bounds[2i + 1])
+	 */
+	int[] find(CharSequence text) {
+		final int length = text.length();
+		int[] bounds = new int[Math.max(8, length)];
+		int count = 0;
+		for (int i = 0; i < length;) {
+			int end = match(text, i, length);
+			if (end < 0) {
+				++i;
+				continue;
+			}
+			if (count + 2 > bounds.length)
+				bounds = Arrays.copyOf(bounds, bounds.length * 2);
+			bounds[count++] = i;
+			bounds[count++] = end;
+			i = end;
+		}
+		return Arrays.copyOf(bounds, count);
+	}
+
+	int stateCount() {
+		return accept.length;
+	}
+
+	int classCount() {
+		return classCount;
+	}
+
+	// ---------------- 解析 ----------------
+
+	private Node parseAlternation() {
+		List<Node> alternatives = new ArrayList<Node>();
+		alternatives.add(parseSequence());
+		while (p < regex.length() && regex.charAt(p) == '|') {
+			++p;
+			alternatives.add(parseSequence());
+		}
+		return alternatives.size() == 1 ? alternatives.get(0) : new Node(Node.ALT, -1, alternatives, 0, 0);
+	}
+
+	private Node parseSequence() {
+		List<Node> items = new ArrayList<Node>();
+		while (p < regex.length() && regex.charAt(p) != '|' && regex.charAt(p) != ')') {
+			items.add(parseQuantifier(parseAtom()));
+		}
+		return items.size() == 1 ? items.get(0) : new Node(Node.SEQ, -1, items, 0, 0);
+	}
+
+	private Node parseQuantifier(Node atom) {
+		while (p < regex.length()) {
+			char c = regex.charAt(p);
+			int min, max;
+			if (c == '?') {
+				min = 0;
+				max = 1;
+				++p;
+			} else if (c == '*') {
+				min = 0;
+				max = -1;
+				++p;
+			} else if (c == '+') {
+				min = 1;
+				max = -1;
+				++p;
+			} else if (c == '{') {
+				int close = regex.indexOf('}', p);
+				if (close < 0)
+					throw error("缺少}");
+				String[] bounds = regex.substring(p + 1, close).split(",", -1);
+				min = Integer.parseInt(bounds[0].trim());
+				max = bounds.length == 1 ? min : bounds[1].trim().isEmpty() ? -1 : Integer.parseInt(bounds[1].trim());
+				p = close + 1;
+			} else {
+				break;
+			}
+			if (p < regex.length() && (regex.charAt(p) == '?' || regex.charAt(p) == '+'))
+				throw error("不支持非贪婪或占有量词");
+			List<Node> children = new ArrayList<Node>(1);
+			children.add(atom);
+			atom = new Node(Node.REPEAT, -1, children, min, max);
+		}
+		return atom;
+	}
+
+	private Node parseAtom() {
+		char c = regex.charAt(p);
+		if (c == '(') {
+			++p;
+			if (p < regex.length() && regex.charAt(p) == '?')
+				throw error("不支持特殊分组");
+			Node group = parseAlternation();
+			if (p >= regex.length() || regex.charAt(p) != ')')
+				throw error("缺少)");
+			++p;
+			return group;
+		}
+		if (c == '[')
+			return atom(parseClass());
+		if (c == '.') {
+			++p;
+			// 不含行结束符
+			return atom(new CharSet(new int[] { 0, 0x9, 0xB, 0xC, 0xE, 0x84, 0x86, 0x2027, 0x202A, Character.MAX_CODE_POINT }, 0));
+		}
+		if (c == '\\')
+			return atom(parseEscape());
+		if (c == '^' || c == '$')
+			throw error("不支持边界匹配");
+		int cp = regex.codePointAt(p);
+		p += Character.charCount(cp);
+		return atom(new CharSet(new int[] { cp, cp }, 0));
+	}
+
+	private CharSet parseClass() {
+		++p; // [
+		if (p < regex.length() && regex.charAt(p) == '^')
+			throw error("不支持取反的字符类");
+		List<int[]> ranges = new ArrayList<int[]>();
+		int categories = 0;
+		while (p < regex.length() && regex.charAt(p) != ']') {
+			int from;
+			if (regex.charAt(p) == '\\') {
+				CharSet escape = parseEscape();
+				if (escape.categories != 0 || escape.ranges.length != 2 || escape.ranges[0] != escape.ranges[1]) {
+					categories |= escape.categories;
+					for (int i = 0; i < escape.ranges.length; i += 2) {
+						ranges.add(new int[] { escape.ranges[i], escape.ranges[i + 1] });
+					}
+					continue;
+				}
+				from = escape.ranges[0];
+			} else {
+				from = regex.codePointAt(p);
+				p += Character.charCount(from);
+			}
+			int to = from;
+			if (p + 1 < regex.length() && regex.charAt(p) == '-' && regex.charAt(p + 1) != ']') {
+				++p;
+				to = regex.codePointAt(p);
+				p += Character.charCount(to);
+			}
+			ranges.add(new int[] { from, to });
+		}
+		if (p >= regex.length())
+			throw error("缺少]");
+		++p;
+		int[] flat = new int[ranges.size() * 2];
+		for (int i = 0; i < ranges.size(); ++i) {
+			flat[2 * i] = ranges.get(i)[0];
+			flat[2 * i + 1] = ranges.get(i)[1];
+		}
+		return new CharSet(flat, categories);
+	}
+
+	private CharSet parseEscape() {
+		++p; // \
+		if (p >= regex.length())
+			throw error("不完整的转义");
+		char c = regex.charAt(p++);
+		switch (c) {
+		case 's':
+			return new CharSet(new int[] { ' ', ' ', '\t', '\t', '\n', '\n', 0xB, 0xB, '\f', '\f', '\r', '\r' }, 0);
+		case 'd':
+			return new CharSet(new int[] { '0', '9' }, 0);
+		case 'p':
+			if (p < regex.length() && regex.charAt(p) == 'P') {
+				++p;
+				return new CharSet(new int[0], 1 << Character.CONNECTOR_PUNCTUATION | 1 << Character.DASH_PUNCTUATION
+						| 1 << Character.START_PUNCTUATION | 1 << Character.END_PUNCTUATION
+						| 1 << Character.INITIAL_QUOTE_PUNCTUATION | 1 << Character.FINAL_QUOTE_PUNCTUATION
+						| 1 << Character.OTHER_PUNCTUATION);
+			}
+			throw error("只支持\\pP");
+		case 't':
+			return new CharSet(new int[] { '\t', '\t' }, 0);
+		case 'n':
+			return new CharSet(new int[] { '\n', '\n' }, 0);
+		case 'r':
+			return new CharSet(new int[] { '\r', '\r' }, 0);
+		default:
+			if (Character.isLetterOrDigit(c))
+				throw error("不支持的转义\\" + c);
+			return new CharSet(new int[] { c, c }, 0);
+		}
+	}
+
+	private Node atom(CharSet set) {
+		Integer index = setIndex.get(set.key());
+		if (index == null) {
+			index = sets.size();
+			sets.add(set);
+			setIndex.put(set.key(), index);
+		}
+		return new Node(Node.ATOM, index, null, 0, 0);
+	}
+
+	private IllegalArgumentException error(String message) {
+		return new IllegalArgumentException(message + "，位置" + p + "：" + regex);
+	}
+
+	// ---------------- NFA ----------------
+
+	private int newState(int t, int o1, int o2, int set) {
+		if (nfaSize == type.length) {
+			type = Arrays.copyOf(type, nfaSize * 2);
+			out1 = Arrays.copyOf(out1, nfaSize * 2);
+			out2 = Arrays.copyOf(out2, nfaSize * 2);
+			setOf = Arrays.copyOf(setOf, nfaSize * 2);
+		}
+		type[nfaSize] = t;
+		out1[nfaSize] = o1;
+		out2[nfaSize] = o2;
+		setOf[nfaSize] = set;
+		return nfaSize++;
+	}
+
+	/**
+	 * 编译语法树，匹配完成后转到next，SPLIT的out1优先
+	 *
+	 * @return 起始状态
+	 */
+	private int build(Node node, int next) {
+		switch (node.kind) {
+		case Node.ATOM:
+			return newState(CHAR, next, -1, node.set);
+		case Node.SEQ:
+			for (int i = node.children.size() - 1; i >= 0; --i) {
+				next = build(node.children.get(i), next);
+			}
+			return next;
+		case Node.ALT: {
+			int start = build(node.children.get(node.children.size() - 1), next);
+			for (int i = node.children.size() - 2; i >= 0; --i) {
+				start = newState(SPLIT, build(node.children.get(i), next), start, -1);
+			}
+			return start;
+		}
+		default: {
+			Node child = node.children.get(0);
+			if (node.max < 0) {
+				// 贪婪的循环：先进入子式，再退出
+				int loop = newState(SPLIT, -1, next, -1);
+				out1[loop] = build(child, loop);
+				next = loop;
+			} else {
+				for (int i = node.min; i < node.max; ++i) {
+					next = newState(SPLIT, build(child, next), next, -1);
+				}
+			}
+			for (int i = 0; i < node.min; ++i) {
+				next = build(child, next);
+			}
+			return next;
+		}
+		}
+	}
+
+	// ---------------- 等价类 ----------------
+
+	private BitSet signature(int cp) {
+		final int t = Character.getType(cp);
+		BitSet signature = new BitSet(sets.size());
+		for (int i = 0; i < sets.size(); ++i) {
+			if (sets.get(i).contains(cp, t))
+				signature.set(i);
+		}
+		return signature;
+	}
+
+	private int classOf(BitSet signature) {
+		Integer index = classIndex.get(signature);
+		if (index == null) {
+			index = classes.size();
+			classes.add(signature);
+			classIndex.put(signature, index);
+		}
+		return index;
+	}
+
+	private void buildClasses() {
+		for (int c = 0; c < 0x10000; ++c) {
+			bmpClass[c] = (char) classOf(signature(c));
+		}
+		// 辅助平面：在每个范围端点划分出的区间内，签名只取决于码位的Unicode类别
+		List<Integer> points = new ArrayList<Integer>();
+		points.add(0x10000);
+		for (CharSet set : sets) {
+			for (int i = 0; i < set.ranges.length; i += 2) {
+				if (set.ranges[i] > 0xFFFF)
+					points.add(set.ranges[i]);
+				if (set.ranges[i + 1] >= 0xFFFF && set.ranges[i + 1] < Character.MAX_CODE_POINT)
+					points.add(set.ranges[i + 1] + 1);
+			}
+		}
+		for (int point : points) {
+			for (int t = 0; t < 32; ++t) {
+				BitSet signature = new BitSet(sets.size());
+				for (int i = 0; i < sets.size(); ++i) {
+					if (sets.get(i).contains(point, t))
+						signature.set(i);
+				}
+				classOf(signature);
+			}
+		}
+		if (classes.size() > Character.MAX_VALUE)
+			throw error("字符类太多");
+		classCount = classes.size();
+	}
+
+	private int supplementaryClass(int cp) {
+		return classIndex.get(signature(cp));
+	}
+
+	// ---------------- DFA ----------------
+
+	/**
+	 * 按优先级求ε闭包，遇到匹配状态后剪掉后面的线程
+	 *
+	 * @return 是否到达匹配状态
+	 */
+	private boolean closure(int state, BitSet visited, int[] list, int[] size) {
+		if (visited.get(state))
+			return false;
+		visited.set(state);
+		switch (type[state]) {
+		case SPLIT:
+			return closure(out1[state], visited, list, size) || closure(out2[state], visited, list, size);
+		case MATCH:
+			list[size[0]++] = state;
+			return true;
+		default:
+			list[size[0]++] = state;
+			return false;
+		}
+	}
+
+	private void determinize(int start) {
+		Map<String, Integer> index = new HashMap<String, Integer>();
+		List<int[]> states = new ArrayList<int[]>();
+		int[] buffer = new int[nfaSize];
+		int[] size = new int[1];
+		closure(start, new BitSet(nfaSize), buffer, size);
+		int[] initial = Arrays.copyOf(buffer, size[0]);
+		states.add(initial);
+		index.put(Arrays.toString(initial), 0);
+		int[] transitions = new int[classCount * 16];
+		for (int s = 0; s < states.size(); ++s) {
+			int[] threads = states.get(s);
+			if ((s + 1) * classCount > transitions.length)
+				transitions = Arrays.copyOf(transitions, Math.max(transitions.length * 2, (s + 1) * classCount));
+			for (int c = 0; c < classCount; ++c) {
+				BitSet signature = classes.get(c);
+				BitSet visited = new BitSet(nfaSize);
+				size[0] = 0;
+				for (int thread : threads) {
+					if (type[thread] == CHAR && signature.get(setOf[thread])
+							&& closure(out1[thread], visited, buffer, size))
+						break;
+				}
+				int target = -1;
+				if (size[0] > 0) {
+					int[] list = Arrays.copyOf(buffer, size[0]);
+					String key = Arrays.toString(list);
+					Integer id = index.get(key);
+					if (id == null) {
+						id = states.size();
+						states.add(list);
+						index.put(key, id);
+					}
+					target = id;
+				}
+				transitions[s * classCount + c] = target;
+			}
+		}
+		next = Arrays.copyOf(transitions, states.size() * classCount);
+		accept = new boolean[states.size()];
+		terminal = new boolean[states.size()];
+		for (int s = 0; s < states.size(); ++s) {
+			int[] threads = states.get(s);
+			accept[s] = threads.length > 0 && type[threads[threads.length - 1]] == MATCH;
+			terminal[s] = threads.length == 1 && accept[s];
+		}
+	}
+
+}
@@ -1,14 +1,12 @@
 package cn.edu.kmust.seanlp.segmenter.CC;
 
-import java.util.LinkedList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import cn.edu.kmust.seanlp.segmenter.domain.Term;
 
 /**
- * KCC切分
+ * KCC切分<br>
+ * KCC的语法用正则表达式描述，类加载时编译为{@link ClusterDFA}，切分时只扫描一遍文本
  * 
  * @author Zhao Shiyu
  *
@@ -46,7 +44,7 @@ public class KCC extends AbstractCC {
 			+ orex + DONT_KNOW
 			;
 	
-	private final static String kcc = 
+	final static String kcc = 
 			KCC_VV
 			 + orex + KCC_CVVV
 			 + orex + KCC_K
@@ -57,39 +55,25 @@ public class KCC extends AbstractCC {
 			+ orex + dont_know
 			;// end KCC head
 	
+	/**
+	 * KCC语法编译成的自动机
+	 */
+	private final static ClusterDFA DFA = ClusterDFA.compile(kcc);
+	
 	// 将高棉文分解为KCC序列
 	public static String[] toKCC(String khmer) {
-
-		Pattern p = Pattern.compile(kcc);//编译regEx,成为Pattern类的实例，java中用于匹配正则表达式
-		Matcher m = p.matcher(khmer);//调用matcher方法，找到khmer中与正则表达式匹配的。
-		StringBuffer sb = new StringBuffer();
-		while (m.find()) {//如果匹配到结果
-			sb.append(m.group()).append(orex);
-		}
-		return sb.toString().split("\\|");
+		return split(DFA, khmer);
 	}
 	
 	// 将高棉文分解为KCC序列
 	@Override
 	public String token(String sentence) {
-		Pattern p = Pattern.compile(kcc);
-		Matcher m = p.matcher(sentence);
-		StringBuffer sb = new StringBuffer();
-		while (m.find()) {//如果匹配到结果
-			sb.append(m.group()).append(orex);
-		}
-		return sb.toString();
+		return join(DFA, sentence);
 	}
 	
 	@Override
 	public List<Term> segment(String sentence) {
-		Pattern p = Pattern.compile(kcc);
-		Matcher m = p.matcher(sentence);
-		List<Term> result = new LinkedList<Term>();
-		while (m.find()) {//如果匹配到结果
-			result.add(new Term(m.group(), null));
-		}
-		return result;
+		return segment(DFA, sentence);
 	}
 	
 	public static void main(String[] args) {
@@ -1,6 +1,5 @@
 package cn.edu.kmust.seanlp.segmenter.CC;
 
-import java.util.LinkedList;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -9,7 +8,7 @@ import cn.edu.kmust.seanlp.segmenter.domain.Term;
 
 /**
  * TCC切分<br>
- * 使用正则表达式实现TCC切分，效率不高<br>
+ * TCC的语法用正则表达式描述，类加载时编译为{@link ClusterDFA}，切分时只扫描一遍文本<br>
  * 可以参考Wittawat Jitkrittum 的另一种实现：https://github.com/wittawatj/jtcc.git
  * @author Zhao Shiyu
  *
@@ -125,7 +124,7 @@ public class TCC extends AbstractCC {
 			;// end dont_know head
 	
 
-	private final static String tcc = 
+	final static String tcc = 
 			left_parenthesis + EE + left_parenthesis + con + right_parenthesis + MAITAIKHU + left_parenthesis + con + right_parenthesis + right_parenthesis
 			 //+ orex + left_parenthesis + EE  + left_parenthesis + con + right_parenthesis + TON + question_mark + SARA_AA + right_parenthesis//me
 			 + orex + left_parenthesis + EE + left_parenthesis + con + right_parenthesis + left_parenthesis + con + right_parenthesis + TON + question_mark + SARA_AA + A + right_parenthesis
@@ -161,6 +160,11 @@ public class TCC extends AbstractCC {
 			 + orex + left_parenthesis + OO + left_parenthesis + con + right_parenthesis + TON + question_mark + A + right_parenthesis
 			 + orex + dont_know
 			;// + end TCC head
+
+	/**
+	 * TCC语法编译成的自动机
+	 */
+	private final static ClusterDFA DFA = ClusterDFA.compile(tcc);
 	
 	/*
 	private final static String tcc = 
@@ -206,35 +210,16 @@ public class TCC extends AbstractCC {
 	
 	@Override
 	public String token(String sentence) {
-		Pattern p = Pattern.compile(tcc);
-		Matcher m = p.matcher(sentence);
-		StringBuffer sb = new StringBuffer();
-		while (m.find()) {//如果匹配到结果
-			sb.append(m.group()).append(orex);
-		}
-		return sb.toString();
+		return join(DFA, sentence);
 	}
 	
 	@Override
 	public List<Term> segment(String sentence) {
-		Pattern p = Pattern.compile(tcc);
-		Matcher m = p.matcher(sentence);
-		
-		List<Term> result = new LinkedList<Term>();
-		while (m.find()) {//如果匹配到结果
-			result.add(new Term(m.group(), null));
-		}
-		return result;
+		return segment(DFA, sentence);
 	}
 	
 	public static String[] toTCC(String sentence) {
-		Pattern p = Pattern.compile(tcc);
-		Matcher m = p.matcher(sentence);
-		StringBuffer sb = new StringBuffer();
-		while (m.find()) {//如果匹配到结果
-			sb.append(m.group()).append(orex);
-		}
-		return sb.toString().split("\\|");
+		return split(DFA, sentence);
 	}
 	
 	public String regexToken(String regex, String sentence) {
@@ -5,7 +5,7 @@ import java.util.LinkedList;
 import java.util.List;
 
 import cn.edu.kmust.seanlp.Config;
-import cn.edu.kmust.seanlp.CRF.Table;
+import cn.edu.kmust.seanlp.CRF.ColumnTable;
 import cn.edu.kmust.seanlp.CRF.model.StaticBurmeseCRFModel;
 import cn.edu.kmust.seanlp.POS.BurmesePOS;
 import cn.edu.kmust.seanlp.POS.POS;
@@ -22,50 +22,49 @@ import cn.edu.kmust.seanlp.util.RadicalMap;
 public class BurmeseCRFSegmenter extends AbstractBurmeseSegmenter {
 	
 	private final POS pos = new BurmesePOS();
+	private static final ThreadLocal<ColumnTable> crfTable = ColumnTable.newThreadLocal();
 
 	@Override
 	protected List<Term> segmentSentence(char[] sentence) {
 		if (sentence.length == 0)
 			return Collections.emptyList();
-		String v[][] = new String[sentence.length][3];
 		int length = sentence.length;
+		ColumnTable table = crfTable.get().reset(length, 2);
+		table.setColumn(0, sentence);
 		for (int i = 0; i < length; ++i) {
-			v[i][0] = String.valueOf(sentence[i]);
-			v[i][1] = RadicalMap.getBurmeseCharType(sentence[i]);
+			table.set(i, 1, RadicalMap.getBurmeseRadical(sentence[i]));
 		}
-		Table table = new Table();
-		table.sheet = v;
-		StaticBurmeseCRFModel.crfBurmeseSegmentModel.tag(table);
+		StaticBurmeseCRFModel.getCrfBurmeseSegmentModel().tag(table);
 		List<Term> termList = new LinkedList<Term>();
 		if (Config.DEBUG) {
 			System.out.println("CRF标注结果");
 			System.out.println(table);
 		}
-		for (int i = 0; i < table.sheet.length; i++) {
-			String[] line = table.sheet[i];
-			switch (line[2].charAt(0)) {
+		for (int i = 0; i < length; i++) {
+			switch (table.getTagChar(i)) {
 			case 'B': {
 				int begin = i;
-				while (table.sheet[i][2].charAt(0) != 'E') {
+				while (table.getTagChar(i) != 'E') {
 					++i;
-					if (i == table.sheet.length) {
+					if (i == length) {
 						break;
 					}
 				}
-				if (i == table.sheet.length) {
+				if (i == length) {
 					termList.add(new Term(new String(sentence, begin, i - begin), null));
-				} else
+				} else {
 					termList.add(new Term(new String(sentence, begin, i - begin+ 1), null));
+				}
 			}
 				break;
 			default: {
-				termList.add(new Term(line[0], null));
+				termList.add(new Term(String.valueOf(sentence[i]), null));
 			}
 				break;
 			}
 		}
 		//词性标注
-		if (Config.BaseConf.speechTagging) {
+		if (options.isSpeechTagging()) {
 			termList = pos.speechTagging(termList);
         }
 		return termList;
@@ -5,7 +5,7 @@ import java.util.LinkedList;
 import java.util.List;
 
 import cn.edu.kmust.seanlp.Config;
-import cn.edu.kmust.seanlp.CRF.Table;
+import cn.edu.kmust.seanlp.CRF.ColumnTable;
 import cn.edu.kmust.seanlp.CRF.model.StaticKhmerCRFModel;
 import cn.edu.kmust.seanlp.POS.KhmerPOS;
 import cn.edu.kmust.seanlp.POS.POS;
@@ -22,50 +22,48 @@ import cn.edu.kmust.seanlp.util.StringUtil;
 public class KhmerCRFSegmenter  extends AbstractKhmerSegmenter {
 	
 	private final POS pos = new KhmerPOS();
+	private static final ThreadLocal<ColumnTable> crfTable = ColumnTable.newThreadLocal();
 	
 	@Override
 	protected List<Term> segmentSentence(String[] sentence) {
 		if (sentence.length == 0)
 			return Collections.emptyList();
-		String v[][] = new String[sentence.length][2];
 		int length = sentence.length;
+		ColumnTable table = crfTable.get().reset(length, 1);
 		for (int i = 0; i < length; ++i) {
-			v[i][0] = String.valueOf(sentence[i]);
+			table.set(i, 0, sentence[i]);
 		}
-		Table table = new Table();
-		table.sheet = v;
-		StaticKhmerCRFModel.crfKhmerSegmentModel.tag(table);
+		StaticKhmerCRFModel.getCrfKhmerSegmentModel().tag(table);
 		List<Term> termList = new LinkedList<Term>();
 		if (Config.DEBUG) {
 			System.out.println("CRF标注结果");
 			System.out.println(table);
 		}
-		for (int i = 0; i < table.sheet.length; i++) {
-			String[] line = table.sheet[i];
-			switch (line[1].charAt(0)) {
+		for (int i = 0; i < length; i++) {
+			switch (table.getTagChar(i)) {
 			case 'B': {
 				int begin = i;
-				while (table.sheet[i][1].charAt(0) != 'E') {
+				while (table.getTagChar(i) != 'E') {
 					++i;
-					if (i == table.sheet.length) {
+					if (i == length) {
 						break;
 					}
 				}
-				if (i == table.sheet.length) {
-					termList.add(new Term(StringUtil.merge(sentence, begin, i - begin), null));
+				if (i == length) {
+					termList.add(new Term(StringUtil.merge(sentence, begin, i - begin, options.getLanguage()), null));
 				} else {
-					termList.add(new Term(StringUtil.merge(sentence, begin, i - begin+ 1), null));
+					termList.add(new Term(StringUtil.merge(sentence, begin, i - begin+ 1, options.getLanguage()), null));
 				}
 			}
 				break;
 			default: {
-				termList.add(new Term(line[0], null));
+				termList.add(new Term(sentence[i], null));
 			}
 				break;
 			}
 		}
 		//词性标注
-		if (Config.BaseConf.speechTagging) {
+		if (options.isSpeechTagging()) {
 			termList = pos.speechTagging(termList);
         }
 		return termList;
@@ -5,18 +5,22 @@ import java.util.LinkedList;
 import java.util.List;
 
 import cn.edu.kmust.seanlp.Config;
+import cn.edu.kmust.seanlp.CRF.ColumnTable;
 import cn.edu.kmust.seanlp.CRF.Table;
 import cn.edu.kmust.seanlp.CRF.model.StaticThaidCRFModel;
 import cn.edu.kmust.seanlp.CRF.model.StaticThaigCRFModel;
 import cn.edu.kmust.seanlp.POS.POS;
 import cn.edu.kmust.seanlp.POS.ThaiPOS;
 import cn.edu.kmust.seanlp.segmenter.AbstractThaiSegmenter;
+import cn.edu.kmust.seanlp.segmenter.SegmenterOptions;
 import cn.edu.kmust.seanlp.segmenter.domain.Term;
 import cn.edu.kmust.seanlp.util.RadicalMap;
 import cn.edu.kmust.seanlp.util.StringUtil;
 
 /**
- * 条件随机场泰语分词器
+ * 条件随机场泰语分词器<br>
+ * 层叠条件随机场先在字符层标出音节边界，再在音节层标出词边界。两层之间只传递音节在原文中的边界（int[]），
+ * 音节类别查表得到，词语直接从原文截取，并记录在整段文本中的位置
  * 
  * @author  Zhao Shiyu
  *
@@ -24,103 +28,203 @@ import cn.edu.kmust.seanlp.util.StringUtil;
 public class ThaiCRFSegmenter extends AbstractThaiSegmenter {
 	
 	private final POS pos = new ThaiPOS();
-
 	/**
-	 * 音节切分
+	 * 字符层和音节层各自复用的元素表
 	 */
-	@Override
-	protected StringBuffer syllableSegment(char[] chars) {
-		if (chars.length == 0)
-			return null;
-		String v[][] = new String[chars.length][3];
-		int length = chars.length;
-		for (int i = 0; i < length; ++i) {
-			v[i][0] = String.valueOf(chars[i]);
-			v[i][1] = RadicalMap.getThaiCharType(chars[i]);
+	private static final ThreadLocal<ColumnTable> charTable = ColumnTable.newThreadLocal();
+	private static final ThreadLocal<ColumnTable> syllableTable = ColumnTable.newThreadLocal();
+	/**
+	 * 复用的音节边界和词边界
+	 */
+	private static final ThreadLocal<Bounds> bounds = new ThreadLocal<Bounds>() {
+		@Override
+		protected Bounds initialValue() {
+			return new Bounds();
 		}
-		Table table = new Table();
-		table.sheet = v;
-		StaticThaidCRFModel.crfThaiSyllableSegmentModel.tag(table);
-		StringBuffer sb = new StringBuffer();
-		if (Config.DEBUG) {
-			System.out.println("CRF标注结果");
-			System.out.println(table);
+	};
+	
+	private static final class Bounds {
+		int[] syllables = new int[64];
+		int[] words = new int[64];
+		
+		/**
+		 * 保证能放下length个字符的边界
+		 */
+		Bounds ensure(int length) {
+			if (syllables.length <= length) {
+				syllables = new int[Math.max(length + 1, syllables.length * 2)];
+				words = new int[syllables.length];
+			}
+			return this;
 		}
-		for (int i = 0; i < table.sheet.length; i++) {
-			String[] line = table.sheet[i];
-			switch (line[2].charAt(0)) {
-			case 'B': {
-				int begin = i;
-				while (table.sheet[i][2].charAt(0) != 'E') {
+	}
+	
+	/**
+	 * 按标注结果分块：从B到E为一块，其余标签各自成一块，末尾没有E时B之后的部分为一块
+	 * 
+	 * @param table 已标注的元素表
+	 * @param bounds 块的边界，长度至少为行数+1，第k块为[bounds[k], bounds[k + 1])
+	 * @return 块数
+	 */
+	static int chunk(ColumnTable table, int[] bounds) {
+		final int length = table.size();
+		int count = 0;
+		for (int i = 0; i < length; ++i) {
+			bounds[count++] = i;
+			if (table.getTagChar(i) == 'B') {
+				while (i < length && table.getTagChar(i) != 'E') {
 					++i;
-					if (i == table.sheet.length) {
-						break;
-					}
 				}
-				if (i == table.sheet.length) {
-					sb.append(new String(chars, begin, i - begin) + "|");
-				} else
-					sb.append(new String(chars, begin, i - begin+ 1) + "|");
-			}
-				break;
-			default: {
-				sb.append(line[0] + "|");
-			}
-				break;
 			}
 		}
-		return sb;
+		bounds[count] = length;
+		return count;
 	}
-
+	
 	/**
-	 * 音节合并
+	 * 字符层：标出[begin, end)中的音节边界
+	 * 
+	 * @param chars
+	 * @param begin
+	 * @param end
+	 * @param syllables 音节边界，相对于begin
+	 * @return 音节数
 	 */
-	@Override
-	protected List<Term> syllableMerging(String[] syllables) {
-		if (syllables.length == 0)
-			return Collections.emptyList();
-		String v[][] = new String[syllables.length][3];
-		int length = syllables.length;
-		for (int i = 0; i < length; ++i) {
-			v[i][0] = String.valueOf(syllables[i]);
-			v[i][1] = RadicalMap.getThaiSyllableType(syllables[i]);
+	private static int syllableBounds(char[] chars, int begin, int end, int[] syllables) {
+		ColumnTable table = fillThaiCharTable(charTable.get(), chars, begin, end);
+		StaticThaidCRFModel.getCrfThaiSyllableSegmentModel().tag(table);
+		if (Config.DEBUG) {
+			System.out.println("CRF标注结果");
+			System.out.println(table);
 		}
-		Table table = new Table();
-		table.sheet = v;
-		StaticThaidCRFModel.crfThaiSyllableMergeModel.tag(table);
-		List<Term> termList = new LinkedList<Term>();
+		return chunk(table, syllables);
+	}
+	
+	/**
+	 * 层叠条件随机场分词[begin, end)
+	 * 
+	 * @param chars 整段文本
+	 * @param begin
+	 * @param end
+	 * @param termList 词语追加在后面，位置为在chars中的位置
+	 */
+	private static void segment(char[] chars, int begin, int end, List<Term> termList) {
+		if (begin == end)
+			return;
+		Bounds bounds = ThaiCRFSegmenter.bounds.get().ensure(end - begin);
+		int[] syllables = bounds.syllables;
+		int count = syllableBounds(chars, begin, end, syllables);
+		ColumnTable table = fillThaiSyllableTable(syllableTable.get(), chars, begin, syllables, count);
+		StaticThaidCRFModel.getCrfThaiSyllableMergeModel().tag(table);
 		if (Config.DEBUG) {
 			System.out.println("CRF标注结果");
 			System.out.println(table);
 		}
-		for (int i = 0; i < table.sheet.length; i++) {
-			String[] line = table.sheet[i];
-			switch (line[2].charAt(0)) {
-			case 'B': {
-				int begin = i;
-				while (table.sheet[i][2].charAt(0) != 'E') {
-					++i;
-					if (i == table.sheet.length) {
-						break;
-					}
+		int[] words = bounds.words;
+		int wordCount = chunk(table, words);
+		for (int k = 0; k < wordCount; ++k) {
+			int from = begin + syllables[words[k]];
+			int to = begin + syllables[words[k + 1]];
+			if (words[k + 1] - words[k] > 1) {
+				// 多个音节合并成的词去掉首尾的空白，与StringUtil.merge相同
+				while (from < to && chars[from] <= ' ') {
+					++from;
 				}
-				if (i == table.sheet.length) {
-					termList.add(new Term(StringUtil.merge(syllables, begin, i - begin), null));
-//					termList.add(new Term(syllableMerge(syllables, begin, i - begin), null));
-				} else {
-					termList.add(new Term(StringUtil.merge(syllables, begin, i - begin+ 1), null));
-					//termList.add(new Term(syllableMerge(syllables, begin, i - begin+ 1), null));
+				while (to > from && chars[to - 1] <= ' ') {
+					--to;
 				}
 			}
-				break;
-			default: {
-				termList.add(new Term(line[0], null));
-			}
-				break;
-			}
+			termList.add(newTerm(chars, from, to));
+		}
+	}
+	
+	/**
+	 * 单层条件随机场分词[begin, end)
+	 */
+	private static void gCRFWordSegment(char[] chars, int begin, int end, List<Term> termList) {
+		if (begin == end)
+			return;
+		ColumnTable table = fillThaiCharTable(charTable.get(), chars, begin, end);
+		StaticThaigCRFModel.getCrfThaiWordSegmentModel().tag(table);
+		if (Config.DEBUG) {
+			System.out.println("CRF标注结果");
+			System.out.println(table);
 		}
+		int[] words = ThaiCRFSegmenter.bounds.get().ensure(end - begin).words;
+		int count = chunk(table, words);
+		for (int k = 0; k < count; ++k) {
+			termList.add(newTerm(chars, begin + words[k], begin + words[k + 1]));
+		}
+	}
+	
+	private static Term newTerm(char[] chars, int begin, int end) {
+		Term term = new Term(new String(chars, begin, end - begin), null);
+		term.setOffset(begin);
+		return term;
+	}
+	
+	/**
+	 * 逐句分词，词语的位置为在整段文本中的位置
+	 * 
+	 * @param text
+	 * @param layered 是否使用层叠条件随机场
+	 * @return
+	 */
+	private List<Term> segmentText(String text, boolean layered) {
+		final SegmenterOptions options = this.options;
+		char[] chars = text.toCharArray();
+		int[] sentences = options.getSentenceSplitter().split(text);
+		List<Term> termList = new LinkedList<Term>();
+		for (int i = 0; i + 1 < sentences.length; ++i) {
+			int size = termList.size();
+			if (layered)
+				segment(chars, sentences[i], sentences[i + 1], termList);
+			else
+				gCRFWordSegment(chars, sentences[i], sentences[i + 1], termList);
+			//词性标注，每句单独标注
+			if (options.isSpeechTagging())
+				pos.speechTagging(termList.subList(size, termList.size()));
+		}
+		return termList;
+	}
+
+	/**
+	 * 音节切分
+	 */
+	@Override
+	protected StringBuffer syllableSegment(char[] chars) {
+		if (chars.length == 0)
+			return null;
+		StringBuilder sb = new StringBuilder(chars.length * 2);
+		appendSyllables(chars, 0, chars.length, sb);
+		return new StringBuffer(sb);
+	}
+	
+	/**
+	 * 把[begin, end)的音节以“|”结尾依次追加到sb
+	 */
+	private static void appendSyllables(char[] chars, int begin, int end, StringBuilder sb) {
+		if (begin == end)
+			return;
+		int[] syllables = bounds.get().ensure(end - begin).syllables;
+		int count = syllableBounds(chars, begin, end, syllables);
+		for (int k = 0; k < count; ++k) {
+			sb.append(chars, begin + syllables[k], syllables[k + 1] - syllables[k]).append('|');
+		}
+	}
+
+	/**
+	 * 音节合并
+	 */
+	@Override
+	protected List<Term> syllableMerging(String[] syllables) {
+		if (syllables.length == 0)
+			return Collections.emptyList();
+		ColumnTable table = fillThaiSyllableTable(syllableTable.get(), syllables);
+		StaticThaidCRFModel.getCrfThaiSyllableMergeModel().tag(table);
+		List<Term> termList = mergeSyllable(syllables, table);
 		//词性标注
-		if (Config.BaseConf.speechTagging) {
+		if (options.isSpeechTagging()) {
 			termList = pos.speechTagging(termList);
         }
 		return termList;
@@ -132,16 +236,10 @@ public class ThaiCRFSegmenter extends AbstractThaiSegmenter {
 	protected List<Term> segment(char[] chars) {
 		if (chars.length == 0)
 			return null;
-		Table table = new Table();
-		table.sheet = createThaiCharSheet(chars);
-		StaticThaidCRFModel.crfThaiSyllableSegmentModel.tag(table);
-		String[] syllables = mergeChar(chars, table).replaceAll("\\|$", "").split("\\|");
-		Table syllableTable = new Table();
-		syllableTable.sheet = createThaiSyllableSheet(syllables);
-		StaticThaidCRFModel.crfThaiSyllableMergeModel.tag(syllableTable);
-		List<Term> termList = mergeSyllable(syllables, syllableTable);
+		List<Term> termList = new LinkedList<Term>();
+		segment(chars, 0, chars.length, termList);
 		//词性标注
-		if (Config.BaseConf.speechTagging) {
+		if (options.isSpeechTagging()) {
 			termList = pos.speechTagging(termList);
         }
 		return termList;
@@ -154,50 +252,84 @@ public class ThaiCRFSegmenter extends AbstractThaiSegmenter {
 	protected List<Term> gCRFWordSegment(char[] chars) {
 		if (chars.length == 0)
 			return Collections.emptyList();
-		String v[][] = new String[chars.length][3];
-		int length = chars.length;
-		for (int i = 0; i < length; ++i) {
-			v[i][0] = String.valueOf(chars[i]);
-			v[i][1] = RadicalMap.getThaiCharType(chars[i]);
-		}
-		Table table = new Table();
-		table.sheet = v;
-		StaticThaigCRFModel.crfThaiWordSegmentModel.tag(table);
 		List<Term> termList = new LinkedList<Term>();
-		if (Config.DEBUG) {
-			System.out.println("CRF标注结果");
-			System.out.println(table);
-		}
-		for (int i = 0; i < table.sheet.length; i++) {
-			String[] line = table.sheet[i];
-			switch (line[2].charAt(0)) {
-			case 'B': {
-				int begin = i;
-				while (table.sheet[i][2].charAt(0) != 'E') {
-					++i;
-					if (i == table.sheet.length) {
-						break;
-					}
-				}
-				if (i == table.sheet.length) {
-					termList.add(new Term(new String(chars, begin, i - begin), null));
-				} else
-					termList.add(new Term(new String(chars, begin, i - begin+ 1), null));
-			}
-				break;
-			default: {
-				termList.add(new Term(line[0], null));
-			}
-				break;
-			}
-		}
+		gCRFWordSegment(chars, 0, chars.length, termList);
 		//词性标注
-		if (Config.BaseConf.speechTagging) {
+		if (options.isSpeechTagging()) {
 			termList = pos.speechTagging(termList);
         }
 		return termList;
 	}
 	
+	/**
+	 * 字符层元素表：第0列为字符，第1列为字符类别
+	 * 
+	 * @param table 待复用的表
+	 * @param chars
+	 * @return
+	 */
+	public static ColumnTable fillThaiCharTable(ColumnTable table, char[] chars) {
+		return fillThaiCharTable(table, chars, 0, chars.length);
+	}
+	
+	/**
+	 * 字符层元素表，只取[begin, end)
+	 * 
+	 * @param table 待复用的表
+	 * @param chars
+	 * @param begin
+	 * @param end
+	 * @return
+	 */
+	public static ColumnTable fillThaiCharTable(ColumnTable table, char[] chars, int begin, int end) {
+		int length = end - begin;
+		table.reset(length, 2);
+		table.setColumn(0, chars, begin);
+		for (int i = 0; i < length; ++i) {
+			table.set(i, 1, RadicalMap.getThaiRadical(chars[begin + i]));
+		}
+		return table;
+	}
+	
+	/**
+	 * 音节层元素表：第0列为音节，第1列为音节类别
+	 * 
+	 * @param table 待复用的表
+	 * @param syllables
+	 * @return
+	 */
+	public static ColumnTable fillThaiSyllableTable(ColumnTable table, String[] syllables) {
+		int length = syllables.length;
+		table.reset(length, 2);
+		for (int i = 0; i < length; ++i) {
+			String syllable = syllables[i];
+			table.set(i, 0, syllable);
+			table.set(i, 1, RadicalMap.getThaiSyllableType(syllable));
+		}
+		return table;
+	}
+	
+	/**
+	 * 音节层元素表，音节由边界给出，不为音节创建字符串
+	 * 
+	 * @param table 待复用的表
+	 * @param chars
+	 * @param begin 音节边界的基准
+	 * @param syllables 音节边界，第i个音节为[begin + syllables[i], begin + syllables[i + 1])
+	 * @param count 音节数
+	 * @return
+	 */
+	public static ColumnTable fillThaiSyllableTable(ColumnTable table, char[] chars, int begin, int[] syllables, int count) {
+		table.reset(count, 2);
+		for (int i = 0; i < count; ++i) {
+			int from = begin + syllables[i];
+			int to = begin + syllables[i + 1];
+			table.set(i, 0, chars, from, to - from);
+			table.set(i, 1, RadicalMap.getThaiSyllableType(chars, from, to));
+		}
+		return table;
+	}
+	
 	public String[][] createThaiCharSheet(char[] chars) {
 		int length = chars.length;
 		if (length == 0)
@@ -274,9 +406,9 @@ public class ThaiCRFSegmenter extends AbstractThaiSegmenter {
 					}
 				}
 				if (i == table.sheet.length) {
-					termList.add(new Term(StringUtil.merge(syllables, begin, i - begin), null));
+					termList.add(new Term(StringUtil.merge(syllables, begin, i - begin, options.getLanguage()), null));
 				} else {
-					termList.add(new Term(StringUtil.merge(syllables, begin, i - begin+ 1), null));
+					termList.add(new Term(StringUtil.merge(syllables, begin, i - begin+ 1, options.getLanguage()), null));
 				}
 			}
 				break;
@@ -289,19 +421,91 @@ public class ThaiCRFSegmenter extends AbstractThaiSegmenter {
 		return termList;
 	}
 
+	public String mergeChar(char[] chars, ColumnTable table) {
+		StringBuilder sb = new StringBuilder(chars.length * 2);
+		if (Config.DEBUG) {
+			System.out.println("CRF标注结果");
+			System.out.println(table);
+		}
+		int length = table.size();
+		for (int i = 0; i < length; i++) {
+			switch (table.getTagChar(i)) {
+			case 'B': {
+				int begin = i;
+				while (table.getTagChar(i) != 'E') {
+					++i;
+					if (i == length) {
+						break;
+					}
+				}
+				if (i == length) {
+					sb.append(chars, begin, i - begin).append('|');
+				} else
+					sb.append(chars, begin, i - begin+ 1).append('|');
+			}
+				break;
+			default: {
+				sb.append(chars[i]).append('|');
+			}
+				break;
+			}
+		}
+		return sb.toString();
+	}
+	
+	public List<Term> mergeSyllable(String[] syllables, ColumnTable table) {
+		List<Term> termList = new LinkedList<Term>();
+		if (Config.DEBUG) {
+			System.out.println("CRF标注结果");
+			System.out.println(table);
+		}
+		int length = table.size();
+		for (int i = 0; i < length; i++) {
+			switch (table.getTagChar(i)) {
+			case 'B': {
+				int begin = i;
+				while (table.getTagChar(i) != 'E') {
+					++i;
+					if (i == length) {
+						break;
+					}
+				}
+				if (i == length) {
+					termList.add(new Term(StringUtil.merge(syllables, begin, i - begin, options.getLanguage()), null));
+				} else {
+					termList.add(new Term(StringUtil.merge(syllables, begin, i - begin+ 1, options.getLanguage()), null));
+				}
+			}
+				break;
+			default: {
+				termList.add(new Term(syllables[i], null));
+			}
+				break;
+			}
+		}
+		return termList;
+	}
+
 	@Override
 	protected String syllableSegment(String[] sentences) {
-		StringBuffer sb = new StringBuffer();
+		StringBuilder sb = new StringBuilder();
 		int len = sentences.length;
 		for (int i = 0; i < len; i++) {
-			sb.append(syllableSegment(sentences[i].toCharArray()));
+			char[] chars = sentences[i].toCharArray();
+			appendSyllables(chars, 0, chars.length, sb);
 		}
 		return sb.toString();
 	}
 	
 	@Override
-	protected String[] sentenceTosyllables(char[] chars) {		
-		return syllableSegment(chars).toString().replaceAll("\\|$", "").split("\\|");
+	protected String[] sentenceTosyllables(char[] chars) {
+		int[] syllables = bounds.get().ensure(chars.length).syllables;
+		int count = chars.length == 0 ? 0 : syllableBounds(chars, 0, chars.length, syllables);
+		String[] result = new String[count];
+		for (int k = 0; k < count; ++k) {
+			result[k] = new String(chars, syllables[k], syllables[k + 1] - syllables[k]);
+		}
+		return result;
 	}
 	
 	@Override
@@ -311,7 +515,8 @@ public class ThaiCRFSegmenter extends AbstractThaiSegmenter {
 	
 	@Override
 	protected List<Term> syllableMerge(String sentence) {
-		return syllableMerging(sentenceTosyllables(sentence));
+		List<Term> termList = segment(sentence.toCharArray());
+		return termList == null ? new LinkedList<Term>() : termList;
 	}
 
 	@Override
@@ -327,13 +532,7 @@ public class ThaiCRFSegmenter extends AbstractThaiSegmenter {
 	
 	@Override
 	protected List<Term> syllableMerge(String[] sentences) {
-		List<Term> termList = new LinkedList<Term>();
-		int len = sentences.length;
-		for (int i = 0; i < len; i++) {
-			termList.addAll(syllableMerge(sentences[i]));
-			//termList.add(new Term(" ",  Nature.PUNC));
-		}
-		return termList;
+		return sentenceMerge(sentences);
 	}
 
 	@Override
@@ -351,25 +550,37 @@ public class ThaiCRFSegmenter extends AbstractThaiSegmenter {
 	protected List<Term> segment(String[] sentences) {
 		return sentenceMerge(sentences);
 	}
+	
+	@Override
+	public List<Term> segment(String text) {
+		return segmentText(text, true);
+	}
 
 	@Override
 	public String syllableSegment(String text) {
-		return syllableSegment(sentenceSegment(text));
+		char[] chars = text.toCharArray();
+		int[] sentences = options.getSentenceSplitter().split(text);
+		StringBuilder sb = new StringBuilder(chars.length * 2);
+		for (int i = 0; i + 1 < sentences.length; ++i) {
+			appendSyllables(chars, sentences[i], sentences[i + 1], sb);
+		}
+		return sb.toString();
 	}
 
 	@Override
 	public List<Term> dCRFWordSegment(String text) {
-		return syllableMerge(sentenceSegment(text));
+		return segmentText(text, true);
 	}
 
 	@Override
 	public List<Term> gCRFWordSegment(String text) {
-		return gCRFWordSegment(sentenceSegment(text));
+		return segmentText(text, false);
 	}
 
 	@Override
 	public List<Term> seg(String text) {
-		return segment(text.toCharArray());
+		List<Term> termList = segment(text.toCharArray());
+		return termList == null ? new LinkedList<Term>() : termList;
 	}
 	
 	
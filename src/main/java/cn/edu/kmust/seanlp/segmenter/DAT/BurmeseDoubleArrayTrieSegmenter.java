@@ -4,8 +4,7 @@ import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 
-import cn.edu.kmust.seanlp.Config;
-import cn.edu.kmust.seanlp.collection.trie.DATrie;
+import cn.edu.kmust.seanlp.collection.trie.AhoCorasickDATrie;
 import cn.edu.kmust.seanlp.dictionary.CoreDictionary;
 import cn.edu.kmust.seanlp.dictionary.language.BurmeseCommonDictionary;
 import cn.edu.kmust.seanlp.dictionary.language.BurmeseCoreDictionary;
@@ -22,32 +21,40 @@ import cn.edu.kmust.seanlp.segmenter.domain.Term;
  */
 public class BurmeseDoubleArrayTrieSegmenter extends AbstractBurmeseSegmenter {
 	
+	private static final ThreadLocal<WordLattice> lattice = WordLattice.newThreadLocal();
+	
 	/**
 	 * 构造分词器，同时配置语言
 	 */
 	public BurmeseDoubleArrayTrieSegmenter() {
 		super();
-		Config.BaseConf.useCustomDictionary = false;
 	}
 
 	@Override
 	protected List<Term> segmentSentence(char[] sentence) {
+		final CoreDictionary dictionary = BurmeseCoreDictionary.getBurmeseDictionary();
+		if (options.isWordLattice())
+			return lattice.get().segment(dictionary, sentence, options.isSpeechTagging() ? Nature.W : null, options.isUseCustomDictionary());
+
 		final int[] wordNet = new int[sentence.length];
 		Arrays.fill(wordNet, 1);
-		final Nature[] natureArray = Config.BaseConf.speechTagging ? new Nature[sentence.length]	: null;
+		final boolean speechTagging = options.isSpeechTagging();
+		final Nature[] natureArray = speechTagging ? new Nature[sentence.length]	: null;
 //		DATrie<String>.Searcher searcher = KhmerCoreDictionary.khmerDictionary.dictionaryTrie.getSearcher(sentence, 0);
-		DATrie<CoreDictionary.Attribute>.Searcher searcher = BurmeseCoreDictionary.BurmeseDictionary.dictionaryTrie.getSearcher(sentence, 0);
+		AhoCorasickDATrie<CoreDictionary.Attribute>.Searcher searcher = dictionary.dictionaryTrie.ahoCorasick().getSearcher(sentence, 0);
 		while (searcher.next()) {
 			int length = searcher.length;
 			if (length > wordNet[searcher.begin]) {
 				wordNet[searcher.begin] = length;
-				if (Config.BaseConf.speechTagging) {
-					natureArray[searcher.begin] = searcher.value.nature[0];
+				if (speechTagging) {
+					natureArray[searcher.begin] = dictionary.firstNature(searcher.index);
 				}
 			}
 		}
+		if (options.isUseCustomDictionary())
+			dictionary.customMatch(sentence, wordNet, natureArray);
 		
-		if (Config.BaseConf.speechTagging) {
+		if (speechTagging) {
 			for (int i = 0; i < natureArray.length;) {
 				if (natureArray[i] == null) {
 					int j = i + 1;
@@ -73,7 +80,7 @@ public class BurmeseDoubleArrayTrieSegmenter extends AbstractBurmeseSegmenter {
 		
 		LinkedList<Term> termList = new LinkedList<Term>();
 		for (int i = 0; i < wordNet.length;) {
-			Term term = new Term(new String(sentence, i, wordNet[i]), Config.BaseConf.speechTagging ? (natureArray[i] == null ? Nature.W	: natureArray[i]) : null);
+			Term term = new Term(new String(sentence, i, wordNet[i]), speechTagging ? (natureArray[i] == null ? Nature.W	: natureArray[i]) : null);
 			term.setOffset(i);
 			termList.add(term);
 			i += wordNet[i];
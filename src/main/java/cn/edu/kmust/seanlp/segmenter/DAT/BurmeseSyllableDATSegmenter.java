@@ -4,8 +4,8 @@ import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 
-import cn.edu.kmust.seanlp.Config;
-import cn.edu.kmust.seanlp.collection.trie.DATrie;
+import cn.edu.kmust.seanlp.collection.trie.AhoCorasickDATrie;
+import cn.edu.kmust.seanlp.dictionary.CommonDictionary;
 import cn.edu.kmust.seanlp.dictionary.language.BurmeseSyllableDictionary;
 import cn.edu.kmust.seanlp.segmenter.AbstractBurmeseSegmenter;
 import cn.edu.kmust.seanlp.segmenter.domain.Term;
@@ -23,14 +23,14 @@ public class BurmeseSyllableDATSegmenter extends AbstractBurmeseSegmenter {
 	 */
 	public BurmeseSyllableDATSegmenter() {
 		super();
-		Config.BaseConf.useCustomDictionary = false;
 	}
 
 	@Override
 	protected List<Term> segmentSentence(char[] sentence) {
+		final CommonDictionary dictionary = BurmeseSyllableDictionary.getBurmeseSyllableDictionary();
 		final int[] wordNet = new int[sentence.length];
 		Arrays.fill(wordNet, 1);
-		DATrie<String>.Searcher searcher = BurmeseSyllableDictionary.burmeseSyllableDictionary.dictionaryTrie.getSearcher(sentence, 0);
+		AhoCorasickDATrie<String>.Searcher searcher = dictionary.dictionaryTrie.ahoCorasick().getSearcher(sentence, 0);
 //		System.out.println(BurmeseSyllableDictionary.burmeseSyllableDictionary.dictionaryTrie.contains("ကျ့ၩ့"));
 //		System.out.println(BurmeseSyllableDictionary.burmeseSyllableDictionary.dictionaryTrie.contains("ကျၨၪ့"));
 //		System.out.println(BurmeseSyllableDictionary.burmeseSyllableDictionary.dictionaryTrie.contains("ကြ့ာ်"));
@@ -40,6 +40,8 @@ public class BurmeseSyllableDATSegmenter extends AbstractBurmeseSegmenter {
 				wordNet[searcher.begin] = length;
 			}
 		}
+		if (options.isUseCustomDictionary())
+			dictionary.customMatch(sentence, wordNet);
 		
 		LinkedList<Term> termList = new LinkedList<Term>();
 		for (int i = 0; i < wordNet.length;) {
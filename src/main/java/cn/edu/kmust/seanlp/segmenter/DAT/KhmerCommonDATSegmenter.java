@@ -4,10 +4,10 @@ import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 
-import cn.edu.kmust.seanlp.Config;
 import cn.edu.kmust.seanlp.POS.KhmerPOS;
 import cn.edu.kmust.seanlp.POS.POS;
-import cn.edu.kmust.seanlp.collection.trie.DATrie;
+import cn.edu.kmust.seanlp.collection.trie.AhoCorasickDATrie;
+import cn.edu.kmust.seanlp.dictionary.CommonDictionary;
 import cn.edu.kmust.seanlp.dictionary.language.KhmerCommonDictionary;
 import cn.edu.kmust.seanlp.segmenter.AbstractKhmerSegmenter;
 import cn.edu.kmust.seanlp.segmenter.domain.Term;
@@ -27,31 +27,33 @@ public class KhmerCommonDATSegmenter extends AbstractKhmerSegmenter {
 	 */
 	public KhmerCommonDATSegmenter() {
 		super();
-		Config.BaseConf.useCustomDictionary = false;
 	}
 
 	@Override
 	protected List<Term> segmentSentence(char[] sentence) {
+		final CommonDictionary dictionary = KhmerCommonDictionary.getKhmerDictionary();
 		final int[] wordNet = new int[sentence.length];
 		Arrays.fill(wordNet, 1);
-//		final Nature[] natureArray = Config.BaseConf.speechTagging ? new Nature[charArray.length]	: null;
-		DATrie<String>.Searcher searcher = KhmerCommonDictionary.khmerDictionary.dictionaryTrie.getSearcher(sentence, 0);
+//		final Nature[] natureArray = options.isSpeechTagging() ? new Nature[charArray.length]	: null;
+		AhoCorasickDATrie<String>.Searcher searcher = dictionary.dictionaryTrie.ahoCorasick().getSearcher(sentence, 0);
 		while (searcher.next()) {
 			int length = searcher.length;
 			if (length > wordNet[searcher.begin]) {
 				wordNet[searcher.begin] = length;
 			}
 		}
+		if (options.isUseCustomDictionary())
+			dictionary.customMatch(sentence, wordNet);
 		
 		List<Term> termList = new LinkedList<Term>();
 		for (int i = 0; i < wordNet.length;) {
-//			Term term = new Term(new String(charArray, i, wordNet[i]), Config.BaseConf.speechTagging ? (natureArray[i] == null ? Nature.WXXX	: natureArray[i]) : null);
+//			Term term = new Term(new String(charArray, i, wordNet[i]), options.isSpeechTagging() ? (natureArray[i] == null ? Nature.WXXX	: natureArray[i]) : null);
 			Term term = new Term(new String(sentence, i, wordNet[i]), null);
 			term.setOffset(i);
 			termList.add(term);
 			i += wordNet[i];
 		}
-		if (Config.BaseConf.speechTagging) {
+		if (options.isSpeechTagging()) {
 			termList = pos.speechTagging(termList);
 		}
 		return termList;
@@ -4,8 +4,7 @@ import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 
-import cn.edu.kmust.seanlp.Config;
-import cn.edu.kmust.seanlp.collection.trie.DATrie;
+import cn.edu.kmust.seanlp.collection.trie.AhoCorasickDATrie;
 import cn.edu.kmust.seanlp.dictionary.CoreDictionary;
 import cn.edu.kmust.seanlp.dictionary.language.KhmerCoreDictionary;
 import cn.edu.kmust.seanlp.segmenter.AbstractKhmerSegmenter;
@@ -20,32 +19,40 @@ import cn.edu.kmust.seanlp.segmenter.domain.Term;
  */
 public class KhmerDoubleArrayTrieSegmenter extends AbstractKhmerSegmenter {
 	
+	private static final ThreadLocal<WordLattice> lattice = WordLattice.newThreadLocal();
+	
 	/**
 	 * 构造分词器，同时配置语言
 	 */
 	public KhmerDoubleArrayTrieSegmenter() {
 		super();
-		Config.BaseConf.useCustomDictionary = false;
 	}
 	
 	@Override
 	protected List<Term> segmentSentence(char[] sentence) {
+		final CoreDictionary dictionary = KhmerCoreDictionary.getKhmerDictionary();
+		if (options.isWordLattice())
+			return lattice.get().segment(dictionary, sentence, options.isSpeechTagging() ? Nature.W : null, options.isUseCustomDictionary());
+
 		final int[] wordNet = new int[sentence.length];
 		Arrays.fill(wordNet, 1);
-		final Nature[] natureArray = Config.BaseConf.speechTagging ? new Nature[sentence.length]	: null;
+		final boolean speechTagging = options.isSpeechTagging();
+		final Nature[] natureArray = speechTagging ? new Nature[sentence.length]	: null;
 //		DATrie<String>.Searcher searcher = KhmerCoreDictionary.khmerDictionary.dictionaryTrie.getSearcher(sentence, 0);
-		DATrie<CoreDictionary.Attribute>.Searcher searcher = KhmerCoreDictionary.khmerDictionary.dictionaryTrie.getSearcher(sentence, 0);
+		AhoCorasickDATrie<CoreDictionary.Attribute>.Searcher searcher = dictionary.dictionaryTrie.ahoCorasick().getSearcher(sentence, 0);
 		while (searcher.next()) {
 			int length = searcher.length;
 			if (length > wordNet[searcher.begin]) {
 				wordNet[searcher.begin] = length;
-				if (Config.BaseConf.speechTagging) {
-					natureArray[searcher.begin] = searcher.value.nature[0];
+				if (speechTagging) {
+					natureArray[searcher.begin] = dictionary.firstNature(searcher.index);
 				}
 			}
 		}
+		if (options.isUseCustomDictionary())
+			dictionary.customMatch(sentence, wordNet, natureArray);
 		
-		if (Config.BaseConf.speechTagging) {
+		if (speechTagging) {
 			for (int i = 0; i < natureArray.length;) {
 				if (natureArray[i] == null) {
 					int j = i + 1;
@@ -71,7 +78,7 @@ public class KhmerDoubleArrayTrieSegmenter extends AbstractKhmerSegmenter {
 		
 		LinkedList<Term> termList = new LinkedList<Term>();
 		for (int i = 0; i < wordNet.length;) {
-			Term term = new Term(new String(sentence, i, wordNet[i]), Config.BaseConf.speechTagging ? (natureArray[i] == null ? Nature.W	: natureArray[i]) : null);
+			Term term = new Term(new String(sentence, i, wordNet[i]), speechTagging ? (natureArray[i] == null ? Nature.W	: natureArray[i]) : null);
 			term.setOffset(i);
 			termList.add(term);
 			i += wordNet[i];
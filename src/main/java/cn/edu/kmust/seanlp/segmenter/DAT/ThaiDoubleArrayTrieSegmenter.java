@@ -4,8 +4,7 @@ import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 
-import cn.edu.kmust.seanlp.Config;
-import cn.edu.kmust.seanlp.collection.trie.DATrie;
+import cn.edu.kmust.seanlp.collection.trie.AhoCorasickDATrie;
 import cn.edu.kmust.seanlp.dictionary.CoreDictionary;
 import cn.edu.kmust.seanlp.dictionary.language.ThaiCoreDictionary;
 import cn.edu.kmust.seanlp.segmenter.AbstractThaiSegmenter;
@@ -20,32 +19,40 @@ import cn.edu.kmust.seanlp.segmenter.domain.Term;
  */
 public class ThaiDoubleArrayTrieSegmenter extends AbstractThaiSegmenter {
 	
+	private static final ThreadLocal<WordLattice> lattice = WordLattice.newThreadLocal();
+	
 	/**
 	 * 构造分词器，同时配置语言
 	 */
 	public ThaiDoubleArrayTrieSegmenter() {
 		super();
-		Config.BaseConf.useCustomDictionary = false;
 	}
 	
 	@Override
 	protected List<Term> segment(char[] sentence) {
+		final CoreDictionary dictionary = ThaiCoreDictionary.getThaiDictionary();
+		if (options.isWordLattice())
+			return lattice.get().segment(dictionary, sentence, options.isSpeechTagging() ? Nature.UN : null, options.isUseCustomDictionary());
+
 		char[] charArray = sentence;
 		final int[] wordNet = new int[charArray.length];
 		Arrays.fill(wordNet, 1);
-		final Nature[] natureArray = Config.BaseConf.speechTagging ? new Nature[charArray.length]	: null;
-		DATrie<CoreDictionary.Attribute>.Searcher searcher = ThaiCoreDictionary.thaiDictionary.dictionaryTrie.getSearcher(sentence, 0);
+		final boolean speechTagging = options.isSpeechTagging();
+		final Nature[] natureArray = speechTagging ? new Nature[charArray.length]	: null;
+		AhoCorasickDATrie<CoreDictionary.Attribute>.Searcher searcher = dictionary.dictionaryTrie.ahoCorasick().getSearcher(sentence, 0);
 		while (searcher.next()) {
 			int length = searcher.length;
 			if (length > wordNet[searcher.begin]) {
 				wordNet[searcher.begin] = length;
-				if (Config.BaseConf.speechTagging) {
-					natureArray[searcher.begin] = searcher.value.nature[0];
+				if (speechTagging) {
+					natureArray[searcher.begin] = dictionary.firstNature(searcher.index);
 				}
 			}
 		}
+		if (options.isUseCustomDictionary())
+			dictionary.customMatch(sentence, wordNet, natureArray);
 		
-		if (Config.BaseConf.speechTagging) {
+		if (speechTagging) {
 			for (int i = 0; i < natureArray.length;) {
 				if (natureArray[i] == null) {
 					int j = i + 1;
@@ -72,7 +79,7 @@ public class ThaiDoubleArrayTrieSegmenter extends AbstractThaiSegmenter {
 		LinkedList<Term> termList = new LinkedList<Term>();
 		for (int i = 0; i < wordNet.length;) {
 			Term term = new Term(new String(charArray, i, wordNet[i]),
-					Config.BaseConf.speechTagging ? (natureArray[i] == null ? Nature.UN	: natureArray[i]) : null);
+					speechTagging ? (natureArray[i] == null ? Nature.UN	: natureArray[i]) : null);
 			term.setOffset(i);
 			termList.add(term);
 			i += wordNet[i];
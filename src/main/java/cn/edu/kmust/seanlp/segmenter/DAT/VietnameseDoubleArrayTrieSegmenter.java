@@ -1,13 +1,11 @@
 package cn.edu.kmust.seanlp.segmenter.DAT;
 
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 
-import cn.edu.kmust.seanlp.Config;
-import cn.edu.kmust.seanlp.Language;
-import cn.edu.kmust.seanlp.Config.BaseConf;
-import cn.edu.kmust.seanlp.collection.trie.DATrie;
+import cn.edu.kmust.seanlp.collection.trie.AhoCorasickDATrie;
 import cn.edu.kmust.seanlp.dictionary.CoreDictionary;
 import cn.edu.kmust.seanlp.dictionary.language.VietnameseCoreDictionary;
 import cn.edu.kmust.seanlp.segmenter.AbstractVietnameseSegmenter;
@@ -22,33 +20,46 @@ import cn.edu.kmust.seanlp.segmenter.domain.Term;
  */
 public class VietnameseDoubleArrayTrieSegmenter extends AbstractVietnameseSegmenter {
 	
+	private static final ThreadLocal<WordLattice> lattice = WordLattice.newThreadLocal();
+	
 	/**
 	 * 构造分词器，同时配置语言
 	 */
 	public VietnameseDoubleArrayTrieSegmenter() {
 		super();
-		Config.BaseConf.useCustomDictionary = false;
-		BaseConf.seletcLanguage(Language.Vietnamese);
 	}
 	
 	@Override
 	protected List<Term> segmentSentence(char[] sentence) {
+		final CoreDictionary dictionary = VietnameseCoreDictionary.getVietnameseDictionary();
+		if (options.isWordLattice()) {
+			List<Term> termList = lattice.get().segment(dictionary, sentence, options.isSpeechTagging() ? Nature.CH : null, options.isUseCustomDictionary());
+			for (Iterator<Term> iterator = termList.iterator(); iterator.hasNext();) {
+				if (iterator.next().getWord().trim().isEmpty())
+					iterator.remove();
+			}
+			return termList;
+		}
+
 		char[] charArray = sentence;
 		final int[] wordNet = new int[charArray.length];
 		Arrays.fill(wordNet, 1);
-		final Nature[] natureArray = Config.BaseConf.speechTagging ? new Nature[charArray.length]	: null;
-		DATrie<CoreDictionary.Attribute>.Searcher searcher = VietnameseCoreDictionary.vietnameseDictionary.dictionaryTrie.getSearcher(sentence, 0);
+		final boolean speechTagging = options.isSpeechTagging();
+		final Nature[] natureArray = speechTagging ? new Nature[charArray.length]	: null;
+		AhoCorasickDATrie<CoreDictionary.Attribute>.Searcher searcher = dictionary.dictionaryTrie.ahoCorasick().getSearcher(sentence, 0);
 		while (searcher.next()) {
 			int length = searcher.length;
 			if (length > wordNet[searcher.begin]) {
 				wordNet[searcher.begin] = length;
-				if (Config.BaseConf.speechTagging) {
-					natureArray[searcher.begin] = searcher.value.nature[0];
+				if (speechTagging) {
+					natureArray[searcher.begin] = dictionary.firstNature(searcher.index);
 				}
 			}
 		}
+		if (options.isUseCustomDictionary())
+			dictionary.customMatch(sentence, wordNet, natureArray);
 		
-		if (Config.BaseConf.speechTagging) {
+		if (speechTagging) {
 			for (int i = 0; i < natureArray.length;) {
 				if (natureArray[i] == null) {
 					int j = i + 1;
@@ -73,7 +84,7 @@ public class VietnameseDoubleArrayTrieSegmenter extends AbstractVietnameseSegmen
 		}
 		LinkedList<Term> termList = new LinkedList<Term>();
 		for (int i = 0; i < wordNet.length;) {
-			Term term = new Term(new String(charArray, i, wordNet[i]), Config.BaseConf.speechTagging ? (natureArray[i] == null ? Nature.CH	: natureArray[i]) : null);
+			Term term = new Term(new String(charArray, i, wordNet[i]), speechTagging ? (natureArray[i] == null ? Nature.CH	: natureArray[i]) : null);
 			term.setOffset(i);
 			if (!term.getWord().trim().isEmpty()) {
 				termList.add(term);
@@ -107,6 +118,11 @@ public class VietnameseDoubleArrayTrieSegmenter extends AbstractVietnameseSegmen
 		return termList;
 	}
 
+	@Override
+	protected List<Term> segmentSentence(String text, int begin, int end) {
+		return segmentSentence(toCharArray(text, begin, end));
+	}
+
 	@Override
 	protected List<Term> segmentSentence(String[] sentence) {
 		return null;
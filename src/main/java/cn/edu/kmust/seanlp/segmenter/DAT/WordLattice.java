@@ -0,0 +1,243 @@
+package cn.edu.kmust.seanlp.segmenter.DAT;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+
+import cn.edu.kmust.seanlp.collection.trie.AhoCorasickDATrie;
+import cn.edu.kmust.seanlp.collection.trie.IHit;
+import cn.edu.kmust.seanlp.dictionary.CoreDictionary;
+import cn.edu.kmust.seanlp.segmenter.domain.Nature;
+import cn.edu.kmust.seanlp.segmenter.domain.Term;
+
+/**
+ * 词网格，按一元语法求代价最小的切分<br>
+ * 节点是句子中字符之间的位置，边是词典命中的词或未登录的单字，代价为-log P(w)。
+ * 词典命中由Aho-Corasick自动机按结束位置的顺序给出，因此一遍扫描就能完成最短路径的松弛，
+ * 网格只以int和double数组记录每个位置的最优前驱（起点和词ID），不创建Vertex。
+ * 数组在多次调用之间复用，每个线程一个，见{@link #newThreadLocal()}
+ *
+ * @author Zhao Shiyu
+ *
+ */
+public class WordLattice {
+
+	private static final int UNKNOWN = -1;
+	private static final int CUSTOM = -2;
+
+	/**
+	 * dist[i]为前i个字符的最小代价
+	 */
+	private double[] dist = new double[0];
+	/**
+	 * from[i]为到达位置i的最优边的起点
+	 */
+	private int[] from = new int[0];
+	/**
+	 * word[i]为到达位置i的最优边的词ID，{@link #UNKNOWN}表示未登录的单字，{@link #CUSTOM}表示自定义词
+	 */
+	private int[] word = new int[0];
+	/**
+	 * 到达位置i的最优边来自自定义词典时的词条属性
+	 */
+	private CoreDictionary.Attribute[] customValue = new CoreDictionary.Attribute[0];
+	/**
+	 * 自定义词典的命中，按结束位置排序
+	 */
+	private int[] customBegin = new int[16];
+	private int[] customEnd = new int[16];
+	private CoreDictionary.Attribute[] customAttribute = new CoreDictionary.Attribute[16];
+	private int customCount;
+	private double unknownCost;
+	private AhoCorasickDATrie<CoreDictionary.Attribute>.Searcher searcher;
+	private AhoCorasickDATrie<CoreDictionary.Attribute> automaton;
+
+	/**
+	 * 每个线程一个词网格，供分词器在多次调用之间复用
+	 *
+	 * @return
+	 */
+	public static ThreadLocal<WordLattice> newThreadLocal() {
+		return new ThreadLocal<WordLattice>() {
+			@Override
+			protected WordLattice initialValue() {
+				return new WordLattice();
+			}
+		};
+	}
+
+	/**
+	 * 求代价最小的切分，结果为到达每个位置的最优边，由{@link #toTerms(CoreDictionary, char[], Nature)}读出
+	 *
+	 * @param dictionary 核心词典
+	 * @param sentence 句子
+	 */
+	public void decode(CoreDictionary dictionary, char[] sentence) {
+		decode(dictionary, sentence, false);
+	}
+
+	/**
+	 * 求代价最小的切分
+	 *
+	 * @param dictionary 核心词典
+	 * @param sentence 句子
+	 * @param custom 是否加入自定义词典中的词
+	 */
+	public void decode(CoreDictionary dictionary, char[] sentence, boolean custom) {
+		final int n = sentence.length;
+		if (dist.length < n + 1) {
+			int capacity = Math.max(n + 1, dist.length * 2);
+			dist = new double[capacity];
+			from = new int[capacity];
+			word = new int[capacity];
+			customValue = new CoreDictionary.Attribute[capacity];
+		}
+		final double[] cost = dictionary.unigramCost();
+		unknownCost = cost[cost.length - 1];
+		customCount = 0;
+		if (custom)
+			dictionary.customDictionary.parseText(sentence, customHit);
+		dist[0] = 0;
+		AhoCorasickDATrie<CoreDictionary.Attribute> ac = dictionary.dictionaryTrie.ahoCorasick();
+		if (ac != automaton) {
+			automaton = ac;
+			searcher = ac.getSearcher(sentence, 0);
+		} else {
+			searcher.reset(sentence, 0);
+		}
+		// 已经加入未登录单字边的最远位置
+		int pos = 0;
+		// 下一条要处理的自定义词边
+		int next = 0;
+		while (searcher.next()) {
+			final int end = searcher.begin + searcher.length;
+			// 自定义词边与词典边都按结束位置的顺序处理，保证起点的代价已经是最小的
+			for (; next < customCount && customEnd[next] <= end; ++next) {
+				pos = fill(pos, customEnd[next]);
+				relaxCustom(next);
+			}
+			pos = fill(pos, end);
+			final double d = dist[searcher.begin] + cost[searcher.index];
+			// 代价相同时词典中的词优先于未登录的单字
+			if (d < dist[end] || (d == dist[end] && word[end] == UNKNOWN)) {
+				dist[end] = d;
+				from[end] = searcher.begin;
+				word[end] = searcher.index;
+			}
+		}
+		for (; next < customCount; ++next) {
+			pos = fill(pos, customEnd[next]);
+			relaxCustom(next);
+		}
+		fill(pos, n);
+	}
+
+	/**
+	 * 补上从pos到end的未登录单字边
+	 *
+	 * @return 新的pos
+	 */
+	private int fill(int pos, int end) {
+		while (pos < end) {
+			++pos;
+			dist[pos] = dist[pos - 1] + unknownCost;
+			from[pos] = pos - 1;
+			word[pos] = UNKNOWN;
+		}
+		return pos;
+	}
+
+	/**
+	 * 松弛第i条自定义词边，代价相同时自定义词优先
+	 */
+	private void relaxCustom(int i) {
+		final int begin = customBegin[i], end = customEnd[i];
+		final CoreDictionary.Attribute attribute = customAttribute[i];
+		final double d = dist[begin] + unknownCost - Math.log(attribute.totalFrequency + 1);
+		if (d <= dist[end]) {
+			dist[end] = d;
+			from[end] = begin;
+			word[end] = CUSTOM;
+			customValue[end] = attribute;
+		}
+	}
+
+	/**
+	 * 记录自定义词典的命中，命中按起点的顺序给出，插入排序成按结束位置的顺序
+	 */
+	private final IHit<CoreDictionary.Attribute> customHit = new IHit<CoreDictionary.Attribute>() {
+		@Override
+		public void hit(int begin, int length, int index, CoreDictionary.Attribute value) {
+			if (customCount == customBegin.length) {
+				customBegin = Arrays.copyOf(customBegin, customCount * 2);
+				customEnd = Arrays.copyOf(customEnd, customCount * 2);
+				customAttribute = Arrays.copyOf(customAttribute, customCount * 2);
+			}
+			final int end = begin + length;
+			int i = customCount++;
+			for (; i > 0 && customEnd[i - 1] > end; --i) {
+				customBegin[i] = customBegin[i - 1];
+				customEnd[i] = customEnd[i - 1];
+				customAttribute[i] = customAttribute[i - 1];
+			}
+			customBegin[i] = begin;
+			customEnd[i] = end;
+			customAttribute[i] = value;
+		}
+	};
+
+	/**
+	 * 从句尾沿最优前驱回溯得到词序列
+	 *
+	 * @param dictionary 核心词典，用于取词性
+	 * @param sentence 句子
+	 * @param unknown 未登录词的词性，为null时不标注词性
+	 * @return
+	 */
+	public LinkedList<Term> toTerms(CoreDictionary dictionary, char[] sentence, Nature unknown) {
+		LinkedList<Term> termList = new LinkedList<Term>();
+		for (int end = sentence.length; end > 0;) {
+			final int begin = from[end];
+			Nature nature = null;
+			if (unknown != null) {
+				if (word[end] == UNKNOWN)
+					nature = unknown;
+				else if (word[end] == CUSTOM)
+					nature = customValue[end].nature[0];
+				else
+					nature = dictionary.firstNature(word[end]);
+			}
+			Term term = new Term(new String(sentence, begin, end - begin), nature);
+			term.setOffset(begin);
+			termList.addFirst(term);
+			end = begin;
+		}
+		return termList;
+	}
+
+	/**
+	 * 分词
+	 *
+	 * @param dictionary 核心词典
+	 * @param sentence 句子
+	 * @param unknown 未登录词的词性，为null时不标注词性
+	 * @return
+	 */
+	public LinkedList<Term> segment(CoreDictionary dictionary, char[] sentence, Nature unknown) {
+		return segment(dictionary, sentence, unknown, false);
+	}
+
+	/**
+	 * 分词
+	 *
+	 * @param dictionary 核心词典
+	 * @param sentence 句子
+	 * @param unknown 未登录词的词性，为null时不标注词性
+	 * @param custom 是否加入自定义词典中的词
+	 * @return
+	 */
+	public LinkedList<Term> segment(CoreDictionary dictionary, char[] sentence, Nature unknown, boolean custom) {
+		decode(dictionary, sentence, custom);
+		return toTerms(dictionary, sentence, unknown);
+	}
+
+}
@@ -0,0 +1,152 @@
+package cn.edu.kmust.seanlp.segmenter;
+
+import java.util.regex.Pattern;
+
+import cn.edu.kmust.seanlp.Config;
+import cn.edu.kmust.seanlp.Language;
+
+/**
+ * 分词器配置<br>
+ * 不可变对象，每个分词器持有一份，修改配置请使用with*方法得到新的配置，
+ * 因此不同语言的分词器可以在多个线程中同时使用而互不影响
+ *
+ * @author  Zhao Shiyu
+ *
+ */
+public final class SegmenterOptions {
+
+	private final Language language;
+	private final boolean speechTagging;
+	private final boolean useCustomDictionary;
+	private final SentenceSplitter sentenceSplitter;
+	private final boolean wordLattice;
+
+	private SegmenterOptions(Language language, boolean speechTagging, boolean useCustomDictionary, SentenceSplitter sentenceSplitter,
+			boolean wordLattice) {
+		if (language == null)
+			throw new IllegalArgumentException("语言不能为空");
+		this.language = language;
+		this.speechTagging = speechTagging;
+		this.useCustomDictionary = useCustomDictionary;
+		this.sentenceSplitter = sentenceSplitter;
+		this.wordLattice = wordLattice;
+	}
+
+	/**
+	 * 某种语言的默认配置，词性标注和自定义词典的开关取自{@link Config.BaseConf}当前的值
+	 *
+	 * @param language
+	 * @return
+	 */
+	public static SegmenterOptions of(Language language) {
+		return new SegmenterOptions(language, Config.BaseConf.speechTagging, Config.BaseConf.useCustomDictionary,
+				SentenceSplitter.of(language), false);
+	}
+
+	/**
+	 * 与{@link SentenceSplitter#of(Language)}等价的分句正则
+	 *
+	 * @param language
+	 * @return
+	 * @deprecated 请使用{@link SentenceSplitter#of(Language)}，按字符查表分句，不需要正则
+	 */
+	@Deprecated
+	public static Pattern defaultSentencePattern(Language language) {
+		return SentenceSplitter.of(language).pattern();
+	}
+
+	/**
+	 * @param enable 是否词性标注
+	 * @return 新的配置
+	 */
+	public SegmenterOptions withSpeechTagging(boolean enable) {
+		if (enable == speechTagging)
+			return this;
+		return new SegmenterOptions(language, enable, useCustomDictionary, sentenceSplitter, wordLattice);
+	}
+
+	/**
+	 * @param enable 是否使用自定义词典
+	 * @return 新的配置
+	 */
+	public SegmenterOptions withCustomDictionary(boolean enable) {
+		if (enable == useCustomDictionary)
+			return this;
+		return new SegmenterOptions(language, speechTagging, enable, sentenceSplitter, wordLattice);
+	}
+
+	/**
+	 * @param regex 分句正则，匹配句子结束符
+	 * @return 新的配置
+	 */
+	public SegmenterOptions withSentenceRegex(String regex) {
+		return withSentencePattern(Pattern.compile(regex));
+	}
+
+	/**
+	 * @param pattern 分句正则，匹配句子结束符
+	 * @return 新的配置
+	 */
+	public SegmenterOptions withSentencePattern(Pattern pattern) {
+		return withSentenceSplitter(SentenceSplitter.of(pattern));
+	}
+
+	/**
+	 * @param splitter 分句器
+	 * @return 新的配置
+	 */
+	public SegmenterOptions withSentenceSplitter(SentenceSplitter splitter) {
+		return new SegmenterOptions(language, speechTagging, useCustomDictionary, splitter, wordLattice);
+	}
+
+	/**
+	 * 词典分词器（DAT）是否按词频求最短路径，关闭时每个位置取最长的词
+	 *
+	 * @param enable 是否使用词网格
+	 * @return 新的配置
+	 */
+	public SegmenterOptions withWordLattice(boolean enable) {
+		if (enable == wordLattice)
+			return this;
+		return new SegmenterOptions(language, speechTagging, useCustomDictionary, sentenceSplitter, enable);
+	}
+
+	public Language getLanguage() {
+		return language;
+	}
+
+	public boolean isSpeechTagging() {
+		return speechTagging;
+	}
+
+	public boolean isUseCustomDictionary() {
+		return useCustomDictionary;
+	}
+
+	public SentenceSplitter getSentenceSplitter() {
+		return sentenceSplitter;
+	}
+
+	/**
+	 * @return 与分句器等价的正则，自定义的分句器为null
+	 * @deprecated 请使用{@link #getSentenceSplitter()}
+	 */
+	@Deprecated
+	public Pattern getSentencePattern() {
+		return sentenceSplitter.pattern();
+	}
+
+	public boolean isWordLattice() {
+		return wordLattice;
+	}
+
+	@Override
+	public String toString() {
+		return "SegmenterOptions{language=" + language
+				+ ", speechTagging=" + speechTagging
+				+ ", useCustomDictionary=" + useCustomDictionary
+				+ ", sentenceSplitter=" + sentenceSplitter
+				+ ", wordLattice=" + wordLattice + '}';
+	}
+
+}
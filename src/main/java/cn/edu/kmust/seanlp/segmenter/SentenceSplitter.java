@@ -0,0 +1,298 @@
+package cn.edu.kmust.seanlp.segmenter;
+
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import cn.edu.kmust.seanlp.Language;
+
+/**
+ * 分句器<br>
+ * 在原文上扫描一遍，给出每个句子的[起点, 终点)，句子结束符留在句末，不复制文本。
+ * 各语言默认的结束符集合预先编译为一张按字符查询的位图，扫描时每个字符只查一次表；
+ * 用户给出的分句正则只编译一次，同样只扫描一遍。分句器是不可变的，可以在多个线程中共享
+ *
+ * @author  Zhao Shiyu
+ *
+ */
+public abstract class SentenceSplitter {
+
+	/**
+	 * 默认的句子结束符
+	 */
+	public static final SentenceSplitter DEFAULT = of(".;!?។");
+	/**
+	 * 泰语以空格分句
+	 */
+	public static final SentenceSplitter THAI = of(".;!?។ ");
+	/**
+	 * 高棉语句号“។”
+	 */
+	public static final SentenceSplitter KHMER = DEFAULT;
+	/**
+	 * 缅甸语句号“။”
+	 */
+	public static final SentenceSplitter BURMESE = of(".;!?។။");
+
+	/**
+	 * 某种语言默认的分句器
+	 *
+	 * @param language
+	 * @return
+	 */
+	public static SentenceSplitter of(Language language) {
+		switch (language) {
+		case Thai:
+			return THAI;
+		case Khmer:
+			return KHMER;
+		case Burmese:
+		case Myanmar:
+			return BURMESE;
+		default:
+			return DEFAULT;
+		}
+	}
+
+	/**
+	 * 以给定的字符作为句子结束符
+	 *
+	 * @param terminators 结束符，每个字符都是一个结束符
+	 * @return
+	 */
+	public static SentenceSplitter of(String terminators) {
+		return new CharTable(terminators);
+	}
+
+	/**
+	 * 以正则的匹配作为句子结束符，匹配的内容留在句末
+	 *
+	 * @param pattern
+	 * @return
+	 */
+	public static SentenceSplitter of(Pattern pattern) {
+		return new Regex(pattern);
+	}
+
+	/**
+	 * 在这个分句器的基础上再以给定的字符分句，如换行符、逗号等
+	 *
+	 * @param extra 追加的结束符，每个字符都是一个结束符
+	 * @return 新的分句器
+	 */
+	public SentenceSplitter withTerminators(String extra) {
+		final SentenceSplitter self = this;
+		final SentenceSplitter table = of(extra);
+		return new SentenceSplitter() {
+			@Override
+			public int next(CharSequence text, int start, int end) {
+				return Math.min(self.next(text, start, end), table.next(text, start, end));
+			}
+
+			@Override
+			boolean resumable() {
+				return self.resumable();
+			}
+
+			@Override
+			public String toString() {
+				return self + "+" + table;
+			}
+		};
+	}
+
+	/**
+	 * 从start开始的句子的终点
+	 *
+	 * @param text 文本
+	 * @param start 句子起点
+	 * @param end 文本终点
+	 * @return 下一个结束符之后的位置，没有结束符时为end
+	 */
+	public abstract int next(CharSequence text, int start, int end);
+	
+	/**
+	 * 从start开始的句子的终点，用于分段读入的文本
+	 * 
+	 * @param text 已读入的文本
+	 * @param start 句子起点
+	 * @param end 已读入文本的终点
+	 * @param endOfInput end之后是否已经没有文本
+	 * @return 句子的终点，要读入更多文本才能确定时返回-1
+	 */
+	public int next(CharSequence text, int start, int end, boolean endOfInput) {
+		int next = next(text, start, end);
+		return endOfInput || next < end ? next : -1;
+	}
+
+	/**
+	 * 分句
+	 *
+	 * @param text 文本
+	 * @return 句子的边界bounds，第i个句子为[bounds[i], bounds[i + 1])，句子个数为bounds.length - 1，空文本没有句子
+	 */
+	public int[] split(CharSequence text) {
+		final int length = text.length();
+		int[] bounds = new int[16];
+		int count = 0;
+		int start = 0;
+		while (start < length) {
+			if (count + 1 == bounds.length)
+				bounds = Arrays.copyOf(bounds, bounds.length * 2);
+			bounds[count++] = start;
+			start = next(text, start, length);
+		}
+		bounds[count] = length;
+		return count + 1 == bounds.length ? bounds : Arrays.copyOf(bounds, count + 1);
+	}
+
+	/**
+	 * 分句并截取每个句子
+	 *
+	 * @param text 文本
+	 * @return 句子，句子结束符在句末
+	 */
+	public String[] sentences(String text) {
+		int[] bounds = split(text);
+		String[] sentences = new String[bounds.length - 1];
+		for (int i = 0; i < sentences.length; ++i) {
+			sentences[i] = text.substring(bounds[i], bounds[i + 1]);
+		}
+		return sentences;
+	}
+
+	/**
+	 * 句子的终点是否只取决于单个字符，这时分段读入的文本可以从上次扫描到的位置继续，不必从句首重新扫描
+	 */
+	boolean resumable() {
+		return false;
+	}
+
+	/**
+	 * 与分句器等价的正则，供已过时的{@link SegmenterOptions#getSentencePattern()}使用
+	 *
+	 * @return 自定义的分句器为null
+	 */
+	Pattern pattern() {
+		return null;
+	}
+
+	/**
+	 * 结束符的位图，每个char一位
+	 */
+	private static final class CharTable extends SentenceSplitter {
+		private final long[] table = new long[1 << 10];
+		private final String terminators;
+
+		CharTable(String terminators) {
+			this.terminators = terminators;
+			for (int i = 0; i < terminators.length(); ++i) {
+				char c = terminators.charAt(i);
+				table[c >>> 6] |= 1L << c;
+			}
+		}
+
+		@Override
+		public int next(CharSequence text, int start, int end) {
+			final long[] table = this.table;
+			for (int i = start; i < end; ++i) {
+				char c = text.charAt(i);
+				if ((table[c >>> 6] & (1L << c)) != 0)
+					return i + 1;
+			}
+			return end;
+		}
+
+		@Override
+		public SentenceSplitter withTerminators(String extra) {
+			return new CharTable(terminators + extra);
+		}
+
+		@Override
+		boolean resumable() {
+			return true;
+		}
+
+		@Override
+		Pattern pattern() {
+			return Pattern.compile("[" + Pattern.quote(terminators) + "]");
+		}
+
+		@Override
+		public String toString() {
+			return "SentenceSplitter" + Arrays.toString(terminators.toCharArray());
+		}
+	}
+
+	private static final class Regex extends SentenceSplitter {
+		private final Pattern pattern;
+
+		Regex(Pattern pattern) {
+			this.pattern = pattern;
+		}
+
+		@Override
+		public int next(CharSequence text, int start, int end) {
+			Matcher matcher = pattern.matcher(text).region(start, end);
+			return next(matcher, start, end);
+		}
+
+		@Override
+		public int next(CharSequence text, int start, int end, boolean endOfInput) {
+			if (endOfInput)
+				return next(text, start, end);
+			Matcher matcher = pattern.matcher(text).region(start, end);
+			while (matcher.find()) {
+				// 匹配碰到了已读入文本的末尾，后面的文本可能改变匹配结果
+				if (matcher.hitEnd())
+					return -1;
+				if (matcher.end() > start)
+					return matcher.end();
+			}
+			return -1;
+		}
+
+		private static int next(Matcher matcher, int start, int end) {
+			while (matcher.find()) {
+				// 跳过空匹配，否则句子会停在原地
+				if (matcher.end() > start)
+					return matcher.end();
+			}
+			return end;
+		}
+
+		@Override
+		public int[] split(CharSequence text) {
+			// 整个文本共用一个Matcher
+			final int length = text.length();
+			Matcher matcher = pattern.matcher(text);
+			int[] bounds = new int[16];
+			int count = 0;
+			int start = 0;
+			while (start < length) {
+				if (count + 1 == bounds.length)
+					bounds = Arrays.copyOf(bounds, bounds.length * 2);
+				bounds[count++] = start;
+				start = next(matcher, start, length);
+			}
+			bounds[count] = length;
+			return Arrays.copyOf(bounds, count + 1);
+		}
+
+		@Override
+		public SentenceSplitter withTerminators(String extra) {
+			return new Regex(Pattern.compile("(?:" + pattern.pattern() + ")|[" + Pattern.quote(extra) + "]", pattern.flags()));
+		}
+
+		@Override
+		Pattern pattern() {
+			return pattern;
+		}
+
+		@Override
+		public String toString() {
+			return "SentenceSplitter[" + pattern + "]";
+		}
+	}
+
+}
@@ -0,0 +1,339 @@
+package cn.edu.kmust.seanlp.segmenter;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+import cn.edu.kmust.seanlp.segmenter.domain.Term;
+
+/**
+ * 流式分词<br>
+ * 从Reader或者字节通道中分段读入文本，读到一个完整的句子就交给分词器，分词结果逐句推送给回调或者通过迭代器逐个取出。
+ * 缓冲区只需要放得下最长的一个句子，与文本的总长度无关，适合处理放不进内存的大文件。
+ * 词语的位置是在整个文本流中的位置。StreamSegmenter本身不保存读取状态，可以在多个线程中共享，
+ * 是否线程安全取决于所用的分词器
+ *
+ * @author Zhao Shiyu
+ *
+ */
+public class StreamSegmenter {
+
+	/**
+	 * 读入文本时每次至少读取的字符数
+	 */
+	private static final int READ_SIZE = 8192;
+
+	/**
+	 * 分词器改写了词语，在原文中找不到时的位置
+	 */
+	public static final int UNKNOWN_OFFSET = -1;
+
+	/**
+	 * 逐句接收分词结果
+	 */
+	public interface SentenceHandler {
+
+		/**
+		 * @param offset 句子在文本流中的位置
+		 * @param sentence 句子，句子结束符在句末
+		 * @param terms 分词结果，词语的位置为在句子中的位置，在句子中找不到的词语为{@link #UNKNOWN_OFFSET}
+		 */
+		void handle(long offset, String sentence, List<Term> terms);
+	}
+
+	private final Segmenter segmenter;
+	private final SentenceSplitter splitter;
+
+	/**
+	 * 使用分词器配置中的分句器，不是{@link AbstractSegmenter}时使用{@link SentenceSplitter#DEFAULT}
+	 *
+	 * @param segmenter 分词器
+	 */
+	public StreamSegmenter(Segmenter segmenter) {
+		this(segmenter, segmenter instanceof AbstractSegmenter
+				? ((AbstractSegmenter) segmenter).getOptions().getSentenceSplitter() : SentenceSplitter.DEFAULT);
+	}
+
+	/**
+	 * @param segmenter 分词器
+	 * @param splitter 分句器
+	 */
+	public StreamSegmenter(Segmenter segmenter, SentenceSplitter splitter) {
+		if (segmenter == null || splitter == null)
+			throw new NullPointerException();
+		this.segmenter = segmenter;
+		this.splitter = splitter;
+	}
+
+	/**
+	 * 逐句分词，读完后不关闭reader
+	 *
+	 * @param reader 文本
+	 * @param handler 接收每个句子的分词结果
+	 * @return 读入的字符数
+	 * @throws IOException
+	 */
+	public long segment(Reader reader, SentenceHandler handler) throws IOException {
+		SentenceReader sentences = new SentenceReader(reader, splitter);
+		while (sentences.next()) {
+			handler.handle(sentences.offset, sentences.sentence, segment(sentences.sentence));
+		}
+		return sentences.offset;
+	}
+
+	/**
+	 * 逐个推送词语，读完后不关闭reader
+	 *
+	 * @param reader 文本
+	 * @param consumer 接收词语，词语的位置为在文本流中的位置，找不到的词语为{@link #UNKNOWN_OFFSET}
+	 * @return 读入的字符数
+	 * @throws IOException
+	 * @throws ArithmeticException 词语的位置超出了int的范围，这时请使用{@link #segment(Reader, SentenceHandler)}
+	 */
+	public long segment(Reader reader, final Consumer<? super Term> consumer) throws IOException {
+		return segment(reader, new SentenceHandler() {
+			@Override
+			public void handle(long offset, String sentence, List<Term> terms) {
+				for (Term term : terms) {
+					term.setOffset(shift(offset, term.getOffset()));
+					consumer.accept(term);
+				}
+			}
+		});
+	}
+
+	/**
+	 * 逐个推送词语，文本以字节通道给出，无法解码的字节替换为U+FFFD
+	 *
+	 * @param channel 文本
+	 * @param charset 文本编码
+	 * @param consumer 接收词语，词语的位置为在文本流中的位置
+	 * @return 读入的字符数
+	 * @throws IOException
+	 */
+	public long segment(ReadableByteChannel channel, Charset charset, Consumer<? super Term> consumer) throws IOException {
+		return segment(newReader(channel, charset), consumer);
+	}
+
+	/**
+	 * 按需读入文本并分词的迭代器，读入出错时抛出{@link UncheckedIOException}，读完后不关闭reader
+	 *
+	 * @param reader 文本
+	 * @return 词语，位置为在文本流中的位置，找不到的词语为{@link #UNKNOWN_OFFSET}
+	 */
+	public Iterator<Term> iterator(Reader reader) {
+		return new TermIterator(new SentenceReader(reader, splitter));
+	}
+
+	/**
+	 * @see #iterator(Reader)
+	 */
+	public Iterator<Term> iterator(ReadableByteChannel channel, Charset charset) {
+		return iterator(newReader(channel, charset));
+	}
+
+	/**
+	 * 有序、元素非空、长度未知的Spliterator，可以用StreamSupport.stream包装成Stream
+	 *
+	 * @see #iterator(Reader)
+	 */
+	public Spliterator<Term> spliterator(Reader reader) {
+		return Spliterators.spliteratorUnknownSize(iterator(reader), Spliterator.ORDERED | Spliterator.NONNULL);
+	}
+
+	private static Reader newReader(ReadableByteChannel channel, Charset charset) {
+		return Channels.newReader(channel, charset.newDecoder().onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE), -1);
+	}
+
+	/**
+	 * 对一个句子分词，并把词语的位置对齐到句子上
+	 */
+	private List<Term> segment(String sentence) {
+		return align(sentence, segmenter.segment(sentence));
+	}
+	
+	/**
+	 * 把词语的位置对齐到句子上。分词器记录了位置时直接采用；
+	 * 不是所有分词器都记录位置（这时位置都为0），才按顺序在句子中查找每个词。
+	 * 分词器改写了词语（如规范化）且没有记录位置时，词语可能找不到，位置记为{@link #UNKNOWN_OFFSET}，不影响后面的词语
+	 *
+	 * @param sentence 句子
+	 * @param terms 句子的分词结果，可以为null
+	 * @return 位置为在句子中的位置的分词结果
+	 */
+	static List<Term> align(String sentence, List<Term> terms) {
+		if (terms == null)
+			return Collections.emptyList();
+		int cursor = 0;
+		for (Term term : terms) {
+			String word = term.getWord();
+			int offset = term.getOffset();
+			int found;
+			if (offset > 0 && offset >= cursor && offset < sentence.length())
+				found = offset;
+			else if (sentence.startsWith(word, cursor))
+				found = cursor;
+			else
+				found = sentence.indexOf(word, cursor);
+			term.setOffset(found);
+			if (found >= 0)
+				cursor = found + (sentence.startsWith(word, found) ? word.length() : 1);
+		}
+		return terms;
+	}
+
+	/**
+	 * 把词语在句子中的位置换算为在文本中的位置
+	 *
+	 * @param base 句子在文本中的位置
+	 * @param offset 词语在句子中的位置
+	 * @return 找不到的词语仍为{@link #UNKNOWN_OFFSET}
+	 * @throws ArithmeticException 位置超出了int的范围
+	 */
+	static int shift(long base, int offset) {
+		return offset == UNKNOWN_OFFSET ? UNKNOWN_OFFSET : Math.toIntExact(base + offset);
+	}
+
+	/**
+	 * 从Reader中逐句读出文本，缓冲区随最长的句子增长
+	 */
+	static final class SentenceReader {
+		private final Reader reader;
+		private final SentenceSplitter splitter;
+		private char[] buffer = new char[READ_SIZE];
+		private CharBuffer view = CharBuffer.wrap(buffer);
+		/**
+		 * 下一个句子在缓冲区中的起点，以及已读入文本的终点
+		 */
+		private int start;
+		private int limit;
+		/**
+		 * 当前句子已经扫描过、没有结束符的终点，只用于{@link SentenceSplitter#resumable()}的分句器
+		 */
+		private int scanned;
+		/**
+		 * 缓冲区第0个字符在文本流中的位置
+		 */
+		private long base;
+		private boolean endOfInput;
+		/**
+		 * 当前句子及其位置，读完之后offset为文本的长度
+		 */
+		String sentence;
+		long offset;
+
+		SentenceReader(Reader reader, SentenceSplitter splitter) {
+			this.reader = reader;
+			this.splitter = splitter;
+		}
+
+		/**
+		 * 读出下一个句子
+		 *
+		 * @return 没有句子时为false
+		 * @throws IOException
+		 */
+		boolean next() throws IOException {
+			while (true) {
+				if (start < limit) {
+					int end = splitter.next(view, Math.max(start, scanned), limit, endOfInput);
+					if (end >= 0) {
+						sentence = new String(buffer, start, end - start);
+						offset = base + start;
+						start = end;
+						scanned = end;
+						return true;
+					}
+					// 最后一个字符是结束符时也要等后面的文本，下次从它开始扫描
+					if (splitter.resumable())
+						scanned = Math.max(start, limit - 1);
+				} else if (endOfInput) {
+					sentence = null;
+					offset = base + limit;
+					return false;
+				}
+				fill();
+			}
+		}
+
+		/**
+		 * 丢掉已经读出的句子，再读入一段文本
+		 */
+		private void fill() throws IOException {
+			if (start > 0) {
+				System.arraycopy(buffer, start, buffer, 0, limit - start);
+				base += start;
+				limit -= start;
+				scanned -= start;
+				start = 0;
+			}
+			if (buffer.length - limit < READ_SIZE / 2) {
+				buffer = Arrays.copyOf(buffer, buffer.length * 2);
+				view = CharBuffer.wrap(buffer);
+			}
+			int read = reader.read(buffer, limit, buffer.length - limit);
+			if (read < 0)
+				endOfInput = true;
+			else
+				limit += read;
+		}
+
+		int capacity() {
+			return buffer.length;
+		}
+	}
+
+	private final class TermIterator implements Iterator<Term> {
+		private final SentenceReader sentences;
+		private Iterator<Term> terms = Collections.<Term>emptyList().iterator();
+		private long offset;
+
+		TermIterator(SentenceReader sentences) {
+			this.sentences = sentences;
+		}
+
+		@Override
+		public boolean hasNext() {
+			try {
+				while (!terms.hasNext()) {
+					if (!sentences.next())
+						return false;
+					offset = sentences.offset;
+					terms = segment(sentences.sentence).iterator();
+				}
+				return true;
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		@Override
+		public Term next() {
+			if (!hasNext())
+				throw new NoSuchElementException();
+			Term term = terms.next();
+			term.setOffset(shift(offset, term.getOffset()));
+			return term;
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+}
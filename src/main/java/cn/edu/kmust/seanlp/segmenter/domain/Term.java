@@ -1,6 +1,5 @@
 package cn.edu.kmust.seanlp.segmenter.domain;
 
-import cn.edu.kmust.seanlp.Config;
 
 /**
  * 词（包括词、词性、长度和词的位置）
@@ -66,7 +65,7 @@ public class Term {
 	 * toString
 	 */
 	public String toString() {
-		if (Config.BaseConf.speechTagging) {
+		if (nature != null) {
 			return word + "/" + nature;
 		}
 		return word;
@@ -5,6 +5,7 @@ import java.util.Map;
 import cn.edu.kmust.seanlp.collection.trie.DATrie;
 import cn.edu.kmust.seanlp.dictionary.CoreDictionary;
 import cn.edu.kmust.seanlp.dictionary.CoreDictionary.Attribute;
+import cn.edu.kmust.seanlp.util.Predefine;
 
 /**
  * 顶点
@@ -35,12 +36,8 @@ public class Vertex {
 	public int index;
 
 	/**
-	 * 始##始
+	 * 始##始，各语言的词典不同，请用{@link #newB(DATrie)}生成
 	 */
-	public static Vertex B;
-//	 public static Vertex B = new Vertex(Predefine.TAG_BIGIN, " ", new
-//	 CoreDictionary.Attribute(Nature.BEGIN, Predefine.MAX_FREQUENCY / 10),
-//	 CoreDictionary.getWordID(Predefine.TAG_BIGIN));
 	/**
 	 * 末##末
 	 */
@@ -462,14 +459,13 @@ public class Vertex {
 	/**
 	 * 生成线程安全的起始节点
 	 * 
+	 * @param dictionaryTrie 该语言的核心词典
 	 * @return
 	 */
-	// public static Vertex newB()
-	// {
-	// return new Vertex(Predefine.TAG_BIGIN, " ", new
-	// CoreDictionary.Attribute(Nature.BEGIN, Predefine.MAX_FREQUENCY / 10),
-	// CoreDictionary.getWordID(Predefine.TAG_BIGIN));
-	// }
+	public static Vertex newB(DATrie<Attribute> dictionaryTrie) {
+		return new Vertex(Predefine.TAG_BIGIN, " ", new CoreDictionary.Attribute(Nature.BEGIN,
+				Predefine.MAX_FREQUENCY / 10), CoreDictionary.getWordID(dictionaryTrie, Predefine.TAG_BIGIN));
+	}
 
 	/**
 	 * 生成线程安全的终止节点
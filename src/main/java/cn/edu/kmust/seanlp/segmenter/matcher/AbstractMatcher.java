@@ -1,22 +1,281 @@
 package cn.edu.kmust.seanlp.segmenter.matcher;
 
 import cn.edu.kmust.seanlp.collection.trie.DATrie;
+import cn.edu.kmust.seanlp.recognition.CharClassRecog;
 
 /**
- * 词典匹配算法基类
- * 
+ * 词典匹配算法基类<br>
+ * 词典由每个匹配器自己持有，不同语言的匹配器可以在多个线程中同时使用
+ *
  * @author Zhao Shiyu
  *
  */
 public abstract class AbstractMatcher implements Matcher {
-	
-	protected static int wordMaxLength = 20;
-	protected static int wordMinLength = 1;
-	
-	protected static DATrie<?> dict;
-	
+
+	protected static final int wordMaxLength = 20;
+	protected static final int wordMinLength = 1;
+
+	protected final DATrie<?> dict;
+	/**
+	 * 音节之间的分隔符，越南语为空格，其它语言为空串
+	 */
+	protected final String separator;
+
 	public AbstractMatcher(DATrie<?> datDict) {
+		this(datDict, "");
+	}
+
+	public AbstractMatcher(DATrie<?> datDict, String separator) {
 		dict = datDict;
+		this.separator = separator;
+	}
+
+	/**
+	 * 从start开始沿trie逐字转移，找出词典中或能被{@link CharClassRecog}识别的最长（或最短）的词
+	 *
+	 * @param text 文本
+	 * @param start 词的起点
+	 * @param maxLen 词的最大长度
+	 * @param longest 是否取最长的词
+	 * @return 词长，没有匹配时返回0
+	 */
+	protected int forwardMatch(char[] text, int start, int maxLen, boolean longest) {
+		int found = 0;
+		int state = dict.getRoot();
+		for (int len = 1; len <= maxLen; ++len) {
+			state = dict.transition(text[start + len - 1], state);
+			if (state < 0)
+				break;
+			if (dict.outputIndex(state) >= 0) {
+				found = len;
+				if (!longest)
+					break;
+			}
+		}
+		// 识别数字、英文单词等
+		if (longest)
+			return Math.max(found, CharClassRecog.longest(text, start, maxLen));
+		int recog = CharClassRecog.shortest(text, start, maxLen);
+		if (recog > 0 && (found == 0 || recog < found))
+			return recog;
+		return found;
+	}
+
+	/**
+	 * 以end为词尾沿逆序trie逐字向前转移，找出词典中或能被{@link CharClassRecog}识别的最长（或最短）的词
+	 *
+	 * @param text 文本
+	 * @param end 词尾（不含）
+	 * @param maxLen 词的最大长度
+	 * @param longest 是否取最长的词
+	 * @return 词长，没有匹配时返回0
+	 */
+	protected int backwardMatch(char[] text, int end, int maxLen, boolean longest) {
+		DATrie<?> reversed = dict.reversed();
+		int found = 0;
+		int state = reversed.getRoot();
+		for (int len = 1; len <= maxLen; ++len) {
+			state = reversed.transition(text[end - len], state);
+			if (state < 0)
+				break;
+			if (reversed.outputIndex(state) >= 0) {
+				found = len;
+				if (!longest)
+					break;
+			}
+		}
+		// 识别数字、英文单词等，只有末字符可能被识别时才需要尝试
+		if (CharClassRecog.isRecogEnd(text[end - 1])) {
+			if (longest) {
+				for (int len = maxLen; len > found; --len) {
+					if (CharClassRecog.recog(text, end - len, len))
+						return len;
+				}
+			} else {
+				int bound = found == 0 ? maxLen : found - 1;
+				for (int len = 1; len <= bound; ++len) {
+					if (CharClassRecog.recog(text, end - len, len))
+						return len;
+				}
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * 将第start个起的len个音节用分隔符连成词，并去掉首尾空白
+	 *
+	 * @param syllables
+	 * @param start
+	 * @param len
+	 * @return
+	 */
+	protected String word(String[] syllables, int start, int len) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = start; i < start + len; ++i) {
+			if (i > start)
+				sb.append(separator);
+			sb.append(syllables[i]);
+		}
+		return sb.toString().trim();
 	}
-	
+
+	/**
+	 * 从第start个音节开始沿trie逐字转移，只在音节边界上检查是否成词，找出最长（或最短）的词<br>
+	 * 候选词与{@link #word(String[], int, int)}一致，即首尾空白不参与匹配
+	 *
+	 * @param syllables 音节
+	 * @param start 词的第一个音节
+	 * @param maxLen 词的最大音节数
+	 * @param longest 是否取最长的词
+	 * @return 词的音节数，没有匹配时返回0
+	 */
+	protected int forwardMatch(String[] syllables, int start, int maxLen, boolean longest) {
+		final int sepLen = separator.length();
+		int found = 0;
+		int state = dict.getRoot();
+		// 最后一个非空白字符之后的状态，-1表示还没有或已经失配
+		int accept = -1;
+		boolean started = false;
+		walk:
+		for (int len = 1; len <= maxLen; ++len) {
+			String syllable = syllables[start + len - 1];
+			for (int j = len == 1 ? 0 : -sepLen; j < syllable.length(); ++j) {
+				char c = j < 0 ? separator.charAt(sepLen + j) : syllable.charAt(j);
+				if (c <= ' ') {
+					if (!started || state < 0)
+						continue;
+					state = dict.transition(c, state);
+				} else {
+					if (started && state < 0)
+						break walk;
+					started = true;
+					state = dict.transition(c, state);
+					accept = state;
+				}
+			}
+			if (accept >= 0 && dict.outputIndex(accept) >= 0) {
+				found = len;
+				if (!longest)
+					break;
+			}
+		}
+		// 开头全是空白的音节连成空串，也能被识别为数字
+		int blank = 0;
+		while (blank < maxLen && isBlank(syllables[start + blank]))
+			++blank;
+		if (longest) {
+			int best = Math.max(found, blank);
+			if (blank < maxLen && CharClassRecog.isRecogStart(firstNonBlank(syllables[start + blank]))) {
+				for (int len = maxLen; len > best; --len) {
+					if (CharClassRecog.recog(word(syllables, start, len)))
+						return len;
+				}
+			}
+			return best;
+		}
+		if (blank > 0)
+			return 1;
+		if (CharClassRecog.isRecogStart(firstNonBlank(syllables[start]))) {
+			int bound = found == 0 ? maxLen : found - 1;
+			for (int len = 1; len <= bound; ++len) {
+				if (CharClassRecog.recog(word(syllables, start, len)))
+					return len;
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * 以第end个音节（不含）为词尾沿逆序trie逐字向前转移，只在音节边界上检查是否成词，找出最长（或最短）的词
+	 *
+	 * @param syllables 音节
+	 * @param end 词尾（不含）
+	 * @param maxLen 词的最大音节数
+	 * @param longest 是否取最长的词
+	 * @return 词的音节数，没有匹配时返回0
+	 */
+	protected int backwardMatch(String[] syllables, int end, int maxLen, boolean longest) {
+		DATrie<?> reversed = dict.reversed();
+		final int sepLen = separator.length();
+		int found = 0;
+		int state = reversed.getRoot();
+		int accept = -1;
+		boolean started = false;
+		walk:
+		for (int len = 1; len <= maxLen; ++len) {
+			String syllable = syllables[end - len];
+			final int length = syllable.length() + (len == 1 ? 0 : sepLen);
+			for (int j = length - 1; j >= 0; --j) {
+				char c = j < syllable.length() ? syllable.charAt(j) : separator.charAt(j - syllable.length());
+				if (c <= ' ') {
+					if (!started || state < 0)
+						continue;
+					state = reversed.transition(c, state);
+				} else {
+					if (started && state < 0)
+						break walk;
+					started = true;
+					state = reversed.transition(c, state);
+					accept = state;
+				}
+			}
+			if (accept >= 0 && reversed.outputIndex(accept) >= 0) {
+				found = len;
+				if (!longest)
+					break;
+			}
+		}
+		int blank = 0;
+		while (blank < maxLen && isBlank(syllables[end - 1 - blank]))
+			++blank;
+		if (longest) {
+			int best = Math.max(found, blank);
+			if (blank < maxLen && CharClassRecog.isRecogEnd(lastNonBlank(syllables[end - 1 - blank]))) {
+				for (int len = maxLen; len > best; --len) {
+					if (CharClassRecog.recog(word(syllables, end - len, len)))
+						return len;
+				}
+			}
+			return best;
+		}
+		if (blank > 0)
+			return 1;
+		if (CharClassRecog.isRecogEnd(lastNonBlank(syllables[end - 1]))) {
+			int bound = found == 0 ? maxLen : found - 1;
+			for (int len = 1; len <= bound; ++len) {
+				if (CharClassRecog.recog(word(syllables, end - len, len)))
+					return len;
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * 是否全是会被String.trim()去掉的字符
+	 */
+	private static boolean isBlank(String syllable) {
+		for (int i = 0; i < syllable.length(); ++i) {
+			if (syllable.charAt(i) > ' ')
+				return false;
+		}
+		return true;
+	}
+
+	private static char firstNonBlank(String syllable) {
+		for (int i = 0; i < syllable.length(); ++i) {
+			if (syllable.charAt(i) > ' ')
+				return syllable.charAt(i);
+		}
+		return ' ';
+	}
+
+	private static char lastNonBlank(String syllable) {
+		for (int i = syllable.length() - 1; i >= 0; --i) {
+			if (syllable.charAt(i) > ' ')
+				return syllable.charAt(i);
+		}
+		return ' ';
+	}
+
 }
@@ -5,9 +5,7 @@ import java.util.LinkedList;
 import java.util.List;
 
 import cn.edu.kmust.seanlp.collection.trie.DATrie;
-import cn.edu.kmust.seanlp.recognition.RecogTool;
 import cn.edu.kmust.seanlp.segmenter.domain.Term;
-import cn.edu.kmust.seanlp.util.StringUtil;
 
 /**
  * 基于词典的逆向最小匹配算法
@@ -21,43 +19,34 @@ public class ReverseMinimumMatcher  extends AbstractMatcher {
 		super(dict);
 	}
 
+	/**
+	 * @param dict 词典
+	 * @param separator 音节之间的分隔符
+	 */
+	public ReverseMinimumMatcher(DATrie<?> dict, String separator) {
+		super(dict, separator);
+	}
+
 	@Override
 	public List<Term> segment(String[] strs) {
 		List<Term> result = new LinkedList<Term>();
-        //文本长度
-        final int textLen=strs.length;
-        //从未分词的文本中截取的长度
-        int len=wordMinLength;
-        //剩下未分词的文本的索引
-        int start=textLen-len;
+        //剩下未分词的音节的结尾
+        int end=strs.length;
         //只要有词未切分完就一直继续
-        while(start>=0){
-            //用长为len的字符串查词典
-            while(!dict.contains(StringUtil.merge(strs, start, len)) && !RecogTool.recog(StringUtil.merge(strs, start, len))){
-                //如果查不到，则长度加一后继续
-                //索引向前移动一个字，然后继续
-                len++;
-                start--;
-                //如果长度为词典最大长度且在词典中未找到匹配
-                //或已经遍历完剩下的文本且在词典中未找到匹配
-                //则按长度为一切分
-                if(len>wordMaxLength || start<0){
-                    //重置截取长度为一
-                    //向后移动start索引
-                    start+=len-1;
-                    len=wordMinLength;
-                    break;
-                }
+        while(end>0){
+            //沿逆序trie跨音节转移找出以end结尾的最短的词，并做特殊情况识别
+            int len=backwardMatch(strs, end, Math.min(wordMaxLength, end), false);
+            //在词典中未找到匹配则按一个音节切分
+            if(len==0){
+                len=wordMinLength;
             }
-        	 result.add(0, new Term(StringUtil.merge(strs, start, len), null));
-            //每一次成功切词后都要重置开始索引位置
-            start--;
-            //每一次成功切词后都要重置截取长度
-            len=wordMinLength;
+            result.add(0, new Term(word(strs, end-len, len), null));
+            //向前移动结尾，滑过已经分词的音节
+            end-=len;
         }
         return result;
 	}
-
+	
 //	@Override
 //	public List<Term> segment(String sentence) {
 //		List<Term> result = new LinkedList<Term>();
@@ -98,36 +87,19 @@ public class ReverseMinimumMatcher  extends AbstractMatcher {
 	@Override
 	public List<Term> segment(char[] sentence) {
 		List<Term> result = new LinkedList<Term>();
-        //文本长度
-        final int textLen=sentence.length;
-        //从未分词的文本中截取的长度
-        int len=wordMinLength;
-        //剩下未分词的文本的索引
-        int start=textLen-len;
+        //剩下未分词的文本的结尾
+        int end=sentence.length;
         //只要有词未切分完就一直继续
-        while(start>=0){
-            //用长为len的字符串查词典
-        	 while(!dict.contains(sentence, start, len)  && !RecogTool.recog(new String(sentence, start, len))){
-                //如果查不到，则长度加一后继续
-                //索引向前移动一个字，然后继续
-                len++;
-                start--;
-                //如果长度为词典最大长度且在词典中未找到匹配
-                //或已经遍历完剩下的文本且在词典中未找到匹配
-                //则按长度为一切分
-                if(len>wordMaxLength || start<0){
-                    //重置截取长度为一
-                    //向后移动start索引
-                    start+=len-1;
-                    len=wordMinLength;
-                    break;
-                }
+        while(end>0){
+            //沿逆序trie一次转移找出以end结尾的最短的词，并做特殊情况识别
+            int len=backwardMatch(sentence, end, Math.min(wordMaxLength, end), false);
+            //在词典中未找到匹配则按长度为一切分
+            if(len==0){
+                len=wordMinLength;
             }
-        	 result.add(0, new Term(new String(sentence, start, len), null));
-            //每一次成功切词后都要重置开始索引位置
-            start--;
-            //每一次成功切词后都要重置截取长度
-            len=wordMinLength;
+            result.add(0, new Term(new String(sentence, end-len, len), null));
+            //向前移动结尾，滑过已经分词的文本
+            end-=len;
         }
         return result;
 	}
@@ -18,18 +18,18 @@ import cn.edu.kmust.seanlp.segmenter.matcher.MaximumMatcher;
  */
 public class BurmeseMaxMatchSegmenter extends AbstractBurmeseSegmenter {
 	
-	private Matcher maxMatcher = new MaximumMatcher(BurmeseCommonDictionary.burmeseDictionary.dictionaryTrie);
+	private final Matcher maxMatcher = new MaximumMatcher(BurmeseCommonDictionary.getBurmeseDictionary().dictionaryTrie);
 	private final POS pos = new BurmesePOS();
 	
 	@Override
 	protected List<Term> segmentSentence(char[] sentence) {
-		if (Config.BaseConf.speechTagging) return pos.speechTagging(maxMatcher.segment(sentence));
+		if (options.isSpeechTagging()) return pos.speechTagging(maxMatcher.segment(sentence));
 		return maxMatcher.segment(sentence);
 	}
 	
 	@Override
 	public List<Term> segmentSentence(String sentence) {
-		if (Config.BaseConf.speechTagging) return pos.speechTagging(maxMatcher.segment(sentence));
+		if (options.isSpeechTagging()) return pos.speechTagging(maxMatcher.segment(sentence));
 		return maxMatcher.segment(sentence);
 	}
 	
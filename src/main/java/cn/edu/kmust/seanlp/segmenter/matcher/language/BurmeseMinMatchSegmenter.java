@@ -18,18 +18,18 @@ import cn.edu.kmust.seanlp.segmenter.matcher.MaximumMatcher;
  */
 public class BurmeseMinMatchSegmenter extends AbstractBurmeseSegmenter {
 	
-	private Matcher minMatcher = new MaximumMatcher(BurmeseCommonDictionary.burmeseDictionary.dictionaryTrie);
+	private final Matcher minMatcher = new MaximumMatcher(BurmeseCommonDictionary.getBurmeseDictionary().dictionaryTrie);
 	private final POS pos = new BurmesePOS();
 	
 	@Override
 	protected List<Term> segmentSentence(char[] sentence) {
-		if (Config.BaseConf.speechTagging) return pos.speechTagging(minMatcher.segment(sentence));
+		if (options.isSpeechTagging()) return pos.speechTagging(minMatcher.segment(sentence));
 		return minMatcher.segment(sentence);
 	}
 	
 	@Override
 	public List<Term> segmentSentence(String sentence) {
-		if (Config.BaseConf.speechTagging) return pos.speechTagging(minMatcher.segment(sentence));
+		if (options.isSpeechTagging()) return pos.speechTagging(minMatcher.segment(sentence));
 		return minMatcher.segment(sentence);
 	}
 	
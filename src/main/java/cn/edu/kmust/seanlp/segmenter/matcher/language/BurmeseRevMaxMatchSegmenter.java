@@ -18,18 +18,18 @@ import cn.edu.kmust.seanlp.segmenter.matcher.ReverseMaximumMatcher;
  */
 public class BurmeseRevMaxMatchSegmenter  extends AbstractBurmeseSegmenter {
 	
-	private Matcher revMaxMatcher = new ReverseMaximumMatcher(BurmeseCommonDictionary.burmeseDictionary.dictionaryTrie);
+	private final Matcher revMaxMatcher = new ReverseMaximumMatcher(BurmeseCommonDictionary.getBurmeseDictionary().dictionaryTrie);
 	private final POS pos = new BurmesePOS();
 	
 	@Override
 	protected List<Term> segmentSentence(char[] sentence) {
-		if (Config.BaseConf.speechTagging) return pos.speechTagging(revMaxMatcher.segment(sentence));
+		if (options.isSpeechTagging()) return pos.speechTagging(revMaxMatcher.segment(sentence));
 		return revMaxMatcher.segment(sentence);
 	}
 	
 	@Override
 	public List<Term> segmentSentence(String sentence) {
-		if (Config.BaseConf.speechTagging) return pos.speechTagging(revMaxMatcher.segment(sentence));
+		if (options.isSpeechTagging()) return pos.speechTagging(revMaxMatcher.segment(sentence));
 		return revMaxMatcher.segment(sentence);
 	}
 	
@@ -18,18 +18,18 @@ import cn.edu.kmust.seanlp.segmenter.matcher.ReverseMinimumMatcher;
  */
 public class BurmeseRevMinMatchSegmenter  extends AbstractBurmeseSegmenter {
 	
-	private Matcher revMinMatcher = new ReverseMinimumMatcher(BurmeseCommonDictionary.burmeseDictionary.dictionaryTrie);
+	private final Matcher revMinMatcher = new ReverseMinimumMatcher(BurmeseCommonDictionary.getBurmeseDictionary().dictionaryTrie);
 	private final POS pos = new BurmesePOS();
 	
 	@Override
 	protected List<Term> segmentSentence(char[] sentence) {
-		if (Config.BaseConf.speechTagging) return pos.speechTagging(revMinMatcher.segment(sentence));
+		if (options.isSpeechTagging()) return pos.speechTagging(revMinMatcher.segment(sentence));
 		return revMinMatcher.segment(sentence);
 	}
 	
 	@Override
 	public List<Term> segmentSentence(String sentence) {
-		if (Config.BaseConf.speechTagging) return pos.speechTagging(revMinMatcher.segment(sentence));
+		if (options.isSpeechTagging()) return pos.speechTagging(revMinMatcher.segment(sentence));
 		return revMinMatcher.segment(sentence);
 	}
 	
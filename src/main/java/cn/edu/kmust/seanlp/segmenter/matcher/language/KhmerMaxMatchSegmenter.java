@@ -18,13 +18,13 @@ import cn.edu.kmust.seanlp.segmenter.matcher.MaximumMatcher;
  */
 public class KhmerMaxMatchSegmenter extends AbstractKhmerSegmenter {
 	
-	private Matcher maxMatcher = new MaximumMatcher(KhmerCommonDictionary.khmerDictionary.dictionaryTrie);
-	private POS pos = new KhmerPOS();
+	private final Matcher maxMatcher = new MaximumMatcher(KhmerCommonDictionary.getKhmerDictionary().dictionaryTrie);
+	private final POS pos = new KhmerPOS();
 	
 	@Override
 	protected List<Term> segmentSentence(String[] strs) {
 		List<Term> ret = maxMatcher.segment(strs);
-		if (Config.BaseConf.speechTagging) {
+		if (options.isSpeechTagging()) {
 			ret = pos.speechTagging(ret);
 		}
 		return ret;
@@ -33,7 +33,7 @@ public class KhmerMaxMatchSegmenter extends AbstractKhmerSegmenter {
 	@Override
 	protected List<Term> segmentSentence(char[] sentence) {
 		List<Term> ret = maxMatcher.segment(sentence);
-		if (Config.BaseConf.speechTagging) {
+		if (options.isSpeechTagging()) {
 			ret = pos.speechTagging(ret);
 		}
 		return ret;
@@ -18,13 +18,13 @@ import cn.edu.kmust.seanlp.segmenter.matcher.MinimumMatcher;
  */
 public class KhmerMinMatchSegmenter extends AbstractKhmerSegmenter {
 	
-	private Matcher minMatcher = new MinimumMatcher(KhmerCommonDictionary.khmerDictionary.dictionaryTrie);
-	private POS pos = new KhmerPOS();
+	private final Matcher minMatcher = new MinimumMatcher(KhmerCommonDictionary.getKhmerDictionary().dictionaryTrie);
+	private final POS pos = new KhmerPOS();
 	
 	@Override
 	protected List<Term> segmentSentence(String[] sentence) {
 		List<Term> ret = minMatcher.segment(sentence);
-		if (Config.BaseConf.speechTagging) {
+		if (options.isSpeechTagging()) {
 			ret = pos.speechTagging(ret);
 		}
 		return ret;
@@ -33,7 +33,7 @@ public class KhmerMinMatchSegmenter extends AbstractKhmerSegmenter {
 	@Override
 	protected List<Term> segmentSentence(char[] sentence) {
 		List<Term> ret = minMatcher.segment(sentence);
-		if (Config.BaseConf.speechTagging) {
+		if (options.isSpeechTagging()) {
 			ret = pos.speechTagging(ret);
 		}
 		return ret;
@@ -18,13 +18,13 @@ import cn.edu.kmust.seanlp.segmenter.matcher.ReverseMaximumMatcher;
  */
 public class KhmerRevMaxMatchSegmenter  extends AbstractKhmerSegmenter {
 	
-	private Matcher revMaxMatcher = new ReverseMaximumMatcher(KhmerCommonDictionary.khmerDictionary.dictionaryTrie);
-	private POS pos = new KhmerPOS();
+	private final Matcher revMaxMatcher = new ReverseMaximumMatcher(KhmerCommonDictionary.getKhmerDictionary().dictionaryTrie);
+	private final POS pos = new KhmerPOS();
 	
 	@Override
 	protected List<Term> segmentSentence(String[] sentence) {
 		List<Term> ret = revMaxMatcher.segment(sentence);
-		if (Config.BaseConf.speechTagging) {
+		if (options.isSpeechTagging()) {
 			ret = pos.speechTagging(ret);
 		}
 		return ret;
@@ -33,7 +33,7 @@ public class KhmerRevMaxMatchSegmenter  extends AbstractKhmerSegmenter {
 	@Override
 	protected List<Term> segmentSentence(char[] sentence) {
 		List<Term> ret = revMaxMatcher.segment(sentence);
-		if (Config.BaseConf.speechTagging) {
+		if (options.isSpeechTagging()) {
 			ret = pos.speechTagging(ret);
 		}
 		return ret;
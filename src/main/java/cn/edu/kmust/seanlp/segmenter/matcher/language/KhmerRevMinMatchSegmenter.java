@@ -19,13 +19,13 @@ import cn.edu.kmust.seanlp.segmenter.matcher.ReverseMinimumMatcher;
  */
 public class KhmerRevMinMatchSegmenter  extends AbstractKhmerSegmenter {
 	
-	private Matcher revMinMatcher = new ReverseMinimumMatcher(KhmerCommonDictionary.khmerDictionary.dictionaryTrie);
-	private POS pos = new KhmerPOS();
+	private final Matcher revMinMatcher = new ReverseMinimumMatcher(KhmerCommonDictionary.getKhmerDictionary().dictionaryTrie);
+	private final POS pos = new KhmerPOS();
 	
 	@Override
 	protected List<Term> segmentSentence(String[] sentence) {
 		List<Term> ret = revMinMatcher.segment(sentence);
-		if (Config.BaseConf.speechTagging) {
+		if (options.isSpeechTagging()) {
 			ret = pos.speechTagging(ret);
 		}
 		return ret;
@@ -34,7 +34,7 @@ public class KhmerRevMinMatchSegmenter  extends AbstractKhmerSegmenter {
 	@Override
 	protected List<Term> segmentSentence(char[] sentence) {
 		List<Term> ret = revMinMatcher.segment(sentence);
-		if (Config.BaseConf.speechTagging) {
+		if (options.isSpeechTagging()) {
 			ret = pos.speechTagging(ret);
 		}
 		return ret;
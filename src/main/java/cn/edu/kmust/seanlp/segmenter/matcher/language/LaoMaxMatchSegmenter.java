@@ -18,13 +18,13 @@ import cn.edu.kmust.seanlp.segmenter.matcher.MaximumMatcher;
  */
 public class LaoMaxMatchSegmenter extends AbstractLaoSegmenter {
 	
-	private Matcher maxMatcher = new MaximumMatcher(LaoCoreDictionary.laoDictionary.dictionaryTrie);
-	private POS pos = new LaoPOS();
+	private final Matcher maxMatcher = new MaximumMatcher(LaoCoreDictionary.getLaoDictionary().dictionaryTrie);
+	private final POS pos = new LaoPOS();
 	
 	@Override
 	public List<Term> segmentSentence(String sentence) {
 		List<Term> ret = maxMatcher.segment(sentence);
-		if (Config.BaseConf.speechTagging) {
+		if (options.isSpeechTagging()) {
 			ret = pos.speechTagging(ret);
 		}
 		return ret;
@@ -33,7 +33,7 @@ public class LaoMaxMatchSegmenter extends AbstractLaoSegmenter {
 	@Override
 	protected List<Term> segmentSentence(char[] sentence) {
 		List<Term> ret = maxMatcher.segment(sentence);
-		if (Config.BaseConf.speechTagging) {
+		if (options.isSpeechTagging()) {
 			ret = pos.speechTagging(ret);
 		}
 		return ret;
@@ -19,13 +19,13 @@ import cn.edu.kmust.seanlp.segmenter.matcher.ReverseMaximumMatcher;
  */
 public class LaoRevMaxMatchSegmenter  extends AbstractLaoSegmenter {
 	
-	private Matcher revMaxMatcher = new ReverseMaximumMatcher(LaoCoreDictionary.laoDictionary.dictionaryTrie);
-	private POS pos = new LaoPOS();
+	private final Matcher revMaxMatcher = new ReverseMaximumMatcher(LaoCoreDictionary.getLaoDictionary().dictionaryTrie);
+	private final POS pos = new LaoPOS();
 	
 	@Override
 	public List<Term> segmentSentence(String sentence) {
 		List<Term> ret = revMaxMatcher.segment(sentence);
-		if (Config.BaseConf.speechTagging) {
+		if (options.isSpeechTagging()) {
 			ret = pos.speechTagging(ret);
 		}
 		return ret;
@@ -34,7 +34,7 @@ public class LaoRevMaxMatchSegmenter  extends AbstractLaoSegmenter {
 	@Override
 	protected List<Term> segmentSentence(char[] sentence) {
 		List<Term> ret = revMaxMatcher.segment(sentence);
-		if (Config.BaseConf.speechTagging) {
+		if (options.isSpeechTagging()) {
 			ret = pos.speechTagging(ret);
 		}
 		return ret;
@@ -19,13 +19,13 @@ import cn.edu.kmust.seanlp.segmenter.matcher.ReverseMinimumMatcher;
  */
 public class LaoRevMinMatchSegmenter  extends AbstractLaoSegmenter {
 	
-	private Matcher revMinMatcher = new ReverseMinimumMatcher(LaoCoreDictionary.laoDictionary.dictionaryTrie);
-	private POS pos = new LaoPOS();
+	private final Matcher revMinMatcher = new ReverseMinimumMatcher(LaoCoreDictionary.getLaoDictionary().dictionaryTrie);
+	private final POS pos = new LaoPOS();
 	
 	@Override
 	public List<Term> segmentSentence(String sentence) {
 		List<Term> ret = revMinMatcher.segment(sentence);
-		if (Config.BaseConf.speechTagging) {
+		if (options.isSpeechTagging()) {
 			ret = pos.speechTagging(ret);
 		}
 		return ret;
@@ -34,7 +34,7 @@ public class LaoRevMinMatchSegmenter  extends AbstractLaoSegmenter {
 	@Override
 	protected List<Term> segmentSentence(char[] sentence) {
 		List<Term> ret = revMinMatcher.segment(sentence);
-		if (Config.BaseConf.speechTagging) {
+		if (options.isSpeechTagging()) {
 			ret = pos.speechTagging(ret);
 		}
 		return ret;
@@ -1,6 +1,5 @@
 package cn.edu.kmust.seanlp.segmenter.matcher.language;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import cn.edu.kmust.seanlp.Config;
@@ -19,41 +18,31 @@ import cn.edu.kmust.seanlp.segmenter.matcher.MaximumMatcher;
  */
 public class ThaiMaxMatchSegmenter extends AbstractThaiSegmenter {
 	
-	private Matcher maxMatcher = new MaximumMatcher(ThaiCoreDictionary.thaiDictionary.dictionaryTrie);
-	private POS pos = new ThaiPOS();
+	private final Matcher maxMatcher = new MaximumMatcher(ThaiCoreDictionary.getThaiDictionary().dictionaryTrie);
+	private final POS pos = new ThaiPOS();
 	
 	protected List<Term> segment(String[] strs) {
 		List<Term> ret = maxMatcher.segment(strs);
-		if (Config.BaseConf.speechTagging) {
+		if (options.isSpeechTagging()) {
 			ret = pos.speechTagging(ret);
 		}
 		return ret;
 	}
 
 	@Override
-	protected List<Term> sentenceMerge(String[] sentences) {
-		List<Term> terms = new ArrayList<Term>();
-		int len = sentences.length;
-		for (int i = 0; i < len; i++) {
-			terms.addAll(segment(toTCC(sentences[i])));
-		}
-		return terms;
+	protected List<Term> segmentSentence(String text, int begin, int end) {
+		return segment(toTCC(text.substring(begin, end)));
 	}
 	
 	@Override
 	protected List<Term> segment(char[] chars) {
 		List<Term> ret = maxMatcher.segment(chars);
-		if (Config.BaseConf.speechTagging) {
+		if (options.isSpeechTagging()) {
 			ret = pos.speechTagging(ret);
 		}
 		return ret;
 	}
 	
-	@Override
-	public List<Term> segment(String text) {
-		return sentenceMerge(sentenceSegment(text));
-	}
-	
 	public static void main(String[] args) {
 		Config.BaseConf.enableDebug();
 		String text = "ความสัมพันธ์ในทางเศรษฐกิจกับระบบความสัมพันธ์ทางกฎหมาย";
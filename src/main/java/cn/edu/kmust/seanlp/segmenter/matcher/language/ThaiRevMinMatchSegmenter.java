@@ -1,6 +1,5 @@
 package cn.edu.kmust.seanlp.segmenter.matcher.language;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import cn.edu.kmust.seanlp.Config;
@@ -20,30 +19,20 @@ import cn.edu.kmust.seanlp.segmenter.matcher.ReverseMinimumMatcher;
  */
 public class ThaiRevMinMatchSegmenter  extends AbstractThaiSegmenter {
 	
-	private Matcher revMinMatcher = new ReverseMinimumMatcher(ThaiCoreDictionary.thaiDictionary.dictionaryTrie);
-	private POS pos = new ThaiPOS();
+	private final Matcher revMinMatcher = new ReverseMinimumMatcher(ThaiCoreDictionary.getThaiDictionary().dictionaryTrie);
+	private final POS pos = new ThaiPOS();
 	
 	protected List<Term> segment(String[] sentence) {
 		List<Term> ret = revMinMatcher.segment(sentence);
-		if (Config.BaseConf.speechTagging) {
+		if (options.isSpeechTagging()) {
 			ret = pos.speechTagging(ret);
 		}
 		return ret;
 	}
 
 	@Override
-	protected List<Term> sentenceMerge(String[] sentences) {
-		List<Term> terms = new ArrayList<Term>();
-		int len = sentences.length;
-		for (int i = 0; i < len; i++) {
-			terms.addAll(segment(toTCC(sentences[i])));
-		}
-		return terms;
-	}
-	
-	@Override
-	public List<Term> segment(String text) {
-		return sentenceMerge(sentenceSegment(text));
+	protected List<Term> segmentSentence(String text, int begin, int end) {
+		return segment(toTCC(text.substring(begin, end)));
 	}
 	
 	public static void main(String[] args) {
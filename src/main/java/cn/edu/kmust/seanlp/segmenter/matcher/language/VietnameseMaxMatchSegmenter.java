@@ -18,13 +18,13 @@ import cn.edu.kmust.seanlp.segmenter.matcher.MaximumMatcher;
  */
 public class VietnameseMaxMatchSegmenter extends AbstractVietnameseSegmenter {
 	
-	private Matcher maxMatcher = new MaximumMatcher(VietnameseCoreDictionary.vietnameseDictionary.dictionaryTrie);
-	private POS pos = new VietnamesePOS();
+	private final Matcher maxMatcher = new MaximumMatcher(VietnameseCoreDictionary.getVietnameseDictionary().dictionaryTrie, " ");
+	private final POS pos = new VietnamesePOS();
 	
 	@Override
 	public List<Term> segmentSentence(String sentence) {
 		List<Term> ret = maxMatcher.segment(sentence);
-		if (Config.BaseConf.speechTagging) {
+		if (options.isSpeechTagging()) {
 			ret = pos.speechTagging(ret);
 		}
 		return ret;
@@ -33,7 +33,7 @@ public class VietnameseMaxMatchSegmenter extends AbstractVietnameseSegmenter {
 	@Override
 	protected List<Term> segmentSentence(char[] sentence) {
 		List<Term> ret = maxMatcher.segment(sentence);
-		if (Config.BaseConf.speechTagging) {
+		if (options.isSpeechTagging()) {
 			ret = pos.speechTagging(ret);
 		}
 		return ret;
@@ -42,7 +42,7 @@ public class VietnameseMaxMatchSegmenter extends AbstractVietnameseSegmenter {
 	@Override
 	protected List<Term> segmentSentence(String[] sentence) {
 		List<Term> ret = maxMatcher.segment(sentence);
-		if (Config.BaseConf.speechTagging) {
+		if (options.isSpeechTagging()) {
 			ret = pos.speechTagging(ret);
 		}
 		return ret;
@@ -19,13 +19,13 @@ import cn.edu.kmust.seanlp.segmenter.matcher.ReverseMaximumMatcher;
  */
 public class VietnameseRevMaxMatchSegmenter  extends AbstractVietnameseSegmenter {
 	
-	private Matcher revMaxMatcher = new ReverseMaximumMatcher(VietnameseCoreDictionary.vietnameseDictionary.dictionaryTrie);
-	private POS pos = new VietnamesePOS();
+	private final Matcher revMaxMatcher = new ReverseMaximumMatcher(VietnameseCoreDictionary.getVietnameseDictionary().dictionaryTrie, " ");
+	private final POS pos = new VietnamesePOS();
 	
 	@Override
 	public List<Term> segmentSentence(String sentence) {
 		List<Term> ret = revMaxMatcher.segment(sentence);
-		if (Config.BaseConf.speechTagging) {
+		if (options.isSpeechTagging()) {
 			ret = pos.speechTagging(ret);
 		}
 		return ret;
@@ -34,7 +34,7 @@ public class VietnameseRevMaxMatchSegmenter  extends AbstractVietnameseSegmenter
 	@Override
 	protected List<Term> segmentSentence(char[] sentence) {
 		List<Term> ret = revMaxMatcher.segment(sentence);
-		if (Config.BaseConf.speechTagging) {
+		if (options.isSpeechTagging()) {
 			ret = pos.speechTagging(ret);
 		}
 		return ret;
@@ -43,7 +43,7 @@ public class VietnameseRevMaxMatchSegmenter  extends AbstractVietnameseSegmenter
 	@Override
 	protected List<Term> segmentSentence(String[] sentence) {
 		List<Term> ret = revMaxMatcher.segment(sentence);
-		if (Config.BaseConf.speechTagging) {
+		if (options.isSpeechTagging()) {
 			ret = pos.speechTagging(ret);
 		}
 		return ret;
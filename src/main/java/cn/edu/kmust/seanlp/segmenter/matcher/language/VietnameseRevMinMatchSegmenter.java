@@ -19,13 +19,13 @@ import cn.edu.kmust.seanlp.segmenter.matcher.ReverseMinimumMatcher;
  */
 public class VietnameseRevMinMatchSegmenter  extends AbstractVietnameseSegmenter {
 	
-	private Matcher revMinMatcher = new ReverseMinimumMatcher(VietnameseCoreDictionary.vietnameseDictionary.dictionaryTrie);
-	private POS pos = new VietnamesePOS();
+	private final Matcher revMinMatcher = new ReverseMinimumMatcher(VietnameseCoreDictionary.getVietnameseDictionary().dictionaryTrie, " ");
+	private final POS pos = new VietnamesePOS();
 	
 	@Override
 	public List<Term> segmentSentence(String sentence) {
 		List<Term> ret = revMinMatcher.segment(sentence);
-		if (Config.BaseConf.speechTagging) {
+		if (options.isSpeechTagging()) {
 			ret = pos.speechTagging(ret);
 		}
 		return ret;
@@ -34,7 +34,7 @@ public class VietnameseRevMinMatchSegmenter  extends AbstractVietnameseSegmenter
 	@Override
 	protected List<Term> segmentSentence(char[] sentence) {
 		List<Term> ret = revMinMatcher.segment(sentence);
-		if (Config.BaseConf.speechTagging) {
+		if (options.isSpeechTagging()) {
 			ret = pos.speechTagging(ret);
 		}
 		return ret;
@@ -43,7 +43,7 @@ public class VietnameseRevMinMatchSegmenter  extends AbstractVietnameseSegmenter
 	@Override
 	protected List<Term> segmentSentence(String[] sentence) {
 		List<Term> ret = revMinMatcher.segment(sentence);
-		if (Config.BaseConf.speechTagging) {
+		if (options.isSpeechTagging()) {
 			ret = pos.speechTagging(ret);
 		}
 		return ret;
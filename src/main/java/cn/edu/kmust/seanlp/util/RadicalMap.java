@@ -1,5 +1,6 @@
 package cn.edu.kmust.seanlp.util;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -14,6 +15,19 @@ public class RadicalMap {
 	//Thai
 	private static Map<Character, Character> thaiCharsToRads = new HashMap<Character, Character>();
 	private static Map<Character, Set<Character>> thaiRadsToChars = new HashMap<Character, Set<Character>>();
+	/**
+	 * 泰语字母类别表，下标为字符，覆盖到泰文区段末尾，其余字符的类别都是'o'
+	 */
+	private static final char[] thaiRadicals = new char[0x0E80];
+	
+	/**
+	 * 音节类别表中每个字符的属性位：数字、英文字母、泰文、标点
+	 */
+	private static final byte DIGIT = 1;
+	private static final byte ENGLISH = 2;
+	private static final byte THAI = 4;
+	private static final byte PUNCTUATION = 8;
+	private static final byte[] syllableClasses = new byte[Character.MAX_VALUE + 1];
 	
 	//Myanmar
 	private static Map<Character, Character> burmeseCharsToRads = new HashMap<Character, Character>();
@@ -44,6 +58,22 @@ public class RadicalMap {
 			}
 			thaiRadsToChars.put(Character.valueOf(rad), chars);
 		}
+		Arrays.fill(thaiRadicals, 'o');
+		for (Map.Entry<Character, Character> entry : thaiCharsToRads.entrySet()) {
+			thaiRadicals[entry.getKey().charValue()] = entry.getValue().charValue();
+		}
+		for (int c = 0; c <= Character.MAX_VALUE; ++c) {
+			byte flags = 0;
+			if (c >= '0' && c <= '9')
+				flags |= DIGIT;
+			if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z'))
+				flags |= ENGLISH;
+			if (c >= '\u0E01' && c <= '\u0E5B')
+				flags |= THAI;
+			if (isPunctuation(c))
+				flags |= PUNCTUATION;
+			syllableClasses[c] = flags;
+		}
 		
 		
 		//Myanmar
@@ -82,11 +112,7 @@ public class RadicalMap {
 	 * @return Character字符类别
 	 */
 	public static char getThaiRadical(char ch) {
-		Character character = (Character) thaiCharsToRads.get(Character.valueOf(ch));
-		if (character != null) {
-			return character.charValue();
-		}
-		return 'o';
+		return ch < thaiRadicals.length ? thaiRadicals[ch] : 'o';
 	}
 
 	/**
@@ -95,32 +121,68 @@ public class RadicalMap {
 	 * @return String字符串类别
 	 */
 	public static String getThaiCharType(char ch) {
-		Character character = (Character) thaiCharsToRads.get(Character.valueOf(ch));
-		if (character != null) {
-			return character.toString();
-		}
-		return "o";
+		return String.valueOf(getThaiRadical(ch));
 	}
 
 	public static Set<Character> getThaiChars(char ch) {
 		return (Set<Character>) thaiRadsToChars.get(Character.valueOf(ch));
 	}
 	
-   public static String getThaiSyllableType(String str) {
-	   String type;
-	   if (str.matches("[0-9]+")) {
-			type = "d";
-		} else if (str.matches("[a-zA-Z]+")) {
-			type = "e";
-		} else if (str.matches("[ก-๛]+")) {
-			type = "t";
-		} else if (str.matches("[\\pP‘’“”]+")) {
-			type = "p";
-		} else {
-			type = "v";
+	/**
+	 * 当前泰语音节类别，与依次用正则[0-9]+、[a-zA-Z]+、[ก-๛]+、[\\pP‘’“”]+匹配整个音节的结果相同<br>
+	 * @param str 音节
+	 * @return d（数字）、e（英文）、t（泰文）、p（标点）或v（其他）
+	 */
+	public static String getThaiSyllableType(String str) {
+		return String.valueOf(getThaiSyllableType(str.toCharArray(), 0, str.length()));
+	}
+	
+	/**
+	 * 当前泰语音节类别，查表得到，不创建字符串<br>
+	 * @param chars 文本
+	 * @param begin 音节起点
+	 * @param end 音节终点
+	 * @return d（数字）、e（英文）、t（泰文）、p（标点）或v（其他）
+	 */
+	public static char getThaiSyllableType(char[] chars, int begin, int end) {
+		int flags = begin < end ? DIGIT | ENGLISH | THAI | PUNCTUATION : 0;
+		for (int i = begin; i < end && flags != 0; ++i) {
+			char c = chars[i];
+			if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(chars[i + 1])) {
+				// 辅助平面的字符只可能是标点
+				flags &= isPunctuation(Character.toCodePoint(c, chars[++i])) ? PUNCTUATION : 0;
+			} else {
+				flags &= syllableClasses[c];
+			}
 		}
-	   return type;
-   }
+		if ((flags & DIGIT) != 0)
+			return 'd';
+		if ((flags & ENGLISH) != 0)
+			return 'e';
+		if ((flags & THAI) != 0)
+			return 't';
+		if ((flags & PUNCTUATION) != 0)
+			return 'p';
+		return 'v';
+	}
+	
+	/**
+	 * 与正则[\\pP‘’“”]相同
+	 */
+	private static boolean isPunctuation(int codePoint) {
+		switch (Character.getType(codePoint)) {
+		case Character.CONNECTOR_PUNCTUATION:
+		case Character.DASH_PUNCTUATION:
+		case Character.START_PUNCTUATION:
+		case Character.END_PUNCTUATION:
+		case Character.INITIAL_QUOTE_PUNCTUATION:
+		case Character.FINAL_QUOTE_PUNCTUATION:
+		case Character.OTHER_PUNCTUATION:
+			return true;
+		default:
+			return codePoint == '‘' || codePoint == '’' || codePoint == '“' || codePoint == '”';
+		}
+	}
 	
 	/**
 	 * 当前泰语音节类别<br>
@@ -4,11 +4,13 @@ import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.regex.Matcher;
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.regex.Pattern;
 
 import cn.edu.kmust.seanlp.Config;
 import cn.edu.kmust.seanlp.Language;
+import cn.edu.kmust.seanlp.segmenter.SentenceSplitter;
 
 /**
  * 字符串操作工具（主要针对音节，句子切分等）
@@ -18,15 +20,26 @@ import cn.edu.kmust.seanlp.Language;
  */
 public class StringUtil {
 	
+	/**
+	 * 从字符串数组中获取词，按全局的{@link Config#language}决定是否以空格连接
+	 * 
+	 * @deprecated 全局语言不一定是分词器的语言，请使用{@link #merge(String[], int, int, Language)}
+	 */
+	@Deprecated
+	public static String merge(String[] strArray, int offset, int count) {
+		return merge(strArray, offset, count, Config.language);
+	}
+	
 	/**
 	 * 从字符串数组中获取词
 	 * 
 	 * @param strArray
 	 * @param offset
 	 * @param count
+	 * @param language 越南语以空格连接音节，其它语言直接连接
 	 * @return
 	 */
-	public static String merge(String[] strArray, int offset, int count) {
+	public static String merge(String[] strArray, int offset, int count, Language language) {
 		if (offset < 0) {
             throw new StringIndexOutOfBoundsException(offset);
         }
@@ -37,7 +50,7 @@ public class StringUtil {
         if (offset > strArray.length - count) {
             throw new StringIndexOutOfBoundsException(offset + count);
         }
-        return toString(Arrays.copyOfRange(strArray, offset, offset+count));
+        return toString(Arrays.copyOfRange(strArray, offset, offset+count), language);
 	}
 	
 	/**
@@ -60,17 +73,28 @@ public class StringUtil {
         return StringUtil.getViWord(Arrays.copyOfRange(strArray, offset, offset+count));
 	}
 	
+	/**
+	 * String数组转String，按全局的{@link Config#language}决定是否以空格连接
+	 * 
+	 * @deprecated 请使用{@link #toString(String[], Language)}
+	 */
+	@Deprecated
+	public static String toString(String[] values) {
+		return toString(values, Config.language);
+	}
+	
 	/**
 	 * String数组转String
 	 * @param values
+	 * @param language 越南语以空格连接，其它语言直接连接
 	 * @return
 	 */
-	public static String toString(String[] values) {
+	public static String toString(String[] values, Language language) {
 		int len = values.length;
 		if (len == 0) return null;
 		StringBuffer sb = new StringBuffer();
         for (int i = 0; i< len; i++) {
-        	if (Config.language.equals(Language.Vietnamese)) 
+        	if (Language.Vietnamese.equals(language)) 
         		sb.append(' ').append(values[i]);
         	else
         		sb.append(values[i]);
@@ -94,40 +118,43 @@ public class StringUtil {
 	}
 	
 	/**
-	 * 将文本分为句子
+	 * 各语言的分句器再加上换行符
+	 */
+	private static final Map<Language, SentenceSplitter> SENTENCE = new EnumMap<Language, SentenceSplitter>(Language.class);
+	static {
+		for (Language language : Language.values()) {
+			SENTENCE.put(language, SentenceSplitter.of(language).withTerminators("\r\n"));
+		}
+	}
+	
+	/**
+	 * 将文本分为句子，正则每次都要编译，反复分句时请使用{@link SentenceSplitter}
 	 * @param text 待分句子的文本
 	 * @param regex 正则表达式
 	 * @return
 	 */
 	public static String[] sentenceSegment(String text, String regex) {
-		Pattern pattern =Pattern.compile(regex);
-		Matcher matcher = pattern.matcher(text);
-		//按照句子结束符分割句子
-		String[] substrs = pattern.split(text);
-		//将句子结束符连接到相应的句子后
-		if (substrs.length > 0) {
-		    int count = 0;
-		    while (count < substrs.length) {
-		        if (matcher.find()) {
-		        	substrs[count] += matcher.group();
-		        }
-		        count++;
-		    }
-		}
-		return substrs;
+		return SentenceSplitter.of(Pattern.compile(regex)).sentences(text);
+	}
+	
+	/**
+	 * 按全局的{@link Config#language}将文本分为句子
+	 * 
+	 * @deprecated 请使用{@link #sentenceSegment(String, Language)}
+	 */
+	@Deprecated
+	public static String[] sentenceSegment(String text) {
+		return sentenceSegment(text, Config.language);
 	}
 	
 	/**
-	 * 将文本分为句子
+	 * 按{@link SentenceSplitter#of(Language)}将文本分为句子，换行符也作为结束符
 	 * @param text 文本
+	 * @param language 文本的语言
 	 * @return 句子
 	 */
-	public static String[] sentenceSegment(String text) {
-		String regex="[.;!?។\r\n]";
-		if (Config.language.equals(Language.Thai)) {
-			regex += "|[ ]";
-		}
-		return sentenceSegment(text, regex);
+	public static String[] sentenceSegment(String text, Language language) {
+		return SENTENCE.get(language).sentences(text);
 	}
 	
 	/**
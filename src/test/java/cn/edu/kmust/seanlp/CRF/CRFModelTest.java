@@ -0,0 +1,252 @@
+package cn.edu.kmust.seanlp.CRF;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.TreeMap;
+
+import cn.edu.kmust.seanlp.Config.FileExtensions;
+import cn.edu.kmust.seanlp.collection.trie.DATrie;
+import junit.framework.TestCase;
+
+public class CRFModelTest extends TestCase {
+	
+	static final String[] TAGS = {"B", "E", "M", "S"};
+	static final String ALPHABET = "abcd";
+	static final String[] TEMPLATES = {"U00:%x[-1,0]", "U01:%x[0,0]", "U02:%x[1,0]", "U03:%x[-1,0]/%x[0,0]"};
+	
+	/**
+	 * 构造一个随机权值的小模型，特征覆盖字母表和边界
+	 * @param seed
+	 * @return
+	 */
+	static CRFModel createModel(long seed) {
+		Random random = new Random(seed);
+		CRFModel model = new CRFModel();
+		model.id2tag = TAGS;
+		model.tag2id = new HashMap<String, Integer>();
+		for (int i = 0; i < TAGS.length; i++) {
+			model.tag2id.put(TAGS[i], i);
+		}
+		model.featureTemplateList = new ArrayList<FeatureTemplate>();
+		for (String template : TEMPLATES) {
+			model.featureTemplateList.add(FeatureTemplate.create(template));
+		}
+		String[] values = new String[ALPHABET.length() + 2];
+		for (int i = 0; i < ALPHABET.length(); i++) {
+			values[i] = String.valueOf(ALPHABET.charAt(i));
+		}
+		values[ALPHABET.length()] = "_B-1";
+		values[ALPHABET.length() + 1] = "_B+1";
+		TreeMap<String, FeatureFunction> map = new TreeMap<String, FeatureFunction>();
+		for (String a : values) {
+			addFeature(map, "U00:" + a, random);
+			addFeature(map, "U01:" + a, random);
+			addFeature(map, "U02:" + a, random);
+			for (String b : values) {
+				addFeature(map, "U03:" + a + "/" + b, random);
+			}
+		}
+		model.featureFunctionTrie = new DATrie<FeatureFunction>();
+		model.featureFunctionTrie.build(map);
+		model.matrix = new double[TAGS.length][TAGS.length];
+		for (int i = 0; i < TAGS.length; i++) {
+			for (int j = 0; j < TAGS.length; j++) {
+				model.matrix[i][j] = random.nextGaussian();
+			}
+		}
+		return model;
+	}
+	
+	private static void addFeature(TreeMap<String, FeatureFunction> map, String key, Random random) {
+		FeatureFunction featureFunction = new FeatureFunction(key.toCharArray(), TAGS.length);
+		for (int i = 0; i < TAGS.length; i++) {
+			featureFunction.w[i] = random.nextGaussian();
+		}
+		map.put(key, featureFunction);
+	}
+	
+	static Table createTable(String text) {
+		Table table = new Table();
+		table.sheet = new String[text.length()][2];
+		for (int i = 0; i < text.length(); i++) {
+			table.sheet[i][0] = String.valueOf(text.charAt(i));
+		}
+		return table;
+	}
+	
+	private static double pathScore(CRFModel model, Table table, int[] path) {
+		double score = 0;
+		for (int i = 0; i < path.length; i++) {
+			double[] row = new double[TAGS.length];
+			model.computeEmission(table, i, row, 0);
+			score += row[path[i]];
+			if (i > 0) {
+				score += model.matrix[path[i - 1]][path[i]];
+			}
+		}
+		return score;
+	}
+	
+	/**
+	 * 穷举所有标签序列，维特比解码的结果必须是得分最高的那一条
+	 */
+	public void testViterbiFindsBestPath() {
+		CRFModel model = createModel(7).setDecodeMode(CRFModel.DecodeMode.VITERBI);
+		Random random = new Random(11);
+		for (int round = 0; round < 30; round++) {
+			int length = 1 + random.nextInt(6);
+			StringBuilder sb = new StringBuilder();
+			for (int i = 0; i < length; i++) {
+				sb.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+			}
+			Table table = createTable(sb.toString());
+			model.tag(table);
+			int[] decoded = new int[length];
+			for (int i = 0; i < length; i++) {
+				decoded[i] = model.tag2id.get(table.sheet[i][1]);
+			}
+			double best = Double.NEGATIVE_INFINITY;
+			int[] path = new int[length];
+			int total = (int) Math.pow(TAGS.length, length);
+			for (int code = 0; code < total; code++) {
+				for (int i = 0, c = code; i < length; i++, c /= TAGS.length) {
+					path[i] = c % TAGS.length;
+				}
+				best = Math.max(best, pathScore(model, table, path));
+			}
+			assertEquals(sb.toString(), best, pathScore(model, table, decoded), 1e-9);
+		}
+	}
+	
+	/**
+	 * 编译模板在trie上直接转移，得分必须与拼接特征串的方式一致
+	 */
+	public void testCompiledTemplateMatchesStringFeatures() {
+		CRFModel model = createModel(3);
+		Table table = createTable("abcdxba");
+		for (int i = 0; i < table.size(); i++) {
+			double[] compiled = new double[TAGS.length];
+			double[] plain = new double[TAGS.length];
+			model.enableCompiledTemplate(true).computeEmission(table, i, compiled, 0);
+			model.enableCompiledTemplate(false).computeEmission(table, i, plain, 0);
+			for (int j = 0; j < TAGS.length; j++) {
+				assertEquals(plain[j], compiled[j], 1e-12);
+			}
+		}
+	}
+	
+	public void testGreedyIsDefault() {
+		CRFModel model = createModel(7);
+		assertEquals(CRFModel.DecodeMode.GREEDY, model.getDecodeMode());
+		Table table = createTable("abcd");
+		model.tag(table);
+		assertEquals("S", table.sheet[3][1]);
+	}
+
+	/**
+	 * 按列存放的表反复复用，标注结果必须与Table一致
+	 */
+	public void testColumnTableMatchesTable() {
+		Random random = new Random(5);
+		ColumnTable columnTable = new ColumnTable();
+		for (CRFModel.DecodeMode mode : CRFModel.DecodeMode.values()) {
+			CRFModel model = createModel(13).setDecodeMode(mode);
+			for (int round = 0; round < 50; round++) {
+				int length = 1 + random.nextInt(12);
+				char[] chars = new char[length];
+				for (int i = 0; i < length; i++) {
+					chars[i] = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+				}
+				Table table = createTable(new String(chars));
+				model.tag(table);
+				columnTable.reset(length, 1);
+				if (round % 2 == 0) {
+					columnTable.setColumn(0, chars);
+				} else {
+					for (int i = 0; i < length; i++) {
+						columnTable.set(i, 0, String.valueOf(chars[i]));
+					}
+				}
+				model.tag(columnTable);
+				for (int i = 0; i < length; i++) {
+					assertEquals(table.sheet[i][1], columnTable.getTag(i));
+					assertEquals(model.tag2id.get(table.sheet[i][1]).intValue(), columnTable.getTagId(i));
+				}
+			}
+		}
+	}
+
+	/**
+	 * 写成映射格式再映射回来，发射分数和标注结果必须与原模型一致
+	 */
+	public void testMappedModelMatchesHeapModel() throws Exception {
+		CRFModel model = createModel(17);
+		File file = File.createTempFile("crf", FileExtensions.MODEL);
+		file.deleteOnExit();
+		assertTrue(MappedCRFModel.write(model, file.getPath()));
+		MappedCRFModel mapped = MappedCRFModel.map(file.getPath());
+		assertNotNull(mapped);
+		assertEquals(model.featureSize(), mapped.featureSize());
+		Table table = createTable("dcbaxabcd");
+		for (int i = 0; i < table.size(); i++) {
+			double[] expected = new double[TAGS.length];
+			double[] actual = new double[TAGS.length];
+			model.computeEmission(table, i, expected, 0);
+			mapped.computeEmission(table, i, actual, 0);
+			for (int j = 0; j < TAGS.length; j++) {
+				assertEquals(expected[j], actual[j], 0.0);
+			}
+		}
+		model.setDecodeMode(CRFModel.DecodeMode.VITERBI);
+		mapped.setDecodeMode(CRFModel.DecodeMode.VITERBI);
+		Table other = createTable("dcbaxabcd");
+		model.tag(table);
+		mapped.tag(other);
+		assertEquals(table.toString(), other.toString());
+
+		// 映射模型是只读的
+		try {
+			mapped.save(new ObjectOutputStream(new ByteArrayOutputStream()));
+			fail();
+		} catch (UnsupportedOperationException e) {
+		}
+		assertFalse(MappedCRFModel.write(mapped, file.getPath()));
+	}
+
+	/**
+	 * 压缩权值后的发射分数误差不超过每个特征半个量化步长，映射后与堆上的压缩模型完全一致
+	 */
+	public void testCompactWeights() throws Exception {
+		CRFModel model = createModel(19);
+		Table table = createTable("abcaxdba");
+		for (WeightStore.Type type : WeightStore.Type.values()) {
+			CRFModel compact = createModel(19).compactWeights(type);
+			WeightStore store = compact.getWeightStore();
+			assertEquals(model.featureSize(), store.size());
+			assertEquals((long) store.size() * TAGS.length * type.bytes, store.bytes());
+			double tolerance = type.maxValue > 0 ? store.getScale() / 2 * TEMPLATES.length + 1e-12 : 1e-5;
+			File file = File.createTempFile("crf", FileExtensions.MODEL);
+			file.deleteOnExit();
+			assertTrue(MappedCRFModel.write(compact, file.getPath()));
+			MappedCRFModel mapped = MappedCRFModel.map(file.getPath());
+			assertEquals(type, mapped.getWeightStore().getType());
+			for (int i = 0; i < table.size(); i++) {
+				double[] expected = new double[TAGS.length];
+				double[] actual = new double[TAGS.length];
+				double[] fromFile = new double[TAGS.length];
+				model.computeEmission(table, i, expected, 0);
+				compact.computeEmission(table, i, actual, 0);
+				mapped.computeEmission(table, i, fromFile, 0);
+				for (int j = 0; j < TAGS.length; j++) {
+					assertEquals(type.toString(), expected[j], actual[j], tolerance);
+					assertEquals(type.toString(), actual[j], fromFile[j], 1e-12);
+				}
+			}
+		}
+	}
+
+}
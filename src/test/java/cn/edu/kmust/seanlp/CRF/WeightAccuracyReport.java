@@ -0,0 +1,104 @@
+package cn.edu.kmust.seanlp.CRF;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import cn.edu.kmust.io.IOUtil;
+
+/**
+ * 比较不同权值存储类型的标注结果<br>
+ * 语料为CRF++格式：每行一个元素，各列以空白分隔，最后一列为标准答案，句子之间以空行分隔。
+ * 对每种存储类型输出权值占用的内存、与double模型标注结果的一致率以及对标准答案的准确率
+ *
+ */
+public class WeightAccuracyReport {
+
+	/**
+	 * 读取CRF++格式的语料
+	 */
+	static List<String[][]> readCorpus(String file) {
+		List<String[][]> corpus = new ArrayList<String[][]>();
+		List<String[]> sentence = new ArrayList<String[]>();
+		for (String line : IOUtil.readLines(file)) {
+			line = line.trim();
+			if (line.length() == 0) {
+				if (!sentence.isEmpty()) {
+					corpus.add(sentence.toArray(new String[sentence.size()][]));
+					sentence.clear();
+				}
+				continue;
+			}
+			sentence.add(line.split("\\s+"));
+		}
+		if (!sentence.isEmpty()) {
+			corpus.add(sentence.toArray(new String[sentence.size()][]));
+		}
+		return corpus;
+	}
+
+	/**
+	 * 用观测列构造元素表，最后一列留给标注结果
+	 */
+	static Table createTable(String[][] sentence) {
+		Table table = new Table();
+		table.sheet = new String[sentence.length][];
+		for (int i = 0; i < sentence.length; i++) {
+			table.sheet[i] = sentence[i].clone();
+			table.sheet[i][sentence[i].length - 1] = null;
+		}
+		return table;
+	}
+
+	static String[] tag(CRFModel model, String[][] sentence) {
+		Table table = createTable(sentence);
+		model.tag(table);
+		String[] tags = new String[sentence.length];
+		for (int i = 0; i < tags.length; i++) {
+			tags[i] = table.sheet[i][sentence[i].length - 1];
+		}
+		return tags;
+	}
+
+	/**
+	 * @param args 模型路径（不含后缀名） 语料文件 [viterbi]
+	 */
+	public static void main(String[] args) {
+		if (args.length < 2) {
+			System.err.println("用法：WeightAccuracyReport 模型路径（不含后缀名） 语料文件 [viterbi]");
+			return;
+		}
+		CRFModel.DecodeMode mode = args.length > 2 && "viterbi".equalsIgnoreCase(args[2])
+				? CRFModel.DecodeMode.VITERBI : CRFModel.DecodeMode.GREEDY;
+		List<String[][]> corpus = readCorpus(args[1]);
+		CRFModel reference = CRFModel.loadModel(args[0]).setDecodeMode(mode);
+		List<String[]> expected = new ArrayList<String[]>(corpus.size());
+		for (String[][] sentence : corpus) {
+			expected.add(tag(reference, sentence));
+		}
+		int featureSize = reference.featureSize();
+		int tagSize = reference.tagSize();
+		// 每个特征函数一个对象（16字节）加一个double[]（16字节头 + 权值）
+		long objectBytes = (long) featureSize * (16 + 16 + tagSize * 8);
+		System.out.printf("特征函数 %d 个，标签 %d 个，句子 %d 句，解码方式 %s%n", featureSize, tagSize, corpus.size(), mode);
+		System.out.printf("%-8s%16s%12s%12s%12s%n", "类型", "权值字节数", "压缩比", "一致率", "准确率");
+		for (WeightStore.Type type : WeightStore.Type.values()) {
+			CRFModel model = CRFModel.loadModel(args[0]).setDecodeMode(mode).compactWeights(type);
+			long same = 0, correct = 0, total = 0;
+			for (int k = 0; k < corpus.size(); k++) {
+				String[][] sentence = corpus.get(k);
+				String[] tags = tag(model, sentence);
+				for (int i = 0; i < tags.length; i++) {
+					if (tags[i].equals(expected.get(k)[i]))
+						++same;
+					if (tags[i].equals(sentence[i][sentence[i].length - 1]))
+						++correct;
+					++total;
+				}
+			}
+			long bytes = model.getWeightStore().bytes();
+			System.out.printf("%-8s%16d%11.2fx%11.4f%%%11.4f%%%n", type, bytes, (double) objectBytes / bytes,
+					100.0 * same / total, 100.0 * correct / total);
+		}
+	}
+
+}
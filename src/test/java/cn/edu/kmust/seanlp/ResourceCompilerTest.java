@@ -0,0 +1,111 @@
+package cn.edu.kmust.seanlp;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.util.List;
+
+import cn.edu.kmust.io.IOUtil;
+import cn.edu.kmust.seanlp.CRF.CRFModel;
+import cn.edu.kmust.seanlp.Config.DictConf;
+import cn.edu.kmust.seanlp.Config.FileExtensions;
+import cn.edu.kmust.seanlp.Config.ModelConf;
+import cn.edu.kmust.seanlp.Config.NGram;
+import cn.edu.kmust.seanlp.dictionary.CommonDictionary;
+import cn.edu.kmust.seanlp.dictionary.CoreDictionary;
+import cn.edu.kmust.seanlp.segmenter.domain.Nature;
+import cn.edu.kmust.seanlp.util.ByteArray;
+import junit.framework.TestCase;
+
+public class ResourceCompilerTest extends TestCase {
+
+	static final String CORE = DictConf.dictionaryPath + Language.Thai + DictConf.coreDictionary;
+	static final String COMMON = DictConf.dictionaryPath + Language.Burmese + DictConf.syllableDictionary;
+	static final String MODEL = ModelConf.CRFModelPath + Language.Vietnamese + ModelConf.wordSegment + NGram.trigram;
+
+	File source;
+	File output;
+
+	@Override
+	protected void setUp() throws Exception {
+		source = createTempDir("source");
+		output = createTempDir("output");
+		write(new File(source, CORE + FileExtensions.TXT), "กิน\tVACT\t10\nข้าว\tNCMN\t7\tVACT\t1\nกินข้าว\tVACT\t3\n");
+		write(new File(source, COMMON + FileExtensions.TXT), "### 注释\nက\nခ\tkha\n");
+		write(new File(source, MODEL + FileExtensions.TXT), "version: 100\ncost-factor: 1\nmaxid: 12\nxsize: 1\n\n"
+				+ "B\nE\nM\nS\n\nU00:%x[0,0]\nB\n\n0 B\n4 U00:a\n8 U00:b\n\n"
+				+ "0.1\n0.2\n0.3\n0.4\n0.5\n0.6\n0.7\n0.8\n0.9\n1.0\n1.1\n1.2\n1.3\n1.4\n1.5\n1.6\n"
+				+ "1\n-1\n0.5\n-0.5\n2\n-2\n0.25\n-0.25\n");
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		delete(source);
+		delete(output);
+	}
+
+	public void testCompileAndVerify() throws Exception {
+		List<String> paths = new ResourceCompiler(source, output).enableMapped(true).threads(2).compile();
+		assertEquals(6, paths.size());
+		assertTrue(paths.contains(CORE.substring(1) + FileExtensions.BIN));
+		assertTrue(paths.contains(MODEL.substring(1) + FileExtensions.MODEL));
+
+		CoreDictionary core = new CoreDictionary();
+		assertTrue(core.loadDat(new ByteArray(IOUtil.readBytes(new File(output, CORE + FileExtensions.BIN).getPath()))));
+		assertEquals(3, core.dictionaryTrie.size());
+		assertEquals(8, core.dictionaryTrie.get("ข้าว").totalFrequency);
+		assertEquals(Nature.NCMN, core.dictionaryTrie.get("ข้าว").nature[0]);
+		CommonDictionary common = new CommonDictionary();
+		assertTrue(common.loadDat(new ByteArray(IOUtil.readBytes(new File(output, COMMON + FileExtensions.BIN).getPath()))));
+		assertEquals("kha", common.dictionaryTrie.get("ခ"));
+		CRFModel model = CRFModel.loadTxtModel(new FileInputStream(new File(source, MODEL + FileExtensions.TXT)), new CRFModel());
+		assertEquals(4, model.tagSize());
+		assertEquals(2, model.featureSize());
+
+		assertTrue(ResourceCompiler.verify(output).isEmpty());
+		RandomAccessFile raf = new RandomAccessFile(new File(output, COMMON + FileExtensions.BIN), "rw");
+		raf.seek(raf.length() - 1);
+		raf.write(raf.read() ^ 1);
+		raf.close();
+		assertEquals(COMMON.substring(1) + FileExtensions.BIN, ResourceCompiler.verify(output).get(0));
+	}
+
+	public void testBrokenSourceFails() throws Exception {
+		write(new File(source, CORE + FileExtensions.TXT), "กิน\tNOTHING\t10\n");
+		try {
+			new ResourceCompiler(source, output).compile();
+			fail();
+		} catch (ResourceLoadException e) {
+			assertTrue(e.getMessage().contains(CORE));
+		}
+		assertFalse(new File(output, ResourceCompiler.MANIFEST).exists());
+	}
+
+	static File createTempDir(String prefix) throws Exception {
+		File dir = File.createTempFile(prefix, "");
+		dir.delete();
+		dir.mkdirs();
+		return dir;
+	}
+
+	static void write(File file, String content) throws Exception {
+		file.getParentFile().mkdirs();
+		Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+		writer.write(content);
+		writer.close();
+	}
+
+	static void delete(File file) {
+		File[] children = file.listFiles();
+		if (children != null) {
+			for (File child : children) {
+				delete(child);
+			}
+		}
+		file.delete();
+	}
+
+}
@@ -0,0 +1,127 @@
+package cn.edu.kmust.seanlp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import cn.edu.kmust.seanlp.Config.DictConf;
+import cn.edu.kmust.seanlp.ResourceRegistry.Resource;
+import cn.edu.kmust.seanlp.dictionary.language.BurmeseSyllableDictionary;
+import cn.edu.kmust.seanlp.dictionary.language.ThaiCoreDictionary;
+import cn.edu.kmust.seanlp.segmenter.DAT.BurmeseSyllableDATSegmenter;
+import junit.framework.TestCase;
+
+public class ResourceRegistryTest extends TestCase {
+
+	/**
+	 * 计数的资源，前failures次加载失败
+	 */
+	static class CountingResource extends Resource<String> {
+		final AtomicInteger loads = new AtomicInteger();
+		volatile int failures;
+
+		CountingResource(int failures) {
+			super(Language.Thai, "Counting");
+			this.failures = failures;
+		}
+
+		@Override
+		public String getPath() {
+			return "/counting";
+		}
+
+		@Override
+		protected String load(String path) {
+			int n = loads.incrementAndGet();
+			try {
+				Thread.sleep(100);
+			} catch (InterruptedException e) {
+			}
+			return n <= failures ? null : path + n;
+		}
+	}
+
+	public void testPreload() throws Exception {
+		Future<?> matrix = ResourceRegistry.THAI_NATURE_TRANSITION_MATRIX.preload();
+		assertNotNull(ResourceRegistry.THAI_CORE_DICTIONARY.get(60, TimeUnit.SECONDS));
+		assertNotNull(matrix.get());
+		assertTrue(ResourceRegistry.THAI_CORE_DICTIONARY.isReady());
+		assertSame(ResourceRegistry.THAI_CORE_DICTIONARY.get(), ThaiCoreDictionary.getThaiDictionary());
+		assertSame(ResourceRegistry.THAI_CORE_DICTIONARY.get(), ResourceRegistry.THAI_CORE_DICTIONARY.preload().get());
+		assertTrue(ResourceRegistry.getLoadTimes().containsKey("Thai/CoreDictionary"));
+		assertTrue(ResourceRegistry.THAI_CORE_DICTIONARY.getLoadTime() >= 0);
+		assertSame(ResourceRegistry.THAI_CORE_DICTIONARY, ResourceRegistry.getResource("Thai/CoreDictionary"));
+		assertFalse(ResourceRegistry.getResources(Language.Thai).contains(ResourceRegistry.LAO_CORE_DICTIONARY));
+	}
+
+	public void testConcurrentLoadsAreShared() throws Exception {
+		final CountingResource resource = new CountingResource(0);
+		Future<String> preload = resource.preload();
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		List<Future<String>> futures = new ArrayList<Future<String>>();
+		for (int i = 0; i < 4; i++) {
+			futures.add(executor.submit(new Callable<String>() {
+				@Override
+				public String call() {
+					return resource.get();
+				}
+			}));
+		}
+		for (Future<String> future : futures) {
+			assertEquals("/counting1", future.get());
+		}
+		executor.shutdown();
+		assertEquals("/counting1", preload.get());
+		assertEquals(1, resource.loads.get());
+		assertTrue(resource.isReady());
+	}
+
+	public void testFailureIsReportedAndRetried() throws Exception {
+		CountingResource resource = new CountingResource(2);
+		try {
+			resource.get();
+			fail();
+		} catch (ResourceLoadException e) {
+		}
+		assertFalse(resource.isReady());
+		try {
+			resource.preload().get();
+			fail();
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof ResourceLoadException);
+		}
+		assertEquals("/counting3", resource.get(10, TimeUnit.SECONDS));
+		assertEquals("/counting3", resource.get());
+		assertEquals(3, resource.loads.get());
+	}
+
+	/**
+	 * 词典加载失败后，恢复路径再调用可以加载成功，而不是NoClassDefFoundError
+	 */
+	public void testHolderRecoversAfterFailedLoad() {
+		ResourceRegistry.BURMESE_SYLLABLE_DICTIONARY.reset();
+		String path = DictConf.dictionaryPath;
+		DictConf.dictionaryPath = "/nonexistent/";
+		try {
+			for (int i = 0; i < 2; i++) {
+				try {
+					new BurmeseSyllableDATSegmenter().segment("ကျွန်တော်");
+					fail();
+				} catch (ResourceLoadException e) {
+				}
+			}
+		} finally {
+			DictConf.dictionaryPath = path;
+		}
+		assertNotNull(BurmeseSyllableDictionary.getBurmeseSyllableDictionary());
+		assertFalse(new BurmeseSyllableDATSegmenter().segment("ကျွန်တော်").isEmpty());
+		assertTrue(ResourceRegistry.BURMESE_SYLLABLE_DICTIONARY.isReady());
+	}
+
+}
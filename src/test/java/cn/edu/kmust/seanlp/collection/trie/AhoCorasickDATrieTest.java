@@ -0,0 +1,72 @@
+package cn.edu.kmust.seanlp.collection.trie;
+
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import cn.edu.kmust.seanlp.dictionary.CoreDictionary;
+import cn.edu.kmust.seanlp.dictionary.language.ThaiCoreDictionary;
+import junit.framework.TestCase;
+
+public class AhoCorasickDATrieTest extends TestCase {
+
+	/**
+	 * 原来的Searcher找出的全部命中，按“起点,长度,下标”记录
+	 */
+	static <V> TreeSet<String> searcherHits(DATrie<V> trie, char[] text) {
+		TreeSet<String> hits = new TreeSet<String>();
+		DATrie<V>.Searcher searcher = trie.getSearcher(text, 0);
+		while (searcher.next()) {
+			hits.add(searcher.begin + "," + searcher.length + "," + searcher.index);
+		}
+		return hits;
+	}
+
+	static <V> TreeSet<String> automatonHits(AhoCorasickDATrie<V>.Searcher searcher) {
+		TreeSet<String> hits = new TreeSet<String>();
+		while (searcher.next()) {
+			assertTrue(hits.add(searcher.begin + "," + searcher.length + "," + searcher.index));
+		}
+		return hits;
+	}
+
+	public void testSmallTrie() {
+		TreeMap<String, String> map = new TreeMap<String, String>();
+		for (String word : new String[] { "", "he", "she", "his", "hers", "s", "ushers" }) {
+			map.put(word, word);
+		}
+		DATrie<String> trie = new DATrie<String>();
+		trie.build(map);
+		AhoCorasickDATrie<String> ac = trie.ahoCorasick();
+		assertSame(ac, trie.ahoCorasick());
+		char[] text = "ushershishe".toCharArray();
+		assertEquals(searcherHits(trie, text), automatonHits(ac.getSearcher(text, 0)));
+		AhoCorasickDATrie<String>.Searcher searcher = ac.getSearcher(text, 0);
+		while (searcher.next()) {
+			assertEquals(searcher.value, new String(text, searcher.begin, searcher.length));
+		}
+		searcher.reset("".toCharArray(), 0);
+		assertFalse(searcher.next());
+	}
+
+	public void testAgreeWithSearcher() {
+		DATrie<CoreDictionary.Attribute> trie = ThaiCoreDictionary.getThaiDictionary().dictionaryTrie;
+		String[] keys = trie.keyArray();
+		AhoCorasickDATrie<CoreDictionary.Attribute>.Searcher searcher = trie.ahoCorasick().getSearcher(new char[0], 0);
+		Random random = new Random(3);
+		for (int n = 0; n < 300; n++) {
+			StringBuilder sb = new StringBuilder();
+			for (int i = 1 + random.nextInt(20); i > 0; i--) {
+				String key = keys[random.nextInt(keys.length)];
+				if (key != null && random.nextInt(5) > 0)
+					sb.append(key);
+				else
+					sb.append((char) ('ก' + random.nextInt(0x30)));
+			}
+			char[] text = sb.toString().toCharArray();
+			searcher.reset(text, 0);
+			assertEquals(searcherHits(trie, text), automatonHits(searcher));
+		}
+	}
+
+}
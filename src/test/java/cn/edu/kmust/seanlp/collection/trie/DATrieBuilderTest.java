@@ -0,0 +1,94 @@
+package cn.edu.kmust.seanlp.collection.trie;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TreeMap;
+
+import cn.edu.kmust.seanlp.dictionary.CoreDictionary;
+import cn.edu.kmust.seanlp.dictionary.language.ThaiCoreDictionary;
+import cn.edu.kmust.seanlp.util.ByteArray;
+import junit.framework.TestCase;
+
+public class DATrieBuilderTest extends TestCase {
+
+	/**
+	 * 与DATrie.build构建的trie逐项对照
+	 */
+	private static void assertSameTrie(TreeMap<String, CoreDictionary.Attribute> map, DATrie<CoreDictionary.Attribute> expected,
+			DATrie<CoreDictionary.Attribute> actual, String[] keys) {
+		assertEquals(map.size(), actual.size());
+		assertTrue(Arrays.equals(expected.keyArray(), actual.keyArray()));
+		int index = 0;
+		for (String key : map.keySet()) {
+			assertEquals(index, actual.exactMatchSearch(key));
+			assertSame(map.get(key), actual.getValue(index));
+			++index;
+		}
+		Random random = new Random(7);
+		for (int n = 0; n < 200; n++) {
+			StringBuilder sb = new StringBuilder();
+			for (int i = 1 + random.nextInt(12); i > 0; i--) {
+				String key = keys[random.nextInt(keys.length)];
+				if (key != null && random.nextInt(4) > 0)
+					sb.append(key);
+				else
+					sb.append((char) random.nextInt(0x1000));
+			}
+			char[] text = sb.toString().toCharArray();
+			assertEquals(AhoCorasickDATrieTest.searcherHits(expected, text), AhoCorasickDATrieTest.searcherHits(actual, text));
+			assertEquals(AhoCorasickDATrieTest.searcherHits(expected, text),
+					AhoCorasickDATrieTest.automatonHits(actual.ahoCorasick().getSearcher(text, 0)));
+			assertEquals(expected.exactMatchSearch(sb.toString()), actual.exactMatchSearch(sb.toString()));
+		}
+	}
+
+	public void testSameAsDATrie() throws Exception {
+		DATrie<CoreDictionary.Attribute> source = ThaiCoreDictionary.getThaiDictionary().dictionaryTrie;
+		String[] keys = source.keyArray();
+		TreeMap<String, CoreDictionary.Attribute> map = new TreeMap<String, CoreDictionary.Attribute>();
+		for (int i = 0; i < keys.length; i++) {
+			if (keys[i] != null)
+				map.put(keys[i], source.getValue(i));
+		}
+		for (boolean dense : new boolean[] { true, false }) {
+			DATrie<CoreDictionary.Attribute> expected = new DATrie<CoreDictionary.Attribute>().enableDenseAlphabet(dense);
+			expected.build(map);
+			for (int threads : new int[] { 1, 3 }) {
+				DATrieBuilder<CoreDictionary.Attribute> builder = new DATrieBuilder<CoreDictionary.Attribute>()
+						.enableDenseAlphabet(dense).threads(threads);
+				DATrie<CoreDictionary.Attribute> actual = builder.build(map);
+				assertEquals(dense, actual.isDenseAlphabet());
+				assertTrue(builder.getFillRatio() > 0 && builder.getFillRatio() <= 1);
+				assertSameTrie(map, expected, actual, keys);
+
+				ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+				assertTrue(actual.save(new DataOutputStream(bytes)));
+				DATrie<CoreDictionary.Attribute> loaded = new DATrie<CoreDictionary.Attribute>();
+				assertTrue(loaded.load(new ByteArray(bytes.toByteArray()), actual.getValueArray(new CoreDictionary.Attribute[0])));
+				assertSameTrie(map, expected, loaded, keys);
+			}
+		}
+	}
+
+	public void testSmallKeys() {
+		DATrieBuilder<String> builder = new DATrieBuilder<String>();
+		for (String key : new String[] { "", "a", "ab", "abc", "b", "ba", "\uffff" }) {
+			builder.add(key, key);
+		}
+		DATrie<String> trie = builder.build();
+		for (String key : new String[] { "", "a", "ab", "abc", "b", "ba", "\uffff" }) {
+			assertEquals(key, trie.get(key));
+		}
+		assertNull(trie.get("abcd"));
+		assertNull(trie.get("c"));
+		assertEquals(0, new DATrieBuilder<String>().build().size());
+		try {
+			new DATrieBuilder<String>().add("b", "b").add("a", "a");
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+	}
+
+}
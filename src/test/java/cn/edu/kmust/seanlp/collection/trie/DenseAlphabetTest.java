@@ -0,0 +1,95 @@
+package cn.edu.kmust.seanlp.collection.trie;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.util.Random;
+import java.util.TreeMap;
+
+import cn.edu.kmust.seanlp.dictionary.CoreDictionary;
+import cn.edu.kmust.seanlp.dictionary.language.ThaiCoreDictionary;
+import cn.edu.kmust.seanlp.util.ByteArray;
+import junit.framework.TestCase;
+
+public class DenseAlphabetTest extends TestCase {
+
+	/**
+	 * 用泰语核心词典的词重新构建一个使用稠密字母表的trie，与原来的trie逐项对照
+	 */
+	public void testSameAsIdentity() throws Exception {
+		DATrie<CoreDictionary.Attribute> identity = ThaiCoreDictionary.getThaiDictionary().dictionaryTrie;
+		String[] keys = identity.keyArray();
+		TreeMap<String, CoreDictionary.Attribute> map = new TreeMap<String, CoreDictionary.Attribute>();
+		for (int i = 0; i < keys.length; i++) {
+			if (keys[i] != null)
+				map.put(keys[i], identity.getValue(i));
+		}
+		DATrie<CoreDictionary.Attribute> dense = new DATrie<CoreDictionary.Attribute>().enableDenseAlphabet(true);
+		dense.build(map);
+		assertTrue(dense.isDenseAlphabet());
+		assertTrue(dense.getAlphabetSize() < 1000);
+		assertTrue(dense.getBase().length < identity.getSize());
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		assertTrue(dense.save(new DataOutputStream(bytes)));
+		DATrie<CoreDictionary.Attribute> loaded = new DATrie<CoreDictionary.Attribute>();
+		assertTrue(loaded.load(new ByteArray(bytes.toByteArray()), dense.getValueArray(new CoreDictionary.Attribute[0])));
+		assertTrue(loaded.isDenseAlphabet());
+
+		String[] denseKeys = dense.keyArray();
+		assertEquals(map.size(), denseKeys.length);
+		int index = 0;
+		for (String key : map.keySet()) {
+			assertEquals(key, denseKeys[index]);
+			assertEquals(index, dense.exactMatchSearch(key));
+			assertEquals(index, loaded.exactMatchSearch(key));
+			assertSame(map.get(key), loaded.get(key));
+			++index;
+		}
+
+		Random random = new Random(9);
+		for (int n = 0; n < 300; n++) {
+			StringBuilder sb = new StringBuilder();
+			for (int i = 1 + random.nextInt(12); i > 0; i--) {
+				String key = keys[random.nextInt(keys.length)];
+				if (key != null && random.nextInt(4) > 0)
+					sb.append(key);
+				else
+					sb.append((char) random.nextInt(0x1000));
+			}
+			String text = sb.toString();
+			char[] chars = text.toCharArray();
+			assertEquals(hits(identity, chars), hits(loaded, chars));
+			assertEquals(AhoCorasickDATrieTest.searcherHits(loaded, chars),
+					AhoCorasickDATrieTest.automatonHits(loaded.ahoCorasick().getSearcher(chars, 0)));
+			assertEquals(prefixHits(identity, chars), prefixHits(loaded, chars));
+			assertEquals(identity.exactMatchSearch(text) >= 0, loaded.exactMatchSearch(text) >= 0);
+		}
+	}
+
+	/**
+	 * 文本开头的前缀（按“长度=值”记录）
+	 */
+	static <V> String prefixHits(DATrie<V> trie, char[] text) {
+		final StringBuilder sb = new StringBuilder();
+		trie.commonPrefixSearch(text, 0, text.length, new IHit<V>() {
+			@Override
+			public void hit(int begin, int length, int index, V value) {
+				sb.append(length).append('=').append(value).append(' ');
+			}
+		});
+		return sb.toString();
+	}
+
+	/**
+	 * 命中的词（按“起点,长度”记录，值下标随字母表变化，不参与比较）
+	 */
+	private static <V> String hits(DATrie<V> trie, char[] text) {
+		StringBuilder sb = new StringBuilder();
+		DATrie<V>.Searcher searcher = trie.getSearcher(text, 0);
+		while (searcher.next()) {
+			sb.append(searcher.begin).append(',').append(searcher.length).append(' ');
+		}
+		return sb.toString();
+	}
+
+}
@@ -0,0 +1,86 @@
+package cn.edu.kmust.seanlp.collection.trie;
+
+import java.io.File;
+import java.util.Random;
+import java.util.TreeMap;
+
+import cn.edu.kmust.seanlp.dictionary.CommonDictionary;
+import cn.edu.kmust.seanlp.dictionary.CoreDictionary;
+import cn.edu.kmust.seanlp.dictionary.language.ThaiCoreDictionary;
+import junit.framework.TestCase;
+
+public class MappedDATrieTest extends TestCase {
+
+	/**
+	 * 泰语核心词典写成映射格式后，查询、扫描和取值与堆上的trie一致
+	 */
+	public void testSameAsHeap() throws Exception {
+		CoreDictionary dictionary = ThaiCoreDictionary.getThaiDictionary();
+		DATrie<CoreDictionary.Attribute> heap = dictionary.dictionaryTrie;
+		File file = File.createTempFile("thai", ".dat");
+		file.deleteOnExit();
+		assertTrue(dictionary.writeMapped(file.getPath()));
+		MappedDATrie<CoreDictionary.Attribute> mapped = MappedDATrie.map(file.getPath(), CoreDictionary.Attribute.CODEC);
+		assertNotNull(mapped);
+		assertEquals(heap.size(), mapped.size());
+		assertEquals(heap.isDenseAlphabet(), mapped.isDenseAlphabet());
+
+		String[] keys = heap.keyArray();
+		String[] mappedKeys = mapped.keyArray();
+		assertEquals(keys.length, mappedKeys.length);
+		for (int i = 0; i < keys.length; i++) {
+			assertEquals(keys[i], mappedKeys[i]);
+			if (keys[i] == null)
+				continue;
+			assertEquals(i, mapped.exactMatchSearch(keys[i]));
+			assertEquals(heap.getValue(i).toString(), mapped.getValue(i).toString());
+			assertEquals(heap.getValue(i).totalFrequency, mapped.get(keys[i]).totalFrequency);
+		}
+		assertSame(mapped.getValue(0), mapped.getValue(0));
+
+		Random random = new Random(11);
+		for (int n = 0; n < 300; n++) {
+			StringBuilder sb = new StringBuilder();
+			for (int i = 1 + random.nextInt(12); i > 0; i--) {
+				String key = keys[random.nextInt(keys.length)];
+				if (key != null && random.nextInt(4) > 0)
+					sb.append(key);
+				else
+					sb.append((char) random.nextInt(0x1000));
+			}
+			String text = sb.toString();
+			char[] chars = text.toCharArray();
+			assertEquals(AhoCorasickDATrieTest.searcherHits(heap, chars), AhoCorasickDATrieTest.searcherHits(mapped, chars));
+			assertEquals(AhoCorasickDATrieTest.searcherHits(heap, chars),
+					AhoCorasickDATrieTest.automatonHits(mapped.ahoCorasick().getSearcher(chars, 0)));
+			assertEquals(DenseAlphabetTest.prefixHits(heap, chars), DenseAlphabetTest.prefixHits(mapped, chars));
+			assertEquals(heap.exactMatchSearch(text), mapped.exactMatchSearch(text));
+			assertEquals(heap.exactMatchSearch(text), mapped.exactMatchSearch(chars, 0, chars.length));
+		}
+	}
+
+	public void testStringValues() throws Exception {
+		TreeMap<String, String> map = new TreeMap<String, String>();
+		for (String word : new String[] { "a", "ab", "abc", "b", "ເກົ້າ", "ສິບ" }) {
+			map.put(word, word.toUpperCase());
+		}
+		DATrie<String> heap = new DATrie<String>().enableDenseAlphabet(true);
+		heap.build(map);
+		File file = File.createTempFile("common", ".dat");
+		file.deleteOnExit();
+		assertTrue(MappedDATrie.write(heap, file.getPath(), CommonDictionary.CODEC));
+		MappedDATrie<String> mapped = MappedDATrie.map(file.getPath(), CommonDictionary.CODEC);
+		assertTrue(mapped.isDenseAlphabet());
+		for (String word : map.keySet()) {
+			assertEquals(map.get(word), mapped.get(word));
+		}
+		assertNull(mapped.get("abcd"));
+		assertNull(mapped.get("c"));
+		try {
+			mapped.set("a", "x");
+			fail();
+		} catch (UnsupportedOperationException e) {
+		}
+	}
+
+}
@@ -0,0 +1,95 @@
+package cn.edu.kmust.seanlp.collection.trie;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+
+import cn.edu.kmust.seanlp.collection.MDAG.MDAGMap;
+import cn.edu.kmust.seanlp.dictionary.CoreDictionary;
+import cn.edu.kmust.seanlp.dictionary.language.ThaiCoreDictionary;
+import junit.framework.TestCase;
+
+public class PrefixSearchTest extends TestCase {
+
+	/**
+	 * 把回调的结果按“起点,长度,下标”记录下来
+	 */
+	static class Recorder<V> implements IHit<V> {
+		final StringBuilder sb = new StringBuilder();
+
+		@Override
+		public void hit(int begin, int length, int index, V value) {
+			sb.append(begin).append(',').append(length).append(',').append(index).append(' ');
+		}
+	}
+
+	public void testSameAsList() {
+		DATrie<CoreDictionary.Attribute> trie = ThaiCoreDictionary.getThaiDictionary().dictionaryTrie;
+		String[] keys = trie.keyArray();
+		DATrie<CoreDictionary.Attribute>.PrefixSearcher searcher = trie.getPrefixSearcher(new char[0], 0, 0);
+		Random random = new Random(13);
+		for (int n = 0; n < 300; n++) {
+			StringBuilder sb = new StringBuilder();
+			for (int i = 1 + random.nextInt(6); i > 0; i--) {
+				String key = keys[random.nextInt(keys.length)];
+				if (key != null && random.nextInt(4) > 0)
+					sb.append(key);
+				else
+					sb.append((char) ('ก' + random.nextInt(0x30)));
+			}
+			String text = sb.toString();
+			char[] chars = text.toCharArray();
+			int begin = random.nextInt(chars.length);
+
+			StringBuilder expected = new StringBuilder();
+			for (Map.Entry<String, CoreDictionary.Attribute> entry : trie.commonPrefixSearchWithValue(chars, begin)) {
+				int length = entry.getKey().length();
+				expected.append(begin).append(',').append(length).append(',')
+						.append(trie.exactMatchSearch(entry.getKey())).append(' ');
+			}
+			Recorder<CoreDictionary.Attribute> recorder = new Recorder<CoreDictionary.Attribute>();
+			assertEquals(trie.commonPrefixSearchWithValue(chars, begin).size(),
+					trie.commonPrefixSearch(chars, begin, chars.length, recorder));
+			assertEquals(expected.toString(), recorder.sb.toString());
+
+			StringBuilder cursor = new StringBuilder();
+			searcher.reset(chars, begin, chars.length);
+			while (searcher.next()) {
+				assertSame(trie.getValue(searcher.index), searcher.value);
+				cursor.append(searcher.begin).append(',').append(searcher.length).append(',').append(searcher.index).append(' ');
+			}
+			assertEquals(expected.toString(), cursor.toString());
+
+			// 全文扫描的回调与Searcher一致
+			final TreeSet<String> hits = new TreeSet<String>();
+			trie.ahoCorasick().parseText(chars, new IHit<CoreDictionary.Attribute>() {
+				@Override
+				public void hit(int begin, int length, int index, CoreDictionary.Attribute value) {
+					assertTrue(hits.add(begin + "," + length + "," + index));
+				}
+			});
+			assertEquals(AhoCorasickDATrieTest.searcherHits(trie, chars), hits);
+		}
+	}
+
+	public void testMDAGMap() {
+		MDAGMap<String> map = new MDAGMap<String>();
+		for (String word : new String[] { "ก", "กา", "กาก", "ข", "ขา" }) {
+			map.put(word, word.toUpperCase());
+		}
+		char[] text = "xกากขา".toCharArray();
+		for (int round = 0; round < 2; round++) {
+			Recorder<String> recorder = new Recorder<String>();
+			assertEquals(3, map.commonPrefixSearch(text, 1, text.length, recorder));
+			assertEquals("1,1,0 1,2,1 1,3,2 ", recorder.sb.toString());
+			recorder = new Recorder<String>();
+			assertEquals(1, map.commonPrefixSearch(text, 4, 5, recorder));
+			assertEquals("4,1,3 ", recorder.sb.toString());
+			List<Map.Entry<String, String>> list = map.commonPrefixSearchWithValue("ขา");
+			assertEquals(2, list.size());
+			map.simplify();
+		}
+	}
+
+}
@@ -0,0 +1,51 @@
+package cn.edu.kmust.seanlp.recognition;
+
+import junit.framework.TestCase;
+
+public class CharClassRecogTest extends TestCase {
+
+	static final char[] ALPHABET = { '0', '5', '０', 'a', 'Ｚ', '+', '-', '.', '/', '／', '·', '๑', '໑', '០', '၀', 'ก', ' ' };
+
+	/**
+	 * 在短字符串上穷举，与RecogTool的结果逐一比较
+	 */
+	public void testSameAsRecogTool() {
+		for (int length = 0; length <= 4; length++) {
+			int total = (int) Math.pow(ALPHABET.length, length);
+			char[] text = new char[length];
+			for (int n = 0; n < total; n++) {
+				for (int i = 0, k = n; i < length; i++, k /= ALPHABET.length) {
+					text[i] = ALPHABET[k % ALPHABET.length];
+				}
+				String s = new String(text);
+				assertEquals(s, RecogTool.recog(s), CharClassRecog.recog(text, 0, length));
+				if (length == 0)
+					continue;
+				int longest = 0, shortest = 0;
+				for (int len = 1; len <= length; len++) {
+					if (RecogTool.recog(s.substring(0, len))) {
+						longest = len;
+						if (shortest == 0)
+							shortest = len;
+					}
+				}
+				assertEquals(s, longest, CharClassRecog.longest(text, 0, length));
+				assertEquals(s, shortest, CharClassRecog.shortest(text, 0, length));
+			}
+		}
+	}
+
+	public void testLongest() {
+		char[] text = "ก-12.50/3abcDEF๑๒๓".toCharArray();
+		assertEquals(0, CharClassRecog.longest(text, 0, 20));
+		assertEquals(6, CharClassRecog.longest(text, 1, 20));
+		assertEquals(5, CharClassRecog.longest(text, 2, 20));
+		assertEquals(3, CharClassRecog.longest(text, 1, 3));
+		assertEquals(6, CharClassRecog.longest(text, 9, 20));
+		assertEquals(3, CharClassRecog.longest(text, 15, 20));
+		assertTrue(CharClassRecog.recog("1/2"));
+		assertFalse(CharClassRecog.recog("1/02"));
+		assertFalse(CharClassRecog.recog("05.3"));
+	}
+
+}
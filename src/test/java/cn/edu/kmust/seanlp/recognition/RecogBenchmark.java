@@ -0,0 +1,85 @@
+package cn.edu.kmust.seanlp.recognition;
+
+import java.util.Random;
+
+import cn.edu.kmust.seanlp.regex.recognition.RegexRecog;
+
+/**
+ * 比较RegexRecog、RecogTool和CharClassRecog的识别速度<br>
+ * 模拟匹配分词：在混有泰文、数字和英文的文本上，对每个位置识别长度为1到20的全部子串
+ *
+ */
+public class RecogBenchmark {
+
+	static char[] createText(int length, long seed) {
+		String[] pieces = { "ความสัมพันธ์", "123", "-4.5", "abc", "๑๒", "1/2", " ", "ทาง" };
+		Random random = new Random(seed);
+		StringBuilder sb = new StringBuilder();
+		while (sb.length() < length) {
+			sb.append(pieces[random.nextInt(pieces.length)]);
+		}
+		return sb.substring(0, length).toCharArray();
+	}
+
+	interface Recognizer {
+		boolean recog(char[] text, int offset, int count);
+	}
+
+	static long run(Recognizer recognizer, char[] text, int rounds) {
+		long hits = 0;
+		for (int r = 0; r < rounds; r++) {
+			for (int start = 0; start < text.length; start++) {
+				for (int len = 1; len <= 20 && start + len <= text.length; len++) {
+					if (recognizer.recog(text, start, len))
+						++hits;
+				}
+			}
+		}
+		return hits;
+	}
+
+	static void measure(String name, Recognizer recognizer, char[] text, int rounds) {
+		run(recognizer, text, rounds); // 预热
+		long begin = System.nanoTime();
+		long hits = run(recognizer, text, rounds);
+		long elapsed = System.nanoTime() - begin;
+		long probes = (long) rounds * text.length * 20;
+		System.out.printf("%-16s%12.1f ns/次%12d%n", name, (double) elapsed / probes, hits);
+	}
+
+	/**
+	 * @param args [文本长度] [轮数]
+	 */
+	public static void main(String[] args) {
+		int length = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+		int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+		char[] text = createText(length, 1);
+		System.out.printf("%-16s%16s%12s%n", "识别方式", "平均耗时", "识别数");
+		measure("RegexRecog", new Recognizer() {
+			@Override
+			public boolean recog(char[] text, int offset, int count) {
+				return RegexRecog.recog(new String(text, offset, count));
+			}
+		}, text, rounds);
+		measure("RecogTool", new Recognizer() {
+			@Override
+			public boolean recog(char[] text, int offset, int count) {
+				return RecogTool.recog(new String(text, offset, count));
+			}
+		}, text, rounds);
+		measure("CharClassRecog", new Recognizer() {
+			@Override
+			public boolean recog(char[] text, int offset, int count) {
+				return CharClassRecog.recog(text, offset, count);
+			}
+		}, text, rounds);
+		measure("longest", new Recognizer() {
+			@Override
+			public boolean recog(char[] text, int offset, int count) {
+				// 每个位置只调用一次，给出最长长度
+				return count == 1 && CharClassRecog.longest(text, offset, 20) > 0;
+			}
+		}, text, rounds);
+	}
+
+}
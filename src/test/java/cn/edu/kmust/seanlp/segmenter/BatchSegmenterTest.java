@@ -0,0 +1,106 @@
+package cn.edu.kmust.seanlp.segmenter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import cn.edu.kmust.seanlp.segmenter.DAT.ThaiDoubleArrayTrieSegmenter;
+import cn.edu.kmust.seanlp.segmenter.domain.Term;
+import junit.framework.TestCase;
+
+public class BatchSegmenterTest extends TestCase {
+
+	static List<String> toStrings(List<Term> terms) {
+		List<String> result = new ArrayList<String>();
+		for (Term term : terms) {
+			result.add(term.getWord() + "@" + term.getOffset());
+		}
+		return result;
+	}
+
+	public void testMatchesSequential() {
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			BatchSegmenter batch = new BatchSegmenter(StreamSegmenterTest.WHITESPACE, SentenceSplitter.THAI, pool);
+			Random random = new Random(5);
+			List<String> documents = new ArrayList<String>();
+			for (int i = 0; i < 300; ++i) {
+				documents.add(StreamSegmenterTest.createText(random, random.nextInt(i % 10 == 0 ? 20000 : 200)));
+			}
+			documents.add("");
+			List<List<Term>> results = batch.segmentAll(documents);
+			assertEquals(documents.size(), results.size());
+			for (int i = 0; i < documents.size(); ++i) {
+				String document = documents.get(i);
+				List<String> expected = StreamSegmenterTest.expected(document, SentenceSplitter.THAI);
+				assertEquals(expected, toStrings(results.get(i)));
+				assertEquals(expected, toStrings(batch.segment(document)));
+				for (Term term : results.get(i)) {
+					assertTrue(document.startsWith(term.getWord(), term.getOffset()));
+				}
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * 泰语词典分词器在4个线程上分词，结果和位置与逐句顺序分词相同
+	 */
+	public void testThaiSegmenterMatchesSequential() {
+		ThaiDoubleArrayTrieSegmenter segmenter = new ThaiDoubleArrayTrieSegmenter();
+		String[] pieces = { "ความสัมพันธ์", "ในทาง", "เศรษฐกิจ", "กับระบบ", "ทางกฎหมาย", " ", ". ", "?", "ab" };
+		Random random = new Random(23);
+		List<String> documents = new ArrayList<String>();
+		for (int i = 0; i < 200; ++i) {
+			StringBuilder sb = new StringBuilder();
+			for (int n = random.nextInt(i % 20 == 0 ? 3000 : 60); n > 0; --n) {
+				sb.append(pieces[random.nextInt(pieces.length)]);
+			}
+			documents.add(sb.toString());
+		}
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			BatchSegmenter batch = new BatchSegmenter(segmenter, SentenceSplitter.THAI, pool);
+			List<List<Term>> results = batch.segmentAll(documents);
+			for (int i = 0; i < documents.size(); ++i) {
+				String document = documents.get(i);
+				List<String> expected = new ArrayList<String>();
+				int[] bounds = SentenceSplitter.THAI.split(document);
+				for (int k = 0; k + 1 < bounds.length; ++k) {
+					for (Term term : segmenter.segment(document.substring(bounds[k], bounds[k + 1]))) {
+						expected.add(term.getWord() + "@" + (bounds[k] + term.getOffset()));
+					}
+				}
+				assertEquals(expected, toStrings(results.get(i)));
+				for (Term term : results.get(i)) {
+					assertTrue(document.startsWith(term.getWord(), term.getOffset()));
+				}
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	public void testFailurePropagates() {
+		Segmenter failing = new Segmenter() {
+			@Override
+			public List<Term> segment(String text) {
+				if (text.contains("x"))
+					throw new IllegalStateException(text);
+				return StreamSegmenterTest.WHITESPACE.segment(text);
+			}
+		};
+		BatchSegmenter batch = new BatchSegmenter(failing);
+		assertEquals(3, batch.segment("a. b. c.").size());
+		try {
+			batch.segmentAll(Arrays.asList("a. b.", "c. x."));
+			fail();
+		} catch (IllegalStateException e) {
+			assertEquals("x.", e.getMessage().trim());
+		}
+	}
+
+}
@@ -0,0 +1,120 @@
+package cn.edu.kmust.seanlp.segmenter.CC;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import cn.edu.kmust.seanlp.dictionary.language.KhmerCoreDictionary;
+import cn.edu.kmust.seanlp.dictionary.language.ThaiCoreDictionary;
+import cn.edu.kmust.seanlp.segmenter.domain.Term;
+import junit.framework.TestCase;
+
+public class ClusterDFATest extends TestCase {
+
+	static final String THAI = "เจ้าของบ้านจะต้องไปติดต่อที่การไฟฟ้านครหลวง หรือการไฟฟ้าส่วนภูมิภาคของเขตนั้นๆ เพื่อขออนุญาตใช้ไฟฟ้าเอ็ง \n ds:gdf!`sa。fds!af*f(jh)sa&dhk^kh……ggf;dg.ds2423sd234324@#@$d我；";
+	static final String KHMER = "ធាតុពិតនិងការបន្ដគំរាមកំហែងមកលើអ្នកការពារសិទ្ធិមនុស្សនៅកម្ពុជា។របាយការណ៍នេះផ្អែកលើការស៊ើបអង្កេតតែ";
+
+	/**
+	 * 原来的正则切分
+	 */
+	static int[] regex(String regex, String text) {
+		Matcher m = Pattern.compile(regex).matcher(text);
+		List<Integer> bounds = new ArrayList<Integer>();
+		while (m.find()) {
+			bounds.add(m.start());
+			bounds.add(m.end());
+		}
+		int[] result = new int[bounds.size()];
+		for (int i = 0; i < result.length; ++i) {
+			result[i] = bounds.get(i);
+		}
+		return result;
+	}
+
+	static void assertSame(String regex, ClusterDFA dfa, String text) {
+		int[] expected = regex(regex, text);
+		int[] actual = dfa.find(text);
+		if (!Arrays.equals(expected, actual))
+			fail(text + "\n" + Arrays.toString(expected) + "\n" + Arrays.toString(actual));
+	}
+
+	static String random(Random random, int length, char[][] ranges) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < length; ++i) {
+			char[] range = ranges[random.nextInt(ranges.length)];
+			sb.append((char) (range[0] + random.nextInt(range[1] - range[0] + 1)));
+		}
+		return sb.toString();
+	}
+
+	static String shuffle(String[] words, long seed) {
+		List<String> list = new ArrayList<String>(Arrays.asList(words));
+		Collections.shuffle(list, new Random(seed));
+		StringBuilder sb = new StringBuilder();
+		for (String word : list) {
+			sb.append(word);
+		}
+		return sb.toString();
+	}
+
+	public void testSamples() {
+		assertEquals(new TCC().regexToken(TCC.tcc, THAI), new TCC().token(THAI));
+		assertEquals("ធា|តុ|ពិ|ត|និ|ង|កា|រ|ប|ន្ដ|គំ|រា|ម|កំ|ហែ|ង|ម|ក|លើ|អ្ន|ក|កា|រ|ពា|រ|សិ|ទ្ធិ|ម|នុ|ស្ស|នៅ|ក|ម្ពុ|ជា|។|រ|បា|យ|កា|រ|ណ៍|នេះ|ផ្អែ|ក|លើ|កា|រ|ស៊ើ|ប|អ|ង្កេ|ត|តែ|",
+				new KCC().token(KHMER));
+		assertEquals(0, TCC.toTCC("").length);
+		assertEquals(Arrays.asList("a", "|", "b"), Arrays.asList(KCC.toKCC("a|b")));
+
+		List<Term> terms = new KCC().segment("ក " + KHMER);
+		int offset = 0;
+		for (Term term : terms) {
+			assertEquals(offset, term.getOffset());
+			offset += term.length();
+		}
+		assertEquals(KHMER.length() + 2, offset);
+	}
+
+	public void testDictionaries() {
+		String[] thai = ThaiCoreDictionary.getThaiDictionary().dictionaryTrie.keyArray();
+		String[] khmer = KhmerCoreDictionary.getKhmerDictionary().dictionaryTrie.keyArray();
+		ClusterDFA tcc = ClusterDFA.compile(TCC.tcc);
+		ClusterDFA kcc = ClusterDFA.compile(KCC.kcc);
+		for (String word : thai) {
+			assertSame(TCC.tcc, tcc, word);
+		}
+		for (String word : khmer) {
+			assertSame(KCC.kcc, kcc, word);
+		}
+		assertSame(TCC.tcc, tcc, shuffle(thai, 1));
+		assertSame(KCC.kcc, kcc, shuffle(khmer, 1));
+	}
+
+	public void testRandomText() {
+		char[][] ranges = { { '฀', '๟' }, { 'ក', '៿' }, { '0', 'z' }, { '\t', '\r' },
+				{ ' ', '/' }, { '‘', '”' }, { '\u0080', '¿' }, { ' ', ' ' },
+				{ '\uD800', '\uDFFF' } };
+		ClusterDFA tcc = ClusterDFA.compile(TCC.tcc);
+		ClusterDFA kcc = ClusterDFA.compile(KCC.kcc);
+		Random random = new Random(7);
+		for (int i = 0; i < 2000; ++i) {
+			String text = random(random, random.nextInt(64), ranges);
+			assertSame(TCC.tcc, tcc, text);
+			assertSame(KCC.kcc, kcc, text);
+		}
+		assertSame(TCC.tcc, tcc, "𝐀ก😀𝚎");
+	}
+
+	public void testUnsupportedSyntax() {
+		for (String regex : new String[] { "a+?", "[^a]", "(?:a)", "^a", "\\w", "(a" }) {
+			try {
+				ClusterDFA.compile(regex);
+				fail(regex);
+			} catch (IllegalArgumentException e) {
+			}
+		}
+	}
+
+}
@@ -0,0 +1,96 @@
+package cn.edu.kmust.seanlp.segmenter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import cn.edu.kmust.seanlp.Config;
+import cn.edu.kmust.seanlp.Language;
+import cn.edu.kmust.seanlp.segmenter.DAT.KhmerDoubleArrayTrieSegmenter;
+import cn.edu.kmust.seanlp.segmenter.DAT.ThaiDoubleArrayTrieSegmenter;
+import cn.edu.kmust.seanlp.segmenter.domain.Term;
+import junit.framework.TestCase;
+
+public class SegmenterOptionsTest extends TestCase {
+
+	static final String THAI = "ความสัมพันธ์ในทางเศรษฐกิจกับระบบความสัมพันธ์ทางกฎหมาย ความสัมพันธ์ในทาง";
+	static final String KHMER = "ខ្ញុំស្រឡាញ់ប្រទេសកម្ពុជា ខ្ញុំស្រឡាញ់ប្រទេសកម្ពុជា។";
+
+	/**
+	 * 分句只取决于分词器自己的语言，与构造顺序无关
+	 */
+	public void testSentencePatternFollowsSegmenter() {
+		ThaiDoubleArrayTrieSegmenter thai = new ThaiDoubleArrayTrieSegmenter();
+		KhmerDoubleArrayTrieSegmenter khmer = new KhmerDoubleArrayTrieSegmenter();
+		assertEquals(2, thai.sentenceSegment("ก ข").length);
+		assertEquals(1, khmer.sentenceSegment("ក ខ").length);
+		assertEquals(Language.Thai, thai.getOptions().getLanguage());
+		assertEquals(Language.Khmer, khmer.getOptions().getLanguage());
+	}
+
+	/**
+	 * 关闭一个分词器的词性标注不影响其他分词器和全局默认值
+	 */
+	public void testSpeechTaggingIsPerInstance() {
+		boolean global = Config.BaseConf.speechTagging;
+		ThaiDoubleArrayTrieSegmenter tagged = new ThaiDoubleArrayTrieSegmenter();
+		tagged.enablePartOfSpeechTagging(true);
+		ThaiDoubleArrayTrieSegmenter plain = new ThaiDoubleArrayTrieSegmenter();
+		plain.enablePartOfSpeechTagging(false);
+		assertEquals(global, Config.BaseConf.speechTagging);
+		for (Term term : tagged.segment(THAI)) {
+			assertNotNull(term.getNature());
+		}
+		for (Term term : plain.segment(THAI)) {
+			assertNull(term.getNature());
+		}
+		try {
+			plain.setOptions(SegmenterOptions.of(Language.Khmer));
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+	}
+
+	/**
+	 * 泰语和高棉语分词器在多个线程中交替使用，结果与单线程一致
+	 */
+	public void testConcurrentLanguages() throws Exception {
+		final Segmenter thai = new ThaiDoubleArrayTrieSegmenter();
+		final Segmenter khmer = new KhmerDoubleArrayTrieSegmenter();
+		final String thaiExpected = thai.segment(THAI).toString();
+		final String khmerExpected = khmer.segment(KHMER).toString();
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>();
+			for (int t = 0; t < 8; t++) {
+				final boolean isThai = t % 2 == 0;
+				futures.add(pool.submit(new Callable<Boolean>() {
+					@Override
+					public Boolean call() {
+						for (int i = 0; i < 200; i++) {
+							if (isThai) {
+								new KhmerDoubleArrayTrieSegmenter();
+								if (!thaiExpected.equals(thai.segment(THAI).toString()))
+									return false;
+							} else {
+								new ThaiDoubleArrayTrieSegmenter();
+								if (!khmerExpected.equals(khmer.segment(KHMER).toString()))
+									return false;
+							}
+						}
+						return true;
+					}
+				}));
+			}
+			for (Future<Boolean> future : futures) {
+				assertTrue(future.get());
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+}
@@ -0,0 +1,76 @@
+package cn.edu.kmust.seanlp.segmenter;
+
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 比较原来的正则分句（每次编译正则、split后再用find把结束符接回句末）和SentenceSplitter的分句速度<br>
+ * 在混有泰文、高棉文、空格和标点的文本上分句
+ *
+ */
+public class SentenceSplitterBenchmark {
+
+	static String createText(int length, long seed) {
+		String[] pieces = { "ความสัมพันธ์", "ในทาง", " ", "ខ្ញុំស្រឡាញ់", "។", "abc", ".", "?" };
+		Random random = new Random(seed);
+		StringBuilder sb = new StringBuilder();
+		while (sb.length() < length) {
+			sb.append(pieces[random.nextInt(pieces.length)]);
+		}
+		return sb.substring(0, length);
+	}
+
+	interface Splitter {
+		int split(String text);
+	}
+
+	static void measure(String name, Splitter splitter, String text, int rounds) {
+		for (int r = 0; r < rounds; r++) {
+			splitter.split(text); // 预热
+		}
+		long sentences = 0;
+		long begin = System.nanoTime();
+		for (int r = 0; r < rounds; r++) {
+			sentences += splitter.split(text);
+		}
+		long elapsed = System.nanoTime() - begin;
+		System.out.printf("%-20s%12.2f ns/字符%12d%n", name, (double) elapsed / rounds / text.length(), sentences / rounds);
+	}
+
+	/**
+	 * @param args [文本长度] [轮数]
+	 */
+	public static void main(String[] args) {
+		int length = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+		int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+		String text = createText(length, 1);
+		System.out.printf("%-20s%16s%12s%n", "分句方式", "平均耗时", "句子数");
+		measure("regex", new Splitter() {
+			@Override
+			public int split(String text) {
+				Pattern pattern = Pattern.compile("[.;!?។]|[ ]");
+				Matcher matcher = pattern.matcher(text);
+				String[] substrs = pattern.split(text);
+				for (int count = 0; count < substrs.length; count++) {
+					if (matcher.find())
+						substrs[count] += matcher.group();
+				}
+				return substrs.length;
+			}
+		}, text, rounds);
+		measure("SentenceSplitter", new Splitter() {
+			@Override
+			public int split(String text) {
+				return SentenceSplitter.THAI.sentences(text).length;
+			}
+		}, text, rounds);
+		measure("offsets", new Splitter() {
+			@Override
+			public int split(String text) {
+				return SentenceSplitter.THAI.split(text).length - 1;
+			}
+		}, text, rounds);
+	}
+
+}
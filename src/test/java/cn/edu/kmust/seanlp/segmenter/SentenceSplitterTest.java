@@ -0,0 +1,150 @@
+package cn.edu.kmust.seanlp.segmenter;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import cn.edu.kmust.seanlp.Language;
+import cn.edu.kmust.seanlp.segmenter.DAT.ThaiDoubleArrayTrieSegmenter;
+import cn.edu.kmust.seanlp.segmenter.domain.Term;
+import cn.edu.kmust.seanlp.util.StringUtil;
+import junit.framework.TestCase;
+
+public class SentenceSplitterTest extends TestCase {
+
+	/**
+	 * 原来的分句方式：先split，再把结束符接回句末
+	 */
+	static String[] regexSentences(Pattern pattern, String text) {
+		Matcher matcher = pattern.matcher(text);
+		String[] substrs = pattern.split(text);
+		for (int count = 0; count < substrs.length; count++) {
+			if (matcher.find())
+				substrs[count] += matcher.group();
+		}
+		return substrs;
+	}
+
+	static String join(String[] sentences) {
+		StringBuilder sb = new StringBuilder();
+		for (String sentence : sentences) {
+			sb.append(sentence);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * 每个句子都以一个结束符结尾，且句中没有结束符，最后一个句子可以没有结束符
+	 */
+	static void assertSentences(String terminators, String text, String[] sentences) {
+		assertEquals(text, join(sentences));
+		for (int i = 0; i < sentences.length; i++) {
+			String sentence = sentences[i];
+			assertFalse(sentence.isEmpty());
+			for (int j = 0; j < sentence.length() - 1; j++) {
+				assertTrue(text, terminators.indexOf(sentence.charAt(j)) < 0);
+			}
+			if (i < sentences.length - 1)
+				assertTrue(text, terminators.indexOf(sentence.charAt(sentence.length() - 1)) >= 0);
+		}
+	}
+
+	public void testMatchesRegex() {
+		Pattern thaiPattern = Pattern.compile("[.;!?។]|[ ]");
+		Pattern pattern = Pattern.compile("[.;!?។]");
+		Random random = new Random(7);
+		String alphabet = "กข .;!?។။ab";
+		for (int n = 0; n < 2000; n++) {
+			StringBuilder sb = new StringBuilder();
+			for (int i = random.nextInt(30); i > 0; i--) {
+				sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+			}
+			String text = sb.toString();
+			assertSentences(".;!?។ ", text, SentenceSplitter.THAI.sentences(text));
+			assertSentences(".;!?។", text, SentenceSplitter.KHMER.sentences(text));
+			assertEquals(Arrays.toString(SentenceSplitter.THAI.sentences(text)),
+					Arrays.toString(SentenceSplitter.of(thaiPattern).sentences(text)));
+			// 原来的方式会丢掉末尾连续的结束符，空文本得到一个空句子，其余情况结果相同
+			if (text.isEmpty() || ".;!?។ ".indexOf(text.charAt(text.length() - 1)) >= 0)
+				continue;
+			assertEquals(Arrays.toString(regexSentences(thaiPattern, text)), Arrays.toString(SentenceSplitter.THAI.sentences(text)));
+			assertEquals(Arrays.toString(regexSentences(pattern, text)), Arrays.toString(SentenceSplitter.KHMER.sentences(text)));
+		}
+	}
+
+	public void testTrailingTerminator() {
+		assertEquals("[ก.]", Arrays.toString(SentenceSplitter.THAI.sentences("ก.")));
+		assertEquals(Arrays.asList("ก.", " "), Arrays.asList(SentenceSplitter.THAI.sentences("ก. ")));
+		assertEquals("[ก.]", Arrays.toString(regexSentences(Pattern.compile("[.;!?។]|[ ]"), "ก. ")));
+		assertEquals("[ก., ., .]", Arrays.toString(SentenceSplitter.DEFAULT.sentences("ก...")));
+		assertEquals("[ก။, ข]", Arrays.toString(SentenceSplitter.BURMESE.sentences("ก။ข")));
+	}
+
+	/**
+	 * 空文本没有句子，原来的方式得到一个空句子
+	 */
+	public void testEmptyText() {
+		assertEquals(0, SentenceSplitter.THAI.sentences("").length);
+		assertEquals("[0]", Arrays.toString(SentenceSplitter.THAI.split("")));
+		assertEquals("[]", Arrays.toString(SentenceSplitter.of(Pattern.compile("[.]")).sentences("")));
+		assertEquals(1, regexSentences(Pattern.compile("[.]"), "").length);
+		assertEquals(0, new ThaiDoubleArrayTrieSegmenter().segment("").size());
+	}
+
+	public void testBounds() {
+		int[] bounds = SentenceSplitter.THAI.split("ab cd.e");
+		assertEquals("[0, 3, 6, 7]", Arrays.toString(bounds));
+		assertEquals(6, SentenceSplitter.THAI.next("ab cd.e", 3, 7));
+		ThaiDoubleArrayTrieSegmenter thai = new ThaiDoubleArrayTrieSegmenter();
+		thai.setOptions(thai.getOptions().withSentenceRegex("ข"));
+		assertEquals(2, thai.sentenceSegment("ก ขค").length);
+	}
+
+	/**
+	 * 按边界逐句分词与截取句子后逐句分词结果相同
+	 */
+	public void testSegmentFromBounds() {
+		String text = "ความสัมพันธ์ในทางเศรษฐกิจ. กับระบบความสัมพันธ์ทางกฎหมาย ความสัมพันธ์ในทาง";
+		ThaiDoubleArrayTrieSegmenter thai = new ThaiDoubleArrayTrieSegmenter();
+		List<Term> expected = thai.sentenceMerge(thai.sentenceSegment(text));
+		assertEquals(expected.toString(), thai.segment(text).toString());
+	}
+
+	/**
+	 * 在语言的分句器上追加结束符，各处分句方式一致
+	 */
+	public void testWithTerminators() {
+		String text = "ก។ข\nค ง၊จ။ฉ";
+		assertEquals(Arrays.asList("ก។", "ข\n", "ค ง၊จ။", "ฉ"),
+				Arrays.asList(SentenceSplitter.BURMESE.withTerminators("\n").sentences(text)));
+		assertEquals(Arrays.asList(StringUtil.sentenceSegment(text, Language.Burmese)),
+				Arrays.asList(SentenceSplitter.BURMESE.withTerminators("\n").sentences(text)));
+		assertEquals(Arrays.asList("ก។", "ข\n", "ค ", "ง၊จ။ฉ"),
+				Arrays.asList(StringUtil.sentenceSegment(text, Language.Thai)));
+		assertEquals(Arrays.asList("ก។", "ข\n", "ค ง၊", "จ။ฉ"),
+				Arrays.asList(SentenceSplitter.of(Pattern.compile("\n|។")).withTerminators("၊").sentences(text)));
+		SentenceSplitter custom = new SentenceSplitter() {
+			@Override
+			public int next(CharSequence text, int start, int end) {
+				return SentenceSplitter.KHMER.next(text, start, end);
+			}
+		};
+		assertEquals(Arrays.asList("ก។", "ข\n", "ค ง၊จ။ฉ"), Arrays.asList(custom.withTerminators("\n").sentences(text)));
+	}
+
+	@SuppressWarnings("deprecation")
+	public void testDeprecatedPattern() {
+		String text = "ab cd.e?ก။ข";
+		for (Language language : Language.values()) {
+			assertEquals(Arrays.toString(SentenceSplitter.of(language).sentences(text)),
+					Arrays.toString(regexSentences(SegmenterOptions.defaultSentencePattern(language), text)));
+		}
+		SegmenterOptions options = SegmenterOptions.of(Language.Thai);
+		assertEquals(Arrays.toString(options.getSentenceSplitter().sentences(text)),
+				Arrays.toString(regexSentences(options.getSentencePattern(), text)));
+		assertEquals("ข", options.withSentenceRegex("ข").getSentencePattern().pattern());
+	}
+
+}
@@ -0,0 +1,258 @@
+package cn.edu.kmust.seanlp.segmenter;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.channels.Channels;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import cn.edu.kmust.seanlp.segmenter.domain.Term;
+import junit.framework.TestCase;
+
+public class StreamSegmenterTest extends TestCase {
+
+	/**
+	 * 以空白切分，不记录位置
+	 */
+	static final Segmenter WHITESPACE = new Segmenter() {
+		@Override
+		public List<Term> segment(String text) {
+			List<Term> terms = new LinkedList<Term>();
+			for (String word : text.trim().split("\\s+")) {
+				if (!word.isEmpty())
+					terms.add(new Term(word, null));
+			}
+			return terms;
+		}
+	};
+
+	/**
+	 * 以空白切分并把词语转为大写，recordOffset为true时记录词语在句子中的位置
+	 */
+	static Segmenter upperCase(final boolean recordOffset) {
+		return new Segmenter() {
+			@Override
+			public List<Term> segment(String text) {
+				List<Term> terms = new LinkedList<Term>();
+				Matcher matcher = Pattern.compile("\\S+").matcher(text);
+				while (matcher.find()) {
+					Term term = new Term(matcher.group().toUpperCase(Locale.ROOT), null);
+					if (recordOffset)
+						term.setOffset(matcher.start());
+					terms.add(term);
+				}
+				return terms;
+			}
+		};
+	}
+
+	/**
+	 * 每次只读出几个字符
+	 */
+	static Reader trickle(final String text, final long seed) {
+		return new StringReader(text) {
+			Random random = new Random(seed);
+
+			@Override
+			public int read(char[] cbuf, int off, int len) throws IOException {
+				return super.read(cbuf, off, Math.min(len, 1 + random.nextInt(7)));
+			}
+		};
+	}
+
+	static String createText(Random random, int length) {
+		String[] pieces = { "ความ", "สัม", " ", "ខ្ញុំ", "។", "ab", ".", "..", "?", "\r\n", "\n" };
+		StringBuilder sb = new StringBuilder();
+		while (sb.length() < length) {
+			sb.append(pieces[random.nextInt(pieces.length)]);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * 整段文本分句后逐句分词，词语位置为在文本中的位置
+	 */
+	static List<String> expected(String text, SentenceSplitter splitter) {
+		List<String> result = new ArrayList<String>();
+		int[] bounds = splitter.split(text);
+		for (int i = 0; i + 1 < bounds.length; ++i) {
+			String sentence = text.substring(bounds[i], bounds[i + 1]);
+			int cursor = 0;
+			for (Term term : WHITESPACE.segment(sentence)) {
+				cursor = sentence.indexOf(term.getWord(), cursor);
+				result.add(term.getWord() + "@" + (bounds[i] + cursor));
+				cursor += term.length();
+			}
+		}
+		return result;
+	}
+
+	static List<String> toStrings(Iterator<Term> terms) {
+		List<String> result = new ArrayList<String>();
+		while (terms.hasNext()) {
+			Term term = terms.next();
+			result.add(term.getWord() + "@" + term.getOffset());
+		}
+		return result;
+	}
+
+	public void testMatchesWholeText() throws Exception {
+		Random random = new Random(3);
+		SentenceSplitter[] splitters = { SentenceSplitter.THAI, SentenceSplitter.KHMER,
+				SentenceSplitter.of(Pattern.compile("\r\n|\n|[.]+|។")) };
+		for (int i = 0; i < 200; ++i) {
+			String text = createText(random, random.nextInt(300));
+			for (SentenceSplitter splitter : splitters) {
+				StreamSegmenter stream = new StreamSegmenter(WHITESPACE, splitter);
+				List<String> expected = expected(text, splitter);
+				assertEquals(expected, toStrings(stream.iterator(trickle(text, i))));
+
+				final List<String> pushed = new ArrayList<String>();
+				long length = stream.segment(trickle(text, i), new Consumer<Term>() {
+					@Override
+					public void accept(Term term) {
+						pushed.add(term.getWord() + "@" + term.getOffset());
+					}
+				});
+				assertEquals(expected, pushed);
+				assertEquals(text.length(), length);
+			}
+		}
+	}
+
+	public void testRegexTerminatorAcrossReads() throws Exception {
+		SentenceSplitter splitter = SentenceSplitter.of(Pattern.compile("[.]+"));
+		final List<String> sentences = new ArrayList<String>();
+		new StreamSegmenter(WHITESPACE, splitter).segment(trickle("a...b.....c", 0), new StreamSegmenter.SentenceHandler() {
+			@Override
+			public void handle(long offset, String sentence, List<Term> terms) {
+				sentences.add(offset + ":" + sentence);
+			}
+		});
+		assertEquals("[0:a..., 4:b....., 10:c]", sentences.toString());
+	}
+
+	public void testChannel() throws Exception {
+		String text = "ความ สัม. ab ខ្ញុំ។";
+		Charset utf8 = Charset.forName("UTF-8");
+		StreamSegmenter stream = new StreamSegmenter(WHITESPACE, SentenceSplitter.DEFAULT);
+		assertEquals(expected(text, SentenceSplitter.DEFAULT),
+				toStrings(stream.iterator(Channels.newChannel(new ByteArrayInputStream(text.getBytes(utf8))), utf8)));
+	}
+
+	/**
+	 * 没有结束符的长句每次只读入几个字符，从上次扫描到的位置继续，不从句首重新扫描
+	 */
+	public void testLongSentenceInSmallReads() throws Exception {
+		final int length = 4 * 1024 * 1024;
+		Reader reader = new Reader() {
+			Random random = new Random(9);
+			int position;
+
+			@Override
+			public int read(char[] cbuf, int off, int len) {
+				if (position == length)
+					return -1;
+				int n = Math.min(Math.min(len, 1 + random.nextInt(7)), length - position);
+				for (int i = 0; i < n; ++i, ++position) {
+					cbuf[off + i] = position == length / 2 ? '.' : 'ก';
+				}
+				return n;
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+		StreamSegmenter.SentenceReader sentences = new StreamSegmenter.SentenceReader(reader,
+				SentenceSplitter.DEFAULT.withTerminators("\n"));
+		long start = System.nanoTime();
+		assertTrue(sentences.next());
+		assertEquals(length / 2 + 1, sentences.sentence.length());
+		assertTrue(sentences.sentence.endsWith("."));
+		assertTrue(sentences.next());
+		assertEquals(length / 2 + 1, sentences.offset);
+		assertEquals(length / 2 - 1, sentences.sentence.length());
+		assertFalse(sentences.next());
+		assertEquals(length, sentences.offset);
+		// 从句首重新扫描时要几分钟
+		assertTrue(System.nanoTime() - start < 30L * 1000 * 1000 * 1000);
+	}
+
+	/**
+	 * 分词器改写了词语：记录了位置时采用记录的位置，没有记录且找不到时为UNKNOWN_OFFSET，不影响后面的词语
+	 */
+	public void testNormalizingSegmenter() throws Exception {
+		String text = "ความ ab สัม. ab ความ.";
+		StreamSegmenter recorded = new StreamSegmenter(upperCase(true), SentenceSplitter.DEFAULT);
+		assertEquals("[ความ@0, AB@5, สัม.@8, AB@13, ความ.@16]", toStrings(recorded.iterator(trickle(text, 1))).toString());
+		StreamSegmenter searched = new StreamSegmenter(upperCase(false), SentenceSplitter.DEFAULT);
+		assertEquals("[ความ@0, AB@-1, สัม.@8, AB@-1, ความ.@16]", toStrings(searched.iterator(trickle(text, 1))).toString());
+		assertEquals("[ความ@0, AB@-1, สัม.@8, AB@-1, ความ.@16]",
+				BatchSegmenterTest.toStrings(new BatchSegmenter(upperCase(false)).segment(text)).toString());
+
+		// 改写后的词语在句子后面出现时，记录的位置不会被后面的出现带偏
+		List<Term> terms = Arrays.asList(new Term("ความ", null), new Term("ab", null), new Term("ab", null));
+		terms.get(1).setOffset(5);
+		terms.get(2).setOffset(8);
+		assertEquals("[ความ@0, ab@5, ab@8]", toStrings(StreamSegmenter.align("ความ cd ab", terms).iterator()).toString());
+	}
+
+	/**
+	 * 缓冲区只随最长的句子增长
+	 */
+	public void testBoundedBuffer() throws Exception {
+		final String sentence = "ab cd ef.";
+		final long total = 20L * 1000 * 1000;
+		Reader reader = new Reader() {
+			long position;
+
+			@Override
+			public int read(char[] cbuf, int off, int len) {
+				if (position == total)
+					return -1;
+				int n = (int) Math.min(len, total - position);
+				for (int i = 0; i < n; ++i) {
+					cbuf[off + i] = sentence.charAt((int) (position++ % sentence.length()));
+				}
+				return n;
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+		StreamSegmenter.SentenceReader sentences = new StreamSegmenter.SentenceReader(reader, SentenceSplitter.DEFAULT);
+		long count = 0;
+		while (sentences.next()) {
+			++count;
+		}
+		assertEquals(total / sentence.length() + 1, count);
+		assertEquals(total, sentences.offset);
+		assertTrue(sentences.capacity() <= 16 * 1024);
+
+		StringBuilder longSentence = new StringBuilder();
+		while (longSentence.length() < 100000) {
+			longSentence.append("ab ");
+		}
+		sentences = new StreamSegmenter.SentenceReader(new StringReader("a." + longSentence + ".b."), SentenceSplitter.DEFAULT);
+		int longest = 0;
+		while (sentences.next()) {
+			longest = Math.max(longest, sentences.sentence.length());
+		}
+		assertEquals(longSentence.length() + 1, longest);
+		assertTrue(sentences.capacity() < 4 * longest);
+	}
+
+}
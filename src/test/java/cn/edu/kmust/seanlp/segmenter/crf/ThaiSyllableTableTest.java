@@ -0,0 +1,69 @@
+package cn.edu.kmust.seanlp.segmenter.crf;
+
+import java.util.Random;
+
+import cn.edu.kmust.seanlp.CRF.ColumnTable;
+import cn.edu.kmust.seanlp.segmenter.CRF.ThaiCRFSegmenter;
+import cn.edu.kmust.seanlp.util.RadicalMap;
+import junit.framework.TestCase;
+
+public class ThaiSyllableTableTest extends TestCase {
+
+	/**
+	 * 原来用正则判断音节类别
+	 */
+	static char regexType(String str) {
+		if (str.matches("[0-9]+"))
+			return 'd';
+		if (str.matches("[a-zA-Z]+"))
+			return 'e';
+		if (str.matches("[ก-๛]+"))
+			return 't';
+		if (str.matches("[\\pP‘’“”]+"))
+			return 'p';
+		return 'v';
+	}
+
+	static String random(Random random, int length) {
+		String alphabet = "0189azAZกขฺ๛๐ฯ .,!?“”‘’-()\t๜๿ 😀𐐀\uDBFF";
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < length; ++i) {
+			sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+		}
+		return sb.toString();
+	}
+
+	public void testSyllableTypeMatchesRegex() {
+		Random random = new Random(11);
+		for (int i = 0; i < 20000; ++i) {
+			String syllable = random(random, random.nextInt(4));
+			assertEquals(syllable, regexType(syllable), RadicalMap.getThaiSyllableType(syllable).charAt(0));
+		}
+		// 辅助平面的标点
+		assertEquals('p', RadicalMap.getThaiSyllableType("𐄀").charAt(0));
+	}
+
+	public void testSyllableTableFromBounds() {
+		String text = "xxความ สัม1พันธ์.";
+		String[] syllables = { "ความ", " ", "สัม", "1", "พันธ์", "." };
+		int[] bounds = { 0, 4, 5, 8, 9, 14, 15 };
+		ColumnTable expected = ThaiCRFSegmenter.fillThaiSyllableTable(new ColumnTable(), syllables);
+		ColumnTable actual = ThaiCRFSegmenter.fillThaiSyllableTable(new ColumnTable(), text.toCharArray(), 2, bounds, syllables.length);
+		assertEquals(expected.toString(), actual.toString());
+		assertEquals("t", actual.get(0, 1));
+		assertEquals("d", actual.get(3, 1));
+	}
+
+	public void testCharTableFromRange() {
+		char[] chars = "abกข ๑.".toCharArray();
+		ColumnTable table = ThaiCRFSegmenter.fillThaiCharTable(new ColumnTable(), chars, 2, chars.length);
+		assertEquals(5, table.size());
+		assertEquals("ก", table.get(0, 0));
+		assertEquals("c", table.get(0, 1));
+		assertEquals("p", table.get(2, 1));
+		assertEquals("d", table.get(3, 1));
+		assertEquals("q", table.get(4, 1));
+		assertEquals('o', RadicalMap.getThaiRadical('我'));
+	}
+
+}
@@ -0,0 +1,196 @@
+package cn.edu.kmust.seanlp.segmenter.dictionary;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import cn.edu.kmust.seanlp.collection.trie.ConcurrentTrie;
+import cn.edu.kmust.seanlp.collection.trie.IHit;
+import cn.edu.kmust.seanlp.dictionary.CommonDictionary;
+import cn.edu.kmust.seanlp.dictionary.CoreDictionary;
+import cn.edu.kmust.seanlp.dictionary.CustomDictionary;
+import cn.edu.kmust.seanlp.dictionary.language.ThaiCoreDictionary;
+import cn.edu.kmust.seanlp.segmenter.DAT.ThaiDoubleArrayTrieSegmenter;
+import cn.edu.kmust.seanlp.segmenter.domain.Nature;
+import cn.edu.kmust.seanlp.segmenter.domain.Term;
+import junit.framework.TestCase;
+
+public class CustomDictionaryTest extends TestCase {
+
+	static final String TEXT = "ความสัมพันธ์ในทางเศรษฐกิจกับระบบความสัมพันธ์ทางกฎหมาย";
+	/**
+	 * 不在核心词典中的词
+	 */
+	static final String WORD = "เศรษฐกิจกับระบบ";
+
+	static boolean hasWord(List<Term> terms, String word, Nature nature) {
+		StringBuilder joined = new StringBuilder();
+		boolean found = false;
+		for (Term term : terms) {
+			assertEquals(joined.length(), term.getOffset());
+			joined.append(term.getWord());
+			if (term.getWord().equals(word)) {
+				found = true;
+				if (nature != null)
+					assertEquals(nature, term.getNature());
+			}
+		}
+		assertEquals(TEXT, joined.toString());
+		return found;
+	}
+
+	public void testConcurrentTrie() {
+		ConcurrentTrie<String> trie = new ConcurrentTrie<String>();
+		for (String word : new String[] { "ab", "a", "abc", "b", "ba" }) {
+			assertNull(trie.put(word, word.toUpperCase()));
+		}
+		assertEquals("AB", trie.put("ab", "ab"));
+		assertEquals(5, trie.size());
+		assertEquals(3, trie.getMaxLength());
+		assertEquals("ab", trie.get("ab"));
+		assertNull(trie.get("abcd"));
+		final StringBuilder sb = new StringBuilder();
+		IHit<String> hit = new IHit<String>() {
+			@Override
+			public void hit(int begin, int length, int index, String value) {
+				sb.append(begin).append(',').append(length).append(',').append(value).append(' ');
+			}
+		};
+		assertEquals(4, trie.parseText("xabc".toCharArray(), hit));
+		assertEquals("1,1,A 1,2,ab 2,1,B 1,3,ABC ", sb.toString());
+		assertEquals("A", trie.remove("a"));
+		assertNull(trie.remove("a"));
+		assertEquals(4, trie.size());
+		sb.setLength(0);
+		trie.commonPrefixSearch("abc".toCharArray(), 0, 3, hit);
+		assertEquals("0,2,ab 0,3,ABC ", sb.toString());
+		try {
+			trie.put("", "x");
+			fail();
+		} catch (IllegalArgumentException e) {
+		}
+	}
+
+	/**
+	 * 自动机扫描与逐个位置的前缀查询结果相同，修改词条后重新构建
+	 */
+	public void testParseTextMatchesPrefixSearch() {
+		final ConcurrentTrie<String> trie = new ConcurrentTrie<String>();
+		Random random = new Random(17);
+		for (int round = 0; round < 300; ++round) {
+			String word = randomText(random, 1 + random.nextInt(4));
+			if (random.nextInt(3) == 0)
+				trie.remove(word);
+			else
+				trie.put(word, word);
+			final char[] text = randomText(random, random.nextInt(40)).toCharArray();
+			final TreeSet<String> expected = new TreeSet<String>();
+			for (int begin = 0; begin < text.length; ++begin) {
+				trie.commonPrefixSearch(text, begin, text.length, new IHit<String>() {
+					@Override
+					public void hit(int begin, int length, int index, String value) {
+						expected.add(begin + "," + length + "," + value);
+					}
+				});
+			}
+			final TreeSet<String> actual = new TreeSet<String>();
+			final int[] lastEnd = { 0 };
+			int count = trie.parseText(text, new IHit<String>() {
+				@Override
+				public void hit(int begin, int length, int index, String value) {
+					assertEquals(new String(text, begin, length), value);
+					assertTrue(begin + length >= lastEnd[0]);
+					lastEnd[0] = begin + length;
+					assertTrue(actual.add(begin + "," + length + "," + value));
+				}
+			});
+			assertEquals(expected, actual);
+			assertEquals(expected.size(), count);
+		}
+	}
+
+	static String randomText(Random random, int length) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < length; ++i) {
+			sb.append("abcกข".charAt(random.nextInt(5)));
+		}
+		return sb.toString();
+	}
+
+	public void testParser() {
+		CustomDictionary<CoreDictionary.Attribute> dictionary = new CustomDictionary<CoreDictionary.Attribute>(CoreDictionary.Attribute.PARSER);
+		assertTrue(dictionary.insert("ก\tNCMN\t10\tVACT\t5"));
+		assertEquals(15, dictionary.get("ก").totalFrequency);
+		assertTrue(dictionary.insert("ข\tNCMN 3"));
+		assertEquals(Nature.NCMN, dictionary.get("ข").nature[0]);
+		assertTrue(dictionary.insert("ค"));
+		assertEquals(Nature.UN, dictionary.get("ค").nature[0]);
+		assertFalse(dictionary.insert("ง\tNOTHING\t1"));
+		assertNull(dictionary.get("ง"));
+		CustomDictionary<String> common = new CustomDictionary<String>(CommonDictionary.PARSER);
+		assertTrue(common.insert("ก"));
+		assertTrue(common.insert("ข\tkho"));
+		assertEquals("ก", common.get("ก"));
+		assertEquals("kho", common.get("ข"));
+	}
+
+	public void testSegmenter() {
+		CoreDictionary dictionary = ThaiCoreDictionary.getThaiDictionary();
+		assertFalse(CoreDictionary.contains(dictionary.dictionaryTrie, WORD));
+		ThaiDoubleArrayTrieSegmenter segmenter = new ThaiDoubleArrayTrieSegmenter();
+		segmenter.enablePartOfSpeechTagging(true);
+		ThaiDoubleArrayTrieSegmenter lattice = new ThaiDoubleArrayTrieSegmenter();
+		lattice.setOptions(lattice.getOptions().withWordLattice(true).withSpeechTagging(true));
+		try {
+			dictionary.customDictionary.insert(WORD, new CoreDictionary.Attribute(Nature.NPRP));
+			assertFalse(hasWord(segmenter.segment(TEXT), WORD, null));
+			assertFalse(hasWord(lattice.segment(TEXT), WORD, null));
+			segmenter.enableCustomDictionary(true);
+			lattice.enableCustomDictionary(true);
+			assertTrue(hasWord(segmenter.segment(TEXT), WORD, Nature.NPRP));
+			assertTrue(hasWord(lattice.segment(TEXT), WORD, Nature.NPRP));
+			dictionary.customDictionary.remove(WORD);
+			assertFalse(hasWord(segmenter.segment(TEXT), WORD, null));
+			assertFalse(hasWord(lattice.segment(TEXT), WORD, null));
+		} finally {
+			dictionary.customDictionary.clear();
+		}
+	}
+
+	public void testWatch() throws Exception {
+		File file = File.createTempFile("custom", ".txt");
+		file.deleteOnExit();
+		write(file, "ก\tNCMN\t1\n");
+		CustomDictionary<CoreDictionary.Attribute> dictionary = new CustomDictionary<CoreDictionary.Attribute>(CoreDictionary.Attribute.PARSER);
+		assertTrue(dictionary.watch(file.getPath()));
+		try {
+			assertEquals(1, dictionary.size());
+			ConcurrentTrie<CoreDictionary.Attribute> old = dictionary.getTrie();
+			write(file, "ก\tNCMN\t1\nข\tNCMN\t2\n");
+			for (int i = 0; i < 200 && dictionary.getTrie() == old; i++) {
+				Thread.sleep(50);
+			}
+			// 旧的trie不受影响
+			assertEquals(1, old.size());
+			for (int i = 0; i < 200 && dictionary.size() < 2; i++) {
+				Thread.sleep(50);
+			}
+			assertEquals(2, dictionary.get("ข").totalFrequency);
+		} finally {
+			dictionary.stopWatching();
+		}
+		assertFalse(dictionary.load(file.getPath() + ".missing"));
+		assertEquals(2, dictionary.size());
+	}
+
+	static void write(File file, String content) throws Exception {
+		Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+		writer.write(content);
+		writer.close();
+	}
+
+}
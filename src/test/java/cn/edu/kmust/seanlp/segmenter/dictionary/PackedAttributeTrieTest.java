@@ -0,0 +1,81 @@
+package cn.edu.kmust.seanlp.segmenter.dictionary;
+
+import cn.edu.kmust.seanlp.Config;
+import cn.edu.kmust.seanlp.Config.FileExtensions;
+import cn.edu.kmust.seanlp.Language;
+import cn.edu.kmust.seanlp.collection.trie.DATrie;
+import cn.edu.kmust.seanlp.dictionary.CoreDictionary;
+import cn.edu.kmust.seanlp.dictionary.PackedAttributeTrie;
+import cn.edu.kmust.seanlp.segmenter.domain.Nature;
+import cn.edu.kmust.seanlp.util.ByteArray;
+import junit.framework.TestCase;
+
+public class PackedAttributeTrieTest extends TestCase {
+
+	/**
+	 * 每个词一个Attribute的旧加载方式，作为对照
+	 */
+	static DATrie<CoreDictionary.Attribute> loadObjects(ByteArray byteArray) {
+		int size = byteArray.nextInt();
+		CoreDictionary.Attribute[] attributes = new CoreDictionary.Attribute[size];
+		final Nature[] natureIndexArray = Nature.values();
+		for (int i = 0; i < size; ++i) {
+			int currentTotalFrequency = byteArray.nextInt();
+			int length = byteArray.nextInt();
+			attributes[i] = new CoreDictionary.Attribute(length);
+			attributes[i].totalFrequency = currentTotalFrequency;
+			for (int j = 0; j < length; ++j) {
+				attributes[i].nature[j] = natureIndexArray[byteArray.nextInt()];
+				attributes[i].frequency[j] = byteArray.nextInt();
+			}
+		}
+		DATrie<CoreDictionary.Attribute> trie = new DATrie<CoreDictionary.Attribute>();
+		assertTrue(trie.load(byteArray, attributes));
+		return trie;
+	}
+
+	public void testSameAsObjects() {
+		for (Language language : new Language[] { Language.Thai, Language.Lao, Language.Vietnamese }) {
+			String path = Config.DictConf.dictionaryPath + language + Config.DictConf.coreDictionary + FileExtensions.BIN;
+			DATrie<CoreDictionary.Attribute> expected = loadObjects(ByteArray.createByteArray(path));
+			CoreDictionary dictionary = new CoreDictionary();
+			assertTrue(dictionary.loadDat(ByteArray.createByteArray(path)));
+			PackedAttributeTrie packed = (PackedAttributeTrie) dictionary.dictionaryTrie;
+			assertEquals(expected.size(), packed.size());
+			String[] keys = expected.keyArray();
+			for (int i = 0; i < expected.size(); i++) {
+				CoreDictionary.Attribute attribute = expected.getValue(i);
+				assertEquals(attribute.nature.length, packed.natureCount(i));
+				assertEquals(attribute.totalFrequency, packed.totalFrequency(i));
+				assertEquals(attribute.totalFrequency, dictionary.totalFrequency(i));
+				assertEquals(attribute.nature[0], dictionary.firstNature(i));
+				for (int k = 0; k < attribute.nature.length; k++) {
+					assertEquals(attribute.nature[k], packed.nature(i, k));
+					assertEquals(attribute.frequency[k], packed.frequency(i, k));
+					assertEquals(attribute.getNatureFrequency(attribute.nature[k]), packed.getNatureFrequency(i, attribute.nature[k]));
+				}
+				if (keys[i] != null) {
+					assertEquals(i, packed.exactMatchSearch(keys[i]));
+					CoreDictionary.Attribute flyweight = packed.get(keys[i]);
+					assertEquals(attribute.toString(), flyweight.toString());
+					assertEquals(attribute.totalFrequency, flyweight.totalFrequency);
+					assertSame(flyweight, packed.getValue(i));
+				}
+			}
+			assertNull(packed.getValue(-1));
+			assertNull(packed.getValue(packed.size()));
+		}
+	}
+
+	public void testReadOnly() {
+		CoreDictionary dictionary = new CoreDictionary();
+		assertTrue(dictionary.loadDat(ByteArray.createByteArray(Config.DictConf.dictionaryPath + Language.Thai
+				+ Config.DictConf.coreDictionary + FileExtensions.BIN)));
+		try {
+			dictionary.dictionaryTrie.set(dictionary.dictionaryTrie.keyArray()[0], new CoreDictionary.Attribute(Nature.UN));
+			fail();
+		} catch (UnsupportedOperationException e) {
+		}
+	}
+
+}
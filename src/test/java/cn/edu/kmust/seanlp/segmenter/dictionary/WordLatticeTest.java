@@ -0,0 +1,85 @@
+package cn.edu.kmust.seanlp.segmenter.dictionary;
+
+import java.util.List;
+import java.util.Random;
+
+import cn.edu.kmust.seanlp.dictionary.CoreDictionary;
+import cn.edu.kmust.seanlp.dictionary.language.ThaiCoreDictionary;
+import cn.edu.kmust.seanlp.segmenter.DAT.ThaiDoubleArrayTrieSegmenter;
+import cn.edu.kmust.seanlp.segmenter.DAT.WordLattice;
+import cn.edu.kmust.seanlp.segmenter.domain.Nature;
+import cn.edu.kmust.seanlp.segmenter.domain.Term;
+import junit.framework.TestCase;
+
+public class WordLatticeTest extends TestCase {
+
+	/**
+	 * 逐个起点和长度查词典的动态规划，作为对照，返回最小代价
+	 */
+	static double bruteForce(CoreDictionary dictionary, char[] text) {
+		double[] cost = dictionary.unigramCost();
+		double[] dist = new double[text.length + 1];
+		for (int end = 1; end <= text.length; end++) {
+			dist[end] = dist[end - 1] + cost[cost.length - 1];
+			for (int begin = 0; begin < end; begin++) {
+				int id = dictionary.dictionaryTrie.exactMatchSearch(new String(text, begin, end - begin));
+				if (id >= 0)
+					dist[end] = Math.min(dist[end], dist[begin] + cost[id]);
+			}
+		}
+		return dist[text.length];
+	}
+
+	static double pathCost(CoreDictionary dictionary, List<Term> terms) {
+		double[] cost = dictionary.unigramCost();
+		double sum = 0;
+		for (Term term : terms) {
+			int id = dictionary.dictionaryTrie.exactMatchSearch(term.getWord());
+			sum += id >= 0 ? cost[id] : cost[cost.length - 1];
+		}
+		return sum;
+	}
+
+	public void testShortestPath() {
+		CoreDictionary dictionary = ThaiCoreDictionary.getThaiDictionary();
+		String[] keys = dictionary.dictionaryTrie.keyArray();
+		WordLattice lattice = new WordLattice();
+		Random random = new Random(5);
+		for (int n = 0; n < 200; n++) {
+			StringBuilder sb = new StringBuilder();
+			for (int i = 1 + random.nextInt(8); i > 0; i--) {
+				String key = keys[random.nextInt(keys.length)];
+				if (key != null && random.nextInt(4) > 0)
+					sb.append(key);
+				else
+					sb.append((char) ('ก' + random.nextInt(0x30)));
+			}
+			char[] text = sb.toString().toCharArray();
+			List<Term> terms = lattice.segment(dictionary, text, Nature.UN);
+			StringBuilder joined = new StringBuilder();
+			for (Term term : terms) {
+				assertEquals(joined.length(), term.getOffset());
+				assertNotNull(term.getNature());
+				joined.append(term.getWord());
+			}
+			assertEquals(sb.toString(), joined.toString());
+			assertEquals(bruteForce(dictionary, text), pathCost(dictionary, terms), 1e-9);
+		}
+	}
+
+	public void testSegmenterOption() {
+		String text = "ความสัมพันธ์ในทางเศรษฐกิจกับระบบความสัมพันธ์ทางกฎหมาย";
+		ThaiDoubleArrayTrieSegmenter segmenter = new ThaiDoubleArrayTrieSegmenter();
+		segmenter.setOptions(segmenter.getOptions().withWordLattice(true).withSpeechTagging(false));
+		List<Term> terms = segmenter.segment(text);
+		StringBuilder joined = new StringBuilder();
+		for (Term term : terms) {
+			assertNull(term.getNature());
+			joined.append(term.getWord());
+		}
+		assertEquals(text, joined.toString());
+		CoreDictionary dictionary = ThaiCoreDictionary.getThaiDictionary();
+		assertEquals(bruteForce(dictionary, text.toCharArray()), pathCost(dictionary, terms), 1e-9);
+	}
+
+}
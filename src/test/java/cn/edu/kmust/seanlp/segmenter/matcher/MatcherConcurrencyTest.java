@@ -0,0 +1,95 @@
+package cn.edu.kmust.seanlp.segmenter.matcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import cn.edu.kmust.seanlp.dictionary.language.KhmerCommonDictionary;
+import cn.edu.kmust.seanlp.dictionary.language.LaoCoreDictionary;
+import cn.edu.kmust.seanlp.dictionary.language.ThaiCoreDictionary;
+import cn.edu.kmust.seanlp.segmenter.Segmenter;
+import cn.edu.kmust.seanlp.segmenter.domain.Term;
+import cn.edu.kmust.seanlp.segmenter.matcher.language.KhmerRevMaxMatchSegmenter;
+import cn.edu.kmust.seanlp.segmenter.matcher.language.LaoMaxMatchSegmenter;
+import cn.edu.kmust.seanlp.segmenter.matcher.language.ThaiMaxMatchSegmenter;
+import junit.framework.TestCase;
+
+public class MatcherConcurrencyTest extends TestCase {
+
+	static final String THAI = "ความสัมพันธ์ในทางเศรษฐกิจกับระบบความสัมพันธ์ทางกฎหมาย";
+	static final String LAO = "ທ່ານວິນເຄັນເປັນປະທານບໍລິສັດອຽວເຊີວີເອີແອນ.ວີ.ກຸ່ມບໍລິສັດການພິມຂອງຊາວດັດ.";
+	static final String KHMER = "ធាតុពិតនិងការបន្ដគំរាមកំហែងមកលើអ្នកការពារសិទ្ធិមនុស្សនៅកម្ពុជា។";
+
+	/**
+	 * 后构造的匹配器不会改变先构造的匹配器所用的词典
+	 */
+	public void testMatcherKeepsDictionary() {
+		Matcher thai = new MaximumMatcher(ThaiCoreDictionary.getThaiDictionary().dictionaryTrie);
+		String expected = thai.segment(THAI).toString();
+		new MaximumMatcher(LaoCoreDictionary.getLaoDictionary().dictionaryTrie);
+		new ReverseMinimumMatcher(KhmerCommonDictionary.getKhmerDictionary().dictionaryTrie);
+		assertEquals(expected, thai.segment(THAI).toString());
+	}
+
+	/**
+	 * 多个线程交替使用各语言的匹配分词器（含词性标注），结果与单线程一致
+	 */
+	public void testConcurrentMatchers() throws Exception {
+		ThaiMaxMatchSegmenter thai = new ThaiMaxMatchSegmenter();
+		thai.enablePartOfSpeechTagging(true);
+		LaoMaxMatchSegmenter lao = new LaoMaxMatchSegmenter();
+		lao.enablePartOfSpeechTagging(true);
+		KhmerRevMaxMatchSegmenter khmer = new KhmerRevMaxMatchSegmenter();
+		khmer.enablePartOfSpeechTagging(true);
+		final Segmenter[] segmenters = { thai, lao, khmer,
+				new MatcherSegmenter(new MinimumMatcher(ThaiCoreDictionary.getThaiDictionary().dictionaryTrie)),
+				new MatcherSegmenter(new ReverseMinimumMatcher(LaoCoreDictionary.getLaoDictionary().dictionaryTrie)) };
+		final String[] texts = { THAI, LAO, KHMER, THAI, LAO };
+		final String[] expected = new String[segmenters.length];
+		for (int i = 0; i < segmenters.length; i++) {
+			expected[i] = segmenters[i].segment(texts[i]).toString();
+		}
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>();
+			for (int t = 0; t < 10; t++) {
+				final int k = t % segmenters.length;
+				futures.add(pool.submit(new Callable<Boolean>() {
+					@Override
+					public Boolean call() {
+						for (int i = 0; i < 200; i++) {
+							if (!expected[k].equals(segmenters[k].segment(texts[k]).toString()))
+								return false;
+						}
+						return true;
+					}
+				}));
+			}
+			for (Future<Boolean> future : futures) {
+				assertTrue(future.get());
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * 直接使用匹配器，不经过分句
+	 */
+	static class MatcherSegmenter implements Segmenter {
+		private final Matcher matcher;
+
+		MatcherSegmenter(Matcher matcher) {
+			this.matcher = matcher;
+		}
+
+		@Override
+		public List<Term> segment(String text) {
+			return matcher.segment(text);
+		}
+	}
+
+}
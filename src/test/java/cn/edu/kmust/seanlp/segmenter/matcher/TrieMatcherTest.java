@@ -0,0 +1,247 @@
+package cn.edu.kmust.seanlp.segmenter.matcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import cn.edu.kmust.seanlp.collection.trie.DATrie;
+import cn.edu.kmust.seanlp.dictionary.language.LaoCoreDictionary;
+import cn.edu.kmust.seanlp.dictionary.language.ThaiCoreDictionary;
+import cn.edu.kmust.seanlp.dictionary.language.VietnameseCoreDictionary;
+import cn.edu.kmust.seanlp.recognition.RecogTool;
+import cn.edu.kmust.seanlp.segmenter.domain.Term;
+import junit.framework.TestCase;
+
+public class TrieMatcherTest extends TestCase {
+
+	static final int MAX = 20;
+
+	/**
+	 * 原来逐个长度查词典的做法，作为对照
+	 */
+	static boolean accept(DATrie<?> dict, char[] text, int start, int len) {
+		return dict.exactMatchSearch(new String(text, start, len)) >= 0 || RecogTool.recog(new String(text, start, len));
+	}
+
+	static List<String> maximum(DATrie<?> dict, char[] text) {
+		List<String> result = new ArrayList<String>();
+		for (int start = 0; start < text.length;) {
+			int len = Math.min(MAX, text.length - start);
+			while (len > 1 && !accept(dict, text, start, len))
+				--len;
+			result.add(new String(text, start, len));
+			start += len;
+		}
+		return result;
+	}
+
+	static List<String> minimum(DATrie<?> dict, char[] text) {
+		List<String> result = new ArrayList<String>();
+		for (int start = 0; start < text.length;) {
+			int max = Math.min(MAX, text.length - start);
+			int len = 1;
+			while (len <= max && !accept(dict, text, start, len))
+				++len;
+			if (len > max)
+				len = 1;
+			result.add(new String(text, start, len));
+			start += len;
+		}
+		return result;
+	}
+
+	static List<String> reverseMaximum(DATrie<?> dict, char[] text) {
+		List<String> result = new ArrayList<String>();
+		for (int end = text.length; end > 0;) {
+			int len = Math.min(MAX, end);
+			while (len > 1 && !accept(dict, text, end - len, len))
+				--len;
+			result.add(0, new String(text, end - len, len));
+			end -= len;
+		}
+		return result;
+	}
+
+	static List<String> reverseMinimum(DATrie<?> dict, char[] text) {
+		List<String> result = new ArrayList<String>();
+		for (int end = text.length; end > 0;) {
+			int max = Math.min(MAX, end);
+			int len = 1;
+			while (len <= max && !accept(dict, text, end - len, len))
+				++len;
+			if (len > max)
+				len = 1;
+			result.add(0, new String(text, end - len, len));
+			end -= len;
+		}
+		return result;
+	}
+
+	static List<String> words(Matcher matcher, char[] text) {
+		List<String> result = new ArrayList<String>();
+		for (Term term : matcher.segment(text)) {
+			result.add(term.getWord());
+		}
+		return result;
+	}
+
+	/**
+	 * 由词典中的词、数字、英文和随机字符拼成测试文本
+	 */
+	static char[] randomText(Random random, String[] keys, int words) {
+		String[] noise = { "123", "-45", "3.14", "abc", "๑๒๓", " ", "x1", "1/2" };
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < words; i++) {
+			int r = random.nextInt(10);
+			if (r < 7) {
+				String key = keys[random.nextInt(keys.length)];
+				sb.append(key == null ? "" : key);
+			} else if (r < 9) {
+				sb.append(noise[random.nextInt(noise.length)]);
+			} else {
+				sb.append((char) ('ก' + random.nextInt(0x30)));
+			}
+		}
+		return sb.toString().toCharArray();
+	}
+
+	public void testKeyArrayAndReversed() {
+		TreeMap<String, Integer> map = new TreeMap<String, Integer>();
+		String[] words = { "ab", "abc", "b", "bca", "cab", "ไทย" };
+		for (int i = 0; i < words.length; i++) {
+			map.put(words[i], i);
+		}
+		DATrie<Integer> trie = new DATrie<Integer>();
+		trie.build(map);
+		String[] keys = trie.keyArray();
+		assertEquals(words.length, keys.length);
+		for (int i = 0; i < words.length; i++) {
+			assertEquals(words[i], keys[trie.exactMatchSearch(words[i])]);
+		}
+		DATrie<Integer> reversed = trie.reversed();
+		assertSame(reversed, trie.reversed());
+		for (int i = 0; i < words.length; i++) {
+			String key = new StringBuilder(words[i]).reverse().toString();
+			assertEquals(Integer.valueOf(i), reversed.get(key));
+		}
+		assertNull(reversed.get("ab"));
+	}
+
+	public void testMatchersAgreeWithLookups() {
+		checkDictionary(ThaiCoreDictionary.getThaiDictionary().dictionaryTrie);
+		checkDictionary(LaoCoreDictionary.getLaoDictionary().dictionaryTrie);
+	}
+
+	private void checkDictionary(DATrie<?> dict) {
+		String[] keys = dict.keyArray();
+		for (int i = 0; i < Math.min(keys.length, 2000); i++) {
+			assertTrue(keys[i] == null || dict.exactMatchSearch(keys[i]) == i);
+		}
+		Matcher max = new MaximumMatcher(dict);
+		Matcher min = new MinimumMatcher(dict);
+		Matcher revMax = new ReverseMaximumMatcher(dict);
+		Matcher revMin = new ReverseMinimumMatcher(dict);
+		Random random = new Random(7);
+		for (int n = 0; n < 200; n++) {
+			char[] text = randomText(random, keys, 1 + random.nextInt(12));
+			assertEquals(maximum(dict, text), words(max, text));
+			assertEquals(minimum(dict, text), words(min, text));
+			assertEquals(reverseMaximum(dict, text), words(revMax, text));
+			assertEquals(reverseMinimum(dict, text), words(revMin, text));
+		}
+	}
+
+	/**
+	 * 原来逐个音节数连成字符串查词典的做法，作为对照
+	 */
+	static boolean accept(AbstractMatcher matcher, String[] syllables, int start, int len) {
+		String word = matcher.word(syllables, start, len);
+		return matcher.dict.exactMatchSearch(word) >= 0 || RecogTool.recog(word);
+	}
+
+	static List<String> syllableMatch(AbstractMatcher matcher, String[] syllables, boolean reverse, boolean longest) {
+		List<String> result = new ArrayList<String>();
+		int pos = reverse ? syllables.length : 0;
+		while (reverse ? pos > 0 : pos < syllables.length) {
+			int max = Math.min(MAX, reverse ? pos : syllables.length - pos);
+			int len = 0;
+			for (int l = 1; l <= max; l++) {
+				if (accept(matcher, syllables, reverse ? pos - l : pos, l)) {
+					len = l;
+					if (!longest)
+						break;
+				}
+			}
+			if (len == 0)
+				len = 1;
+			if (reverse) {
+				result.add(0, matcher.word(syllables, pos - len, len));
+				pos -= len;
+			} else {
+				result.add(matcher.word(syllables, pos, len));
+				pos += len;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * 把词典中的词随机切成音节，再混入数字、英文、空白音节
+	 */
+	static String[] randomSyllables(Random random, String[] keys, int words, String separator) {
+		String[] noise = { "12", "3", ".5", "ab", "c", " ", "", "๑", "-" };
+		List<String> syllables = new ArrayList<String>();
+		for (int i = 0; i < words; i++) {
+			if (random.nextInt(4) == 0) {
+				syllables.add(noise[random.nextInt(noise.length)]);
+				continue;
+			}
+			String key = keys[random.nextInt(keys.length)];
+			if (key == null)
+				continue;
+			if (separator.length() > 0) {
+				for (String syllable : key.split(separator)) {
+					syllables.add(syllable);
+				}
+				continue;
+			}
+			for (int b = 0; b < key.length();) {
+				int e = Math.min(key.length(), b + 1 + random.nextInt(3));
+				syllables.add(key.substring(b, e));
+				b = e;
+			}
+		}
+		return syllables.toArray(new String[syllables.size()]);
+	}
+
+	public void testSyllableMatchersAgreeWithLookups() {
+		checkSyllables(ThaiCoreDictionary.getThaiDictionary().dictionaryTrie, "");
+		checkSyllables(VietnameseCoreDictionary.getVietnameseDictionary().dictionaryTrie, " ");
+	}
+
+	private void checkSyllables(DATrie<?> dict, String separator) {
+		String[] keys = dict.keyArray();
+		AbstractMatcher max = new MaximumMatcher(dict, separator);
+		AbstractMatcher min = new MinimumMatcher(dict, separator);
+		AbstractMatcher revMax = new ReverseMaximumMatcher(dict, separator);
+		AbstractMatcher revMin = new ReverseMinimumMatcher(dict, separator);
+		Random random = new Random(11);
+		for (int n = 0; n < 200; n++) {
+			String[] syllables = randomSyllables(random, keys, 1 + random.nextInt(10), separator);
+			assertEquals(syllableMatch(max, syllables, false, true), words(max, syllables));
+			assertEquals(syllableMatch(min, syllables, false, false), words(min, syllables));
+			assertEquals(syllableMatch(revMax, syllables, true, true), words(revMax, syllables));
+			assertEquals(syllableMatch(revMin, syllables, true, false), words(revMin, syllables));
+		}
+	}
+
+	static List<String> words(Matcher matcher, String[] syllables) {
+		List<String> result = new ArrayList<String>();
+		for (Term term : matcher.segment(syllables)) {
+			result.add(term.getWord());
+		}
+		return result;
+	}
+
+}